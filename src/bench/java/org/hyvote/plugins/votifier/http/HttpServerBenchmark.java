@@ -0,0 +1,240 @@
+package org.hyvote.plugins.votifier.http;
+
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.hyvote.plugins.votifier.HttpServerConfig;
+import org.hyvote.plugins.votifier.HytaleVotifierPlugin;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the two fallback HTTP server engines on keep-alive vote requests.
+ *
+ * <p>"jdk" is {@link HttpServer} set up like {@link FallbackHttpServer} (virtual thread per
+ * request) with {@code sun.net.httpserver.nodelay=true}, so responses are not held back by Nagle's
+ * algorithm. "nio" is {@link NioHttpServer} with two event loops. Both run the same handler, which
+ * reads a vote-sized POST body and answers with the "vote processed" body, so the numbers cover
+ * HTTP parsing, I/O and thread hand-off only, not vote decryption or dispatch.</p>
+ *
+ * <p>Each client thread keeps one connection open and sends one request at a time. Each run reports
+ * requests per second and the median and 99th percentile round trip.</p>
+ *
+ * <p>The engines run without a loaded plugin: the plugin instance is allocated without running its
+ * constructor, so no allowlist or trusted proxies are configured.</p>
+ *
+ * <p>Usage: {@code HttpServerBenchmark [seconds] [connections...]} (default 5 seconds per run at
+ * 1, 16 and 64 connections).</p>
+ */
+public final class HttpServerBenchmark {
+
+    private static final String PATH = "/Hyvote/HytaleVotifier/vote";
+    private static final int WARMUP_SECONDS = 2;
+    private static final int MAX_SAMPLES_PER_CLIENT = 1 << 20;
+
+    /** A V1 vote is a 256-byte RSA block, Base64-encoded. */
+    private static final byte[] REQUEST = request(new String(new char[344]).replace('\0', 'A'));
+
+    private HttpServerBenchmark() {
+        // Utility class
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Read once when the JDK server first starts, so it must be set before that
+        System.setProperty("sun.net.httpserver.nodelay", System.getProperty("sun.net.httpserver.nodelay", "true"));
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int[] connections = args.length > 1
+                ? Arrays.stream(args, 1, args.length).mapToInt(Integer::parseInt).toArray()
+                : new int[]{1, 16, 64};
+
+        HytaleVotifierPlugin plugin = unloadedPlugin();
+        HttpHandler handler = exchange -> {
+            try (InputStream body = exchange.getRequestBody()) {
+                body.readAllBytes();
+            }
+            byte[] response = ResponseBodies.voteProcessed("Steve");
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        };
+
+        System.out.printf("%-4s %11s %12s %9s %9s%n", "", "connections", "requests/s", "p50 us", "p99 us");
+        for (int clients : connections) {
+            int port = freePort();
+            HttpServer jdk = HttpServer.create(new InetSocketAddress(port), 128);
+            jdk.createContext(PATH, handler);
+            ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+            jdk.setExecutor(executor);
+            jdk.start();
+            run("jdk", port, clients, seconds);
+            jdk.stop(0);
+            executor.shutdown();
+
+            port = freePort();
+            NioHttpServer nio = new NioHttpServer(plugin, new HttpServerConfig(true, port, "nio", 128, 2, 8192, 30));
+            nio.createContext(PATH, handler, 32 * 1024);
+            nio.start(port);
+            run("nio", port, clients, seconds);
+            nio.stop();
+        }
+    }
+
+    private static void run(String engine, int port, int clients, int seconds) throws Exception {
+        measure(port, clients, WARMUP_SECONDS);
+        long[][] samples = measure(port, clients, seconds);
+
+        int total = 0;
+        for (long[] client : samples) {
+            total += client.length;
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (long[] client : samples) {
+            System.arraycopy(client, 0, all, offset, client.length);
+            offset += client.length;
+        }
+        Arrays.sort(all);
+        System.out.printf("%-4s %11d %12.0f %9.1f %9.1f%n", engine, clients, (double) total / seconds,
+                percentile(all, 0.50) / 1000.0, percentile(all, 0.99) / 1000.0);
+    }
+
+    /**
+     * Runs the clients for the given time.
+     *
+     * @return the round trip times in nanoseconds, per client
+     */
+    private static long[][] measure(int port, int clients, int seconds) throws Exception {
+        long[][] samples = new long[clients][];
+        List<Thread> threads = new ArrayList<>();
+        CountDownLatch ready = new CountDownLatch(clients);
+        CountDownLatch go = new CountDownLatch(1);
+        long[] end = new long[1];
+        Throwable[] failure = new Throwable[1];
+        for (int i = 0; i < clients; i++) {
+            int client = i;
+            Thread thread = new Thread(() -> {
+                long[] times = new long[MAX_SAMPLES_PER_CLIENT];
+                int count = 0;
+                try (Socket socket = new Socket("127.0.0.1", port)) {
+                    socket.setTcpNoDelay(true);
+                    InputStream in = socket.getInputStream();
+                    OutputStream out = socket.getOutputStream();
+                    byte[] buffer = new byte[4096];
+                    ready.countDown();
+                    go.await();
+                    while (count < times.length) {
+                        long start = System.nanoTime();
+                        if (start >= end[0]) {
+                            break;
+                        }
+                        out.write(REQUEST);
+                        readResponse(in, buffer);
+                        times[count++] = System.nanoTime() - start;
+                    }
+                } catch (Throwable t) {
+                    failure[0] = t;
+                    ready.countDown();
+                }
+                samples[client] = Arrays.copyOf(times, count);
+            }, "bench-client-" + i);
+            threads.add(thread);
+            thread.start();
+        }
+        ready.await();
+        end[0] = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        go.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (failure[0] != null) {
+            throw new IllegalStateException("Client failed", failure[0]);
+        }
+        return samples;
+    }
+
+    /**
+     * Reads one response with a Content-Length body and checks that it is a 200.
+     */
+    private static void readResponse(InputStream in, byte[] buffer) throws IOException {
+        int length = 0;
+        int headEnd = -1;
+        while (headEnd < 0) {
+            int read = in.read(buffer, length, buffer.length - length);
+            if (read < 0) {
+                throw new IOException("Connection closed by server");
+            }
+            for (int i = Math.max(3, length); i < length + read; i++) {
+                if (buffer[i] == '\n' && buffer[i - 1] == '\r' && buffer[i - 2] == '\n' && buffer[i - 3] == '\r') {
+                    headEnd = i + 1;
+                    break;
+                }
+            }
+            length += read;
+        }
+        String head = new String(buffer, 0, headEnd, StandardCharsets.ISO_8859_1);
+        if (!head.startsWith("HTTP/1.1 200")) {
+            throw new IOException("Unexpected response: " + head.lines().findFirst().orElse(""));
+        }
+        int contentLength = 0;
+        for (String line : head.split("\r\n")) {
+            if (line.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+                contentLength = Integer.parseInt(line.substring(15).trim());
+            }
+        }
+        int remaining = contentLength - (length - headEnd);
+        while (remaining > 0) {
+            int read = in.read(buffer, 0, Math.min(buffer.length, remaining));
+            if (read < 0) {
+                throw new IOException("Connection closed by server");
+            }
+            remaining -= read;
+        }
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.ceil(sorted.length * fraction) - 1];
+    }
+
+    private static byte[] request(String body) {
+        return ("POST " + PATH + " HTTP/1.1\r\n"
+                + "Host: 127.0.0.1\r\n"
+                + "Content-Type: text/plain\r\n"
+                + "Content-Length: " + body.length() + "\r\n"
+                + "\r\n"
+                + body).getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /**
+     * Allocates a plugin instance without running its constructor, which needs a running server.
+     * Its allowlist, trusted proxies and configuration are all unset.
+     */
+    static HytaleVotifierPlugin unloadedPlugin() throws ReflectiveOperationException {
+        Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+        Field field = unsafeClass.getDeclaredField("theUnsafe");
+        field.setAccessible(true);
+        Object unsafe = field.get(null);
+        return (HytaleVotifierPlugin) unsafeClass.getMethod("allocateInstance", Class.class)
+                .invoke(unsafe, HytaleVotifierPlugin.class);
+    }
+}
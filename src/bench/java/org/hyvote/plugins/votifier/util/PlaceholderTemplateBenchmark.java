@@ -0,0 +1,87 @@
+package org.hyvote.plugins.votifier.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Compares placeholder rendering before and after templates were compiled at config load.
+ *
+ * <p>"regex" is the previous per-vote path: a {@link Map} of values and a regex pass with
+ * {@link PlaceholderUtil#replacePlaceholders(String, Map)}. "compiled" renders a
+ * {@link PlaceholderTemplate} compiled once up front. Each case reports the mean time and the
+ * bytes allocated per render on the benchmark thread.</p>
+ *
+ * <p>Usage: {@code PlaceholderTemplateBenchmark [iterations]} (default 2,000,000 per round).</p>
+ */
+public final class PlaceholderTemplateBenchmark {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 5;
+
+    private static final String[] TEMPLATES = {
+            "<orange>{username}</orange> <gray>voted on</gray> <orange>{from}</orange><gray>!</gray>",
+            "give {username} Diamond 5",
+            "eco give {username} 100 --reason \"vote on {from}\" --notify {username}"
+    };
+
+    private static final String[] USERNAMES = {"Steve", "Alex_the_Builder", "xX_Voter_Xx", "Notch"};
+    private static final String[] SERVICES = {"HytaleServers.net", "TopG", "hytale-list.com"};
+
+    /** Sink that keeps rendered strings observable so the JIT cannot drop the work. */
+    private static long sink;
+
+    private PlaceholderTemplateBenchmark() {
+        // Utility class
+    }
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        for (String template : TEMPLATES) {
+            PlaceholderTemplate compiled = PlaceholderUtil.compileVoteTemplate(template);
+            IntFunction<String> regex = i -> PlaceholderUtil.replacePlaceholders(template, Map.of(
+                    "username", USERNAMES[i & 3], "from", SERVICES[i % 3]));
+            IntFunction<String> render = i -> compiled.render(USERNAMES[i & 3], SERVICES[i % 3]);
+
+            if (!regex.apply(1).equals(render.apply(1))) {
+                throw new IllegalStateException("Renderers disagree for template: " + template);
+            }
+
+            System.out.println(template);
+            run("regex", regex, iterations, threads);
+            run("compiled", render, iterations, threads);
+        }
+        System.out.println("(sink " + sink + ")");
+    }
+
+    private static void run(String name, IntFunction<String> renderer, int iterations,
+                            com.sun.management.ThreadMXBean threads) {
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            measure(renderer, iterations);
+        }
+
+        long threadId = Thread.currentThread().threadId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long nanos = 0;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            nanos += measure(renderer, iterations);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        long operations = (long) iterations * MEASURED_ROUNDS;
+        System.out.printf("  %-9s %8.1f ns/op %8.1f B/op%n", name, (double) nanos / operations,
+                (double) allocated / operations);
+    }
+
+    private static long measure(IntFunction<String> renderer, int iterations) {
+        long start = System.nanoTime();
+        long hash = 0;
+        for (int i = 0; i < iterations; i++) {
+            hash += renderer.apply(i).length();
+        }
+        sink += hash;
+        return System.nanoTime() - start;
+    }
+}
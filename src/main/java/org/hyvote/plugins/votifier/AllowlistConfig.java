@@ -0,0 +1,50 @@
+package org.hyvote.plugins.votifier;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration for the source address allowlist.
+ *
+ * <p>When enabled, connections to the socket server and requests to {@code POST /vote} are only
+ * accepted from the listed IPv4/IPv6 CIDR ranges, and are dropped before any decryption,
+ * signature verification or parsing. Ranges under {@code sites} only apply to votes for that
+ * service name; {@code ranges} apply to every voting site.</p>
+ *
+ * @param enabled Whether the allowlist is enforced (default false)
+ * @param ranges  CIDR ranges allowed for every voting site, e.g. "203.0.113.0/24" or "2001:db8::/32"
+ * @param sites   Map of service names (case-insensitive) to the CIDR ranges allowed for that site
+ */
+public record AllowlistConfig(
+        boolean enabled,
+        List<String> ranges,
+        Map<String, List<String>> sites
+) {
+
+    /**
+     * Returns an AllowlistConfig with default values.
+     *
+     * @return default allowlist configuration (disabled, no ranges)
+     */
+    public static AllowlistConfig defaults() {
+        return new AllowlistConfig(
+                false,
+                List.of(),
+                Map.of()
+        );
+    }
+
+    /**
+     * Merges this config with defaults, using default values for any null fields.
+     *
+     * @param defaults the default configuration to fall back to for null fields
+     * @return a new AllowlistConfig with null fields replaced by defaults
+     */
+    public AllowlistConfig merge(AllowlistConfig defaults) {
+        return new AllowlistConfig(
+                this.enabled,
+                this.ranges != null ? this.ranges : defaults.ranges(),
+                this.sites != null ? this.sites : defaults.sites()
+        );
+    }
+}
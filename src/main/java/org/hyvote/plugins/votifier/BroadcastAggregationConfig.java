@@ -0,0 +1,70 @@
+package org.hyvote.plugins.votifier;
+
+/**
+ * Configuration for collapsing bursts of vote broadcasts into combined announcements.
+ *
+ * <p>When enabled, votes are buffered per voting site for {@code windowMillis} after the
+ * first vote arrives, then announced with a single message naming every voter. A window
+ * that only received one vote uses the regular broadcast message.</p>
+ *
+ * <p>Available placeholders in {@code message} and {@code overflowMessage}:</p>
+ * <ul>
+ *   <li>{@code {players}} - The names of the voters, joined with the separators below</li>
+ *   <li>{@code {others}} - The number of voters not listed by name (overflow message only)</li>
+ *   <li>{@code {count}} - The total number of voters in the window</li>
+ *   <li>{@code {from}} - The name of the voting site</li>
+ * </ul>
+ *
+ * @param enabled         Whether to aggregate vote broadcasts (default false)
+ * @param windowMillis    How long (in milliseconds) to collect votes before announcing them (default 5000)
+ * @param maxNames        Maximum number of names listed before switching to the overflow message (default 5)
+ * @param message         The combined message when every voter is listed by name
+ * @param overflowMessage The combined message when more than {@code maxNames} players voted
+ * @param separator       Text placed between listed names (default ", ")
+ * @param lastSeparator   Text placed before the last listed name (default " and ")
+ */
+public record BroadcastAggregationConfig(
+        boolean enabled,
+        Integer windowMillis,
+        Integer maxNames,
+        String message,
+        String overflowMessage,
+        String separator,
+        String lastSeparator
+) {
+
+    /**
+     * Returns a BroadcastAggregationConfig with default values.
+     *
+     * @return default aggregation configuration
+     */
+    public static BroadcastAggregationConfig defaults() {
+        return new BroadcastAggregationConfig(
+                false,
+                5000,
+                5,
+                "<orange>{players}</orange> <gray>voted on</gray> <orange>{from}</orange><gray>!</gray>",
+                "<orange>{players}</orange> <gray>and</gray> <orange>{others}</orange> <gray>others voted on</gray> <orange>{from}</orange><gray>!</gray>",
+                ", ",
+                " and "
+        );
+    }
+
+    /**
+     * Merges this config with defaults, using default values for any null fields.
+     *
+     * @param defaults the default configuration to fall back to for null fields
+     * @return a new BroadcastAggregationConfig with null fields replaced by defaults
+     */
+    public BroadcastAggregationConfig merge(BroadcastAggregationConfig defaults) {
+        return new BroadcastAggregationConfig(
+                this.enabled,
+                this.windowMillis != null ? this.windowMillis : defaults.windowMillis(),
+                this.maxNames != null ? this.maxNames : defaults.maxNames(),
+                this.message != null ? this.message : defaults.message(),
+                this.overflowMessage != null ? this.overflowMessage : defaults.overflowMessage(),
+                this.separator != null ? this.separator : defaults.separator(),
+                this.lastSeparator != null ? this.lastSeparator : defaults.lastSeparator()
+        );
+    }
+}
@@ -1,5 +1,7 @@
 package org.hyvote.plugins.votifier;
 
+import java.util.List;
+
 /**
  * Configuration for server-wide vote broadcast announcements.
  *
@@ -9,12 +11,26 @@ package org.hyvote.plugins.votifier;
  *   <li>{@code {username}} - The username of the player who voted</li>
  * </ul>
  *
- * @param enabled Whether to broadcast vote announcements to all online players (default false)
- * @param message The broadcast message with TaleMessage formatting and placeholders
+ * <p>Broadcasts are delivered per world on each world's thread. The audience can be limited
+ * to players with a permission, to specific worlds, and players may opt out with
+ * {@code /votebroadcasts} when {@code allowOptOut} is enabled.</p>
+ *
+ * @param enabled              Whether to broadcast vote announcements to all online players (default false)
+ * @param message              The broadcast message with TaleMessage formatting and placeholders
+ * @param permission           Permission required to receive broadcasts; empty for everyone (default "")
+ * @param worlds               Names of the worlds to broadcast in; empty for all worlds (default empty)
+ * @param allowOptOut          Whether players can opt out of broadcasts with /votebroadcasts (default false)
+ * @param audienceCacheSeconds How long (in seconds) a player's permission and opt-out check is reused (default 30)
+ * @param aggregation          Configuration for collapsing vote bursts into combined announcements
  */
 public record BroadcastConfig(
         boolean enabled,
-        String message
+        String message,
+        String permission,
+        List<String> worlds,
+        Boolean allowOptOut,
+        Integer audienceCacheSeconds,
+        BroadcastAggregationConfig aggregation
 ) {
 
     /**
@@ -25,7 +41,12 @@ public record BroadcastConfig(
     public static BroadcastConfig defaults() {
         return new BroadcastConfig(
                 false,
-                "<orange>{username}</orange> <gray>voted on</gray> <orange>{from}</orange><gray>!</gray>"
+                "<orange>{username}</orange> <gray>voted on</gray> <orange>{from}</orange><gray>!</gray>",
+                "",
+                List.of(),
+                false,
+                30,
+                BroadcastAggregationConfig.defaults()
         );
     }
 
@@ -38,7 +59,12 @@ public record BroadcastConfig(
     public BroadcastConfig merge(BroadcastConfig defaults) {
         return new BroadcastConfig(
                 this.enabled,
-                this.message != null ? this.message : defaults.message()
+                this.message != null ? this.message : defaults.message(),
+                this.permission != null ? this.permission : defaults.permission(),
+                this.worlds != null ? this.worlds : defaults.worlds(),
+                this.allowOptOut != null ? this.allowOptOut : defaults.allowOptOut(),
+                this.audienceCacheSeconds != null ? this.audienceCacheSeconds : defaults.audienceCacheSeconds(),
+                this.aggregation != null ? this.aggregation.merge(defaults.aggregation()) : defaults.aggregation()
         );
     }
 }
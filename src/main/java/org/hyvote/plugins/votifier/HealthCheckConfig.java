@@ -0,0 +1,42 @@
+package org.hyvote.plugins.votifier;
+
+/**
+ * Configuration for the deep health variant of the status endpoint.
+ *
+ * <p>When enabled, {@code GET /status?deep=true} reports storage, queue and load shedding health
+ * in addition to the regular status. The report is rebuilt in the background every
+ * {@code refreshSeconds}, so a probe never waits for storage or touches the vote path.</p>
+ *
+ * @param enabled           Whether {@code ?deep=true} returns the health report (default false)
+ * @param refreshSeconds    How often the health report is rebuilt (default 5)
+ * @param slowStorageMillis A storage probe slower than this marks storage as slow (default 250)
+ */
+public record HealthCheckConfig(
+        boolean enabled,
+        Integer refreshSeconds,
+        Integer slowStorageMillis
+) {
+
+    /**
+     * Returns a HealthCheckConfig with default values.
+     *
+     * @return default configuration (disabled)
+     */
+    public static HealthCheckConfig defaults() {
+        return new HealthCheckConfig(false, 5, 250);
+    }
+
+    /**
+     * Merges this config with defaults, using default values for any null fields.
+     *
+     * @param defaults the default configuration to fall back to for null fields
+     * @return a new HealthCheckConfig with null fields replaced by defaults
+     */
+    public HealthCheckConfig merge(HealthCheckConfig defaults) {
+        return new HealthCheckConfig(
+                this.enabled,
+                this.refreshSeconds != null && this.refreshSeconds > 0 ? this.refreshSeconds : defaults.refreshSeconds(),
+                this.slowStorageMillis != null && this.slowStorageMillis > 0 ? this.slowStorageMillis : defaults.slowStorageMillis()
+        );
+    }
+}
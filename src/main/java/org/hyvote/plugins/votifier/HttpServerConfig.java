@@ -4,12 +4,27 @@ package org.hyvote.plugins.votifier;
  * Configuration for the fallback HTTP server.
  *
  * <p>The fallback HTTP server is used when the Nitrado:WebServer plugin is not available.
- * It provides the same /vote and /status endpoints using Java's built-in HttpServer.</p>
+ * It provides the same /vote and /status endpoints using Java's built-in HttpServer, or
+ * with {@code engine} set to "nio", a lightweight HTTP/1.1 server running on a fixed set of
+ * event loops with keep-alive, pipelining and strict request limits.</p>
  *
- * @param enabled Whether the fallback HTTP server is enabled (default true)
- * @param port    The port to listen on (default 8080)
+ * @param enabled            Whether the fallback HTTP server is enabled (default true)
+ * @param port               The port to listen on (default 8080)
+ * @param engine             The HTTP server implementation: "jdk" or "nio" (default "jdk")
+ * @param backlog            Maximum number of pending connections (default 128)
+ * @param eventLoops         Number of event loop threads of the nio engine (default 2)
+ * @param maxHeaderBytes     Maximum size of the request line and headers for the nio engine (default 8192)
+ * @param idleTimeoutSeconds How long the nio engine keeps an idle connection open (default 30)
  */
-public record HttpServerConfig(boolean enabled, int port) {
+public record HttpServerConfig(
+        boolean enabled,
+        int port,
+        String engine,
+        Integer backlog,
+        Integer eventLoops,
+        Integer maxHeaderBytes,
+        Integer idleTimeoutSeconds
+) {
 
     /**
      * Default port for the fallback HTTP server.
@@ -19,10 +34,10 @@ public record HttpServerConfig(boolean enabled, int port) {
     /**
      * Returns an HttpServerConfig with default values.
      *
-     * @return default configuration (enabled, port 8080)
+     * @return default configuration (enabled, port 8080, JDK engine)
      */
     public static HttpServerConfig defaults() {
-        return new HttpServerConfig(true, DEFAULT_PORT);
+        return new HttpServerConfig(true, DEFAULT_PORT, "jdk", 128, 2, 8192, 30);
     }
 
     /**
@@ -34,7 +49,21 @@ public record HttpServerConfig(boolean enabled, int port) {
     public HttpServerConfig merge(HttpServerConfig defaults) {
         return new HttpServerConfig(
                 this.enabled,
-                this.port > 0 ? this.port : defaults.port()
+                this.port > 0 ? this.port : defaults.port(),
+                this.engine != null ? this.engine : defaults.engine(),
+                this.backlog != null && this.backlog > 0 ? this.backlog : defaults.backlog(),
+                this.eventLoops != null && this.eventLoops > 0 ? this.eventLoops : defaults.eventLoops(),
+                this.maxHeaderBytes != null && this.maxHeaderBytes > 0 ? this.maxHeaderBytes : defaults.maxHeaderBytes(),
+                this.idleTimeoutSeconds != null && this.idleTimeoutSeconds > 0 ? this.idleTimeoutSeconds : defaults.idleTimeoutSeconds()
         );
     }
+
+    /**
+     * Returns whether the NIO engine is used instead of the JDK HttpServer.
+     *
+     * @return true if {@code engine} is "nio"
+     */
+    public boolean usesNioEngine() {
+        return "nio".equalsIgnoreCase(engine);
+    }
 }
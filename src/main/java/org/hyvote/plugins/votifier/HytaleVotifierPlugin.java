@@ -7,19 +7,42 @@ import com.hypixel.hytale.server.core.plugin.JavaPlugin;
 import com.hypixel.hytale.server.core.plugin.JavaPluginInit;
 import com.hypixel.hytale.server.core.plugin.PluginManager;
 import org.hyvote.plugins.votifier.command.TestVoteCommand;
+import org.hyvote.plugins.votifier.command.VoteBroadcastsCommand;
 import org.hyvote.plugins.votifier.command.VoteCommand;
+import org.hyvote.plugins.votifier.command.VotifierCommand;
 import org.hyvote.plugins.votifier.crypto.RSAKeyManager;
 import org.hyvote.plugins.votifier.http.FallbackHttpServer;
 import org.hyvote.plugins.votifier.http.NitradoWebServerBridge;
+import org.hyvote.plugins.votifier.http.StatusEndpoint;
+import org.hyvote.plugins.votifier.http.VoteProcessor;
+import org.hyvote.plugins.votifier.inbox.VoteInbox;
+import org.hyvote.plugins.votifier.journal.VoteJournal;
+import org.hyvote.plugins.votifier.metrics.VotifierMetrics;
 import org.hyvote.plugins.votifier.reminder.VoteReminderService;
 import org.hyvote.plugins.votifier.reminder.VoteTracker;
+import org.hyvote.plugins.votifier.reward.CompiledReward;
+import org.hyvote.plugins.votifier.reward.CompiledRewardTable;
+import org.hyvote.plugins.votifier.reward.RewardRules;
+import org.hyvote.plugins.votifier.reward.RewardScheduler;
+import org.hyvote.plugins.votifier.security.SourceAllowlist;
+import org.hyvote.plugins.votifier.security.TrustedProxies;
 import org.hyvote.plugins.votifier.socket.VotifierSocketServer;
+import org.hyvote.plugins.votifier.storage.MeteredVoteStorage;
 import org.hyvote.plugins.votifier.storage.StorageException;
 import org.hyvote.plugins.votifier.storage.VoteStorage;
 import org.hyvote.plugins.votifier.storage.VoteStorageFactory;
+import org.hyvote.plugins.votifier.util.BroadcastAggregator;
+import org.hyvote.plugins.votifier.util.BroadcastAudience;
+import org.hyvote.plugins.votifier.util.CompiledTemplates;
 import org.hyvote.plugins.votifier.util.UpdateChecker;
 import org.hyvote.plugins.votifier.util.UpdateNotificationUtil;
+import org.hyvote.plugins.votifier.vote.OverloadDetector;
+import org.hyvote.plugins.votifier.vote.V2ReplayGuard;
+import org.hyvote.plugins.votifier.vote.VoteDeduplicator;
+import org.hyvote.plugins.votifier.vote.VoteQuarantine;
+import org.hyvote.plugins.votifier.vote.VoteRateLimiter;
 import net.nitrado.hytale.plugins.webserver.WebServerPlugin;
+import com.hypixel.hytale.server.core.event.events.player.PlayerDisconnectEvent;
 import com.hypixel.hytale.server.core.event.events.player.PlayerReadyEvent;
 import com.hypixel.hytale.server.core.entity.entities.Player;
 
@@ -30,6 +53,7 @@ import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.logging.Level;
 
 /**
@@ -43,12 +67,30 @@ public class HytaleVotifierPlugin extends JavaPlugin {
 
     private final String pluginVersion;
     private VotifierConfig config;
+    private CompiledTemplates templates;
+    private List<CompiledReward> rewardActions = List.of();
+    private List<CompiledRewardTable> rewardTables = List.of();
+    private RewardRules rewardRules;
+    private RewardScheduler rewardScheduler;
+    private BroadcastAudience broadcastAudience;
+    private BroadcastAggregator broadcastAggregator;
     private RSAKeyManager keyManager;
     private WebServerPlugin webServerPlugin;
     private FallbackHttpServer fallbackHttpServer;
     private VotifierSocketServer socketServer;
     private VoteStorage voteStorage;
     private VoteReminderService voteReminderService;
+    private VoteInbox voteInbox;
+    private VoteJournal voteJournal;
+    private VoteDeduplicator voteDeduplicator;
+    private V2ReplayGuard replayGuard;
+    private OverloadDetector overloadDetector;
+    private VotifierMetrics metrics;
+    private StatusEndpoint statusEndpoint;
+    private VoteRateLimiter voteRateLimiter;
+    private VoteQuarantine voteQuarantine;
+    private SourceAllowlist sourceAllowlist;
+    private TrustedProxies trustedProxies;
     private volatile boolean updateAvailable = false;
     private volatile String latestVersion = null;
 
@@ -81,16 +123,37 @@ public class HytaleVotifierPlugin extends JavaPlugin {
     protected void setup() {
         getLogger().at(Level.INFO).log("HytaleVotifier enabling...");
         loadConfig();
+        compileTemplates();
+        compileRewardActions();
+        initializeRewardScheduler();
+        initializeBroadcasts();
         initializeKeys();
+        initializeVoteJournal();
+        initializeVoteDeduplicator();
+        initializeVoteRateLimiter();
+        initializeReplayProtection();
+        initializeSourceAllowlist();
+        initializeTrustedProxies();
+        initializeLoadShedding();
+        initializeMetrics();
+        statusEndpoint = new StatusEndpoint(this);
         initializeWebServer();
         initializeSocketServer();
+        initializeVoteStorage();
         initializeVoteReminderService();
+        initializeVoteInbox();
         registerCommands();
         registerEventListeners();
         checkForUpdates();
         getLogger().at(Level.INFO).log("HytaleVotifier enabled - debug=%s, keyPath=%s", config.debug(), config.keyPath());
     }
 
+    @Override
+    protected void start() {
+        // Replay once every plugin has finished setup, so their VoteEvent listeners see the votes
+        replayVoteJournal();
+    }
+
     @Override
     protected void shutdown() {
         if (socketServer != null && socketServer.isRunning()) {
@@ -102,9 +165,21 @@ public class HytaleVotifierPlugin extends JavaPlugin {
         if (webServerPlugin != null) {
             NitradoWebServerBridge.unregisterServlets(this, webServerPlugin);
         }
+        if (statusEndpoint != null) {
+            statusEndpoint.shutdown();
+        }
+        if (broadcastAggregator != null) {
+            broadcastAggregator.shutdown();
+        }
+        if (rewardScheduler != null) {
+            rewardScheduler.shutdown();
+        }
         if (voteReminderService != null) {
             voteReminderService.shutdown();
         }
+        if (voteJournal != null) {
+            voteJournal.close();
+        }
         if (voteStorage != null) {
             voteStorage.shutdown();
         }
@@ -120,6 +195,69 @@ public class HytaleVotifierPlugin extends JavaPlugin {
         return config;
     }
 
+    /**
+     * Returns the placeholder templates compiled from the current configuration.
+     *
+     * @return the compiled templates
+     */
+    public CompiledTemplates getTemplates() {
+        return templates;
+    }
+
+    /**
+     * Returns the enabled reward actions compiled from the current configuration.
+     *
+     * @return the compiled reward actions, never null
+     */
+    public List<CompiledReward> getRewardActions() {
+        return rewardActions;
+    }
+
+    /**
+     * Returns the enabled reward tables compiled from the current configuration.
+     *
+     * @return the compiled reward tables, never null
+     */
+    public List<CompiledRewardTable> getRewardTables() {
+        return rewardTables;
+    }
+
+    /**
+     * Returns the reward rules compiled from the current configuration.
+     *
+     * @return the compiled reward rules
+     */
+    public RewardRules getRewardRules() {
+        return rewardRules;
+    }
+
+    /**
+     * Returns the reward command scheduler, if enabled.
+     *
+     * @return the reward scheduler, or null if reward commands run immediately
+     */
+    public RewardScheduler getRewardScheduler() {
+        return rewardScheduler;
+    }
+
+    /**
+     * Returns the broadcast audience, if vote broadcasts are enabled.
+     *
+     * @return the broadcast audience, or null if broadcasts are disabled
+     */
+    public BroadcastAudience getBroadcastAudience() {
+        return broadcastAudience;
+    }
+
+    /**
+     * Returns the broadcast aggregator, if vote broadcast aggregation is enabled.
+     *
+     * @return the broadcast aggregator, or null if broadcasts are sent per vote
+     */
+    public BroadcastAggregator getBroadcastAggregator() {
+        return broadcastAggregator;
+    }
+
     /**
      * Returns the RSA key manager.
      *
@@ -147,6 +285,9 @@ public class HytaleVotifierPlugin extends JavaPlugin {
                 BroadcastConfig mergedBroadcast = loaded.broadcast() != null
                         ? loaded.broadcast().merge(defaults.broadcast())
                         : defaults.broadcast();
+                RewardSchedulerConfig mergedRewardScheduler = loaded.rewardScheduler() != null
+                        ? loaded.rewardScheduler().merge(defaults.rewardScheduler())
+                        : defaults.rewardScheduler();
                 VoteSiteTokenConfig mergedVoteSites = loaded.voteSites() != null
                         ? loaded.voteSites()
                         : defaults.voteSites();
@@ -165,18 +306,62 @@ public class HytaleVotifierPlugin extends JavaPlugin {
                 VoteReminderConfig mergedVoteReminder = loaded.voteReminder() != null
                         ? loaded.voteReminder().merge(defaults.voteReminder())
                         : defaults.voteReminder();
+                VoteInboxConfig mergedVoteInbox = loaded.voteInbox() != null
+                        ? loaded.voteInbox().merge(defaults.voteInbox())
+                        : defaults.voteInbox();
+                VoteJournalConfig mergedVoteJournal = loaded.voteJournal() != null
+                        ? loaded.voteJournal().merge(defaults.voteJournal())
+                        : defaults.voteJournal();
+                VoteDeduplicationConfig mergedDeduplication = loaded.deduplication() != null
+                        ? loaded.deduplication().merge(defaults.deduplication())
+                        : defaults.deduplication();
+                ReplayProtectionConfig mergedReplayProtection = loaded.replayProtection() != null
+                        ? loaded.replayProtection().merge(defaults.replayProtection())
+                        : defaults.replayProtection();
+                AllowlistConfig mergedAllowlist = loaded.allowlist() != null
+                        ? loaded.allowlist().merge(defaults.allowlist())
+                        : defaults.allowlist();
+                ProxyConfig mergedProxy = loaded.proxy() != null
+                        ? loaded.proxy().merge(defaults.proxy())
+                        : defaults.proxy();
+                VoteBatchConfig mergedVoteBatch = loaded.voteBatch() != null
+                        ? loaded.voteBatch().merge(defaults.voteBatch())
+                        : defaults.voteBatch();
+                LoadSheddingConfig mergedLoadShedding = loaded.loadShedding() != null
+                        ? loaded.loadShedding().merge(defaults.loadShedding())
+                        : defaults.loadShedding();
+                HealthCheckConfig mergedHealthCheck = loaded.healthCheck() != null
+                        ? loaded.healthCheck().merge(defaults.healthCheck())
+                        : defaults.healthCheck();
+                MetricsConfig mergedMetrics = loaded.metrics() != null
+                        ? loaded.metrics().merge(defaults.metrics())
+                        : defaults.metrics();
                 this.config = new VotifierConfig(
                         loaded.debug(),
                         loaded.keyPath() != null ? loaded.keyPath() : defaults.keyPath(),
                         mergedVoteMessage,
                         mergedBroadcast,
                         loaded.rewardCommands() != null ? loaded.rewardCommands() : defaults.rewardCommands(),
+                        loaded.rewards() != null ? loaded.rewards() : defaults.rewards(),
+                        loaded.rewardTables() != null ? loaded.rewardTables() : defaults.rewardTables(),
+                        loaded.rewardRules() != null ? loaded.rewardRules() : defaults.rewardRules(),
+                        mergedRewardScheduler,
                         mergedVoteSites,
                         mergedSocket,
                         mergedHttpServer,
                         mergedProtocols,
                         mergedVoteCommand,
-                        mergedVoteReminder
+                        mergedVoteReminder,
+                        mergedVoteInbox,
+                        mergedVoteJournal,
+                        mergedDeduplication,
+                        mergedReplayProtection,
+                        mergedAllowlist,
+                        mergedProxy,
+                        mergedVoteBatch,
+                        mergedLoadShedding,
+                        mergedHealthCheck,
+                        mergedMetrics
                 );
 
                 // Write merged config back to add any new config sections to legacy configs
@@ -198,6 +383,54 @@ public class HytaleVotifierPlugin extends JavaPlugin {
         }
     }
 
+    private void compileTemplates() {
+        this.templates = CompiledTemplates.compile(config);
+        if (config.debug()) {
+            getLogger().at(Level.INFO).log("Compiled message templates (%d reward command template(s))",
+                    templates.rewardCommands().size());
+        }
+    }
+
+    private void compileRewardActions() {
+        this.rewardActions = CompiledReward.compileAll(this, config.rewards(), "rewards");
+        this.rewardTables = CompiledRewardTable.compileAll(this, config.rewardTables());
+        this.rewardRules = RewardRules.compile(this, config.rewardRules());
+        if (config.debug()) {
+            getLogger().at(Level.INFO).log("Compiled %d reward action(s), %d reward table(s) and %d reward rule(s)",
+                    rewardActions.size(), rewardTables.size(),
+                    config.rewardRules() != null ? config.rewardRules().size() : 0);
+        }
+    }
+
+    private void initializeRewardScheduler() {
+        RewardSchedulerConfig schedulerConfig = config.rewardScheduler();
+        if (schedulerConfig == null || !schedulerConfig.enabled()) {
+            return;
+        }
+
+        this.rewardScheduler = new RewardScheduler(this, schedulerConfig);
+        if (config.debug()) {
+            getLogger().at(Level.INFO).log("Reward scheduler enabled (interval=%dms, budget=%dms)",
+                    schedulerConfig.tickIntervalMillis(), schedulerConfig.tickBudgetMillis());
+        }
+    }
+
+    private void initializeBroadcasts() {
+        BroadcastConfig broadcast = config.broadcast();
+        if (broadcast == null || !broadcast.enabled()) {
+            return;
+        }
+
+        this.broadcastAudience = new BroadcastAudience(this, broadcast);
+        if (broadcast.aggregation() == null || !broadcast.aggregation().enabled()) {
+            return;
+        }
+
+        this.broadcastAggregator = new BroadcastAggregator(this, broadcast.aggregation());
+        getLogger().at(Level.INFO).log("Vote broadcast aggregation enabled (window=%dms, maxNames=%d)",
+                broadcast.aggregation().windowMillis(), broadcast.aggregation().maxNames());
+    }
+
     private void initializeKeys() {
         this.keyManager = new RSAKeyManager();
         Path keyDirectory = getDataDirectory().resolve(config.keyPath());
@@ -218,6 +451,124 @@ public class HytaleVotifierPlugin extends JavaPlugin {
         }
     }
 
+    private void initializeVoteJournal() {
+        VoteJournalConfig journalConfig = config.voteJournal();
+        if (journalConfig == null || !journalConfig.enabled()) {
+            return;
+        }
+
+        try {
+            voteJournal = VoteJournal.open(this, getDataDirectory().resolve(journalConfig.directory()), journalConfig);
+            getLogger().at(Level.INFO).log("Vote journal enabled - directory=%s, syncMode=%s, segmentSizeMb=%d",
+                    journalConfig.directory(), journalConfig.syncMode(), journalConfig.segmentSizeMb());
+        } catch (IOException e) {
+            getLogger().at(Level.SEVERE).log("Failed to open vote journal, votes will not be journaled: %s", e.getMessage());
+        }
+    }
+
+    private void initializeVoteDeduplicator() {
+        VoteDeduplicationConfig deduplicationConfig = config.deduplication();
+        if (deduplicationConfig == null || !deduplicationConfig.enabled()) {
+            return;
+        }
+
+        voteDeduplicator = new VoteDeduplicator(deduplicationConfig);
+        getLogger().at(Level.INFO).log("Vote deduplication enabled - windowSeconds=%d, maxEntries=%d",
+                deduplicationConfig.windowSeconds(), deduplicationConfig.maxEntries());
+    }
+
+    private void initializeVoteRateLimiter() {
+        VoteRateLimitConfig rateLimitConfig = config.voteSites() != null ? config.voteSites().rateLimit() : null;
+        if (rateLimitConfig == null || !rateLimitConfig.enabled()) {
+            return;
+        }
+
+        voteRateLimiter = new VoteRateLimiter(rateLimitConfig);
+        if (rateLimitConfig.quarantines()) {
+            voteQuarantine = new VoteQuarantine(this, getDataDirectory().resolve(VoteQuarantine.FILE_NAME),
+                    Math.max(1, rateLimitConfig.quarantineMaxSizeMb()) * 1024L * 1024L);
+        }
+        getLogger().at(Level.INFO).log("Vote rate limits enabled - service=%d/min (burst %d), player=%d/h (burst %d), overLimitAction=%s",
+                rateLimitConfig.serviceVotesPerMinute(), rateLimitConfig.serviceBurst(),
+                rateLimitConfig.playerVotesPerHour(), rateLimitConfig.playerBurst(), rateLimitConfig.overLimitAction());
+    }
+
+    private void initializeReplayProtection() {
+        ReplayProtectionConfig replayConfig = config.replayProtection();
+        if (replayConfig == null || !replayConfig.enabled()) {
+            return;
+        }
+
+        replayGuard = new V2ReplayGuard(replayConfig);
+        getLogger().at(Level.INFO).log("V2 HTTP replay protection enabled - requireChallenge=%s, challengeTtlSeconds=%d, timestampWindowSeconds=%d",
+                replayConfig.requireChallenge(), replayConfig.challengeTtlSeconds(), replayConfig.timestampWindowSeconds());
+    }
+
+    private void initializeLoadShedding() {
+        LoadSheddingConfig sheddingConfig = config.loadShedding();
+        if (sheddingConfig == null || !sheddingConfig.enabled()) {
+            return;
+        }
+
+        overloadDetector = new OverloadDetector(this, sheddingConfig);
+        getLogger().at(Level.INFO).log("Load shedding enabled - maxRewardQueueDepth=%d, maxLatencyMillis=%d",
+                sheddingConfig.maxRewardQueueDepth(), sheddingConfig.maxLatencyMillis());
+    }
+
+    private void initializeMetrics() {
+        // Votes are counted even with the endpoint disabled, so callers never need a null check
+        MetricsConfig metricsConfig = config.metrics() != null ? config.metrics() : MetricsConfig.defaults();
+        metrics = new VotifierMetrics(metricsConfig.maxServiceLabels());
+        if (!metricsConfig.enabled()) {
+            return;
+        }
+
+        getLogger().at(Level.INFO).log("Metrics endpoint enabled - maxServiceLabels=%d", metricsConfig.maxServiceLabels());
+    }
+
+    private void initializeSourceAllowlist() {
+        AllowlistConfig allowlistConfig = config.allowlist();
+        if (allowlistConfig == null || !allowlistConfig.enabled()) {
+            return;
+        }
+
+        sourceAllowlist = SourceAllowlist.compile(this, allowlistConfig);
+        getLogger().at(Level.INFO).log("Source allowlist enabled - %d global range(s), %d site(s) with own ranges",
+                allowlistConfig.ranges().size(), allowlistConfig.sites().size());
+    }
+
+    private void initializeTrustedProxies() {
+        ProxyConfig proxyConfig = config.proxy();
+        if (proxyConfig == null || !proxyConfig.enabled()) {
+            return;
+        }
+
+        trustedProxies = TrustedProxies.compile(this, proxyConfig);
+        getLogger().at(Level.INFO).log("Trusted proxies enabled - %d range(s), proxyProtocol=%s, forwardedFor=%s",
+                proxyConfig.trustedProxies().size(), proxyConfig.proxyProtocol(), proxyConfig.forwardedFor());
+    }
+
+    private void replayVoteJournal() {
+        if (voteJournal == null) {
+            return;
+        }
+
+        // Deliver votes that were acknowledged but not fully processed before the last shutdown
+        List<VoteJournal.JournaledVote> undelivered = voteJournal.recover();
+        if (undelivered.isEmpty()) {
+            return;
+        }
+        getLogger().at(Level.INFO).log("Replaying %d undelivered vote(s) from the vote journal", undelivered.size());
+        for (VoteJournal.JournaledVote journaled : undelivered) {
+            try {
+                VoteProcessor.replayVote(this, journaled);
+            } catch (Exception e) {
+                getLogger().at(Level.WARNING).log("Failed to replay journaled vote for %s: %s",
+                        journaled.vote().username(), e.getMessage());
+            }
+        }
+    }
+
     private void initializeWebServer() {
         // Check if V1 protocol is enabled - HTTP server is only needed for V1
         ProtocolConfig protocols = config.protocols();
@@ -246,7 +597,7 @@ public class HytaleVotifierPlugin extends JavaPlugin {
         }
 
         try {
-            FallbackHttpServer server = new FallbackHttpServer(this, httpConfig.port());
+            FallbackHttpServer server = new FallbackHttpServer(this, httpConfig);
             server.start();
             fallbackHttpServer = server;
         } catch (IOException e) {
@@ -283,23 +634,34 @@ public class HytaleVotifierPlugin extends JavaPlugin {
         }
     }
 
-    private void initializeVoteReminderService() {
+    private void initializeVoteStorage() {
         VoteReminderConfig reminderConfig = config.voteReminder();
-        if (reminderConfig == null || !reminderConfig.enabled()) {
-            getLogger().at(Level.INFO).log("Vote reminder service disabled");
+        boolean remindersEnabled = reminderConfig != null && reminderConfig.enabled();
+        boolean inboxEnabled = config.voteInbox() != null && config.voteInbox().enabled();
+        if (!remindersEnabled && !inboxEnabled && !rewardRules.usesStreak()) {
             return;
         }
 
-        // Initialize vote storage backend
+        // Storage settings live under voteReminder but are also used for the vote inbox and reward rule streaks
         try {
-            voteStorage = VoteStorageFactory.create(
-                    reminderConfig.storage(),
+            voteStorage = new MeteredVoteStorage(VoteStorageFactory.create(
+                    reminderConfig != null ? reminderConfig.storage() : null,
                     getDataDirectory(),
                     getLogger()
-            );
+            ), metrics);
             getLogger().at(Level.INFO).log("Vote storage initialized: type=%s", voteStorage.getType());
         } catch (StorageException e) {
             getLogger().at(Level.SEVERE).log("Failed to initialize vote storage: %s", e.getMessage());
+        }
+    }
+
+    private void initializeVoteReminderService() {
+        VoteReminderConfig reminderConfig = config.voteReminder();
+        if (reminderConfig == null || !reminderConfig.enabled()) {
+            getLogger().at(Level.INFO).log("Vote reminder service disabled");
+            return;
+        }
+        if (voteStorage == null) {
             return;
         }
 
@@ -309,6 +671,17 @@ public class HytaleVotifierPlugin extends JavaPlugin {
                 reminderConfig.sendOnJoin(), reminderConfig.delayInSeconds(), reminderConfig.voteExpiryInterval(), voteStorage.getType());
     }
 
+    private void initializeVoteInbox() {
+        VoteInboxConfig inboxConfig = config.voteInbox();
+        if (inboxConfig == null || !inboxConfig.enabled() || voteStorage == null) {
+            return;
+        }
+
+        voteInbox = new VoteInbox(this, voteStorage, inboxConfig);
+        getLogger().at(Level.INFO).log("Vote inbox enabled - holdRewards=%s, expiryDays=%d, storage=%s",
+                inboxConfig.holdRewards(), inboxConfig.expiryDays(), voteStorage.getType());
+    }
+
     private void registerCommands() {
         TestVoteCommand testVoteCommand = new TestVoteCommand(this);
         getCommandRegistry().registerCommand(testVoteCommand);
@@ -317,11 +690,22 @@ public class HytaleVotifierPlugin extends JavaPlugin {
         VoteCommand voteCommand = new VoteCommand(this);
         getCommandRegistry().registerCommand(voteCommand);
         getLogger().at(Level.INFO).log("Registered /vote command");
+
+        VotifierCommand votifierCommand = new VotifierCommand(this);
+        getCommandRegistry().registerCommand(votifierCommand);
+        getLogger().at(Level.INFO).log("Registered /votifier command");
+
+        if (broadcastAudience != null && Boolean.TRUE.equals(config.broadcast().allowOptOut())) {
+            VoteBroadcastsCommand voteBroadcastsCommand = new VoteBroadcastsCommand(this);
+            getCommandRegistry().registerCommand(voteBroadcastsCommand);
+            getLogger().at(Level.INFO).log("Registered /votebroadcasts command");
+        }
     }
 
     private void registerEventListeners() {
         getEventRegistry().registerGlobal(PlayerReadyEvent.class, this::onPlayerReady);
-        getLogger().at(Level.INFO).log("Registered player ready event listener");
+        getEventRegistry().register(PlayerDisconnectEvent.class, this::onPlayerDisconnect);
+        getLogger().at(Level.INFO).log("Registered player ready and disconnect event listeners");
     }
 
     private void checkForUpdates() {
@@ -337,6 +721,16 @@ public class HytaleVotifierPlugin extends JavaPlugin {
     private void onPlayerReady(PlayerReadyEvent event) {
         Player player = event.getPlayer();
 
+        // Rebuild broadcast audiences to include the new player
+        if (broadcastAudience != null) {
+            broadcastAudience.invalidate();
+        }
+
+        // Deliver votes received while the player was offline
+        if (voteInbox != null) {
+            voteInbox.onPlayerJoin(player);
+        }
+
         // Handle vote reminders for all players
         if (voteReminderService != null) {
             voteReminderService.onPlayerJoin(player);
@@ -356,6 +750,13 @@ public class HytaleVotifierPlugin extends JavaPlugin {
         }
     }
 
+    private void onPlayerDisconnect(PlayerDisconnectEvent event) {
+        // Drop the player from cached broadcast audiences
+        if (broadcastAudience != null) {
+            broadcastAudience.invalidate();
+        }
+    }
+
     /**
      * Returns the current plugin version.
      *
@@ -391,4 +792,112 @@ public class HytaleVotifierPlugin extends JavaPlugin {
     public VoteReminderService getVoteReminderService() {
         return voteReminderService;
     }
+
+    /**
+     * Returns the vote inbox, or null if disabled.
+     *
+     * @return the vote inbox, or null
+     */
+    public VoteInbox getVoteInbox() {
+        return voteInbox;
+    }
+
+    /**
+     * Returns the vote journal, or null if disabled.
+     *
+     * @return the vote journal, or null
+     */
+    public VoteJournal getVoteJournal() {
+        return voteJournal;
+    }
+
+    /**
+     * Returns the duplicate vote filter, or null if disabled.
+     *
+     * @return the vote deduplicator, or null
+     */
+    public VoteDeduplicator getVoteDeduplicator() {
+        return voteDeduplicator;
+    }
+
+    /**
+     * Returns the vote rate limiter, or null if disabled.
+     *
+     * @return the vote rate limiter, or null
+     */
+    public VoteRateLimiter getVoteRateLimiter() {
+        return voteRateLimiter;
+    }
+
+    /**
+     * Returns the quarantine for over-limit votes, or null if over-limit votes are rejected.
+     *
+     * @return the vote quarantine, or null
+     */
+    public VoteQuarantine getVoteQuarantine() {
+        return voteQuarantine;
+    }
+
+    /**
+     * Returns the V2 HTTP replay guard, or null if replay protection is disabled.
+     *
+     * @return the replay guard, or null
+     */
+    public V2ReplayGuard getReplayGuard() {
+        return replayGuard;
+    }
+
+    /**
+     * Returns the overload detector used to shed vote requests, or null if load shedding is disabled.
+     *
+     * @return the overload detector, or null
+     */
+    public OverloadDetector getOverloadDetector() {
+        return overloadDetector;
+    }
+
+    /**
+     * Returns the vote counters and latency histograms served by the metrics endpoint.
+     *
+     * @return the metrics
+     */
+    public VotifierMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the status endpoint with the pre-encoded status body and health report.
+     *
+     * @return the status endpoint
+     */
+    public StatusEndpoint getStatusEndpoint() {
+        return statusEndpoint;
+    }
+
+    /**
+     * Returns the source address allowlist, or null if disabled.
+     *
+     * @return the source allowlist, or null
+     */
+    public SourceAllowlist getSourceAllowlist() {
+        return sourceAllowlist;
+    }
+
+    /**
+     * Returns the trusted proxies used to resolve client addresses, or null if disabled.
+     *
+     * @return the trusted proxies, or null
+     */
+    public TrustedProxies getTrustedProxies() {
+        return trustedProxies;
+    }
+
+    /**
+     * Returns the vote storage backend, if vote reminders or streak-based reward rules are enabled.
+     *
+     * @return the vote storage, or null if votes are not stored
+     */
+    public VoteStorage getVoteStorage() {
+        return voteStorage;
+    }
 }
@@ -0,0 +1,55 @@
+package org.hyvote.plugins.votifier;
+
+/**
+ * Configuration for load shedding on the vote endpoints.
+ *
+ * <p>When the plugin cannot keep up (reward queue backed up, or votes taking too long to
+ * process), new vote requests are answered immediately with
+ * {@code 503 Service Unavailable} and a {@code Retry-After} header, and socket votes with an error
+ * response, instead of queueing behind the backlog until the voting site times out.</p>
+ *
+ * @param enabled               Whether overloaded vote endpoints shed new requests (default false)
+ * @param maxRewardQueueDepth   Shed when more rewards than this are waiting to be executed (default 5000)
+ * @param maxLatencyMillis      Shed when the 95th percentile vote processing time exceeds this (default 2000)
+ * @param latencyWindowSeconds  How far back processing times are considered for the percentile (default 10)
+ * @param maxRetryAfterSeconds  Upper bound of the Retry-After value sent to voting sites (default 60)
+ */
+public record LoadSheddingConfig(
+        boolean enabled,
+        Integer maxRewardQueueDepth,
+        Integer maxLatencyMillis,
+        Integer latencyWindowSeconds,
+        Integer maxRetryAfterSeconds
+) {
+
+    /**
+     * Returns a LoadSheddingConfig with default values.
+     *
+     * @return default configuration (disabled)
+     */
+    public static LoadSheddingConfig defaults() {
+        return new LoadSheddingConfig(
+                false,
+                5000,
+                2000,
+                10,
+                60
+        );
+    }
+
+    /**
+     * Merges this config with defaults, using default values for any null fields.
+     *
+     * @param defaults the default configuration to fall back to for null fields
+     * @return a new LoadSheddingConfig with null fields replaced by defaults
+     */
+    public LoadSheddingConfig merge(LoadSheddingConfig defaults) {
+        return new LoadSheddingConfig(
+                this.enabled,
+                this.maxRewardQueueDepth != null && this.maxRewardQueueDepth > 0 ? this.maxRewardQueueDepth : defaults.maxRewardQueueDepth(),
+                this.maxLatencyMillis != null && this.maxLatencyMillis > 0 ? this.maxLatencyMillis : defaults.maxLatencyMillis(),
+                this.latencyWindowSeconds != null && this.latencyWindowSeconds > 0 ? this.latencyWindowSeconds : defaults.latencyWindowSeconds(),
+                this.maxRetryAfterSeconds != null && this.maxRetryAfterSeconds > 0 ? this.maxRetryAfterSeconds : defaults.maxRetryAfterSeconds()
+        );
+    }
+}
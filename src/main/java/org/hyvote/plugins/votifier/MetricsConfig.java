@@ -0,0 +1,40 @@
+package org.hyvote.plugins.votifier;
+
+/**
+ * Configuration for the Prometheus metrics endpoint.
+ *
+ * <p>When enabled, {@code GET /metrics} returns vote counters and latency histograms in the
+ * Prometheus text format. Votes are counted per voting site up to {@code maxServiceLabels}
+ * distinct sites; further sites are counted as {@code service="other"}, since V1 service names
+ * are not authenticated and could otherwise create an unbounded number of series.</p>
+ *
+ * @param enabled          Whether the metrics endpoint is registered (default false)
+ * @param maxServiceLabels Maximum number of voting sites counted separately (default 64)
+ */
+public record MetricsConfig(
+        boolean enabled,
+        Integer maxServiceLabels
+) {
+
+    /**
+     * Returns a MetricsConfig with default values.
+     *
+     * @return default configuration (disabled)
+     */
+    public static MetricsConfig defaults() {
+        return new MetricsConfig(false, 64);
+    }
+
+    /**
+     * Merges this config with defaults, using default values for any null fields.
+     *
+     * @param defaults the default configuration to fall back to for null fields
+     * @return a new MetricsConfig with null fields replaced by defaults
+     */
+    public MetricsConfig merge(MetricsConfig defaults) {
+        return new MetricsConfig(
+                this.enabled,
+                this.maxServiceLabels != null && this.maxServiceLabels > 0 ? this.maxServiceLabels : defaults.maxServiceLabels()
+        );
+    }
+}
@@ -0,0 +1,54 @@
+package org.hyvote.plugins.votifier;
+
+import java.util.List;
+
+/**
+ * Configuration for running the vote endpoints behind a load balancer or reverse proxy.
+ *
+ * <p>Connections from {@code trustedProxies} carry the real client address: socket connections
+ * must start with a PROXY protocol (v1 or v2) header, and HTTP requests may carry an
+ * {@code X-Forwarded-For} header. Connections from any other address are handled as direct
+ * connections, and their headers are ignored. The resolved client address is used for the
+ * source allowlist and in log messages.</p>
+ *
+ * @param enabled        Whether client addresses are taken from trusted proxies (default false)
+ * @param trustedProxies CIDR ranges of the load balancers or proxies in front of the server
+ * @param proxyProtocol  Whether socket connections from trusted proxies start with a PROXY protocol header (default true)
+ * @param forwardedFor   Whether the X-Forwarded-For header of HTTP requests from trusted proxies is used (default true)
+ */
+public record ProxyConfig(
+        boolean enabled,
+        List<String> trustedProxies,
+        Boolean proxyProtocol,
+        Boolean forwardedFor
+) {
+
+    /**
+     * Returns a ProxyConfig with default values.
+     *
+     * @return default proxy configuration (disabled, no trusted proxies)
+     */
+    public static ProxyConfig defaults() {
+        return new ProxyConfig(
+                false,
+                List.of(),
+                true,
+                true
+        );
+    }
+
+    /**
+     * Merges this config with defaults, using default values for any null fields.
+     *
+     * @param defaults the default configuration to fall back to for null fields
+     * @return a new ProxyConfig with null fields replaced by defaults
+     */
+    public ProxyConfig merge(ProxyConfig defaults) {
+        return new ProxyConfig(
+                this.enabled,
+                this.trustedProxies != null ? this.trustedProxies : defaults.trustedProxies(),
+                this.proxyProtocol != null ? this.proxyProtocol : defaults.proxyProtocol(),
+                this.forwardedFor != null ? this.forwardedFor : defaults.forwardedFor()
+        );
+    }
+}
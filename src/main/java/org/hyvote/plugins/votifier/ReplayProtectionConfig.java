@@ -0,0 +1,55 @@
+package org.hyvote.plugins.votifier;
+
+/**
+ * Configuration for replay protection of V2 votes received over HTTP.
+ *
+ * <p>Voting sites can fetch a short-lived challenge from {@code GET /challenge} and include it
+ * in the signed payload; each challenge is accepted once. Votes without a challenge must carry
+ * a timestamp within {@code timestampWindowSeconds} of the server time, and each signature is
+ * accepted once. Challenges and signatures are remembered in fixed-size caches.</p>
+ *
+ * @param enabled                Whether replay protection is applied to V2 HTTP votes (default false)
+ * @param requireChallenge       Whether V2 HTTP votes must include a challenge (default false)
+ * @param challengeTtlSeconds    How long (in seconds) an issued challenge is valid (default 60)
+ * @param timestampWindowSeconds Maximum difference (in seconds) between a vote's timestamp and the server time for votes without a challenge (default 300)
+ * @param maxEntries             Maximum number of challenges and signatures remembered per window (default 16384)
+ */
+public record ReplayProtectionConfig(
+        boolean enabled,
+        Boolean requireChallenge,
+        Integer challengeTtlSeconds,
+        Integer timestampWindowSeconds,
+        Integer maxEntries
+) {
+
+    /**
+     * Returns a ReplayProtectionConfig with default values.
+     *
+     * @return default replay protection configuration
+     */
+    public static ReplayProtectionConfig defaults() {
+        return new ReplayProtectionConfig(
+                false,
+                false,
+                60,
+                300,
+                16384
+        );
+    }
+
+    /**
+     * Merges this config with defaults, using default values for any null fields.
+     *
+     * @param defaults the default configuration to fall back to for null fields
+     * @return a new ReplayProtectionConfig with null fields replaced by defaults
+     */
+    public ReplayProtectionConfig merge(ReplayProtectionConfig defaults) {
+        return new ReplayProtectionConfig(
+                this.enabled,
+                this.requireChallenge != null ? this.requireChallenge : defaults.requireChallenge(),
+                this.challengeTtlSeconds != null ? this.challengeTtlSeconds : defaults.challengeTtlSeconds(),
+                this.timestampWindowSeconds != null ? this.timestampWindowSeconds : defaults.timestampWindowSeconds(),
+                this.maxEntries != null ? this.maxEntries : defaults.maxEntries()
+        );
+    }
+}
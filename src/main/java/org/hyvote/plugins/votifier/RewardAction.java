@@ -0,0 +1,48 @@
+package org.hyvote.plugins.votifier;
+
+/**
+ * Configuration for a typed reward action executed when a vote is received.
+ *
+ * <p>Unlike {@link RewardCommand}, common rewards run directly against the server API
+ * instead of being formatted into a console command and parsed on every vote. Supported types:</p>
+ * <ul>
+ *   <li>{@code give_item} - Adds {@code quantity} of {@code item} to the voter's inventory (voter must be online)</li>
+ *   <li>{@code currency} - Fires a {@code VoteRewardEvent} granting {@code amount} of {@code currency},
+ *       for economy plugins to handle</li>
+ *   <li>{@code event} - Fires a {@code VoteRewardEvent} with the name {@code event}, for other plugins to handle</li>
+ *   <li>{@code command} - Runs {@code command} via the server console (supports {username} and {from})</li>
+ * </ul>
+ *
+ * <p>Example configuration:</p>
+ * <pre>
+ * {
+ *   "enabled": true,
+ *   "type": "give_item",
+ *   "item": "Ingredient_Bar_Gold",
+ *   "quantity": 2,
+ *   "chance": 0.25
+ * }
+ * </pre>
+ *
+ * @param enabled  Whether this reward is active. Set to false to disable without removing.
+ * @param type     The action type: "give_item", "currency", "event" or "command"
+ * @param chance   Probability of executing this action (0.0 to 1.0, default 1.0)
+ * @param item     The item ID to give (give_item)
+ * @param quantity The number of items to give (give_item, default 1)
+ * @param currency The currency name to grant (currency)
+ * @param amount   The amount of currency to grant (currency)
+ * @param event    The reward event name (event)
+ * @param command  The command string to execute without leading slash (command)
+ */
+public record RewardAction(
+        boolean enabled,
+        String type,
+        Double chance,
+        String item,
+        Integer quantity,
+        String currency,
+        Double amount,
+        String event,
+        String command
+) {
+}
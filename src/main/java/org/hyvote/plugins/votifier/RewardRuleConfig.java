@@ -0,0 +1,45 @@
+package org.hyvote.plugins.votifier;
+
+import java.util.List;
+
+/**
+ * Configuration for a conditional reward rule.
+ *
+ * <p>A rule grants its rewards only when every configured condition matches the vote.
+ * Conditions left unset (null or empty) always match. Rules are compiled when the
+ * configuration is loaded into a per-voting-site dispatch table, so only rules that can
+ * apply to a vote's site are checked.</p>
+ *
+ * <p>Example configuration:</p>
+ * <pre>
+ * {
+ *   "enabled": true,
+ *   "name": "weekly-streak",
+ *   "services": ["Hyvote"],
+ *   "minStreak": 7,
+ *   "rewards": [ { "enabled": true, "type": "give_item", "item": "Ingredient_Bar_Gold", "quantity": 5 } ]
+ * }
+ * </pre>
+ *
+ * @param enabled   Whether this rule is evaluated. Set to false to disable without removing.
+ * @param name      The rule name, used in logs
+ * @param services  Voting site names ({@code Vote.serviceName}) the rule applies to; empty for all sites
+ * @param groups    Permission groups, any of which the voter must be in; empty for any (requires the voter to be online)
+ * @param online    Whether the voter must be online (true) or offline (false); null for either
+ * @param minStreak Minimum number of consecutive days voted, including today; null for no minimum
+ * @param maxStreak Maximum number of consecutive days voted, including today; null for no maximum
+ * @param stop      Whether to skip the remaining rules when this rule matches (default false)
+ * @param rewards   The reward actions granted when the rule matches
+ */
+public record RewardRuleConfig(
+        boolean enabled,
+        String name,
+        List<String> services,
+        List<String> groups,
+        Boolean online,
+        Integer minStreak,
+        Integer maxStreak,
+        Boolean stop,
+        List<RewardAction> rewards
+) {
+}
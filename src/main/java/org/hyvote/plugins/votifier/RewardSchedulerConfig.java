@@ -0,0 +1,50 @@
+package org.hyvote.plugins.votifier;
+
+/**
+ * Configuration for the tick-budgeted reward command scheduler.
+ *
+ * <p>Reward commands are queued per world and executed on the world's thread. Each tick,
+ * queued commands run until {@code tickBudgetMillis} is used up; the rest carry over to the
+ * next tick, so a burst of votes is spread out instead of stalling the server.</p>
+ *
+ * @param enabled               Whether to queue reward commands on world threads; false runs them immediately (default false)
+ * @param tickIntervalMillis    How often (in milliseconds) queued commands are drained (default 50, one server tick)
+ * @param tickBudgetMillis      Time budget (in milliseconds) for reward commands per world per tick (default 5)
+ * @param reportIntervalSeconds How often (in seconds) scheduler statistics are logged when busy; 0 to disable (default 60)
+ */
+public record RewardSchedulerConfig(
+        boolean enabled,
+        Integer tickIntervalMillis,
+        Integer tickBudgetMillis,
+        Integer reportIntervalSeconds
+) {
+
+    /**
+     * Returns a RewardSchedulerConfig with default values.
+     *
+     * @return default scheduler configuration
+     */
+    public static RewardSchedulerConfig defaults() {
+        return new RewardSchedulerConfig(
+                false,
+                50,
+                5,
+                60
+        );
+    }
+
+    /**
+     * Merges this config with defaults, using default values for any null fields.
+     *
+     * @param defaults the default configuration to fall back to for null fields
+     * @return a new RewardSchedulerConfig with null fields replaced by defaults
+     */
+    public RewardSchedulerConfig merge(RewardSchedulerConfig defaults) {
+        return new RewardSchedulerConfig(
+                this.enabled,
+                this.tickIntervalMillis != null ? this.tickIntervalMillis : defaults.tickIntervalMillis(),
+                this.tickBudgetMillis != null ? this.tickBudgetMillis : defaults.tickBudgetMillis(),
+                this.reportIntervalSeconds != null ? this.reportIntervalSeconds : defaults.reportIntervalSeconds()
+        );
+    }
+}
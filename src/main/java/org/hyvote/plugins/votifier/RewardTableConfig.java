@@ -0,0 +1,45 @@
+package org.hyvote.plugins.votifier;
+
+import java.util.List;
+
+/**
+ * Configuration for a weighted reward table rolled when a vote is received.
+ *
+ * <p>Every reward in {@code guaranteed} is granted on each vote. Each tier is then rolled
+ * independently: a tier activates with its {@code chance} and makes {@code draws} weighted
+ * picks from its entries, where each pick grants exactly one entry. Tables are compiled into
+ * alias tables when the configuration is loaded, so a pick takes constant time regardless
+ * of how many entries a tier has.</p>
+ *
+ * <p>Example configuration:</p>
+ * <pre>
+ * {
+ *   "enabled": true,
+ *   "name": "daily",
+ *   "guaranteed": [ { "enabled": true, "type": "give_item", "item": "Ingredient_Stick" } ],
+ *   "tiers": [
+ *     {
+ *       "name": "bonus",
+ *       "chance": 0.5,
+ *       "draws": 1,
+ *       "entries": [
+ *         { "name": "gold", "weight": 9, "rewards": [ { "enabled": true, "type": "give_item", "item": "Ingredient_Bar_Gold" } ] },
+ *         { "name": "sword", "weight": 1, "rewards": [ { "enabled": true, "type": "event", "event": "rare_sword" } ] }
+ *       ]
+ *     }
+ *   ]
+ * }
+ * </pre>
+ *
+ * @param enabled    Whether this table is rolled on votes. Set to false to disable without removing.
+ * @param name       The table name, used in logs and by /votifier simulate
+ * @param guaranteed Reward actions granted on every vote
+ * @param tiers      Weighted tiers rolled after the guaranteed rewards
+ */
+public record RewardTableConfig(
+        boolean enabled,
+        String name,
+        List<RewardAction> guaranteed,
+        List<RewardTierConfig> tiers
+) {
+}
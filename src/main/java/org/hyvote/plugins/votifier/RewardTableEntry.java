@@ -0,0 +1,20 @@
+package org.hyvote.plugins.votifier;
+
+import java.util.List;
+
+/**
+ * A weighted entry of a {@link RewardTierConfig}.
+ *
+ * <p>An entry is picked with probability {@code weight / totalWeight} of its tier. An entry
+ * with no rewards can be used as an explicit "nothing" outcome.</p>
+ *
+ * @param name    The entry name, used in logs and by /votifier simulate
+ * @param weight  The relative weight of this entry (must not be negative, default 1)
+ * @param rewards The reward actions granted when this entry is picked
+ */
+public record RewardTableEntry(
+        String name,
+        Double weight,
+        List<RewardAction> rewards
+) {
+}
@@ -0,0 +1,19 @@
+package org.hyvote.plugins.votifier;
+
+import java.util.List;
+
+/**
+ * Configuration for one weighted tier of a {@link RewardTableConfig}.
+ *
+ * @param name    The tier name, used in logs and by /votifier simulate
+ * @param chance  Probability that this tier is rolled at all (0.0 to 1.0, default 1.0)
+ * @param draws   Number of weighted picks made when the tier is rolled (default 1)
+ * @param entries The weighted entries; each pick grants exactly one entry
+ */
+public record RewardTierConfig(
+        String name,
+        Double chance,
+        Integer draws,
+        List<RewardTableEntry> entries
+) {
+}
@@ -3,23 +3,44 @@ package org.hyvote.plugins.votifier;
 /**
  * Configuration for the Votifier V2 socket server.
  *
- * @param enabled Whether the socket server is enabled (default true)
- * @param port    The port to listen on (default 8192)
+ * <p>Pipelining is an opt-in extension for high-volume voting sites and relays: a client that
+ * answers the greeting with the line {@code PIPELINE <challenge>} and receives {@code PIPELINE OK}
+ * may send any number of standard 0x733A frames on one connection, each verified against its own
+ * challenge ({@code <challenge>:<frame index>}), and receives one newline-terminated JSON response
+ * per frame. Standard clients are unaffected.</p>
+ *
+ * @param enabled                    Whether the socket server is enabled (default true)
+ * @param port                       The port to listen on (default 8192)
+ * @param pipelining                 Whether clients may send multiple votes per connection (default false)
+ * @param maxPipelinedVotes          Maximum number of votes accepted on one pipelined connection (default 1000)
+ * @param maxPipelinedSessionSeconds Maximum lifetime of one pipelined connection in seconds (default 300)
  */
-public record SocketConfig(boolean enabled, int port) {
+public record SocketConfig(boolean enabled, int port, Boolean pipelining, Integer maxPipelinedVotes,
+                           Integer maxPipelinedSessionSeconds) {
 
     /**
      * Default port for Votifier socket protocol.
      */
     public static final int DEFAULT_PORT = 8192;
 
+    /**
+     * Default maximum number of votes per pipelined connection.
+     */
+    public static final int DEFAULT_MAX_PIPELINED_VOTES = 1000;
+
+    /**
+     * Default maximum lifetime of a pipelined connection, in seconds.
+     */
+    public static final int DEFAULT_MAX_PIPELINED_SESSION_SECONDS = 300;
+
     /**
      * Returns a SocketConfig with default values.
      *
-     * @return default configuration (enabled, port 8192)
+     * @return default configuration (enabled, port 8192, pipelining disabled)
      */
     public static SocketConfig defaults() {
-        return new SocketConfig(true, DEFAULT_PORT);
+        return new SocketConfig(true, DEFAULT_PORT, false, DEFAULT_MAX_PIPELINED_VOTES,
+                DEFAULT_MAX_PIPELINED_SESSION_SECONDS);
     }
 
     /**
@@ -31,7 +52,11 @@ public record SocketConfig(boolean enabled, int port) {
     public SocketConfig merge(SocketConfig defaults) {
         return new SocketConfig(
                 this.enabled,
-                this.port > 0 ? this.port : defaults.port()
+                this.port > 0 ? this.port : defaults.port(),
+                this.pipelining != null ? this.pipelining : defaults.pipelining(),
+                this.maxPipelinedVotes != null && this.maxPipelinedVotes > 0 ? this.maxPipelinedVotes : defaults.maxPipelinedVotes(),
+                this.maxPipelinedSessionSeconds != null && this.maxPipelinedSessionSeconds > 0
+                        ? this.maxPipelinedSessionSeconds : defaults.maxPipelinedSessionSeconds()
         );
     }
 }
@@ -0,0 +1,54 @@
+package org.hyvote.plugins.votifier;
+
+/**
+ * Configuration for the batch vote endpoint ({@code POST /votes/batch}).
+ *
+ * <p>The endpoint accepts many V1 or V2 payloads in one request, as newline-delimited payloads
+ * (NDJSON) or a JSON array, optionally gzip-compressed. Entries are read, verified and dispatched
+ * one at a time as the body streams in, and the response reports a result for each entry.</p>
+ *
+ * @param enabled                    Whether the batch endpoint is enabled (default false)
+ * @param maxEntries                 Maximum number of entries in one request (default 10000)
+ * @param maxBodyBytes               Maximum request body size after decompression, in bytes (default 16 MiB)
+ * @param maxRewardQueueDepth        Reward queue depth above which reading the batch pauses until rewards catch up (default 1000)
+ * @param backpressureTimeoutSeconds How long a paused batch waits for the reward queue before it is aborted (default 30)
+ */
+public record VoteBatchConfig(
+        boolean enabled,
+        Integer maxEntries,
+        Integer maxBodyBytes,
+        Integer maxRewardQueueDepth,
+        Integer backpressureTimeoutSeconds
+) {
+
+    /**
+     * Returns a VoteBatchConfig with default values.
+     *
+     * @return default batch configuration (disabled)
+     */
+    public static VoteBatchConfig defaults() {
+        return new VoteBatchConfig(
+                false,
+                10000,
+                16 * 1024 * 1024,
+                1000,
+                30
+        );
+    }
+
+    /**
+     * Merges this config with defaults, using default values for any null fields.
+     *
+     * @param defaults the default configuration to fall back to for null fields
+     * @return a new VoteBatchConfig with null fields replaced by defaults
+     */
+    public VoteBatchConfig merge(VoteBatchConfig defaults) {
+        return new VoteBatchConfig(
+                this.enabled,
+                this.maxEntries != null ? this.maxEntries : defaults.maxEntries(),
+                this.maxBodyBytes != null ? this.maxBodyBytes : defaults.maxBodyBytes(),
+                this.maxRewardQueueDepth != null ? this.maxRewardQueueDepth : defaults.maxRewardQueueDepth(),
+                this.backpressureTimeoutSeconds != null ? this.backpressureTimeoutSeconds : defaults.backpressureTimeoutSeconds()
+        );
+    }
+}
@@ -0,0 +1,47 @@
+package org.hyvote.plugins.votifier;
+
+/**
+ * Configuration for dropping duplicate votes before they are dispatched.
+ *
+ * <p>Voting sites retry on timeouts and some send the same vote over both the socket and HTTP.
+ * A vote is a duplicate if a vote with the same service name, username and timestamp was
+ * received within the window. Duplicates are still acknowledged to the voting site, but do not
+ * fire events or grant rewards again.</p>
+ *
+ * @param enabled       Whether duplicate votes are dropped (default true)
+ * @param windowSeconds How long (in seconds) a vote is remembered (default 600)
+ * @param maxEntries    Maximum number of votes remembered within the window; sets the fixed memory size (default 16384)
+ */
+public record VoteDeduplicationConfig(
+        boolean enabled,
+        Integer windowSeconds,
+        Integer maxEntries
+) {
+
+    /**
+     * Returns a VoteDeduplicationConfig with default values.
+     *
+     * @return default deduplication configuration
+     */
+    public static VoteDeduplicationConfig defaults() {
+        return new VoteDeduplicationConfig(
+                true,
+                600,
+                16384
+        );
+    }
+
+    /**
+     * Merges this config with defaults, using default values for any null fields.
+     *
+     * @param defaults the default configuration to fall back to for null fields
+     * @return a new VoteDeduplicationConfig with null fields replaced by defaults
+     */
+    public VoteDeduplicationConfig merge(VoteDeduplicationConfig defaults) {
+        return new VoteDeduplicationConfig(
+                this.enabled,
+                this.windowSeconds != null ? this.windowSeconds : defaults.windowSeconds(),
+                this.maxEntries != null ? this.maxEntries : defaults.maxEntries()
+        );
+    }
+}
@@ -0,0 +1,61 @@
+package org.hyvote.plugins.votifier;
+
+/**
+ * Configuration for the offline vote inbox.
+ *
+ * <p>Votes for players who are not online are kept in the vote storage (configured under
+ * {@code voteReminder.storage}) and delivered together when the player next joins: held
+ * rewards are granted and a single combined toast is shown instead of one per vote.</p>
+ *
+ * <p>Supports TaleMessage formatting tags for styled text. Available placeholders:</p>
+ * <ul>
+ *   <li>{@code {username}} - The username of the player who voted</li>
+ *   <li>{@code {count}} - The number of votes received while offline</li>
+ *   <li>{@code {from}} - The names of the voting sites, comma-separated</li>
+ * </ul>
+ *
+ * @param enabled            Whether votes for offline players are held in the inbox (default false)
+ * @param holdRewards        Whether rewards for offline players are held until they join (default true); if false, only the notification is held
+ * @param expiryDays         How many days held votes are kept before being discarded (default 30)
+ * @param titleMessage       The combined toast title with TaleMessage formatting
+ * @param descriptionMessage The combined toast description with TaleMessage formatting and placeholders
+ */
+public record VoteInboxConfig(
+        boolean enabled,
+        Boolean holdRewards,
+        Integer expiryDays,
+        String titleMessage,
+        String descriptionMessage
+) {
+
+    /**
+     * Returns a VoteInboxConfig with default values.
+     *
+     * @return default vote inbox configuration
+     */
+    public static VoteInboxConfig defaults() {
+        return new VoteInboxConfig(
+                false,
+                true,
+                30,
+                "<orange>Welcome back!</orange>",
+                "<gray>You received <orange>{count}</orange> vote(s) from <orange>{from}</orange> while you were away.</gray>"
+        );
+    }
+
+    /**
+     * Merges this config with defaults, using default values for any null fields.
+     *
+     * @param defaults the default configuration to fall back to for null fields
+     * @return a new VoteInboxConfig with null fields replaced by defaults
+     */
+    public VoteInboxConfig merge(VoteInboxConfig defaults) {
+        return new VoteInboxConfig(
+                this.enabled,
+                this.holdRewards != null ? this.holdRewards : defaults.holdRewards(),
+                this.expiryDays != null ? this.expiryDays : defaults.expiryDays(),
+                this.titleMessage != null ? this.titleMessage : defaults.titleMessage(),
+                this.descriptionMessage != null ? this.descriptionMessage : defaults.descriptionMessage()
+        );
+    }
+}
@@ -0,0 +1,64 @@
+package org.hyvote.plugins.votifier;
+
+/**
+ * Configuration for the write-ahead vote journal.
+ *
+ * <p>Accepted votes are appended to the journal before they are acknowledged to the voting
+ * site, and a checkpoint is appended once their rewards have run. Votes without a checkpoint
+ * are replayed on the next startup, so a crash between the acknowledgement and the rewards does
+ * not lose the reward.</p>
+ *
+ * <p>Sync modes:</p>
+ * <ul>
+ *   <li>{@code "group"} - each vote waits for an fsync before it is acknowledged; votes arriving
+ *       while a sync is in progress share the next one (survives power loss)</li>
+ *   <li>{@code "interval"} - votes are acknowledged as soon as they are written to the file and
+ *       the journal is synced every {@code syncIntervalMillis} (survives server crashes; a power
+ *       loss may lose the last interval)</li>
+ * </ul>
+ *
+ * @param enabled            Whether votes are journaled (default false)
+ * @param directory          Journal directory relative to the plugin data directory (default "journal")
+ * @param segmentSizeMb      Size (in megabytes) after which a new journal segment is started (default 16)
+ * @param syncMode           When the journal is synced to disk: "group" or "interval" (default "group")
+ * @param syncIntervalMillis How often (in milliseconds) the journal is synced in "interval" mode (default 50)
+ */
+public record VoteJournalConfig(
+        boolean enabled,
+        String directory,
+        Integer segmentSizeMb,
+        String syncMode,
+        Integer syncIntervalMillis
+) {
+
+    /**
+     * Returns a VoteJournalConfig with default values.
+     *
+     * @return default vote journal configuration
+     */
+    public static VoteJournalConfig defaults() {
+        return new VoteJournalConfig(
+                false,
+                "journal",
+                16,
+                "group",
+                50
+        );
+    }
+
+    /**
+     * Merges this config with defaults, using default values for any null fields.
+     *
+     * @param defaults the default configuration to fall back to for null fields
+     * @return a new VoteJournalConfig with null fields replaced by defaults
+     */
+    public VoteJournalConfig merge(VoteJournalConfig defaults) {
+        return new VoteJournalConfig(
+                this.enabled,
+                this.directory != null ? this.directory : defaults.directory(),
+                this.segmentSizeMb != null ? this.segmentSizeMb : defaults.segmentSizeMb(),
+                this.syncMode != null ? this.syncMode : defaults.syncMode(),
+                this.syncIntervalMillis != null ? this.syncIntervalMillis : defaults.syncIntervalMillis()
+        );
+    }
+}
@@ -0,0 +1,87 @@
+package org.hyvote.plugins.votifier;
+
+import java.util.Map;
+
+/**
+ * Configuration for per-service and per-player vote rate limits.
+ *
+ * <p>Each voting site and each player has a token bucket: a vote takes one token, and tokens
+ * refill at the configured rate up to the burst size. Votes arriving while a bucket is empty are
+ * over the limit and are handled according to {@code overLimitAction}:</p>
+ * <ul>
+ *   <li>{@code "reject"} - the vote is refused and the voting site receives an error</li>
+ *   <li>{@code "quarantine"} - the vote is acknowledged but not dispatched; it is appended to
+ *       {@code quarantine.jsonl} in the plugin data directory for review, until the file reaches
+ *       {@code quarantineMaxSizeMb}; further over-limit votes are counted and dropped</li>
+ * </ul>
+ *
+ * @param enabled               Whether vote rate limits are enforced (default false)
+ * @param serviceVotesPerMinute Sustained votes per minute accepted from each voting site (default 600)
+ * @param serviceBurst          Votes a voting site can send at once before the rate applies (default 300)
+ * @param perService            Map of service names (case-insensitive) to votes per minute, overriding {@code serviceVotesPerMinute}
+ * @param playerVotesPerHour    Sustained votes per hour accepted for each player across all sites (default 10)
+ * @param playerBurst           Votes a player can receive at once before the rate applies (default 10)
+ * @param overLimitAction       What to do with over-limit votes: "reject" or "quarantine" (default "reject")
+ * @param maxTrackedKeys        Maximum number of voting sites and players tracked at once (default 16384)
+ * @param quarantineMaxSizeMb   Maximum size (in megabytes) of the quarantine file (default 16)
+ */
+public record VoteRateLimitConfig(
+        boolean enabled,
+        Integer serviceVotesPerMinute,
+        Integer serviceBurst,
+        Map<String, Integer> perService,
+        Integer playerVotesPerHour,
+        Integer playerBurst,
+        String overLimitAction,
+        Integer maxTrackedKeys,
+        Integer quarantineMaxSizeMb
+) {
+
+    /**
+     * Returns a VoteRateLimitConfig with default values.
+     *
+     * @return default rate limit configuration
+     */
+    public static VoteRateLimitConfig defaults() {
+        return new VoteRateLimitConfig(
+                false,
+                600,
+                300,
+                Map.of(),
+                10,
+                10,
+                "reject",
+                16384,
+                16
+        );
+    }
+
+    /**
+     * Merges this config with defaults, using default values for any null fields.
+     *
+     * @param defaults the default configuration to fall back to for null fields
+     * @return a new VoteRateLimitConfig with null fields replaced by defaults
+     */
+    public VoteRateLimitConfig merge(VoteRateLimitConfig defaults) {
+        return new VoteRateLimitConfig(
+                this.enabled,
+                this.serviceVotesPerMinute != null ? this.serviceVotesPerMinute : defaults.serviceVotesPerMinute(),
+                this.serviceBurst != null ? this.serviceBurst : defaults.serviceBurst(),
+                this.perService != null ? this.perService : defaults.perService(),
+                this.playerVotesPerHour != null ? this.playerVotesPerHour : defaults.playerVotesPerHour(),
+                this.playerBurst != null ? this.playerBurst : defaults.playerBurst(),
+                this.overLimitAction != null ? this.overLimitAction : defaults.overLimitAction(),
+                this.maxTrackedKeys != null ? this.maxTrackedKeys : defaults.maxTrackedKeys(),
+                this.quarantineMaxSizeMb != null ? this.quarantineMaxSizeMb : defaults.quarantineMaxSizeMb()
+        );
+    }
+
+    /**
+     * Returns whether over-limit votes are quarantined instead of rejected.
+     *
+     * @return true if {@code overLimitAction} is "quarantine"
+     */
+    public boolean quarantines() {
+        return "quarantine".equalsIgnoreCase(overLimitAction);
+    }
+}
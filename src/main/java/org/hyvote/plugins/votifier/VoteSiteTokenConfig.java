@@ -10,9 +10,10 @@ import java.util.Map;
  * Maps vote site service names to their shared secret tokens for HMAC-SHA256 verification.
  * Service name lookups are case-insensitive.
  *
- * @param tokens Map of service names (lowercase) to their authentication tokens
+ * @param tokens    Map of service names (lowercase) to their authentication tokens
+ * @param rateLimit Per-service and per-player vote rate limits, applied before votes are dispatched
  */
-public record VoteSiteTokenConfig(Map<String, String> tokens) {
+public record VoteSiteTokenConfig(Map<String, String> tokens, VoteRateLimitConfig rateLimit) {
 
     /**
      * Returns a VoteSiteTokenConfig with default values (empty map).
@@ -20,11 +21,12 @@ public record VoteSiteTokenConfig(Map<String, String> tokens) {
      * @return default configuration with no services configured
      */
     public static VoteSiteTokenConfig defaults() {
-        return new VoteSiteTokenConfig(Collections.emptyMap());
+        return new VoteSiteTokenConfig(Collections.emptyMap(), VoteRateLimitConfig.defaults());
     }
 
     /**
-     * Compact constructor that normalizes service names to lowercase.
+     * Compact constructor that normalizes service names to lowercase and fills in
+     * rate limit defaults for configs written before rate limits existed.
      */
     public VoteSiteTokenConfig {
         if (tokens == null || tokens.isEmpty()) {
@@ -34,6 +36,8 @@ public record VoteSiteTokenConfig(Map<String, String> tokens) {
             tokens.forEach((k, v) -> normalized.put(k.toLowerCase(Locale.ROOT), v));
             tokens = Collections.unmodifiableMap(normalized);
         }
+        VoteRateLimitConfig rateLimitDefaults = VoteRateLimitConfig.defaults();
+        rateLimit = rateLimit != null ? rateLimit.merge(rateLimitDefaults) : rateLimitDefaults;
     }
 
     /**
@@ -10,14 +10,28 @@ import java.util.List;
  * @param voteMessage    Configuration for vote notification toast messages.
  * @param broadcast      Configuration for server-wide vote broadcast announcements.
  * @param rewardCommands Array of commands to execute when a vote is received. Each command has a chance probability.
+ * @param rewards            Array of typed reward actions (give_item, currency, event, command) executed without console command parsing.
+ * @param rewardTables       Array of weighted reward tables with guaranteed rewards and bonus tiers.
+ * @param rewardRules        Array of conditional reward rules matched by voting site, permission group, online status and streak.
+ * @param rewardScheduler    Configuration for the tick-budgeted reward command scheduler.
  * @param voteSites          Configuration for V2 protocol vote site tokens (service name to token mapping).
  * @param socketServer       Configuration for V2 socket server (port and enabled state).
  * @param internalHttpServer Configuration for the internal HTTP server (used when Nitrado:WebServer is unavailable).
  * @param protocols          Configuration for which vote protocols are enabled (V1 and V2).
  * @param voteCommand        Configuration for the /vote command that displays voting site links.
  * @param voteReminder       Configuration for vote reminders sent to players who haven't voted.
+ * @param voteInbox          Configuration for the inbox holding votes for offline players until they join.
+ * @param voteJournal        Configuration for the write-ahead journal that replays undelivered votes after a crash.
+ * @param deduplication      Configuration for dropping votes received more than once over socket and HTTP.
+ * @param replayProtection   Configuration for the V2 HTTP challenge endpoint, timestamp window and nonce cache.
+ * @param allowlist          Configuration for the global and per-site CIDR ranges votes are accepted from.
+ * @param proxy              Configuration for trusted proxies and PROXY protocol / X-Forwarded-For client addresses.
+ * @param voteBatch          Configuration for the batch vote endpoint that accepts many votes per request.
+ * @param loadShedding       Configuration for answering vote requests with 503 and Retry-After while overloaded.
+ * @param healthCheck        Configuration for the deep health report of the status endpoint.
+ * @param metrics            Configuration for the Prometheus metrics endpoint.
  */
-public record VotifierConfig(boolean debug, String keyPath, VoteMessageConfig voteMessage, BroadcastConfig broadcast, List<RewardCommand> rewardCommands, VoteSiteTokenConfig voteSites, SocketConfig socketServer, HttpServerConfig internalHttpServer, ProtocolConfig protocols, VoteCommandConfig voteCommand, VoteReminderConfig voteReminder) {
+public record VotifierConfig(boolean debug, String keyPath, VoteMessageConfig voteMessage, BroadcastConfig broadcast, List<RewardCommand> rewardCommands, List<RewardAction> rewards, List<RewardTableConfig> rewardTables, List<RewardRuleConfig> rewardRules, RewardSchedulerConfig rewardScheduler, VoteSiteTokenConfig voteSites, SocketConfig socketServer, HttpServerConfig internalHttpServer, ProtocolConfig protocols, VoteCommandConfig voteCommand, VoteReminderConfig voteReminder, VoteInboxConfig voteInbox, VoteJournalConfig voteJournal, VoteDeduplicationConfig deduplication, ReplayProtectionConfig replayProtection, AllowlistConfig allowlist, ProxyConfig proxy, VoteBatchConfig voteBatch, LoadSheddingConfig loadShedding, HealthCheckConfig healthCheck, MetricsConfig metrics) {
 
     /**
      * Returns a VotifierConfig with default values.
@@ -28,6 +42,8 @@ public record VotifierConfig(boolean debug, String keyPath, VoteMessageConfig vo
         return new VotifierConfig(false, "keys", VoteMessageConfig.defaults(), BroadcastConfig.defaults(), List.of(
                 new RewardCommand(false, "give {username} Ingredient_Stick", 1.0),
                 new RewardCommand(false, "give {username} Ingredient_Bar_Iron", 0.1)
-        ), VoteSiteTokenConfig.defaults(), SocketConfig.defaults(), HttpServerConfig.defaults(), ProtocolConfig.defaults(), VoteCommandConfig.defaults(), VoteReminderConfig.defaults());
+        ), List.of(
+                new RewardAction(false, "give_item", 1.0, "Ingredient_Stick", 1, null, null, null, null)
+        ), List.of(), List.of(), RewardSchedulerConfig.defaults(), VoteSiteTokenConfig.defaults(), SocketConfig.defaults(), HttpServerConfig.defaults(), ProtocolConfig.defaults(), VoteCommandConfig.defaults(), VoteReminderConfig.defaults(), VoteInboxConfig.defaults(), VoteJournalConfig.defaults(), VoteDeduplicationConfig.defaults(), ReplayProtectionConfig.defaults(), AllowlistConfig.defaults(), ProxyConfig.defaults(), VoteBatchConfig.defaults(), LoadSheddingConfig.defaults(), HealthCheckConfig.defaults(), MetricsConfig.defaults());
     }
 }
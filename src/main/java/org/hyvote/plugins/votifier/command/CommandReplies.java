@@ -0,0 +1,51 @@
+package org.hyvote.plugins.votifier.command;
+
+import com.hypixel.hytale.server.core.Message;
+import com.hypixel.hytale.server.core.command.system.CommandContext;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.Universe;
+import com.hypixel.hytale.server.core.universe.world.World;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Delivers replies of commands that finish after {@code execute} has returned.
+ *
+ * <p>The {@link CommandContext} is not kept for later, since its sender may have left by then.
+ * Only the player's UUID is captured, and the reply is sent on their world thread if they are
+ * still online.</p>
+ */
+final class CommandReplies {
+
+    private CommandReplies() {
+        // Utility class
+    }
+
+    /**
+     * Returns the UUID of the player who ran a command.
+     *
+     * @param context the command context
+     * @return the player's UUID, or null if the command was not run by a player
+     */
+    static UUID playerUuid(CommandContext context) {
+        return context.isPlayer() ? context.sender().getUuid() : null;
+    }
+
+    /**
+     * Sends messages to a player on their world thread, if they are still online.
+     *
+     * @param playerUuid the player's UUID
+     * @param messages   the messages to send, in order
+     */
+    static void sendToPlayer(UUID playerUuid, List<Message> messages) {
+        PlayerRef playerRef = Universe.get().getPlayer(playerUuid);
+        if (playerRef == null || playerRef.getWorldUuid() == null) {
+            return;
+        }
+        World world = Universe.get().getWorld(playerRef.getWorldUuid());
+        if (world != null) {
+            world.execute(() -> messages.forEach(playerRef::sendMessage));
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package org.hyvote.plugins.votifier.command;
+
+import com.hypixel.hytale.server.core.Message;
+import com.hypixel.hytale.server.core.command.system.AbstractCommand;
+import com.hypixel.hytale.server.core.command.system.CommandContext;
+import com.hypixel.hytale.server.core.command.system.arguments.system.DefaultArg;
+import com.hypixel.hytale.server.core.command.system.arguments.types.ArgTypes;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import org.hyvote.plugins.votifier.HytaleVotifierPlugin;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+
+/**
+ * Admin subcommand that records a Java Flight Recorder profile of the server.
+ *
+ * <p>Usage: /votifier profile [seconds]</p>
+ *
+ * <p>Starts a recording with the JDK's {@code profile} settings, which include the plugin's own
+ * vote path events (socket handshake, decryption, signature checks, parsing, event dispatch,
+ * reward commands and storage), and writes it to {@code profiles/} in the plugin data directory
+ * after {@code seconds} (default 30). Only one recording can run at a time.</p>
+ *
+ * <p>The result is logged, and sent to the player who ran the command if they are still online.</p>
+ */
+public class ProfileCommand extends AbstractCommand {
+
+    private static final int DEFAULT_SECONDS = 30;
+    private static final int MAX_SECONDS = 600;
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final HytaleVotifierPlugin plugin;
+    private final DefaultArg<Integer> secondsArg;
+    private final AtomicBoolean recording = new AtomicBoolean();
+
+    /**
+     * Creates a new ProfileCommand.
+     *
+     * @param plugin the HytaleVotifier plugin instance
+     */
+    public ProfileCommand(HytaleVotifierPlugin plugin) {
+        super("profile", "Record a Java Flight Recorder profile of vote processing");
+        this.plugin = plugin;
+
+        requirePermission("votifier.admin.profile");
+
+        this.secondsArg = withDefaultArg("seconds", "votifier.admin.profile.seconds.desc", ArgTypes.INTEGER, DEFAULT_SECONDS, "30");
+    }
+
+    @Override
+    public CompletableFuture<Void> execute(CommandContext context) {
+        int seconds = Math.clamp(context.get(secondsArg), 1, MAX_SECONDS);
+
+        if (!FlightRecorder.isAvailable()) {
+            context.sendMessage(Message.raw("Java Flight Recorder is not available in this JVM"));
+            return CompletableFuture.completedFuture(null);
+        }
+        if (!recording.compareAndSet(false, true)) {
+            context.sendMessage(Message.raw("A profile is already being recorded"));
+            return CompletableFuture.completedFuture(null);
+        }
+
+        Path file = plugin.getDataDirectory().resolve("profiles")
+                .resolve("votifier-" + LocalDateTime.now().format(FILE_TIMESTAMP) + ".jfr");
+        Recording jfr;
+        try {
+            Files.createDirectories(file.getParent());
+            jfr = new Recording(Configuration.getConfiguration("profile"));
+            jfr.setName("HytaleVotifier profile");
+            jfr.setToDisk(true);
+            jfr.start();
+        } catch (Exception e) {
+            recording.set(false);
+            context.sendMessage(Message.raw("Failed to start recording: " + e.getMessage()));
+            plugin.getLogger().at(Level.WARNING).log("Failed to start JFR recording: %s", e.getMessage());
+            return CompletableFuture.completedFuture(null);
+        }
+
+        context.sendMessage(Message.raw("Recording a " + seconds + "s profile to " + file.getFileName()));
+        plugin.getLogger().at(Level.INFO).log("Started %ds JFR recording to %s", seconds, file);
+
+        // The context is not kept: its sender may have left by the time the recording is written
+        UUID playerUuid = CommandReplies.playerUuid(context);
+        CompletableFuture.runAsync(() -> finish(playerUuid, jfr, file),
+                CompletableFuture.delayedExecutor(seconds, TimeUnit.SECONDS));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private void finish(UUID playerUuid, Recording jfr, Path file) {
+        Message result;
+        try (jfr) {
+            jfr.stop();
+            jfr.dump(file);
+            result = Message.raw("Profile written to " + file);
+            plugin.getLogger().at(Level.INFO).log("JFR recording written to %s (%d KiB)", file, Files.size(file) / 1024);
+        } catch (Exception e) {
+            result = Message.raw("Failed to write profile: " + e.getMessage());
+            plugin.getLogger().at(Level.WARNING).log("Failed to write JFR recording to %s: %s", file, e.getMessage());
+        } finally {
+            recording.set(false);
+        }
+        if (playerUuid != null) {
+            CommandReplies.sendToPlayer(playerUuid, List.of(result));
+        }
+    }
+}
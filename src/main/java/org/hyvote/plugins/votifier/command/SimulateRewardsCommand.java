@@ -0,0 +1,162 @@
+package org.hyvote.plugins.votifier.command;
+
+import com.hypixel.hytale.server.core.Message;
+import com.hypixel.hytale.server.core.command.system.AbstractCommand;
+import com.hypixel.hytale.server.core.command.system.CommandContext;
+import com.hypixel.hytale.server.core.command.system.arguments.system.DefaultArg;
+import com.hypixel.hytale.server.core.command.system.arguments.system.RequiredArg;
+import com.hypixel.hytale.server.core.command.system.arguments.types.ArgTypes;
+import org.hyvote.plugins.votifier.HytaleVotifierPlugin;
+import org.hyvote.plugins.votifier.reward.AliasTable;
+import org.hyvote.plugins.votifier.reward.CompiledRewardTable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.stream.Collectors;
+
+/**
+ * Admin subcommand that simulates reward table rolls and compares the observed distribution
+ * with the configured weights.
+ *
+ * <p>Usage: /votifier simulate &lt;table&gt; [draws]</p>
+ *
+ * <p>Rolls the table {@code draws} times (default 1,000,000) without granting anything and
+ * reports, per tier, how often it activated and how often each entry was picked versus its
+ * expected probability, with the chi-squared statistic of the picks.</p>
+ *
+ * <p>Simulations run one at a time on their own thread, which exits once it has been idle for
+ * a minute. The report is sent to the player who ran the command if they are still online,
+ * or logged when run from the console.</p>
+ */
+public class SimulateRewardsCommand extends AbstractCommand {
+
+    private static final int DEFAULT_DRAWS = 1_000_000;
+    private static final int MAX_DRAWS = 100_000_000;
+
+    private final HytaleVotifierPlugin plugin;
+    private final RequiredArg<String> tableArg;
+    private final DefaultArg<Integer> drawsArg;
+    private final ExecutorService executor = new ThreadPoolExecutor(0, 1, 60, TimeUnit.SECONDS,
+            new SynchronousQueue<>(), r -> {
+                Thread t = new Thread(r, "VoteRewardSimulation");
+                t.setDaemon(true);
+                return t;
+            });
+
+    /**
+     * Creates a new SimulateRewardsCommand.
+     *
+     * @param plugin the HytaleVotifier plugin instance
+     */
+    public SimulateRewardsCommand(HytaleVotifierPlugin plugin) {
+        super("simulate", "Simulate reward table draws and check the distribution");
+        this.plugin = plugin;
+
+        requirePermission("votifier.admin.simulate");
+
+        this.tableArg = withRequiredArg("table", "votifier.admin.simulate.table.desc", ArgTypes.STRING);
+        this.drawsArg = withDefaultArg("draws", "votifier.admin.simulate.draws.desc", ArgTypes.INTEGER, DEFAULT_DRAWS, "1000000");
+    }
+
+    @Override
+    public CompletableFuture<Void> execute(CommandContext context) {
+        String tableName = context.get(tableArg);
+        int draws = Math.clamp(context.get(drawsArg), 1, MAX_DRAWS);
+
+        CompiledRewardTable table = plugin.getRewardTables().stream()
+                .filter(t -> t.name().equalsIgnoreCase(tableName))
+                .findFirst()
+                .orElse(null);
+        if (table == null) {
+            String available = plugin.getRewardTables().stream()
+                    .map(CompiledRewardTable::name)
+                    .collect(Collectors.joining(", "));
+            context.sendMessage(Message.raw("Unknown reward table '" + tableName + "'. Enabled tables: "
+                    + (available.isEmpty() ? "none" : available)));
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // Millions of draws take a moment; keep them off the command thread and the common pool
+        UUID playerUuid = CommandReplies.playerUuid(context);
+        try {
+            executor.execute(() -> report(playerUuid, simulate(table, draws)));
+        } catch (RejectedExecutionException e) {
+            context.sendMessage(Message.raw("A simulation is already running"));
+            return CompletableFuture.completedFuture(null);
+        }
+        context.sendMessage(Message.raw("Simulating " + draws + " roll(s) of reward table " + table.name()
+                + " (" + table.guaranteed().size() + " guaranteed reward(s))"));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private void report(UUID playerUuid, List<String> lines) {
+        if (playerUuid != null) {
+            CommandReplies.sendToPlayer(playerUuid, lines.stream().map(Message::raw).toList());
+        } else {
+            lines.forEach(line -> plugin.getLogger().at(Level.INFO).log("%s", line));
+        }
+    }
+
+    private List<String> simulate(CompiledRewardTable table, int rolls) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long start = System.nanoTime();
+        List<String> lines = new ArrayList<>();
+
+        for (CompiledRewardTable.Tier tier : table.tiers()) {
+            AliasTable aliasTable = tier.table();
+            long[] counts = new long[aliasTable.size()];
+            long activations = 0;
+            for (int roll = 0; roll < rolls; roll++) {
+                if (!tier.activates(random)) {
+                    continue;
+                }
+                activations++;
+                for (int draw = 0; draw < tier.draws(); draw++) {
+                    counts[aliasTable.sample(random)]++;
+                }
+            }
+
+            long picks = activations * tier.draws();
+            lines.add(String.format("Tier %s: activated %.3f%% (expected %.3f%%), %d pick(s)",
+                    tier.name(), 100.0 * activations / rolls, 100.0 * tier.chance(), picks));
+            if (picks == 0) {
+                continue;
+            }
+
+            double chiSquared = 0;
+            int degreesOfFreedom = -1;
+            for (int e = 0; e < counts.length; e++) {
+                double expected = aliasTable.expectedProbability(e);
+                lines.add(String.format("  %s: %.3f%% (expected %.3f%%)",
+                        tier.entryNames().get(e), 100.0 * counts[e] / picks, 100.0 * expected));
+                if (expected > 0) {
+                    double expectedCount = expected * picks;
+                    double diff = counts[e] - expectedCount;
+                    chiSquared += diff * diff / expectedCount;
+                    degreesOfFreedom++;
+                }
+            }
+            if (degreesOfFreedom > 0) {
+                lines.add(String.format("  chi-squared %.2f with %d degree(s) of freedom",
+                        chiSquared, degreesOfFreedom));
+            }
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        lines.add("Simulation finished in " + elapsedMillis + "ms");
+        if (plugin.getConfig().debug()) {
+            plugin.getLogger().at(Level.INFO).log("Simulated %d roll(s) of reward table %s in %dms",
+                    rolls, table.name(), elapsedMillis);
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,67 @@
+package org.hyvote.plugins.votifier.command;
+
+import com.hypixel.hytale.server.core.Message;
+import com.hypixel.hytale.server.core.command.system.AbstractCommand;
+import com.hypixel.hytale.server.core.command.system.CommandContext;
+import com.hypixel.hytale.protocol.GameMode;
+import io.github.insideranh.talemessage.TaleMessage;
+import org.hyvote.plugins.votifier.HytaleVotifierPlugin;
+import org.hyvote.plugins.votifier.util.BroadcastAudience;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+
+/**
+ * In-game command for players to opt out of (or back into) vote broadcast announcements.
+ *
+ * <p>Usage: /votebroadcasts</p>
+ *
+ * <p>Only registered when {@code broadcast.allowOptOut} is enabled. Opt-outs last until
+ * the server restarts.</p>
+ */
+public class VoteBroadcastsCommand extends AbstractCommand {
+
+    private static final Message OPTED_OUT_MESSAGE =
+            TaleMessage.parse("<gray>You will no longer see vote announcements. Run this command again to turn them back on.</gray>");
+    private static final Message OPTED_IN_MESSAGE =
+            TaleMessage.parse("<gray>You will see vote announcements again.</gray>");
+    private static final Message PLAYERS_ONLY_MESSAGE =
+            TaleMessage.parse("<gray>Only players can toggle vote announcements.</gray>");
+
+    private final HytaleVotifierPlugin plugin;
+
+    /**
+     * Creates a new VoteBroadcastsCommand.
+     *
+     * @param plugin the HytaleVotifier plugin instance
+     */
+    public VoteBroadcastsCommand(HytaleVotifierPlugin plugin) {
+        super("votebroadcasts", "Toggle vote announcements in chat");
+        this.plugin = plugin;
+
+        requirePermission("votifier.command.votebroadcasts");
+
+        // Grant /votebroadcasts to all gamemode groups by default.
+        setPermissionGroups(Arrays.stream(GameMode.values()).map(GameMode::toString).toArray(String[]::new));
+    }
+
+    @Override
+    public CompletableFuture<Void> execute(CommandContext context) {
+        BroadcastAudience audience = plugin.getBroadcastAudience();
+        if (!context.isPlayer() || audience == null) {
+            context.sendMessage(PLAYERS_ONLY_MESSAGE);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        boolean optedOut = audience.toggleOptOut(context.sender().getUuid());
+        context.sendMessage(optedOut ? OPTED_OUT_MESSAGE : OPTED_IN_MESSAGE);
+
+        if (plugin.getConfig().debug()) {
+            plugin.getLogger().at(Level.INFO).log("%s %s vote broadcasts",
+                    context.sender().getDisplayName(), optedOut ? "opted out of" : "opted back into");
+        }
+
+        return CompletableFuture.completedFuture(null);
+    }
+}
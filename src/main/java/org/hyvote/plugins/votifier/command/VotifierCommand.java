@@ -0,0 +1,28 @@
+package org.hyvote.plugins.votifier.command;
+
+import com.hypixel.hytale.server.core.command.system.basecommands.AbstractCommandCollection;
+import org.hyvote.plugins.votifier.HytaleVotifierPlugin;
+
+/**
+ * Admin command collection for HytaleVotifier.
+ *
+ * <p>Usage: /votifier &lt;subcommand&gt;</p>
+ *
+ * <ul>
+ *   <li>{@code simulate <table> [draws]} - Verify a reward table's distribution</li>
+ *   <li>{@code profile [seconds]} - Record a Java Flight Recorder profile</li>
+ * </ul>
+ */
+public class VotifierCommand extends AbstractCommandCollection {
+
+    /**
+     * Creates a new VotifierCommand with all admin subcommands.
+     *
+     * @param plugin the HytaleVotifier plugin instance
+     */
+    public VotifierCommand(HytaleVotifierPlugin plugin) {
+        super("votifier", "HytaleVotifier admin commands");
+        addSubCommand(new SimulateRewardsCommand(plugin));
+        addSubCommand(new ProfileCommand(plugin));
+    }
+}
@@ -1,9 +1,12 @@
 package org.hyvote.plugins.votifier.crypto;
 
+import org.hyvote.plugins.votifier.jfr.DecryptEvent;
+
 import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
 import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.NoSuchPaddingException;
+import javax.crypto.ShortBufferException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
@@ -39,10 +42,51 @@ public final class CryptoUtil {
      * @throws VoteDecryptionException if decryption fails due to invalid key or corrupted data
      */
     public static byte[] decrypt(byte[] encryptedData, PrivateKey privateKey) throws VoteDecryptionException {
+        DecryptEvent event = new DecryptEvent();
+        event.begin();
+        try {
+            Cipher cipher = Cipher.getInstance(CIPHER_TRANSFORMATION);
+            cipher.init(Cipher.DECRYPT_MODE, privateKey);
+            byte[] decrypted = cipher.doFinal(encryptedData);
+            event.success = true;
+            return decrypted;
+        } catch (NoSuchAlgorithmException | NoSuchPaddingException e) {
+            // Should not happen with standard JDK
+            throw new VoteDecryptionException("RSA cipher not available", e);
+        } catch (InvalidKeyException e) {
+            throw new VoteDecryptionException("Invalid RSA private key", e);
+        } catch (BadPaddingException | IllegalBlockSizeException e) {
+            throw new VoteDecryptionException("Failed to decrypt vote data - corrupted or tampered payload", e);
+        } finally {
+            event.bytes = encryptedData.length;
+            event.commit();
+        }
+    }
+
+    /**
+     * Decrypts a slice of RSA-encrypted data into a caller-supplied buffer.
+     *
+     * <p>Used by the socket server to decrypt straight out of, and into, its pooled frame buffer.</p>
+     *
+     * @param input        the buffer holding the encrypted bytes
+     * @param offset       the offset of the encrypted bytes in {@code input}
+     * @param length       the number of encrypted bytes
+     * @param output       the buffer to write the decrypted bytes to
+     * @param outputOffset the offset in {@code output} to write at
+     * @param privateKey   the RSA private key for decryption
+     * @return the number of decrypted bytes written to {@code output}
+     * @throws VoteDecryptionException if decryption fails due to invalid key, corrupted data or a too small output buffer
+     */
+    public static int decrypt(byte[] input, int offset, int length, byte[] output, int outputOffset,
+                              PrivateKey privateKey) throws VoteDecryptionException {
+        DecryptEvent event = new DecryptEvent();
+        event.begin();
         try {
             Cipher cipher = Cipher.getInstance(CIPHER_TRANSFORMATION);
             cipher.init(Cipher.DECRYPT_MODE, privateKey);
-            return cipher.doFinal(encryptedData);
+            int decryptedLength = cipher.doFinal(input, offset, length, output, outputOffset);
+            event.success = true;
+            return decryptedLength;
         } catch (NoSuchAlgorithmException | NoSuchPaddingException e) {
             // Should not happen with standard JDK
             throw new VoteDecryptionException("RSA cipher not available", e);
@@ -50,6 +94,11 @@ public final class CryptoUtil {
             throw new VoteDecryptionException("Invalid RSA private key", e);
         } catch (BadPaddingException | IllegalBlockSizeException e) {
             throw new VoteDecryptionException("Failed to decrypt vote data - corrupted or tampered payload", e);
+        } catch (ShortBufferException e) {
+            throw new VoteDecryptionException("Output buffer too small for decrypted vote data", e);
+        } finally {
+            event.bytes = length;
+            event.commit();
         }
     }
 }
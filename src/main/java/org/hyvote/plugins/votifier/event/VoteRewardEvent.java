@@ -0,0 +1,108 @@
+package org.hyvote.plugins.votifier.event;
+
+import com.hypixel.hytale.server.core.plugin.PluginBase;
+import com.hypixel.hytale.server.core.plugin.event.PluginEvent;
+import org.hyvote.plugins.votifier.vote.Vote;
+
+/**
+ * Event fired by {@code currency} and {@code event} reward actions.
+ *
+ * <p>HytaleVotifier has no economy of its own; economy and reward plugins listen for this
+ * event to grant currency or custom rewards configured in the {@code rewards} section.</p>
+ *
+ * <p>Usage example for listening plugins:</p>
+ * <pre>{@code
+ * plugin.getEventRegistry().register(VoteRewardEvent.class, event -> {
+ *     if (event.getType() == VoteRewardEvent.Type.CURRENCY) {
+ *         economy.deposit(event.getUsername(), event.getName(), event.getAmount());
+ *     }
+ * });
+ * }</pre>
+ *
+ * @see VoteEvent
+ */
+public class VoteRewardEvent extends PluginEvent {
+
+    /**
+     * The kind of reward action that fired this event.
+     */
+    public enum Type {
+        /** A currency grant; {@link #getName()} is the currency and {@link #getAmount()} the amount. */
+        CURRENCY,
+        /** A custom reward; {@link #getName()} is the configured event name. */
+        EVENT
+    }
+
+    private final Vote vote;
+    private final Type type;
+    private final String name;
+    private final double amount;
+
+    /**
+     * Creates a new VoteRewardEvent.
+     *
+     * @param plugin the plugin firing this event
+     * @param vote   the vote that earned the reward
+     * @param type   the kind of reward action
+     * @param name   the currency name or event name
+     * @param amount the currency amount, or 0 for event rewards
+     */
+    public VoteRewardEvent(PluginBase plugin, Vote vote, Type type, String name, double amount) {
+        super(plugin);
+        this.vote = vote;
+        this.type = type;
+        this.name = name;
+        this.amount = amount;
+    }
+
+    /**
+     * Returns the vote that earned this reward.
+     *
+     * @return the vote record
+     */
+    public Vote getVote() {
+        return vote;
+    }
+
+    /**
+     * Convenience method to get the username of the voter.
+     *
+     * @return the in-game username of the player who voted
+     */
+    public String getUsername() {
+        return vote.username();
+    }
+
+    /**
+     * Returns the kind of reward action that fired this event.
+     *
+     * @return the reward type
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns the currency name for currency rewards, or the configured event name.
+     *
+     * @return the reward name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the currency amount to grant.
+     *
+     * @return the amount, or 0 for event rewards
+     */
+    public double getAmount() {
+        return amount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("VoteRewardEvent{type=%s, name=%s, amount=%s, username=%s}",
+                type, name, amount, getUsername());
+    }
+}
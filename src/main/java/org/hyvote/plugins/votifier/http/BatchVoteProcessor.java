@@ -0,0 +1,394 @@
+package org.hyvote.plugins.votifier.http;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+import org.hyvote.plugins.votifier.HytaleVotifierPlugin;
+import org.hyvote.plugins.votifier.VoteBatchConfig;
+import org.hyvote.plugins.votifier.http.VoteProcessor.VoteResult;
+import org.hyvote.plugins.votifier.reward.RewardScheduler;
+import org.hyvote.plugins.votifier.security.SourceAllowlist;
+import org.hyvote.plugins.votifier.vote.V2ChallengeException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Shared batch vote processing used by both BatchVoteServlet and FallbackHttpServer.
+ *
+ * <p>The request body holds many V1 or V2 payloads, either one per line (NDJSON) or as the
+ * elements of a JSON array (V2 wrapper objects, or strings holding any payload), and may be
+ * gzip-compressed. Entries are read, verified and dispatched one at a time as the body streams
+ * in, so the body is never buffered as a whole, and each entry goes through the same checks as
+ * a single vote (allowlist, rate limits, deduplication, journal).</p>
+ *
+ * <p>The response is streamed as entries are processed:</p>
+ * <pre>
+ * {"results":[
+ * {"index":0,"status":"ok","username":"Steve"},
+ * {"index":1,"status":"error","code":401,"message":"Signature verification failed"}
+ * ],"accepted":1,"rejected":1,"status":"ok"}
+ * </pre>
+ *
+ * <p>If the batch cannot be read to the end (malformed body, too many entries, an array entry far
+ * beyond the entry size limit, or the reward queue not draining), the entries processed so far keep their results and the response ends
+ * with {@code "status":"error"} and a message instead.</p>
+ */
+public final class BatchVoteProcessor {
+
+    /**
+     * Maximum size of a single entry, the same as the body limit of the single vote endpoint.
+     */
+    private static final int MAX_ENTRY_SIZE = 32 * 1024;
+
+    /**
+     * Characters an array entry may span on the underlying reader before the batch is aborted.
+     * {@link JsonReader} reads ahead in blocks, so the count is only accurate to within one block;
+     * entries between this and {@link #MAX_ENTRY_SIZE} are rejected individually once parsed.
+     */
+    private static final int MAX_ENTRY_READ = MAX_ENTRY_SIZE + 4096;
+
+    /**
+     * How often a paused batch checks whether the reward queue has drained.
+     */
+    private static final long BACKPRESSURE_POLL_MS = 10;
+
+    private static final byte[] RESULTS_START = utf8("{\"results\":[");
+
+    private final HytaleVotifierPlugin plugin;
+    private final VoteBatchConfig config;
+    private final String clientAddress;
+    private final SourceAllowlist allowlist;
+
+    private OutputStream out;
+    private int entries;
+    private int accepted;
+    private int rejected;
+
+    /**
+     * Creates a processor for one batch request.
+     *
+     * @param plugin        the plugin instance
+     * @param clientAddress the resolved client address, for the per-site allowlist and logging
+     */
+    public BatchVoteProcessor(HytaleVotifierPlugin plugin, String clientAddress) {
+        this.plugin = plugin;
+        this.config = plugin.getConfig().voteBatch();
+        this.clientAddress = clientAddress;
+        this.allowlist = plugin.getSourceAllowlist();
+    }
+
+    /**
+     * Reads, verifies and dispatches every entry of a batch body, streaming the results.
+     *
+     * <p>The caller sends the response status (200) and headers before calling this method.</p>
+     *
+     * @param body     the request body
+     * @param gzip     whether the body is gzip-compressed
+     * @param response the response body
+     * @throws IOException if reading the request or writing the response fails
+     */
+    public void process(InputStream body, boolean gzip, OutputStream response) throws IOException {
+        this.out = new BufferedOutputStream(response);
+        out.write(RESULTS_START);
+
+        String error = null;
+        try {
+            InputStream in = new BufferedInputStream(new LimitedInputStream(
+                    gzip ? new GZIPInputStream(body) : body, config.maxBodyBytes()));
+            if (peekFirstNonWhitespace(in) == '[') {
+                readJsonArray(in);
+            } else {
+                readNdjson(in);
+            }
+        } catch (BatchAbortedException e) {
+            error = e.getMessage();
+        } catch (JsonParseException | MalformedJsonException | EOFException | ZipException e) {
+            error = e.getMessage() != null ? "Malformed batch body: " + e.getMessage() : "Malformed batch body";
+        }
+
+        StringBuilder end = new StringBuilder("\n],\"accepted\":").append(accepted)
+                .append(",\"rejected\":").append(rejected);
+        if (error == null) {
+            end.append(",\"status\":\"ok\"}");
+        } else {
+            end.append(",\"status\":\"error\",\"message\":\"").append(ResponseBodies.escape(error)).append("\"}");
+        }
+        out.write(utf8(end.toString()));
+        out.flush();
+
+        if (error != null) {
+            plugin.getLogger().at(Level.WARNING).log("Vote batch from %s aborted after %d entries: %s",
+                    clientAddress, entries, error);
+        }
+        plugin.getLogger().at(Level.INFO).log("Processed vote batch from %s: %d accepted, %d rejected",
+                clientAddress, accepted, rejected);
+    }
+
+    private void readNdjson(InputStream in) throws IOException {
+        byte[] line = new byte[MAX_ENTRY_SIZE];
+        int length = 0;
+        boolean overflow = false;
+        int b;
+        do {
+            b = in.read();
+            if (b != '\n' && b >= 0) {
+                if (length < line.length) {
+                    line[length++] = (byte) b;
+                } else {
+                    overflow = true;
+                }
+                continue;
+            }
+            if (overflow) {
+                beginEntry();
+                reject(400, "Entry too large", null);
+            } else {
+                String payload = new String(line, 0, length, StandardCharsets.UTF_8).trim();
+                if (!payload.isEmpty()) {
+                    beginEntry();
+                    processEntry(payload);
+                }
+            }
+            length = 0;
+            overflow = false;
+        } while (b >= 0);
+    }
+
+    private void readJsonArray(InputStream in) throws IOException {
+        EntryLimitedReader limited = new EntryLimitedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        JsonReader reader = new JsonReader(limited);
+        reader.beginArray();
+        while (reader.hasNext()) {
+            beginEntry();
+            // Bound the entry while it is read, before nextString or parseReader materialise it
+            limited.startEntry(entries - 1);
+            JsonToken token = reader.peek();
+            String payload = switch (token) {
+                // A V1 payload, or any payload as a string
+                case STRING -> reader.nextString();
+                // A V2 wrapper; re-serialising keeps the signed payload string intact
+                case BEGIN_OBJECT -> JsonParser.parseReader(reader).toString();
+                default -> {
+                    reader.skipValue();
+                    yield null;
+                }
+            };
+            if (payload == null) {
+                reject(400, "Unable to detect vote protocol", "unexpected " + token);
+            } else if (payload.length() > MAX_ENTRY_SIZE) {
+                reject(400, "Entry too large", null);
+            } else {
+                processEntry(payload.trim());
+            }
+        }
+        reader.endArray();
+    }
+
+    private void beginEntry() throws BatchAbortedException {
+        if (entries >= config.maxEntries()) {
+            throw new BatchAbortedException("Batch exceeds maximum of " + config.maxEntries() + " entries");
+        }
+        entries++;
+    }
+
+    private void processEntry(String payload) throws IOException {
+        VoteResult result = VoteProcessor.processPayload(plugin, payload);
+        switch (result) {
+            case VoteResult.Success success -> {
+                if (allowlist != null && !allowlist.allowsVote(success.vote().serviceName(), clientAddress)) {
+                    reject(403, "Source address not allowed for this service", success.vote().serviceName());
+                    return;
+                }
+                awaitRewardQueue();
+                try {
+                    if (!VoteProcessor.dispatchVote(plugin, success)) {
+                        reject(429, "Rate limit exceeded", null);
+                        return;
+                    }
+                } catch (V2ChallengeException e) {
+                    reject(401, "Replay protection check failed", e.getMessage());
+                    return;
+                }
+                accept(success.vote().username());
+            }
+            case VoteResult.EmptyPayload() -> reject(400, "Empty payload", null);
+            case VoteResult.UnknownProtocol() -> reject(400, "Unable to detect vote protocol", null);
+            case VoteResult.ParseError parseError -> reject(400, "Invalid vote format", parseError.message());
+            case VoteResult.SignatureError signatureError -> reject(401, "Signature verification failed", signatureError.message());
+            case VoteResult.ReplayError replayError -> reject(401, "Replay protection check failed", replayError.message());
+            case VoteResult.DecryptionError decryptionError -> reject(400, "Invalid vote payload", decryptionError.message());
+            case VoteResult.InternalError internalError -> {
+                plugin.getLogger().at(Level.SEVERE).withCause(internalError.cause()).log("Failed to process batch vote entry");
+                reject(500, "Internal server error", null);
+            }
+        }
+    }
+
+    /**
+     * Pauses the batch while the reward queue is deeper than configured. The request body is not
+     * read while paused, so the client is slowed down by TCP flow control.
+     */
+    private void awaitRewardQueue() throws IOException {
+        RewardScheduler scheduler = plugin.getRewardScheduler();
+        if (scheduler == null || scheduler.getQueueDepth() <= config.maxRewardQueueDepth()) {
+            return;
+        }
+        // Let the client see the results so far while it waits
+        out.flush();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(config.backpressureTimeoutSeconds());
+        while (scheduler.getQueueDepth() > config.maxRewardQueueDepth()) {
+            if (System.nanoTime() - deadline > 0) {
+                throw new BatchAbortedException("Reward queue did not drain within "
+                        + config.backpressureTimeoutSeconds() + " seconds");
+            }
+            try {
+                Thread.sleep(BACKPRESSURE_POLL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BatchAbortedException("Interrupted while waiting for the reward queue");
+            }
+        }
+    }
+
+    private void accept(String username) throws IOException {
+        accepted++;
+        writeResult("\"status\":\"ok\",\"username\":\"" + ResponseBodies.escape(username) + "\"");
+    }
+
+    private void reject(int code, String message, String detail) throws IOException {
+        rejected++;
+        writeResult("\"status\":\"error\",\"code\":" + code + ",\"message\":\"" + ResponseBodies.escape(message) + "\"");
+        if (plugin.getConfig().debug()) {
+            plugin.getLogger().at(Level.INFO).log("Rejected batch entry %d from %s: %s%s",
+                    entries - 1, clientAddress, message, detail != null ? " - " + detail : "");
+        }
+    }
+
+    private void writeResult(String fields) throws IOException {
+        out.write(utf8((entries > 1 ? ",\n{\"index\":" : "\n{\"index\":") + (entries - 1) + "," + fields + "}"));
+    }
+
+    private static int peekFirstNonWhitespace(InputStream in) throws IOException {
+        int b;
+        do {
+            in.mark(1);
+            b = in.read();
+        } while (b == ' ' || b == '\t' || b == '\r' || b == '\n');
+        if (b >= 0) {
+            in.reset();
+        }
+        return b;
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Ends the batch early; the message is reported in the response.
+     */
+    private static final class BatchAbortedException extends IOException {
+        BatchAbortedException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Fails once more than {@link #MAX_ENTRY_READ} characters have been read for one array entry,
+     * so an oversized entry is never held in memory as a whole.
+     */
+    private static final class EntryLimitedReader extends FilterReader {
+
+        private int index;
+        private int read;
+
+        EntryLimitedReader(Reader in) {
+            super(in);
+        }
+
+        void startEntry(int index) {
+            this.index = index;
+            this.read = 0;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int c = super.read();
+            if (c >= 0) {
+                count(1);
+            }
+            return c;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            int n = super.read(cbuf, off, len);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(int n) throws BatchAbortedException {
+            read += n;
+            if (read > MAX_ENTRY_READ) {
+                throw new BatchAbortedException("Entry " + index + " exceeds maximum size of " + MAX_ENTRY_SIZE + " bytes");
+            }
+        }
+    }
+
+    /**
+     * Fails once more than {@code limit} bytes have been read, bounding decompressed bodies.
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+
+        private final long limit;
+        private long read;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(int n) throws BatchAbortedException {
+            read += n;
+            if (read > limit) {
+                throw new BatchAbortedException("Batch body exceeds maximum size of " + limit + " bytes");
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.hyvote.plugins.votifier.http;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hyvote.plugins.votifier.HytaleVotifierPlugin;
+import org.hyvote.plugins.votifier.security.SourceAllowlist;
+
+import java.io.IOException;
+import java.util.logging.Level;
+
+/**
+ * HTTP endpoint for receiving many votes in one request.
+ *
+ * <p>Endpoint: POST /Hyvote/HytaleVotifier/votes/batch</p>
+ *
+ * <p>Accepts V1 and V2 payloads as NDJSON (one payload per line) or a JSON array, optionally
+ * with {@code Content-Encoding: gzip}. See {@link BatchVoteProcessor} for the body and response
+ * formats.</p>
+ *
+ * <p>Response codes:</p>
+ * <ul>
+ *   <li>200 OK - Batch read; each entry has its own result in the response body</li>
+ *   <li>403 Forbidden - Source address not in the allowlist</li>
+ *   <li>415 Unsupported Media Type - Content encoding other than gzip</li>
+ *   <li>503 Service Unavailable - The plugin is overloaded and shedding requests (with a
+ *       Retry-After header)</li>
+ * </ul>
+ */
+public class BatchVoteServlet extends HttpServlet {
+
+    private final HytaleVotifierPlugin plugin;
+
+    public BatchVoteServlet(HytaleVotifierPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        if (VoteServlet.shedIfOverloaded(plugin, resp)) {
+            return;
+        }
+        String clientAddress = VoteServlet.resolveClientAddress(plugin, req);
+
+        // Drop requests from outside the allowlist before reading or decrypting anything
+        SourceAllowlist allowlist = plugin.getSourceAllowlist();
+        if (allowlist != null && !allowlist.allowsConnection(clientAddress)) {
+            ResponseBodies.send(resp, HttpServletResponse.SC_FORBIDDEN, ResponseBodies.error("Source address not allowed"));
+            if (plugin.getConfig().debug()) {
+                plugin.getLogger().at(Level.INFO).log("Rejected vote batch from %s: not in allowlist", clientAddress);
+            }
+            return;
+        }
+
+        String encoding = req.getHeader("Content-Encoding");
+        boolean gzip = "gzip".equalsIgnoreCase(encoding);
+        if (encoding != null && !gzip && !"identity".equalsIgnoreCase(encoding)) {
+            ResponseBodies.send(resp, 415, ResponseBodies.error("Unsupported content encoding"));
+            return;
+        }
+
+        // Results are streamed as entries are processed, so the length is not known up front
+        resp.setStatus(HttpServletResponse.SC_OK);
+        resp.setContentType("application/json");
+        new BatchVoteProcessor(plugin, clientAddress).process(req.getInputStream(), gzip, resp.getOutputStream());
+    }
+}
@@ -0,0 +1,46 @@
+package org.hyvote.plugins.votifier.http;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hyvote.plugins.votifier.HytaleVotifierPlugin;
+import org.hyvote.plugins.votifier.vote.V2ReplayGuard;
+
+import java.io.IOException;
+
+/**
+ * HTTP endpoint issuing challenges for V2 replay protection.
+ *
+ * <p>Endpoint: GET /Hyvote/HytaleVotifier/challenge</p>
+ *
+ * <p>Only registered when replay protection is enabled. Voting sites include the returned
+ * challenge in the {@code challenge} field of their next signed V2 payload; each challenge
+ * is accepted once.</p>
+ *
+ * <p>Response format:</p>
+ * <pre>
+ * {
+ *   "status": "ok",
+ *   "challenge": "...",
+ *   "expiresInSeconds": 60
+ * }
+ * </pre>
+ */
+public class ChallengeServlet extends HttpServlet {
+
+    private final HytaleVotifierPlugin plugin;
+
+    public ChallengeServlet(HytaleVotifierPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        resp.setContentType("application/json");
+        resp.setHeader("Cache-Control", "no-store");
+
+        V2ReplayGuard replayGuard = plugin.getReplayGuard();
+        ResponseBodies.send(resp, HttpServletResponse.SC_OK,
+                ResponseBodies.challenge(replayGuard.issueChallenge(), replayGuard.getChallengeTtlSeconds()));
+    }
+}
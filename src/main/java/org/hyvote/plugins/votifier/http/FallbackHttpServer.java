@@ -1,14 +1,25 @@
 package org.hyvote.plugins.votifier.http;
 
+import com.sun.net.httpserver.Headers;
 import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
+import org.hyvote.plugins.votifier.HttpServerConfig;
 import org.hyvote.plugins.votifier.HytaleVotifierPlugin;
 import org.hyvote.plugins.votifier.http.VoteProcessor.VoteResult;
+import org.hyvote.plugins.votifier.metrics.VotifierMetrics;
+import org.hyvote.plugins.votifier.security.SourceAllowlist;
+import org.hyvote.plugins.votifier.security.TrustedProxies;
+import org.hyvote.plugins.votifier.vote.OverloadDetector;
+import org.hyvote.plugins.votifier.vote.V2ChallengeException;
+import org.hyvote.plugins.votifier.vote.V2ReplayGuard;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.logging.Level;
 
@@ -16,12 +27,15 @@ import java.util.logging.Level;
  * Fallback HTTP server for when the Nitrado:WebServer plugin is not available.
  *
  * <p>Uses Java's built-in {@link HttpServer} to provide the same HTTP endpoints
- * as the Nitrado WebServer integration.</p>
+ * as the Nitrado WebServer integration, or {@link NioHttpServer} when the "nio" engine is
+ * configured. Both engines run the same handlers.</p>
  *
  * <p>Endpoints:</p>
  * <ul>
  *   <li>GET /Hyvote/HytaleVotifier/status - Health check and server status</li>
  *   <li>POST /Hyvote/HytaleVotifier/vote - Receive vote notifications</li>
+ *   <li>GET /Hyvote/HytaleVotifier/challenge - Issue a V2 replay protection challenge (when enabled)</li>
+ *   <li>POST /Hyvote/HytaleVotifier/votes/batch - Receive many vote notifications in one request (when enabled)</li>
  * </ul>
  */
 public class FallbackHttpServer {
@@ -35,13 +49,14 @@ public class FallbackHttpServer {
     private static final int MAX_BODY_SIZE = 32 * 1024;
 
     private final HytaleVotifierPlugin plugin;
-    private final int port;
+    private final HttpServerConfig config;
     private volatile HttpServer server;
+    private volatile NioHttpServer nioServer;
     private volatile boolean running = false;
 
-    public FallbackHttpServer(HytaleVotifierPlugin plugin, int port) {
+    public FallbackHttpServer(HytaleVotifierPlugin plugin, HttpServerConfig config) {
         this.plugin = plugin;
-        this.port = port;
+        this.config = config;
     }
 
     /**
@@ -50,24 +65,58 @@ public class FallbackHttpServer {
      * @throws IOException if the server fails to start
      */
     public void start() throws IOException {
-        server = HttpServer.create(new InetSocketAddress(port), 0);
-        server.createContext(CONTEXT_PATH + "/status", this::handleStatus);
-        server.createContext(CONTEXT_PATH + "/vote", this::handleVote);
-        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
-        server.start();
+        if (config.usesNioEngine()) {
+            NioHttpServer nio = new NioHttpServer(plugin, config);
+            registerContexts(nio::createContext);
+            nio.start(config.port());
+            nioServer = nio;
+        } else {
+            server = HttpServer.create(new InetSocketAddress(config.port()), config.backlog());
+            registerContexts((path, handler, maxBodyBytes) -> server.createContext(path, handler));
+            server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+            server.start();
+        }
         running = true;
 
         plugin.getLogger().at(Level.INFO).log(
-                "Fallback HTTP server started on port %d - endpoints at %s/vote and %s/status",
-                port, CONTEXT_PATH, CONTEXT_PATH);
+                "Fallback HTTP server started on port %d (%s engine) - endpoints at %s/vote and %s/status",
+                config.port(), config.usesNioEngine() ? "nio" : "jdk", CONTEXT_PATH, CONTEXT_PATH);
+    }
+
+    /**
+     * Registers the endpoints with either engine. The body limit is only used by the nio engine,
+     * which rejects larger requests before reading them.
+     */
+    private void registerContexts(ContextRegistrar registrar) {
+        registrar.register(CONTEXT_PATH + "/status", this::handleStatus, 0);
+        registrar.register(CONTEXT_PATH + "/vote", this::handleVote, MAX_BODY_SIZE);
+        if (plugin.getReplayGuard() != null) {
+            registrar.register(CONTEXT_PATH + "/challenge", this::handleChallenge, 0);
+        }
+        if (plugin.getConfig().voteBatch().enabled()) {
+            registrar.register(CONTEXT_PATH + "/votes/batch", this::handleBatch, plugin.getConfig().voteBatch().maxBodyBytes());
+        }
+        if (plugin.getConfig().metrics().enabled()) {
+            registrar.register(CONTEXT_PATH + "/metrics", this::handleMetrics, 0);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ContextRegistrar {
+        void register(String path, HttpHandler handler, long maxBodyBytes);
     }
 
     /**
      * Stops the HTTP server.
      */
     public void stop() {
-        if (server != null) {
-            server.stop(0);
+        if (server != null || nioServer != null) {
+            if (server != null) {
+                server.stop(0);
+            }
+            if (nioServer != null) {
+                nioServer.stop();
+            }
             running = false;
             plugin.getLogger().at(Level.INFO).log("Fallback HTTP server stopped");
         }
@@ -92,20 +141,58 @@ public class FallbackHttpServer {
         }
 
         try {
-            boolean v1Enabled = plugin.getConfig().protocols() != null
-                    && Boolean.TRUE.equals(plugin.getConfig().protocols().v1Enabled());
-            boolean v2Enabled = plugin.getConfig().protocols() != null
-                    && Boolean.TRUE.equals(plugin.getConfig().protocols().v2Enabled())
-                    && plugin.getConfig().voteSites() != null
-                    && plugin.getConfig().voteSites().isV2Enabled();
-
-            sendResponse(exchange, 200, VoteProcessor.statusJson(plugin.getPluginVersion(), v1Enabled, v2Enabled));
+            StatusEndpoint.Response status = plugin.getStatusEndpoint().respond(exchange.getRequestURI().getRawQuery());
+            exchange.getResponseHeaders().set("ETag", status.etag());
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            if (StatusEndpoint.notModified(exchange.getRequestHeaders().getFirst("If-None-Match"), status.etag())) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            sendResponse(exchange, 200, status.body());
         } catch (Exception e) {
             plugin.getLogger().at(Level.SEVERE).withCause(e).log("Failed to process status request");
             sendError(exchange, 500, "Internal server error");
         }
     }
 
+    /**
+     * Handles GET /metrics requests.
+     */
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            sendError(exchange, 405, "Method not allowed");
+            return;
+        }
+
+        try {
+            byte[] body = plugin.getMetrics().scrape(plugin).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", VotifierMetrics.CONTENT_TYPE);
+            exchange.getResponseHeaders().set("Cache-Control", "no-store");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        } catch (Exception e) {
+            plugin.getLogger().at(Level.SEVERE).withCause(e).log("Failed to render metrics");
+            sendError(exchange, 500, "Internal server error");
+        }
+    }
+
+    /**
+     * Handles GET /challenge requests.
+     */
+    private void handleChallenge(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            sendError(exchange, 405, "Method not allowed");
+            return;
+        }
+
+        V2ReplayGuard replayGuard = plugin.getReplayGuard();
+        exchange.getResponseHeaders().set("Cache-Control", "no-store");
+        sendResponse(exchange, 200, ResponseBodies.challenge(replayGuard.issueChallenge(), replayGuard.getChallengeTtlSeconds()));
+    }
+
     /**
      * Handles POST /vote requests.
      */
@@ -114,6 +201,34 @@ public class FallbackHttpServer {
             sendError(exchange, 405, "Method not allowed");
             return;
         }
+        if (shedIfOverloaded(exchange)) {
+            return;
+        }
+
+        long received = System.nanoTime();
+        processVote(exchange);
+        OverloadDetector detector = plugin.getOverloadDetector();
+        if (detector != null) {
+            detector.recordLatency(System.nanoTime() - received);
+        }
+    }
+
+    /**
+     * Reads, verifies and dispatches a vote request.
+     */
+    private void processVote(HttpExchange exchange) throws IOException {
+
+        String clientAddress = resolveClientAddress(exchange);
+
+        // Drop requests from outside the allowlist before reading or decrypting anything
+        SourceAllowlist allowlist = plugin.getSourceAllowlist();
+        if (allowlist != null && !allowlist.allowsConnection(clientAddress)) {
+            sendError(exchange, 403, "Source address not allowed");
+            if (plugin.getConfig().debug()) {
+                plugin.getLogger().at(Level.INFO).log("Rejected vote request from %s: not in allowlist", clientAddress);
+            }
+            return;
+        }
 
         // Read request body
         String payload;
@@ -131,17 +246,30 @@ public class FallbackHttpServer {
         // Process the vote using shared logic
         VoteResult result = VoteProcessor.processPayload(plugin, payload);
 
-        String remoteAddress = exchange.getRemoteAddress().getAddress().getHostAddress();
-
         // Handle result
         switch (result) {
             case VoteResult.Success success -> {
-                VoteProcessor.dispatchVote(plugin, success.vote());
+                if (allowlist != null && !allowlist.allowsVote(success.vote().serviceName(), clientAddress)) {
+                    sendError(exchange, 403, "Source address not allowed for this service");
+                    plugin.getLogger().at(Level.WARNING).log("Rejected %s vote for service %s from %s: not in allowlist",
+                            success.protocol(), success.vote().serviceName(), clientAddress);
+                    return;
+                }
+                try {
+                    if (!VoteProcessor.dispatchVote(plugin, success)) {
+                        sendError(exchange, 429, "Rate limit exceeded");
+                        return;
+                    }
+                } catch (V2ChallengeException e) {
+                    sendError(exchange, 401, "Replay protection check failed");
+                    plugin.getLogger().at(Level.WARNING).log("Rejected V2 vote: %s", e.getMessage());
+                    return;
+                }
                 if (plugin.getConfig().debug()) {
                     plugin.getLogger().at(Level.INFO).log("Received %s vote from %s: service=%s, username=%s",
-                            success.protocol(), remoteAddress, success.vote().serviceName(), success.vote().username());
+                            success.protocol(), clientAddress, success.vote().serviceName(), success.vote().username());
                 }
-                sendResponse(exchange, 200, VoteProcessor.successJson("Vote processed for " + success.vote().username()));
+                sendResponse(exchange, 200, ResponseBodies.voteProcessed(success.vote().username()));
             }
             case VoteResult.EmptyPayload() -> {
                 sendError(exchange, 400, "Empty payload");
@@ -159,6 +287,10 @@ public class FallbackHttpServer {
                 sendError(exchange, 401, "Signature verification failed");
                 plugin.getLogger().at(Level.WARNING).log("Rejected V2 vote: %s", signatureError.message());
             }
+            case VoteResult.ReplayError replayError -> {
+                sendError(exchange, 401, "Replay protection check failed");
+                plugin.getLogger().at(Level.WARNING).log("Rejected V2 vote: %s", replayError.message());
+            }
             case VoteResult.DecryptionError decryptionError -> {
                 sendError(exchange, 400, "Invalid vote payload");
                 plugin.getLogger().at(Level.WARNING).log("Rejected V1 vote: decryption failed - %s", decryptionError.message());
@@ -170,6 +302,87 @@ public class FallbackHttpServer {
         }
     }
 
+    /**
+     * Handles POST /votes/batch requests.
+     */
+    private void handleBatch(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            sendError(exchange, 405, "Method not allowed");
+            return;
+        }
+        if (shedIfOverloaded(exchange)) {
+            return;
+        }
+
+        String clientAddress = resolveClientAddress(exchange);
+
+        // Drop requests from outside the allowlist before reading or decrypting anything
+        SourceAllowlist allowlist = plugin.getSourceAllowlist();
+        if (allowlist != null && !allowlist.allowsConnection(clientAddress)) {
+            sendError(exchange, 403, "Source address not allowed");
+            if (plugin.getConfig().debug()) {
+                plugin.getLogger().at(Level.INFO).log("Rejected vote batch from %s: not in allowlist", clientAddress);
+            }
+            return;
+        }
+
+        String encoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+        boolean gzip = "gzip".equalsIgnoreCase(encoding);
+        if (encoding != null && !gzip && !"identity".equalsIgnoreCase(encoding)) {
+            sendError(exchange, 415, "Unsupported content encoding");
+            return;
+        }
+
+        // Results are streamed as entries are processed, so the response is chunked
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, 0);
+        try (InputStream body = exchange.getRequestBody(); OutputStream os = exchange.getResponseBody()) {
+            new BatchVoteProcessor(plugin, clientAddress).process(body, gzip, os);
+        }
+    }
+
+    /**
+     * Answers 503 with a Retry-After header if the plugin is overloaded, before anything is read.
+     *
+     * @return true if the request was shed
+     */
+    private boolean shedIfOverloaded(HttpExchange exchange) throws IOException {
+        OverloadDetector detector = plugin.getOverloadDetector();
+        int retryAfter = detector != null ? detector.retryAfterSeconds() : 0;
+        if (retryAfter == 0) {
+            return false;
+        }
+        exchange.getResponseHeaders().set("Retry-After", Integer.toString(retryAfter));
+        sendError(exchange, 503, "Server overloaded");
+        return true;
+    }
+
+    /**
+     * Returns the client address, taken from X-Forwarded-For if the peer is a trusted proxy.
+     */
+    private String resolveClientAddress(HttpExchange exchange) {
+        return resolveClientAddress(plugin, exchange.getRemoteAddress(), exchange.getRequestHeaders());
+    }
+
+    /**
+     * Returns the client address of a request, taken from X-Forwarded-For if the peer is a
+     * trusted proxy. Shared with {@link NioHttpServer}, which checks it before reading a body.
+     *
+     * @param plugin         the plugin instance
+     * @param remoteAddress  the peer address
+     * @param requestHeaders the request headers
+     * @return the client address
+     */
+    static String resolveClientAddress(HytaleVotifierPlugin plugin, InetSocketAddress remoteAddress, Headers requestHeaders) {
+        String peer = remoteAddress.getAddress().getHostAddress();
+        TrustedProxies proxies = plugin.getTrustedProxies();
+        if (proxies == null) {
+            return peer;
+        }
+        List<String> headers = requestHeaders.get("X-Forwarded-For");
+        return proxies.resolveForwardedFor(peer, headers != null ? String.join(",", headers) : null);
+    }
+
     /**
      * Reads the request body as a trimmed string.
      *
@@ -188,12 +401,11 @@ public class FallbackHttpServer {
     /**
      * Sends a JSON response.
      */
-    private void sendResponse(HttpExchange exchange, int statusCode, String json) throws IOException {
+    private void sendResponse(HttpExchange exchange, int statusCode, byte[] body) throws IOException {
         exchange.getResponseHeaders().set("Content-Type", "application/json");
-        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
-        exchange.sendResponseHeaders(statusCode, bytes.length);
+        exchange.sendResponseHeaders(statusCode, body.length);
         try (OutputStream os = exchange.getResponseBody()) {
-            os.write(bytes);
+            os.write(body);
         }
     }
 
@@ -201,6 +413,6 @@ public class FallbackHttpServer {
      * Sends an error response.
      */
     private void sendError(HttpExchange exchange, int statusCode, String message) throws IOException {
-        sendResponse(exchange, statusCode, VoteProcessor.errorJson(message));
+        sendResponse(exchange, statusCode, ResponseBodies.error(message));
     }
 }
@@ -0,0 +1,43 @@
+package org.hyvote.plugins.votifier.http;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hyvote.plugins.votifier.HytaleVotifierPlugin;
+import org.hyvote.plugins.votifier.metrics.VotifierMetrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.logging.Level;
+
+/**
+ * HTTP endpoint for Prometheus metrics.
+ *
+ * <p>Endpoint: GET /Hyvote/HytaleVotifier/metrics</p>
+ *
+ * <p>Returns the counters and histograms of {@link VotifierMetrics} in the Prometheus text
+ * format. Only registered when {@code metrics.enabled} is true.</p>
+ */
+public class MetricsServlet extends HttpServlet {
+
+    private final HytaleVotifierPlugin plugin;
+
+    public MetricsServlet(HytaleVotifierPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        try {
+            byte[] body = plugin.getMetrics().scrape(plugin).getBytes(StandardCharsets.UTF_8);
+            resp.setStatus(HttpServletResponse.SC_OK);
+            resp.setContentType(VotifierMetrics.CONTENT_TYPE);
+            resp.setHeader("Cache-Control", "no-store");
+            resp.setContentLength(body.length);
+            resp.getOutputStream().write(body);
+        } catch (Exception e) {
+            plugin.getLogger().at(Level.SEVERE).withCause(e).log("Failed to render metrics");
+            ResponseBodies.send(resp, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, ResponseBodies.error("Internal server error"));
+        }
+    }
+}
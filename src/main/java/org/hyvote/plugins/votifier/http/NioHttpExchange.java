@@ -0,0 +1,174 @@
+package org.hyvote.plugins.votifier.http;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link HttpExchange} for a request read by {@link NioHttpServer}, so the fallback server's
+ * handlers run unchanged on either engine.
+ *
+ * <p>The request body has already been read in full by the event loop. A response with a known
+ * length is buffered until the handler returns; the event loop then writes it with a
+ * Content-Length. A response started with length 0 (as the batch endpoint does) is streamed:
+ * the headers are sent right away and the body is written as the handler produces it.</p>
+ */
+final class NioHttpExchange extends HttpExchange {
+
+    /**
+     * Starts a streamed response on the connection.
+     */
+    @FunctionalInterface
+    interface ResponseStreamer {
+        /**
+         * Sends the response head and returns the stream the body is written to; closing it ends
+         * the response.
+         */
+        OutputStream start(int code, Headers headers) throws IOException;
+    }
+
+    private final String method;
+    private final URI uri;
+    private final String protocol;
+    private final Headers requestHeaders;
+    private final Headers responseHeaders = new Headers();
+    private final InetSocketAddress remoteAddress;
+    private final InetSocketAddress localAddress;
+    private final ByteArrayOutputStream responseBody = new ByteArrayOutputStream();
+    private final Map<String, Object> attributes = new HashMap<>();
+    private final ResponseStreamer streamer;
+    private InputStream requestBody;
+    private OutputStream streamedBody;
+    private int responseCode = -1;
+
+    NioHttpExchange(String method, URI uri, String protocol, Headers requestHeaders, InputStream requestBody,
+                    InetSocketAddress remoteAddress, InetSocketAddress localAddress, ResponseStreamer streamer) {
+        this.method = method;
+        this.uri = uri;
+        this.protocol = protocol;
+        this.requestHeaders = requestHeaders;
+        this.requestBody = requestBody;
+        this.remoteAddress = remoteAddress;
+        this.localAddress = localAddress;
+        this.streamer = streamer;
+    }
+
+    @Override
+    public Headers getRequestHeaders() {
+        return requestHeaders;
+    }
+
+    @Override
+    public Headers getResponseHeaders() {
+        return responseHeaders;
+    }
+
+    @Override
+    public URI getRequestURI() {
+        return uri;
+    }
+
+    @Override
+    public String getRequestMethod() {
+        return method;
+    }
+
+    @Override
+    public HttpContext getHttpContext() {
+        return null;
+    }
+
+    @Override
+    public void close() {
+        // The event loop sends a buffered response, or ends a streamed one, once the handler returns
+    }
+
+    @Override
+    public InputStream getRequestBody() {
+        return requestBody;
+    }
+
+    @Override
+    public OutputStream getResponseBody() {
+        return streamedBody != null ? streamedBody : responseBody;
+    }
+
+    @Override
+    public void sendResponseHeaders(int rCode, long responseLength) throws IOException {
+        if (responseCode != -1) {
+            throw new IOException("Response headers already sent");
+        }
+        responseCode = rCode;
+        if (responseLength == 0 && rCode != 204 && rCode != 304) {
+            // Length unknown: stream the body as it is written
+            streamedBody = streamer.start(rCode, responseHeaders);
+        }
+        // Otherwise the length is taken from the buffered body when the response is written
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        return remoteAddress;
+    }
+
+    @Override
+    public int getResponseCode() {
+        return responseCode;
+    }
+
+    @Override
+    public InetSocketAddress getLocalAddress() {
+        return localAddress;
+    }
+
+    @Override
+    public String getProtocol() {
+        return protocol;
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        attributes.put(name, value);
+    }
+
+    @Override
+    public void setStreams(InputStream i, OutputStream o) {
+        if (i != null) {
+            requestBody = i;
+        }
+    }
+
+    @Override
+    public HttpPrincipal getPrincipal() {
+        return null;
+    }
+
+    /**
+     * Returns the stream of a streamed response, or null if the response is buffered.
+     */
+    OutputStream streamedBody() {
+        return streamedBody;
+    }
+
+    /**
+     * Returns the buffered response body.
+     */
+    byte[] responseBytes() {
+        return responseBody.toByteArray();
+    }
+}
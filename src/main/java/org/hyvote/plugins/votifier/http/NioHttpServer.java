@@ -0,0 +1,1039 @@
+package org.hyvote.plugins.votifier.http;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpHandler;
+import org.hyvote.plugins.votifier.HttpServerConfig;
+import org.hyvote.plugins.votifier.HytaleVotifierPlugin;
+import org.hyvote.plugins.votifier.security.SourceAllowlist;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * A small HTTP/1.1 server built on NIO selectors, used by {@link FallbackHttpServer} when
+ * {@code internalHttpServer.engine} is "nio".
+ *
+ * <p>A fixed number of event loops accept connections, parse requests and write responses.
+ * Handlers are the same {@link HttpHandler}s registered with the JDK server, run on virtual
+ * threads through {@link NioHttpExchange}, so RSA decryption and vote dispatch never block an
+ * event loop.</p>
+ *
+ * <ul>
+ *   <li>Connections are kept alive (HTTP/1.1 default, or {@code Connection: keep-alive} for
+ *       HTTP/1.0) and closed after {@code idleTimeoutSeconds} without traffic.</li>
+ *   <li>Pipelined requests are answered in order: the next request on a connection is parsed once
+ *       the response to the previous one has been written.</li>
+ *   <li>Limits are enforced before anything is buffered: the request line and headers must fit in
+ *       {@code maxHeaderBytes} (431), a Content-Length over the context's body limit is rejected
+ *       with 413, and a request with a body from outside the source allowlist is rejected with 403,
+ *       all before the body is read. The body buffer then grows as bytes arrive. Chunked request
+ *       bodies are decoded as they arrive and rejected with 413 as soon as a chunk size would take
+ *       them past the limit.</li>
+ *   <li>Responses of unknown length (the batch endpoint) are streamed with chunked transfer
+ *       encoding while the handler runs, one chunk in flight at a time.</li>
+ * </ul>
+ */
+public class NioHttpServer {
+
+    private static final long SELECT_TIMEOUT_MS = 1000;
+
+    /**
+     * How often each event loop looks for idle connections.
+     */
+    private static final long IDLE_SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Initial size of a request body buffer; it doubles as bytes arrive, up to the Content-Length
+     * or the context's limit.
+     */
+    private static final int INITIAL_BODY_BYTES = 8192;
+
+    /**
+     * Largest body buffer that can be allocated.
+     */
+    private static final long MAX_BODY_BUFFER = Integer.MAX_VALUE - 8;
+
+    /**
+     * Size of the chunks a streamed response is written in.
+     */
+    private static final int RESPONSE_CHUNK_BYTES = 8192;
+
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final byte[] LAST_CHUNK = "0\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1);
+
+    private static final byte[] CONTINUE = "HTTP/1.1 100 Continue\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1);
+
+    private final HytaleVotifierPlugin plugin;
+    private final HttpServerConfig config;
+    private final List<Context> contexts = new ArrayList<>();
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+    private final long idleTimeoutNanos;
+
+    private ServerSocketChannel serverChannel;
+    private EventLoop[] loops;
+    private int nextLoop;
+    private volatile boolean running;
+    private volatile CachedDate cachedDate = new CachedDate(0, "");
+
+    private record Context(String path, HttpHandler handler, long maxBodyBytes) {}
+
+    private record CachedDate(long epochSecond, String value) {}
+
+    /**
+     * Where a chunked request body decoder is: expecting a chunk-size line, inside chunk data,
+     * expecting the CRLF after chunk data, or reading trailer fields after the last chunk.
+     */
+    private enum ChunkState { SIZE, DATA, DATA_END, TRAILERS }
+
+    /**
+     * Creates a new server; call {@link #createContext} for each endpoint, then {@link #start}.
+     *
+     * @param plugin the plugin instance
+     * @param config the fallback HTTP server configuration
+     */
+    public NioHttpServer(HytaleVotifierPlugin plugin, HttpServerConfig config) {
+        this.plugin = plugin;
+        this.config = config;
+        this.idleTimeoutNanos = TimeUnit.SECONDS.toNanos(config.idleTimeoutSeconds());
+    }
+
+    /**
+     * Registers a handler for every request path starting with {@code path}, like
+     * {@link com.sun.net.httpserver.HttpServer#createContext}.
+     *
+     * @param path         the path prefix
+     * @param handler      the request handler
+     * @param maxBodyBytes the largest request body accepted for this context
+     */
+    public void createContext(String path, HttpHandler handler, long maxBodyBytes) {
+        contexts.add(new Context(path, handler, maxBodyBytes));
+        // Longest prefix first, so the most specific context matches
+        contexts.sort(Comparator.comparingInt((Context c) -> c.path().length()).reversed());
+    }
+
+    /**
+     * Binds the port and starts the event loops.
+     *
+     * @param port the port to listen on
+     * @throws IOException if the port cannot be bound
+     */
+    public void start(int port) throws IOException {
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        serverChannel.bind(new InetSocketAddress(port), config.backlog());
+        serverChannel.configureBlocking(false);
+
+        running = true;
+        loops = new EventLoop[config.eventLoops()];
+        for (int i = 0; i < loops.length; i++) {
+            loops[i] = new EventLoop(i);
+        }
+        // The first loop also accepts connections and hands them out round-robin
+        serverChannel.register(loops[0].selector, SelectionKey.OP_ACCEPT);
+        for (EventLoop loop : loops) {
+            loop.thread.start();
+        }
+    }
+
+    /**
+     * Stops accepting connections, closes open connections and stops the event loops.
+     */
+    public void stop() {
+        running = false;
+        try {
+            if (serverChannel != null) {
+                serverChannel.close();
+            }
+        } catch (IOException e) {
+            // Ignore close errors
+        }
+        if (loops != null) {
+            for (EventLoop loop : loops) {
+                loop.selector.wakeup();
+            }
+            for (EventLoop loop : loops) {
+                try {
+                    loop.thread.join(SELECT_TIMEOUT_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        workers.shutdown();
+    }
+
+    private Context route(String path) {
+        for (Context context : contexts) {
+            if (path.startsWith(context.path())) {
+                return context;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Encodes a complete response. 204 and 304 responses have no body or Content-Length.
+     */
+    private ByteBuffer encodeResponse(int code, Headers headers, byte[] body, boolean keepAlive) {
+        boolean hasBody = code != 204 && code != 304;
+        byte[] headBytes = encodeHead(code, headers, hasBody ? "Content-Length: " + body.length : null, keepAlive);
+        ByteBuffer buffer = ByteBuffer.allocate(headBytes.length + (hasBody ? body.length : 0));
+        buffer.put(headBytes);
+        if (hasBody) {
+            buffer.put(body);
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Encodes a response head.
+     *
+     * @param framing the Content-Length or Transfer-Encoding header line, or null for none
+     */
+    private byte[] encodeHead(int code, Headers headers, String framing, boolean keepAlive) {
+        StringBuilder head = new StringBuilder(160);
+        head.append("HTTP/1.1 ").append(code).append(' ').append(reasonPhrase(code)).append("\r\n");
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            for (String value : header.getValue()) {
+                head.append(header.getKey()).append(": ").append(value).append("\r\n");
+            }
+        }
+        if (framing != null) {
+            head.append(framing).append("\r\n");
+        }
+        head.append("Date: ").append(httpDate()).append("\r\n");
+        head.append(keepAlive ? "Connection: keep-alive\r\n\r\n" : "Connection: close\r\n\r\n");
+        return head.toString().getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private ByteBuffer encodeError(int code, String message, boolean keepAlive) {
+        Headers headers = new Headers();
+        headers.set("Content-Type", "application/json");
+        return encodeResponse(code, headers, ResponseBodies.error(message), keepAlive);
+    }
+
+    private String httpDate() {
+        long now = System.currentTimeMillis() / 1000;
+        CachedDate date = cachedDate;
+        if (date.epochSecond() != now) {
+            date = new CachedDate(now, DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC)));
+            cachedDate = date;
+        }
+        return date.value();
+    }
+
+    private static String reasonPhrase(int code) {
+        return switch (code) {
+            case 200 -> "OK";
+            case 204 -> "No Content";
+            case 304 -> "Not Modified";
+            case 400 -> "Bad Request";
+            case 401 -> "Unauthorized";
+            case 403 -> "Forbidden";
+            case 404 -> "Not Found";
+            case 405 -> "Method Not Allowed";
+            case 411 -> "Length Required";
+            case 413 -> "Content Too Large";
+            case 415 -> "Unsupported Media Type";
+            case 429 -> "Too Many Requests";
+            case 431 -> "Request Header Fields Too Large";
+            case 500 -> "Internal Server Error";
+            case 501 -> "Not Implemented";
+            case 503 -> "Service Unavailable";
+            default -> "Unknown";
+        };
+    }
+
+    /**
+     * One selector thread and the connections registered with it.
+     */
+    private final class EventLoop implements Runnable {
+
+        private final Selector selector;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final Thread thread;
+
+        /**
+         * Open connections, least recently active first, so the idle sweep can stop at the first
+         * connection that has seen traffic within the timeout.
+         */
+        private final Set<Connection> connections = new LinkedHashSet<>();
+        private long lastIdleSweep = System.nanoTime();
+
+        EventLoop(int index) throws IOException {
+            this.selector = Selector.open();
+            this.thread = new Thread(this, "VotifierHttp-EventLoop-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        /**
+         * Runs a task on this loop's thread.
+         */
+        void execute(Runnable task) {
+            tasks.add(task);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                try {
+                    selector.select(SELECT_TIMEOUT_MS);
+                    Runnable task;
+                    while ((task = tasks.poll()) != null) {
+                        task.run();
+                    }
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else if (key.attachment() instanceof Connection connection) {
+                            connection.onReady(key);
+                        }
+                    }
+                    closeIdleConnections();
+                } catch (ClosedSelectorException e) {
+                    break;
+                } catch (IOException e) {
+                    plugin.getLogger().at(Level.WARNING).log("HTTP event loop error: %s", e.getMessage());
+                }
+            }
+            for (Connection connection : new ArrayList<>(connections)) {
+                connection.close();
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                // Ignore close errors
+            }
+        }
+
+        private void accept() throws IOException {
+            SocketChannel channel;
+            while ((channel = serverChannel.accept()) != null) {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                EventLoop target = loops[nextLoop++ % loops.length];
+                SocketChannel accepted = channel;
+                target.execute(() -> target.register(accepted));
+            }
+        }
+
+        private void register(SocketChannel channel) {
+            try {
+                Connection connection = new Connection(this, channel);
+                connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+                connections.add(connection);
+            } catch (IOException e) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // Ignore close errors
+                }
+            }
+        }
+
+        /**
+         * Closes connections idle for longer than the timeout, at most once per
+         * {@link #IDLE_SWEEP_INTERVAL_NANOS}. Connections waiting for their handler are not idle.
+         */
+        private void closeIdleConnections() {
+            long now = System.nanoTime();
+            if (now - lastIdleSweep < IDLE_SWEEP_INTERVAL_NANOS) {
+                return;
+            }
+            lastIdleSweep = now;
+            List<Connection> idle = new ArrayList<>();
+            for (Connection connection : connections) {
+                if (now - connection.lastActivity <= idleTimeoutNanos) {
+                    // Every later connection has been active more recently
+                    break;
+                }
+                if (!connection.awaitingHandler()) {
+                    idle.add(connection);
+                }
+            }
+            for (Connection connection : idle) {
+                connection.close();
+            }
+        }
+    }
+
+    /**
+     * A client connection. Only touched by its event loop's thread, except for the blocking
+     * writes of a streamed response, which hand each chunk to the event loop.
+     */
+    private final class Connection {
+
+        private final EventLoop loop;
+        private final SocketChannel channel;
+        private final InetSocketAddress remoteAddress;
+        private final InetSocketAddress localAddress;
+        private final ByteBuffer in;
+        private SelectionKey key;
+
+        /** Bytes of the buffered head already scanned for the end of the headers. */
+        private int scanned;
+
+        private Request request;
+        private byte[] body;
+        private int bodyLength;
+        private ChunkState chunkState;
+        private long chunkRemaining;
+
+        private ByteBuffer out;
+        private boolean closeAfterWrite;
+        private boolean handling;
+        private long lastActivity = System.nanoTime();
+
+        /** Completed once the current chunk of a streamed response has been written. */
+        private CompletableFuture<Void> written;
+
+        Connection(EventLoop loop, SocketChannel channel) throws IOException {
+            this.loop = loop;
+            this.channel = channel;
+            this.remoteAddress = (InetSocketAddress) channel.getRemoteAddress();
+            this.localAddress = (InetSocketAddress) channel.getLocalAddress();
+            this.in = ByteBuffer.allocate(config.maxHeaderBytes());
+        }
+
+        void onReady(SelectionKey key) {
+            try {
+                if (key.isWritable()) {
+                    flush();
+                } else if (key.isReadable()) {
+                    read();
+                }
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        /**
+         * Whether the connection is quiet because its handler is still running, rather than
+         * because the client is.
+         */
+        boolean awaitingHandler() {
+            return handling && written == null;
+        }
+
+        private void touch() {
+            lastActivity = System.nanoTime();
+            if (!channel.isOpen()) {
+                return;
+            }
+            loop.connections.remove(this);
+            loop.connections.add(this);
+        }
+
+        private void read() throws IOException {
+            int n;
+            if (body != null && chunkState == null) {
+                // Content-Length body: read straight into the body buffer, growing it as needed
+                if (bodyLength == body.length) {
+                    body = Arrays.copyOf(body, (int) Math.min(request.contentLength(), (long) body.length * 2));
+                }
+                n = channel.read(ByteBuffer.wrap(body, bodyLength, body.length - bodyLength));
+                if (n > 0) {
+                    bodyLength += n;
+                }
+            } else {
+                n = channel.read(in);
+            }
+            if (n < 0) {
+                close();
+                return;
+            }
+            touch();
+            process();
+        }
+
+        /**
+         * Parses the next buffered request and hands it to a handler once its body is complete.
+         */
+        private void process() throws IOException {
+            if (handling || out != null) {
+                return;
+            }
+            if (request == null && !readHead()) {
+                return;
+            }
+            if (chunkState != null) {
+                if (!decodeChunks()) {
+                    return;
+                }
+            } else if (body != null && bodyLength < request.contentLength()) {
+                return;
+            }
+            dispatch();
+        }
+
+        /**
+         * Parses a request head from the buffer, applying the limits.
+         *
+         * @return true if a request was parsed; false if more bytes are needed or an error was sent
+         */
+        private boolean readHead() throws IOException {
+            byte[] buffer = in.array();
+            int length = in.position();
+
+            // Skip blank lines between pipelined requests
+            int start = 0;
+            while (start < length && (buffer[start] == '\r' || buffer[start] == '\n')) {
+                start++;
+            }
+            if (start > 0) {
+                consume(start);
+                length = in.position();
+                scanned = 0;
+            }
+
+            int headEnd = -1;
+            for (int i = Math.max(scanned, 3); i < length; i++) {
+                if (buffer[i] == '\n' && buffer[i - 1] == '\r' && buffer[i - 2] == '\n' && buffer[i - 3] == '\r') {
+                    headEnd = i + 1;
+                    break;
+                }
+            }
+            if (headEnd < 0) {
+                scanned = length;
+                if (!in.hasRemaining()) {
+                    respond(encodeError(431, "Request headers too large", false), true);
+                }
+                return false;
+            }
+            scanned = 0;
+
+            Request parsed = Request.parse(new String(buffer, 0, headEnd - 4, StandardCharsets.ISO_8859_1));
+            consume(headEnd);
+            if (parsed == null) {
+                respond(encodeError(400, "Malformed request", false), true);
+                return false;
+            }
+            if (parsed.transferEncoding() != null && !parsed.chunked()) {
+                respond(encodeError(501, "Transfer encoding not supported", false), true);
+                return false;
+            }
+            boolean hasBody = parsed.chunked() || parsed.contentLength() > 0;
+            Context context = route(parsed.path());
+            if (context == null) {
+                respond(encodeError(404, "Not found", parsed.keepAlive() && !hasBody), !parsed.keepAlive() || hasBody);
+                return false;
+            }
+            // Everything below is decided from the head alone; the body is never read if rejected
+            long limit = Math.min(context.maxBodyBytes(), MAX_BODY_BUFFER);
+            if (parsed.contentLength() > limit || (parsed.chunked() && limit == 0)) {
+                respond(encodeError(413, "Request body too large", false), true);
+                return false;
+            }
+            if (hasBody && !allowsSource(parsed)) {
+                respond(encodeError(403, "Source address not allowed", false), true);
+                if (plugin.getConfig().debug()) {
+                    plugin.getLogger().at(Level.INFO).log("Rejected HTTP request from %s before reading its body: not in allowlist",
+                            remoteAddress);
+                }
+                return false;
+            }
+
+            request = parsed.withContext(context);
+            if (parsed.chunked()) {
+                body = new byte[(int) Math.min(INITIAL_BODY_BYTES, limit)];
+                chunkState = ChunkState.SIZE;
+            } else if (parsed.contentLength() > 0) {
+                body = new byte[(int) Math.min(INITIAL_BODY_BYTES, parsed.contentLength())];
+                int buffered = Math.min(in.position(), body.length);
+                System.arraycopy(buffer, 0, body, 0, buffered);
+                consume(buffered);
+                bodyLength = buffered;
+            }
+            if (hasBody && parsed.expectContinue() && !bodyBuffered(parsed)) {
+                channel.write(ByteBuffer.wrap(CONTINUE));
+            }
+            return true;
+        }
+
+        /**
+         * Whether the whole body of a request that has just been parsed may already be buffered.
+         */
+        private boolean bodyBuffered(Request parsed) {
+            return parsed.chunked() ? in.position() > 0 : bodyLength == parsed.contentLength();
+        }
+
+        private boolean allowsSource(Request parsed) {
+            SourceAllowlist allowlist = plugin.getSourceAllowlist();
+            return allowlist == null || allowlist.allowsConnection(
+                    FallbackHttpServer.resolveClientAddress(plugin, remoteAddress, parsed.headers()));
+        }
+
+        /**
+         * Decodes buffered chunked body data into the body buffer.
+         *
+         * @return true once the last chunk and trailers have been read; false if more bytes are
+         *         needed or an error was sent
+         */
+        private boolean decodeChunks() throws IOException {
+            byte[] buffer = in.array();
+            int length = in.position();
+            int position = 0;
+            while (position < length) {
+                if (chunkState == ChunkState.DATA) {
+                    int n = (int) Math.min(chunkRemaining, length - position);
+                    appendBody(buffer, position, n);
+                    position += n;
+                    chunkRemaining -= n;
+                    if (chunkRemaining == 0) {
+                        chunkState = ChunkState.DATA_END;
+                    }
+                    continue;
+                }
+                int lineEnd = indexOfCrlf(buffer, position, length);
+                if (lineEnd < 0) {
+                    break;
+                }
+                int lineStart = position;
+                position = lineEnd + 2;
+                switch (chunkState) {
+                    case SIZE -> {
+                        long size = parseChunkSize(buffer, lineStart, lineEnd);
+                        if (size < 0) {
+                            respond(encodeError(400, "Malformed chunked body", false), true);
+                            return false;
+                        }
+                        if (bodyLength + size > bodyLimit()) {
+                            // Rejected from the chunk size alone; its data is never read
+                            respond(encodeError(413, "Request body too large", false), true);
+                            return false;
+                        }
+                        chunkState = size == 0 ? ChunkState.TRAILERS : ChunkState.DATA;
+                        chunkRemaining = size;
+                    }
+                    case DATA_END -> {
+                        if (lineEnd != lineStart) {
+                            respond(encodeError(400, "Malformed chunked body", false), true);
+                            return false;
+                        }
+                        chunkState = ChunkState.SIZE;
+                    }
+                    case TRAILERS -> {
+                        // Trailer fields are ignored; an empty line ends the body
+                        if (lineEnd == lineStart) {
+                            consume(position);
+                            chunkState = null;
+                            return true;
+                        }
+                    }
+                    default -> throw new IllegalStateException("Unexpected chunk state " + chunkState);
+                }
+            }
+            consume(position);
+            if (!in.hasRemaining()) {
+                // A chunk-size or trailer line longer than the whole header buffer
+                respond(encodeError(400, "Malformed chunked body", false), true);
+            }
+            return false;
+        }
+
+        /**
+         * Appends decoded chunk data to the body, growing the buffer up to the context's limit
+         * (chunk sizes have already been checked against it).
+         */
+        private void appendBody(byte[] source, int offset, int length) {
+            if (bodyLength + length > body.length) {
+                long grown = Math.max((long) body.length * 2, bodyLength + (long) length);
+                body = Arrays.copyOf(body, (int) Math.min(grown, bodyLimit()));
+            }
+            System.arraycopy(source, offset, body, bodyLength, length);
+            bodyLength += length;
+        }
+
+        private long bodyLimit() {
+            return Math.min(request.context().maxBodyBytes(), MAX_BODY_BUFFER);
+        }
+
+        private void consume(int count) {
+            byte[] buffer = in.array();
+            int remaining = in.position() - count;
+            System.arraycopy(buffer, count, buffer, 0, remaining);
+            in.position(remaining);
+        }
+
+        private void dispatch() {
+            Request current = request;
+            NioHttpExchange exchange = new NioHttpExchange(current.method(), current.uri(), current.protocol(),
+                    current.headers(), new ByteArrayInputStream(body != null ? body : new byte[0], 0, bodyLength),
+                    remoteAddress, localAddress, (code, headers) -> startStream(current, code, headers));
+            request = null;
+            body = null;
+            bodyLength = 0;
+            handling = true;
+            key.interestOps(0);
+
+            workers.execute(() -> {
+                ByteBuffer response = null;
+                boolean keepAlive = current.keepAlive();
+                try {
+                    current.context().handler().handle(exchange);
+                    if (exchange.streamedBody() != null) {
+                        // Ends the chunked body if the handler did not close the stream itself
+                        exchange.streamedBody().close();
+                        keepAlive = keepAlive && streamsChunked(current);
+                    } else if (exchange.getResponseCode() < 0) {
+                        keepAlive = false;
+                        response = encodeError(500, "Internal server error", false);
+                    } else {
+                        response = encodeResponse(exchange.getResponseCode(), exchange.getResponseHeaders(),
+                                exchange.responseBytes(), keepAlive);
+                    }
+                } catch (Exception e) {
+                    plugin.getLogger().at(Level.WARNING).log("Error handling HTTP request %s: %s", current.path(), e.getMessage());
+                    keepAlive = false;
+                    // Once a streamed response has started, the connection can only be closed
+                    response = exchange.streamedBody() == null ? encodeError(500, "Internal server error", false) : null;
+                }
+                ByteBuffer finalResponse = response;
+                boolean close = !keepAlive;
+                loop.execute(() -> {
+                    handling = false;
+                    try {
+                        if (finalResponse != null) {
+                            respond(finalResponse, close);
+                        } else if (channel.isOpen()) {
+                            finishResponse(close);
+                        }
+                    } catch (IOException e) {
+                        close();
+                    }
+                });
+            });
+        }
+
+        /**
+         * Sends the head of a streamed response and returns the stream for its body. Called on
+         * the handler's thread.
+         */
+        private OutputStream startStream(Request current, int code, Headers headers) throws IOException {
+            boolean chunked = streamsChunked(current);
+            // HTTP/1.0 clients cannot read chunked bodies; the end of the body is marked by closing
+            writeFromHandler(ByteBuffer.wrap(encodeHead(code, headers,
+                    chunked ? "Transfer-Encoding: chunked" : null, chunked && current.keepAlive())));
+            return new StreamedBody(chunked);
+        }
+
+        /**
+         * Queues a buffer for writing and blocks the handler's thread until it has been written,
+         * so a streamed response has at most one chunk in flight.
+         */
+        private void writeFromHandler(ByteBuffer data) throws IOException {
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            loop.execute(() -> {
+                if (!channel.isOpen()) {
+                    done.completeExceptionally(new IOException("Connection closed"));
+                    return;
+                }
+                written = done;
+                out = data;
+                closeAfterWrite = false;
+                try {
+                    flush();
+                } catch (IOException e) {
+                    close();
+                }
+            });
+            try {
+                done.get();
+            } catch (ExecutionException e) {
+                throw new IOException("Failed to write response", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while writing response");
+            }
+        }
+
+        private void respond(ByteBuffer response, boolean close) throws IOException {
+            if (!channel.isOpen()) {
+                return;
+            }
+            out = response;
+            closeAfterWrite = close;
+            flush();
+        }
+
+        private void flush() throws IOException {
+            channel.write(out);
+            touch();
+            if (out.hasRemaining()) {
+                key.interestOps(SelectionKey.OP_WRITE);
+                return;
+            }
+            out = null;
+            if (written != null) {
+                // Part of a streamed response; the handler is still running
+                CompletableFuture<Void> done = written;
+                written = null;
+                key.interestOps(0);
+                done.complete(null);
+                return;
+            }
+            finishResponse(closeAfterWrite);
+        }
+
+        /**
+         * Continues with the next request once a response has been written, or closes.
+         */
+        private void finishResponse(boolean close) throws IOException {
+            if (close) {
+                close();
+                return;
+            }
+            key.interestOps(SelectionKey.OP_READ);
+            // A pipelined request may already be buffered
+            process();
+        }
+
+        void close() {
+            loop.connections.remove(this);
+            if (written != null) {
+                written.completeExceptionally(new IOException("Connection closed"));
+                written = null;
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Ignore close errors
+            }
+        }
+
+        /**
+         * The body of a streamed response, written in chunks of up to
+         * {@link #RESPONSE_CHUNK_BYTES} on the handler's thread.
+         */
+        private final class StreamedBody extends OutputStream {
+
+            private final boolean chunked;
+            private final byte[] buffer = new byte[RESPONSE_CHUNK_BYTES];
+            private int length;
+            private boolean closed;
+
+            StreamedBody(boolean chunked) {
+                this.chunked = chunked;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                if (length == buffer.length) {
+                    flush();
+                }
+                buffer[length++] = (byte) b;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                while (len > 0) {
+                    if (length == buffer.length) {
+                        flush();
+                    }
+                    int n = Math.min(len, buffer.length - length);
+                    System.arraycopy(b, off, buffer, length, n);
+                    length += n;
+                    off += n;
+                    len -= n;
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                if (closed) {
+                    throw new IOException("Response body closed");
+                }
+                if (length > 0) {
+                    writeFromHandler(encodeChunk(false));
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (closed) {
+                    return;
+                }
+                if (length > 0 || chunked) {
+                    writeFromHandler(encodeChunk(true));
+                }
+                closed = true;
+            }
+
+            private ByteBuffer encodeChunk(boolean last) {
+                byte[] size = chunked && length > 0
+                        ? (Integer.toHexString(length) + "\r\n").getBytes(StandardCharsets.ISO_8859_1) : new byte[0];
+                byte[] end = chunked && length > 0 ? CRLF : new byte[0];
+                byte[] terminator = chunked && last ? LAST_CHUNK : new byte[0];
+                ByteBuffer chunk = ByteBuffer.allocate(size.length + length + end.length + terminator.length);
+                chunk.put(size).put(buffer, 0, length).put(end).put(terminator);
+                length = 0;
+                return chunk.flip();
+            }
+        }
+    }
+
+    private static boolean streamsChunked(Request request) {
+        return request.protocol().equals("HTTP/1.1");
+    }
+
+    private static int indexOfCrlf(byte[] buffer, int from, int to) {
+        for (int i = from; i + 1 < to; i++) {
+            if (buffer[i] == '\r' && buffer[i + 1] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parses a chunk-size line, ignoring chunk extensions.
+     *
+     * @return the chunk size, or -1 if the line is malformed
+     */
+    private static long parseChunkSize(byte[] buffer, int from, int to) {
+        long size = 0;
+        int i = from;
+        int digit;
+        while (i < to && (digit = Character.digit(buffer[i], 16)) >= 0) {
+            if (i - from == 15) {
+                return -1;
+            }
+            size = size * 16 + digit;
+            i++;
+        }
+        if (i == from) {
+            return -1;
+        }
+        while (i < to && (buffer[i] == ' ' || buffer[i] == '\t')) {
+            i++;
+        }
+        return i == to || buffer[i] == ';' ? size : -1;
+    }
+
+    /**
+     * A parsed request line and headers.
+     */
+    private record Request(String method, URI uri, String path, String protocol, Headers headers,
+                           long contentLength, String transferEncoding, boolean keepAlive, boolean expectContinue,
+                           Context context) {
+
+        Request withContext(Context context) {
+            return new Request(method, uri, path, protocol, headers, contentLength, transferEncoding, keepAlive,
+                    expectContinue, context);
+        }
+
+        /**
+         * Whether the body uses chunked transfer encoding, the only transfer coding supported.
+         */
+        boolean chunked() {
+            return "chunked".equalsIgnoreCase(transferEncoding);
+        }
+
+        /**
+         * Parses a request head (without the final blank line).
+         *
+         * @return the request, or null if it is malformed
+         */
+        static Request parse(String head) {
+            String[] lines = head.split("\r\n");
+            String[] requestLine = lines[0].split(" ");
+            if (requestLine.length != 3 || !requestLine[2].startsWith("HTTP/1.")) {
+                return null;
+            }
+            URI uri;
+            try {
+                uri = new URI(requestLine[1]);
+            } catch (Exception e) {
+                return null;
+            }
+            String path = uri.getRawPath() != null ? uri.getRawPath() : "";
+
+            Headers headers = new Headers();
+            for (int i = 1; i < lines.length; i++) {
+                String line = lines[i];
+                int colon = line.indexOf(':');
+                if (colon <= 0 || line.charAt(0) == ' ' || line.charAt(0) == '\t') {
+                    // Missing name, or obsolete line folding
+                    return null;
+                }
+                headers.add(line.substring(0, colon).trim(), line.substring(colon + 1).trim());
+            }
+
+            long contentLength = 0;
+            List<String> lengths = headers.get("Content-Length");
+            if (lengths != null) {
+                try {
+                    contentLength = Long.parseLong(lengths.getFirst());
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+                for (String length : lengths) {
+                    if (!length.equals(lengths.getFirst())) {
+                        return null;
+                    }
+                }
+                if (contentLength < 0) {
+                    return null;
+                }
+            }
+            List<String> transferEncodings = headers.get("Transfer-Encoding");
+            String transferEncoding = null;
+            if (transferEncodings != null) {
+                // A body framed both ways is a request smuggling attempt, not something to resolve
+                if (lengths != null) {
+                    return null;
+                }
+                transferEncoding = String.join(",", transferEncodings).trim();
+            }
+
+            String connection = headers.getFirst("Connection");
+            boolean http11 = requestLine[2].equals("HTTP/1.1");
+            String connectionOptions = connection != null ? connection.toLowerCase(Locale.ROOT) : null;
+            boolean keepAlive = connectionOptions == null ? http11
+                    : http11 ? !connectionOptions.contains("close") : connectionOptions.contains("keep-alive");
+            boolean expectContinue = "100-continue".equalsIgnoreCase(headers.getFirst("Expect"));
+
+            return new Request(requestLine[0], uri, path, requestLine[2], headers, contentLength, transferEncoding,
+                    keepAlive, expectContinue, null);
+        }
+    }
+}
@@ -11,6 +11,10 @@ import java.util.logging.Level;
  * <p>This class is loaded lazily to avoid {@link NoClassDefFoundError} when
  * the Nitrado WebServer plugin is not installed. All references to Jakarta
  * Servlet classes are contained within this class and its dependencies.</p>
+ *
+ * <p>Vote requests are handled on the WebServer's request threads: {@code addServlet} registers
+ * servlets programmatically and does not expose the registration, so they cannot be marked
+ * async-capable.</p>
  */
 public final class NitradoWebServerBridge {
 
@@ -19,7 +23,9 @@ public final class NitradoWebServerBridge {
     }
 
     /**
-     * Registers the vote and status servlets with the Nitrado WebServer.
+     * Registers the vote and status servlets (and the challenge servlet if replay protection
+     * is enabled, the batch vote servlet if batches are enabled, and the metrics servlet if metrics
+     * are enabled) with the Nitrado WebServer.
      *
      * @param plugin    the HytaleVotifier plugin instance
      * @param webServer the Nitrado WebServer plugin instance
@@ -29,6 +35,18 @@ public final class NitradoWebServerBridge {
         try {
             webServer.addServlet(plugin, "/vote", new VoteServlet(plugin));
             webServer.addServlet(plugin, "/status", new StatusServlet(plugin));
+            if (plugin.getReplayGuard() != null) {
+                webServer.addServlet(plugin, "/challenge", new ChallengeServlet(plugin));
+                plugin.getLogger().at(Level.INFO).log("Registered HTTP endpoint at /Hyvote/HytaleVotifier/challenge");
+            }
+            if (plugin.getConfig().voteBatch().enabled()) {
+                webServer.addServlet(plugin, "/votes/batch", new BatchVoteServlet(plugin));
+                plugin.getLogger().at(Level.INFO).log("Registered HTTP endpoint at /Hyvote/HytaleVotifier/votes/batch");
+            }
+            if (plugin.getConfig().metrics().enabled()) {
+                webServer.addServlet(plugin, "/metrics", new MetricsServlet(plugin));
+                plugin.getLogger().at(Level.INFO).log("Registered HTTP endpoint at /Hyvote/HytaleVotifier/metrics");
+            }
             plugin.getLogger().at(Level.INFO).log("Registered HTTP endpoints at /Hyvote/HytaleVotifier/vote and /status");
             return true;
         } catch (Exception e) {
@@ -0,0 +1,182 @@
+package org.hyvote.plugins.votifier.http;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pre-encoded JSON response bodies for the HTTP endpoints and the socket protocol.
+ *
+ * <p>Fixed bodies (socket "ok", each constant error message) are encoded to UTF-8 once and
+ * reused, and bodies that embed a value are assembled from pre-encoded fragments into a single
+ * array, so responses can be written with one {@code write} call without reflection or a
+ * {@code Writer}. Strings are escaped the way Gson's default (HTML-safe) writer escapes them. The
+ * status body is cached by {@link StatusEndpoint}.</p>
+ */
+public final class ResponseBodies {
+
+    /**
+     * Cached error messages must be string constants, so the cache stays small; the bound only
+     * guards against a caller passing a dynamic message by mistake.
+     */
+    private static final int MAX_CACHED_ERRORS = 64;
+
+    /** Socket protocol success response: {@code {"status":"ok"}}. */
+    public static final byte[] SOCKET_OK = utf8("{\"status\":\"ok\"}");
+
+    private static final byte[] VOTE_PROCESSED_PREFIX =
+            utf8("{\"status\":\"ok\",\"message\":\"Vote processed for ");
+    private static final byte[] VOTE_PROCESSED_SUFFIX = utf8("\"}");
+
+    private static final Map<String, byte[]> ERRORS = new ConcurrentHashMap<>();
+    private static final Map<String, byte[]> SOCKET_ERRORS = new ConcurrentHashMap<>();
+
+    private ResponseBodies() {
+        // Utility class
+    }
+
+    /**
+     * Returns the success body for a processed vote.
+     *
+     * @param username the player the vote was processed for
+     * @return {@code {"status":"ok","message":"Vote processed for <username>"}}
+     */
+    public static byte[] voteProcessed(String username) {
+        byte[] name = utf8(escape(username));
+        byte[] body = new byte[VOTE_PROCESSED_PREFIX.length + name.length + VOTE_PROCESSED_SUFFIX.length];
+        System.arraycopy(VOTE_PROCESSED_PREFIX, 0, body, 0, VOTE_PROCESSED_PREFIX.length);
+        System.arraycopy(name, 0, body, VOTE_PROCESSED_PREFIX.length, name.length);
+        System.arraycopy(VOTE_PROCESSED_SUFFIX, 0, body, VOTE_PROCESSED_PREFIX.length + name.length, VOTE_PROCESSED_SUFFIX.length);
+        return body;
+    }
+
+    /**
+     * Returns the HTTP error body for a constant message. The body is cached per message.
+     *
+     * @param message the error message, which must be a string constant
+     * @return {@code {"status":"error","message":"<message>"}}
+     */
+    public static byte[] error(String message) {
+        return cached(ERRORS, message, "{\"status\":\"error\",\"message\":\"" + escape(message) + "\"}");
+    }
+
+    /**
+     * Returns the socket protocol error body for a constant message. The body is cached per message.
+     *
+     * @param message the error message, which must be a string constant
+     * @return {@code {"status":"error","cause":"<message>","errorMessage":"<message>"}}
+     */
+    public static byte[] socketError(String message) {
+        return cached(SOCKET_ERRORS, message, socketErrorJson(message));
+    }
+
+    /**
+     * Returns the socket protocol error body for a message with a dynamic detail, such as a parser
+     * error. Not cached, since the detail varies per request.
+     *
+     * @param message the constant part of the error message
+     * @param detail  the detail appended after {@code ": "}
+     * @return {@code {"status":"error","cause":"<message>: <detail>","errorMessage":"<message>: <detail>"}}
+     */
+    public static byte[] socketError(String message, String detail) {
+        return utf8(socketErrorJson(message + ": " + detail));
+    }
+
+    /**
+     * Returns the socket protocol error body for a vote shed under overload. Not cached, since it
+     * embeds the retry delay.
+     *
+     * @param retryAfterSeconds how long the client should wait before retrying
+     * @return {@code {"status":"error","cause":"Overloaded","errorMessage":"...","retryAfter":<seconds>}}
+     */
+    public static byte[] socketOverloaded(int retryAfterSeconds) {
+        return utf8("{\"status\":\"error\",\"cause\":\"Overloaded\",\"errorMessage\":\"Server overloaded, retry after "
+                + retryAfterSeconds + " seconds\",\"retryAfter\":" + retryAfterSeconds + "}");
+    }
+
+    /**
+     * Returns the body for an issued V2 challenge.
+     *
+     * @param challenge        the issued challenge (URL-safe Base64, no escaping needed)
+     * @param expiresInSeconds how long the challenge is valid
+     * @return {@code {"status":"ok","challenge":"<challenge>","expiresInSeconds":<n>}}
+     */
+    public static byte[] challenge(String challenge, long expiresInSeconds) {
+        return utf8("{\"status\":\"ok\",\"challenge\":\"" + challenge + "\",\"expiresInSeconds\":" + expiresInSeconds + "}");
+    }
+
+    /**
+     * Writes a pre-encoded JSON body as a servlet response in a single write.
+     *
+     * @param resp       the servlet response
+     * @param statusCode the HTTP status code
+     * @param body       the encoded body
+     * @throws IOException if writing the response fails
+     */
+    public static void send(HttpServletResponse resp, int statusCode, byte[] body) throws IOException {
+        resp.setStatus(statusCode);
+        resp.setContentType("application/json");
+        resp.setContentLength(body.length);
+        resp.getOutputStream().write(body);
+    }
+
+    private static String socketErrorJson(String message) {
+        String escaped = escape(message);
+        return "{\"status\":\"error\",\"cause\":\"" + escaped + "\",\"errorMessage\":\"" + escaped + "\"}";
+    }
+
+    private static byte[] cached(Map<String, byte[]> cache, String key, String json) {
+        byte[] body = cache.get(key);
+        if (body == null) {
+            body = utf8(json);
+            if (cache.size() < MAX_CACHED_ERRORS) {
+                cache.putIfAbsent(key, body);
+            }
+        }
+        return body;
+    }
+
+    /**
+     * Escapes a string for use inside a JSON string literal, producing the same output as Gson's
+     * default writer: the short escapes Gson uses, unicode escapes for other control characters,
+     * the line and paragraph separators, and the HTML-sensitive characters.
+     */
+    static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder sb = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement = switch (c) {
+                case '"' -> "\\\"";
+                case '\\' -> "\\\\";
+                case '\n' -> "\\n";
+                case '\r' -> "\\r";
+                case '\t' -> "\\t";
+                case '\b' -> "\\b";
+                case '\f' -> "\\f";
+                case '\u2028' -> "\\u2028";
+                case '\u2029' -> "\\u2029";
+                default -> c < 0x20 || c == '<' || c == '>' || c == '&' || c == '=' || c == '\''
+                        ? String.format("\\u%04x", (int) c) : null;
+            };
+            if (replacement != null) {
+                if (sb == null) {
+                    sb = new StringBuilder(value.length() + 16).append(value, 0, i);
+                }
+                sb.append(replacement);
+            } else if (sb != null) {
+                sb.append(c);
+            }
+        }
+        return sb != null ? sb.toString() : value;
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
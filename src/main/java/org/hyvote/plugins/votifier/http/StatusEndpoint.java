@@ -0,0 +1,249 @@
+package org.hyvote.plugins.votifier.http;
+
+import com.google.gson.Gson;
+import org.hyvote.plugins.votifier.HealthCheckConfig;
+import org.hyvote.plugins.votifier.HytaleVotifierPlugin;
+import org.hyvote.plugins.votifier.VotifierConfig;
+import org.hyvote.plugins.votifier.journal.VoteJournal;
+import org.hyvote.plugins.votifier.reward.RewardScheduler;
+import org.hyvote.plugins.votifier.storage.VoteStorage;
+import org.hyvote.plugins.votifier.vote.OverloadDetector;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.zip.CRC32;
+
+/**
+ * Pre-encoded bodies and ETags for the status endpoint, shared by StatusServlet and
+ * FallbackHttpServer.
+ *
+ * <p>The regular status body only depends on the configuration and plugin version, so it is
+ * encoded once with an ETag and rebuilt only when either changes; a request costs two reference
+ * comparisons, and a probe sending {@code If-None-Match} gets a 304 without a body.</p>
+ *
+ * <p>With {@code healthCheck.enabled}, {@code ?deep=true} returns a health report with storage,
+ * reward queue, journal and load shedding state. The report is rebuilt on a background thread
+ * every {@code refreshSeconds}, so probes read a cached snapshot and never query storage
+ * themselves:</p>
+ * <pre>
+ * {"status":"ok","version":"1.2.0","serverType":"HytaleVotifier","protocols":{"v1":true,"v2":true},
+ *  "health":{"storage":{"type":"sqlite","status":"ok","probeMillis":1},"rewardQueue":{"depth":0},
+ *  "journal":{"pendingVotes":0},"loadShedding":{"shedding":false,"shedRequests":0}}}
+ * </pre>
+ *
+ * <p>{@code status} is "degraded" while storage is slow or requests are being shed.</p>
+ */
+public final class StatusEndpoint {
+
+    /**
+     * Username looked up to probe storage; it never matches a player.
+     */
+    private static final String STORAGE_PROBE_USERNAME = "#votifier-health-probe";
+
+    private static final Gson GSON = new Gson();
+
+    /**
+     * A pre-encoded body and its ETag.
+     *
+     * @param body the JSON body
+     * @param etag the quoted strong ETag
+     */
+    public record Response(byte[] body, String etag) {}
+
+    private record Basic(VotifierConfig config, String version, Response response) {}
+
+    /**
+     * Protocol status information.
+     */
+    private record ProtocolStatus(boolean v1, boolean v2) {}
+
+    /**
+     * Server status response, encoded once per configuration and version.
+     */
+    private record StatusResponse(String status, String version, String serverType, ProtocolStatus protocols) {
+        StatusResponse(String version, boolean v1Enabled, boolean v2Enabled) {
+            this("ok", version, "HytaleVotifier", new ProtocolStatus(v1Enabled, v2Enabled));
+        }
+    }
+
+    private final HytaleVotifierPlugin plugin;
+    private final HealthCheckConfig healthConfig;
+    private final ScheduledExecutorService refresher;
+
+    private volatile Basic basic;
+    private volatile Response health;
+
+    /**
+     * Creates the status endpoint and, if the deep health report is enabled, starts refreshing it.
+     *
+     * @param plugin the plugin instance
+     */
+    public StatusEndpoint(HytaleVotifierPlugin plugin) {
+        this.plugin = plugin;
+        this.healthConfig = plugin.getConfig().healthCheck();
+        if (healthConfig == null || !healthConfig.enabled()) {
+            this.refresher = null;
+            return;
+        }
+        this.refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "VotifierHealthCheck");
+            t.setDaemon(true);
+            return t;
+        });
+        refresher.scheduleWithFixedDelay(this::refreshHealth, 0, healthConfig.refreshSeconds(), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Returns the response for a status request.
+     *
+     * @param query the raw query string, or null
+     * @return the health report if {@code deep=true} was requested and is available, otherwise the
+     *         regular status
+     */
+    public Response respond(String query) {
+        if (refresher != null && wantsDeep(query)) {
+            Response current = health;
+            if (current != null) {
+                return current;
+            }
+        }
+        return basic();
+    }
+
+    /**
+     * Returns whether an If-None-Match header matches the ETag, so the client's copy is current.
+     *
+     * @param ifNoneMatch the If-None-Match header, or null
+     * @param etag        the current ETag
+     * @return true if a 304 should be sent
+     */
+    public static boolean notModified(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            // Weak comparison, as required for If-None-Match
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag) || tag.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stops refreshing the health report.
+     */
+    public void shutdown() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    private Response basic() {
+        VotifierConfig config = plugin.getConfig();
+        String version = plugin.getPluginVersion();
+        Basic current = basic;
+        if (current == null || current.config() != config || !Objects.equals(current.version(), version)) {
+            current = new Basic(config, version, encode(GSON.toJson(new StatusResponse(version, isV1Enabled(config), isV2Enabled(config)))));
+            basic = current;
+        }
+        return current.response();
+    }
+
+    private void refreshHealth() {
+        try {
+            VotifierConfig config = plugin.getConfig();
+            boolean degraded = false;
+            StringBuilder checks = new StringBuilder(256).append(",\"health\":{\"storage\":");
+            VoteStorage storage = plugin.getVoteStorage();
+            if (storage == null) {
+                checks.append("null");
+            } else {
+                long start = System.nanoTime();
+                storage.getLastVoteTimestamp(STORAGE_PROBE_USERNAME);
+                long probeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                boolean slow = probeMillis > healthConfig.slowStorageMillis();
+                degraded |= slow;
+                checks.append("{\"type\":\"").append(ResponseBodies.escape(storage.getType()))
+                        .append("\",\"status\":\"").append(slow ? "slow" : "ok")
+                        .append("\",\"probeMillis\":").append(probeMillis).append('}');
+            }
+
+            RewardScheduler scheduler = plugin.getRewardScheduler();
+            checks.append(",\"rewardQueue\":");
+            if (scheduler == null) {
+                checks.append("null");
+            } else {
+                checks.append("{\"depth\":").append(scheduler.getQueueDepth()).append('}');
+            }
+
+            VoteJournal journal = plugin.getVoteJournal();
+            checks.append(",\"journal\":");
+            if (journal == null) {
+                checks.append("null");
+            } else {
+                checks.append("{\"pendingVotes\":").append(journal.getPendingCount()).append('}');
+            }
+
+            OverloadDetector detector = plugin.getOverloadDetector();
+            checks.append(",\"loadShedding\":");
+            if (detector == null) {
+                checks.append("null");
+            } else {
+                degraded |= detector.isShedding();
+                checks.append("{\"shedding\":").append(detector.isShedding())
+                        .append(",\"shedRequests\":").append(detector.getShedRequestCount()).append('}');
+            }
+            checks.append('}');
+
+            String version = plugin.getPluginVersion();
+            StringBuilder json = new StringBuilder(checks.length() + 160);
+            json.append("{\"status\":\"").append(degraded ? "degraded" : "ok")
+                    .append("\",\"version\":\"").append(ResponseBodies.escape(version))
+                    .append("\",\"serverType\":\"HytaleVotifier\",\"protocols\":{\"v1\":").append(isV1Enabled(config))
+                    .append(",\"v2\":").append(isV2Enabled(config)).append('}')
+                    .append(checks).append('}');
+            health = encode(json.toString());
+        } catch (Exception e) {
+            plugin.getLogger().at(Level.WARNING).log("Failed to refresh health report: %s", e.getMessage());
+        }
+    }
+
+    private static boolean isV1Enabled(VotifierConfig config) {
+        return config.protocols() != null && Boolean.TRUE.equals(config.protocols().v1Enabled());
+    }
+
+    private static boolean isV2Enabled(VotifierConfig config) {
+        return config.protocols() != null
+                && Boolean.TRUE.equals(config.protocols().v2Enabled())
+                && config.voteSites() != null
+                && config.voteSites().isV2Enabled();
+    }
+
+    private static boolean wantsDeep(String query) {
+        if (query == null) {
+            return false;
+        }
+        for (String parameter : query.split("&")) {
+            if (parameter.equalsIgnoreCase("deep=true") || parameter.equals("deep=1") || parameter.equals("deep")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Response encode(String json) {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        return new Response(body, "\"" + Long.toHexString(crc.getValue()) + "-" + Integer.toHexString(body.length) + "\"");
+    }
+}
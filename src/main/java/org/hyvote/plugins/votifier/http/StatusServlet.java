@@ -13,7 +13,10 @@ import java.util.logging.Level;
  *
  * <p>Endpoint: GET /Hyvote/HytaleVotifier/status</p>
  *
- * <p>Returns JSON with server status information including supported protocols.</p>
+ * <p>Returns JSON with server status information including supported protocols. The body is
+ * pre-encoded by {@link StatusEndpoint} and sent with an ETag; a request with a matching
+ * {@code If-None-Match} gets 304 Not Modified. {@code ?deep=true} returns the health report if it
+ * is enabled.</p>
  *
  * <p>Response format:</p>
  * <pre>
@@ -35,22 +38,18 @@ public class StatusServlet extends HttpServlet {
 
     @Override
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
-        resp.setContentType("application/json");
-
         try {
-            boolean v1Enabled = plugin.getConfig().protocols() != null
-                    && Boolean.TRUE.equals(plugin.getConfig().protocols().v1Enabled());
-            boolean v2Enabled = plugin.getConfig().protocols() != null
-                    && Boolean.TRUE.equals(plugin.getConfig().protocols().v2Enabled())
-                    && plugin.getConfig().voteSites() != null
-                    && plugin.getConfig().voteSites().isV2Enabled();
-
-            resp.setStatus(HttpServletResponse.SC_OK);
-            resp.getWriter().println(VoteProcessor.statusJson(plugin.getPluginVersion(), v1Enabled, v2Enabled));
+            StatusEndpoint.Response status = plugin.getStatusEndpoint().respond(req.getQueryString());
+            resp.setHeader("ETag", status.etag());
+            resp.setHeader("Cache-Control", "no-cache");
+            if (StatusEndpoint.notModified(req.getHeader("If-None-Match"), status.etag())) {
+                resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+            ResponseBodies.send(resp, HttpServletResponse.SC_OK, status.body());
         } catch (Exception e) {
             plugin.getLogger().at(Level.SEVERE).withCause(e).log("Failed to process status request");
-            resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
-            resp.getWriter().println(VoteProcessor.errorJson("Internal server error"));
+            ResponseBodies.send(resp, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, ResponseBodies.error("Internal server error"));
         }
     }
 }
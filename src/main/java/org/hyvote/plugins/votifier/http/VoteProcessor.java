@@ -1,24 +1,37 @@
 package org.hyvote.plugins.votifier.http;
 
-import com.google.gson.Gson;
 import com.hypixel.hytale.server.core.HytaleServer;
 import org.hyvote.plugins.votifier.HytaleVotifierPlugin;
 import org.hyvote.plugins.votifier.crypto.CryptoUtil;
 import org.hyvote.plugins.votifier.crypto.VoteDecryptionException;
 import org.hyvote.plugins.votifier.event.VoteEvent;
+import org.hyvote.plugins.votifier.inbox.VoteInbox;
+import org.hyvote.plugins.votifier.jfr.VoteDispatchEvent;
+import org.hyvote.plugins.votifier.journal.VoteJournal;
+import org.hyvote.plugins.votifier.metrics.VotifierMetrics;
+import org.hyvote.plugins.votifier.metrics.VotifierMetrics.Outcome;
+import org.hyvote.plugins.votifier.metrics.VotifierMetrics.Stage;
 import org.hyvote.plugins.votifier.reminder.VoteReminderService;
+import org.hyvote.plugins.votifier.reward.RewardScheduler;
 import org.hyvote.plugins.votifier.util.BroadcastUtil;
 import org.hyvote.plugins.votifier.util.RewardCommandUtil;
 import org.hyvote.plugins.votifier.util.VoteNotificationUtil;
 import org.hyvote.plugins.votifier.vote.ProtocolDetector;
 import org.hyvote.plugins.votifier.vote.ProtocolDetector.Protocol;
+import org.hyvote.plugins.votifier.vote.V2ChallengeException;
 import org.hyvote.plugins.votifier.vote.V2SignatureException;
+import org.hyvote.plugins.votifier.vote.V2ReplayGuard;
 import org.hyvote.plugins.votifier.vote.V2VoteParser;
 import org.hyvote.plugins.votifier.vote.Vote;
+import org.hyvote.plugins.votifier.vote.VoteDeduplicator;
 import org.hyvote.plugins.votifier.vote.VoteParseException;
 import org.hyvote.plugins.votifier.vote.VoteParser;
+import org.hyvote.plugins.votifier.vote.VoteQuarantine;
+import org.hyvote.plugins.votifier.vote.VoteRateLimiter;
 
 import java.util.Base64;
+import java.util.Locale;
+import java.util.logging.Level;
 
 /**
  * Shared vote processing logic used by both VoteServlet and FallbackHttpServer.
@@ -27,95 +40,31 @@ import java.util.Base64;
  * <ul>
  *   <li>Protocol detection (V1 RSA vs V2 JSON)</li>
  *   <li>Vote parsing and decryption</li>
+ *   <li>Deduplication, rate limiting and replay protection</li>
  *   <li>Vote event firing and reward processing</li>
- *   <li>JSON response building</li>
  * </ul>
+ *
+ * <p>Response bodies are built by {@link ResponseBodies} and the status body by {@link StatusEndpoint}.</p>
  */
 public final class VoteProcessor {
 
-    private static final Gson GSON = new Gson();
-
     private VoteProcessor() {
         // Utility class
     }
 
-    // ==================== JSON Response Records ====================
-
-    /**
-     * Standard success response.
-     */
-    public record SuccessResponse(String status, String message) {
-        public SuccessResponse(String message) {
-            this("ok", message);
-        }
-    }
-
-    /**
-     * Standard error response.
-     */
-    public record ErrorResponse(String status, String message) {
-        public ErrorResponse(String message) {
-            this("error", message);
-        }
-    }
-
-    /**
-     * Protocol status information.
-     */
-    public record ProtocolStatus(boolean v1, boolean v2) {}
-
-    /**
-     * Server status response.
-     */
-    public record StatusResponse(String status, String version, String serverType, ProtocolStatus protocols) {
-        public StatusResponse(String version, boolean v1Enabled, boolean v2Enabled) {
-            this("ok", version, "HytaleVotifier", new ProtocolStatus(v1Enabled, v2Enabled));
-        }
-    }
-
-    // ==================== JSON Response Builders ====================
-
-    /**
-     * Builds a success JSON response.
-     *
-     * @param message the success message
-     * @return JSON string
-     */
-    public static String successJson(String message) {
-        return GSON.toJson(new SuccessResponse(message));
-    }
-
-    /**
-     * Builds an error JSON response.
-     *
-     * @param message the error message
-     * @return JSON string
-     */
-    public static String errorJson(String message) {
-        return GSON.toJson(new ErrorResponse(message));
-    }
-
-    /**
-     * Builds a status JSON response.
-     *
-     * @param version   the plugin version
-     * @param v1Enabled whether V1 protocol is enabled
-     * @param v2Enabled whether V2 protocol is enabled
-     * @return JSON string
-     */
-    public static String statusJson(String version, boolean v1Enabled, boolean v2Enabled) {
-        return GSON.toJson(new StatusResponse(version, v1Enabled, v2Enabled));
-    }
-
     /**
      * Result of vote processing, containing either a successful vote or an error.
      */
     public sealed interface VoteResult {
-        record Success(Vote vote, Protocol protocol) implements VoteResult {}
+        /**
+         * A parsed vote; {@code replayTicket} is set for V2 HTTP votes checked by the replay guard.
+         */
+        record Success(Vote vote, Protocol protocol, V2ReplayGuard.Ticket replayTicket) implements VoteResult {}
         record EmptyPayload() implements VoteResult {}
         record UnknownProtocol() implements VoteResult {}
         record ParseError(Protocol protocol, String message) implements VoteResult {}
         record SignatureError(String message) implements VoteResult {}
+        record ReplayError(String message) implements VoteResult {}
         record DecryptionError(String message) implements VoteResult {}
         record InternalError(Exception cause) implements VoteResult {}
     }
@@ -124,13 +73,32 @@ public final class VoteProcessor {
      * Processes a vote payload and returns the result.
      *
      * <p>This method handles protocol detection, parsing, and decryption but does NOT
-     * fire events or process rewards. Call {@link #dispatchVote} after successful processing.</p>
+     * fire events or process rewards. Call {@link #dispatchVote} after successful processing.
+     * The outcome is counted in {@link VotifierMetrics}.</p>
      *
      * @param plugin  the plugin instance
      * @param payload the raw vote payload
      * @return the processing result
      */
     public static VoteResult processPayload(HytaleVotifierPlugin plugin, String payload) {
+        VoteResult result = parsePayload(plugin, payload);
+        if (result instanceof VoteResult.Success success) {
+            plugin.getMetrics().recordReceived(success.protocol(), success.vote().serviceName());
+        }
+        plugin.getMetrics().recordOutcome(switch (result) {
+            case VoteResult.Success s -> Outcome.SUCCESS;
+            case VoteResult.EmptyPayload e -> Outcome.EMPTY_PAYLOAD;
+            case VoteResult.UnknownProtocol u -> Outcome.UNKNOWN_PROTOCOL;
+            case VoteResult.ParseError e -> Outcome.PARSE_ERROR;
+            case VoteResult.SignatureError e -> Outcome.SIGNATURE_ERROR;
+            case VoteResult.ReplayError e -> Outcome.REPLAY_ERROR;
+            case VoteResult.DecryptionError e -> Outcome.DECRYPTION_ERROR;
+            case VoteResult.InternalError e -> Outcome.INTERNAL_ERROR;
+        });
+        return result;
+    }
+
+    private static VoteResult parsePayload(HytaleVotifierPlugin plugin, String payload) {
         // Validate payload is not empty
         if (payload == null || payload.isEmpty()) {
             return new VoteResult.EmptyPayload();
@@ -144,16 +112,20 @@ public final class VoteProcessor {
 
         // Process vote based on detected protocol
         try {
-            Vote vote = switch (protocol) {
-                case V2_JSON -> processV2Vote(payload, plugin);
-                case V1_RSA -> processV1Vote(payload, plugin);
+            return switch (protocol) {
+                case V2_JSON -> {
+                    V2VoteParser.GuardedVote guarded = processV2Vote(payload, plugin);
+                    yield new VoteResult.Success(guarded.vote(), protocol, guarded.replayTicket());
+                }
+                case V1_RSA -> new VoteResult.Success(processV1Vote(payload, plugin), protocol, null);
                 case UNKNOWN -> throw new VoteParseException("Unable to detect vote protocol");
             };
-            return new VoteResult.Success(vote, protocol);
         } catch (VoteParseException e) {
             return new VoteResult.ParseError(protocol, e.getMessage());
         } catch (V2SignatureException e) {
             return new VoteResult.SignatureError(e.getMessage());
+        } catch (V2ChallengeException e) {
+            return new VoteResult.ReplayError(e.getMessage());
         } catch (VoteDecryptionException e) {
             return new VoteResult.DecryptionError(e.getMessage());
         } catch (Exception e) {
@@ -164,28 +136,224 @@ public final class VoteProcessor {
     /**
      * Dispatches a vote by firing events and processing rewards/notifications.
      *
+     * <p>Duplicates of a recently received vote are dropped without being dispatched or charged
+     * against a rate limit; callers still acknowledge them so the voting site stops retrying. If
+     * rate limits are enabled, a vote over its voting site's or player's limit is rejected, or
+     * quarantined and not dispatched. If the vote journal is enabled, the vote is journaled first,
+     * so it is on disk before the caller acknowledges it.</p>
+     *
      * @param plugin the plugin instance
      * @param vote   the vote to dispatch
+     * @return true if the vote should be acknowledged, false if it was rejected by a rate limit
+     */
+    public static boolean dispatchVote(HytaleVotifierPlugin plugin, Vote vote) {
+        try {
+            return dispatchVote(plugin, vote, null);
+        } catch (V2ChallengeException e) {
+            // Only votes with a replay ticket can be refused by the replay guard
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Dispatches a vote parsed by {@link #processPayload}, accepting its replay ticket if it has one.
+     *
+     * <p>A vote whose payload was already accepted by the replay guard is acknowledged as a
+     * duplicate, so a voting site retrying after a lost acknowledgement is not refused. A vote
+     * whose challenge was used by another payload since it was parsed is refused with a
+     * {@link V2ChallengeException}, which callers answer like a {@link VoteResult.ReplayError}.</p>
+     *
+     * @param plugin  the plugin instance
+     * @param success the parsed vote
+     * @return true if the vote should be acknowledged, false if it was rejected by a rate limit
+     * @throws V2ChallengeException if the vote's challenge was already used
+     * @see #dispatchVote(HytaleVotifierPlugin, Vote)
+     */
+    public static boolean dispatchVote(HytaleVotifierPlugin plugin, VoteResult.Success success)
+            throws V2ChallengeException {
+        return dispatchVote(plugin, success.vote(), success.replayTicket());
+    }
+
+    private static boolean dispatchVote(HytaleVotifierPlugin plugin, Vote vote, V2ReplayGuard.Ticket replayTicket)
+            throws V2ChallengeException {
+        // A retried V2 HTTP payload that was already accepted is a duplicate, not a replay attack
+        V2ReplayGuard replayGuard = replayTicket != null ? plugin.getReplayGuard() : null;
+        if (replayGuard != null && replayGuard.wasAccepted(replayTicket)) {
+            logDuplicate(plugin, vote);
+            return true;
+        }
+
+        // Acknowledge retries of an accepted vote before charging them against a rate limit
+        VoteDeduplicator deduplicator = plugin.getVoteDeduplicator();
+        if (deduplicator != null && deduplicator.seenRecently(vote)) {
+            logDuplicate(plugin, vote);
+            return true;
+        }
+
+        // Limit how fast a single voting site or player can trigger rewards. A rejected vote is
+        // not recorded as seen, so its retry is not mistaken for a duplicate.
+        VoteRateLimiter rateLimiter = plugin.getVoteRateLimiter();
+        if (rateLimiter != null) {
+            long start = System.nanoTime();
+            VoteRateLimiter.Limit limit = rateLimiter.check(vote);
+            plugin.getMetrics().stage(Stage.RATE_LIMIT).recordSince(start);
+            if (limit != null) {
+                return handleOverLimit(plugin, vote, limit, rateLimiter);
+            }
+        }
+
+        // Record the payload with the replay guard; a copy accepted concurrently is a duplicate,
+        // while another payload that used the same challenge first makes this one a replay
+        if (replayGuard != null && !replayGuard.accept(replayTicket)) {
+            if (!replayGuard.wasAccepted(replayTicket)) {
+                throw new V2ChallengeException("Challenge already used");
+            }
+            logDuplicate(plugin, vote);
+            return true;
+        }
+
+        // Drop copies of the same vote received concurrently over another transport
+        if (deduplicator != null && !firstSeen(plugin.getMetrics(), deduplicator, vote)) {
+            logDuplicate(plugin, vote);
+            return true;
+        }
+
+        VoteJournal journal = plugin.getVoteJournal();
+        long sequence = journal != null ? append(plugin.getMetrics(), journal, vote) : VoteJournal.NOT_JOURNALED;
+        dispatchVote(plugin, vote, sequence);
+        return true;
+    }
+
+    /**
+     * Dispatches a vote read back from the vote journal after a restart.
+     *
+     * @param plugin    the plugin instance
+     * @param journaled the undelivered vote and its journal sequence number
      */
-    public static void dispatchVote(HytaleVotifierPlugin plugin, Vote vote) {
+    public static void replayVote(HytaleVotifierPlugin plugin, VoteJournal.JournaledVote journaled) {
+        dispatchVote(plugin, journaled.vote(), journaled.sequence());
+    }
+
+    private static void dispatchVote(HytaleVotifierPlugin plugin, Vote vote, long sequence) {
         // Fire vote event for other plugins to handle rewards
+        VotifierMetrics metrics = plugin.getMetrics();
+        long start = System.nanoTime();
+        VoteDispatchEvent dispatchEvent = new VoteDispatchEvent();
+        dispatchEvent.begin();
         VoteEvent voteEvent = new VoteEvent(plugin, vote);
         HytaleServer.get().getEventBus().dispatchFor(VoteEvent.class, plugin.getClass()).dispatch(voteEvent);
+        dispatchEvent.service = vote.serviceName();
+        dispatchEvent.username = vote.username();
+        dispatchEvent.commit();
+        start = recordStage(metrics, Stage.EVENT, start);
 
-        // Record vote in reminder service (cancels any pending reminders for this player)
+        // Record vote in reminder service (cancels any pending reminders for this player),
+        // or directly in storage when it is only used for reward rule streaks
         VoteReminderService reminderService = plugin.getVoteReminderService();
         if (reminderService != null) {
             reminderService.recordVote(vote.username());
+            start = recordStage(metrics, Stage.STORAGE, start);
+        } else if (plugin.getVoteStorage() != null) {
+            plugin.getVoteStorage().recordVote(vote.username());
+            start = recordStage(metrics, Stage.STORAGE, start);
+        }
+
+        // Hold the vote for an offline player until they join
+        VoteInbox inbox = plugin.getVoteInbox();
+        boolean held = false;
+        if (inbox != null) {
+            held = inbox.holdIfOffline(vote, sequence);
+            start = recordStage(metrics, Stage.INBOX, start);
         }
 
         // Display toast notification to the player if enabled
-        VoteNotificationUtil.displayVoteToast(plugin, vote);
+        if (!held) {
+            VoteNotificationUtil.displayVoteToast(plugin, vote);
+        }
 
         // Broadcast vote announcement to all online players if enabled
         BroadcastUtil.broadcastVote(plugin, vote);
+        start = recordStage(metrics, Stage.NOTIFICATIONS, start);
+
+        // Execute reward commands, unless they are delivered from the inbox on join
+        boolean rewarded = !held || !inbox.holdsRewards();
+        if (rewarded) {
+            RewardCommandUtil.executeRewardCommands(plugin, vote);
+            recordStage(metrics, Stage.REWARDS, start);
+        }
 
-        // Execute reward commands
-        RewardCommandUtil.executeRewardCommands(plugin, vote);
+        // Checkpoint the journaled vote once its rewards have run. Queued rewards run in order
+        // per world, so the checkpoint is queued behind them. Held votes are already in storage,
+        // unless that storage is in memory, in which case the inbox checkpoints them on delivery.
+        if (sequence != VoteJournal.NOT_JOURNALED && !(held && inbox.checkpointsOnDelivery())) {
+            VoteJournal journal = plugin.getVoteJournal();
+            RewardScheduler scheduler = plugin.getRewardScheduler();
+            if (rewarded && scheduler != null) {
+                scheduler.submit(vote.username(), "journal checkpoint " + sequence, () -> journal.checkpoint(sequence));
+            } else {
+                journal.checkpoint(sequence);
+            }
+        }
+    }
+
+    private static void logDuplicate(HytaleVotifierPlugin plugin, Vote vote) {
+        if (plugin.getConfig().debug()) {
+            plugin.getLogger().at(Level.INFO).log("Dropped duplicate vote from %s for %s (timestamp %d)",
+                    vote.serviceName(), vote.username(), vote.timestamp());
+        }
+    }
+
+    /**
+     * Checks the deduplicator, timing the check.
+     */
+    private static boolean firstSeen(VotifierMetrics metrics, VoteDeduplicator deduplicator, Vote vote) {
+        long start = System.nanoTime();
+        boolean firstSeen = deduplicator.firstSeen(vote);
+        metrics.stage(Stage.DEDUPLICATION).recordSince(start);
+        return firstSeen;
+    }
+
+    /**
+     * Appends a vote to the journal, timing the append.
+     */
+    private static long append(VotifierMetrics metrics, VoteJournal journal, Vote vote) {
+        long start = System.nanoTime();
+        long sequence = journal.append(vote);
+        metrics.stage(Stage.JOURNAL).recordSince(start);
+        return sequence;
+    }
+
+    /**
+     * Records the time since {@code start} for a dispatch stage.
+     *
+     * @return the end of the stage, which is the start of the next one
+     */
+    private static long recordStage(VotifierMetrics metrics, Stage stage, long start) {
+        long end = System.nanoTime();
+        metrics.stage(stage).record(end - start);
+        return end;
+    }
+
+    /**
+     * Rejects or quarantines a vote that exceeded a rate limit.
+     *
+     * @return true if the vote was quarantined and should be acknowledged
+     */
+    private static boolean handleOverLimit(HytaleVotifierPlugin plugin, Vote vote, VoteRateLimiter.Limit limit,
+                                           VoteRateLimiter rateLimiter) {
+        VoteQuarantine quarantine = plugin.getVoteQuarantine();
+        long unlogged = rateLimiter.claimLogLine();
+        if (unlogged >= 0) {
+            plugin.getLogger().at(Level.WARNING).log(
+                    "%s vote from %s for %s exceeded the %s rate limit (%d over-limit vote(s) since startup, %d not logged)",
+                    quarantine != null ? "Quarantined" : "Rejected", vote.serviceName(), vote.username(),
+                    limit.name().toLowerCase(Locale.ROOT), rateLimiter.getOverLimitCount(), unlogged);
+        }
+        if (quarantine == null) {
+            return false;
+        }
+        quarantine.add(vote, limit);
+        return true;
     }
 
     /**
@@ -202,18 +370,30 @@ public final class VoteProcessor {
         }
 
         // Decrypt with RSA private key
-        byte[] decryptedBytes = CryptoUtil.decrypt(encryptedBytes, plugin.getKeyManager().getPrivateKey());
+        VotifierMetrics metrics = plugin.getMetrics();
+        long start = System.nanoTime();
+        byte[] decryptedBytes;
+        try {
+            decryptedBytes = CryptoUtil.decrypt(encryptedBytes, plugin.getKeyManager().getPrivateKey());
+        } finally {
+            metrics.decrypt().recordSince(start);
+        }
 
         // Parse vote data
-        return VoteParser.parse(decryptedBytes);
+        start = System.nanoTime();
+        try {
+            return VoteParser.parse(decryptedBytes);
+        } finally {
+            metrics.parse(Protocol.V1_RSA).recordSince(start);
+        }
     }
 
     /**
      * Processes a V2 (HMAC-SHA256 signed) vote payload.
      */
-    private static Vote processV2Vote(String payload, HytaleVotifierPlugin plugin)
-            throws VoteParseException, V2SignatureException {
-        return V2VoteParser.parse(payload, plugin.getConfig().voteSites());
+    private static V2VoteParser.GuardedVote processV2Vote(String payload, HytaleVotifierPlugin plugin)
+            throws VoteParseException, V2SignatureException, V2ChallengeException {
+        return V2VoteParser.parse(payload, plugin.getConfig().voteSites(), plugin.getReplayGuard(), plugin.getMetrics());
     }
 
 }
@@ -5,9 +5,15 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.hyvote.plugins.votifier.HytaleVotifierPlugin;
 import org.hyvote.plugins.votifier.http.VoteProcessor.VoteResult;
+import org.hyvote.plugins.votifier.security.SourceAllowlist;
+import org.hyvote.plugins.votifier.security.TrustedProxies;
+import org.hyvote.plugins.votifier.vote.OverloadDetector;
+import org.hyvote.plugins.votifier.vote.V2ChallengeException;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
 import java.util.logging.Level;
 
 /**
@@ -26,8 +32,12 @@ import java.util.logging.Level;
  *   <li>200 OK - Vote received and processed successfully</li>
  *   <li>400 Bad Request - Empty payload, invalid format, or parse error</li>
  *   <li>401 Unauthorized - V2 signature verification failed</li>
+ *   <li>403 Forbidden - Source address not in the allowlist</li>
  *   <li>413 Payload Too Large - Request body exceeds maximum size</li>
+ *   <li>429 Too Many Requests - Vote exceeded a voting site or player rate limit</li>
  *   <li>500 Internal Server Error - Unexpected server error</li>
+ *   <li>503 Service Unavailable - The plugin is overloaded and shedding requests (with a
+ *       Retry-After header)</li>
  * </ul>
  */
 public class VoteServlet extends HttpServlet {
@@ -46,8 +56,32 @@ public class VoteServlet extends HttpServlet {
 
     @Override
     protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        long received = System.nanoTime();
+        if (shedIfOverloaded(plugin, resp)) {
+            return;
+        }
+        handleVote(req, resp);
+        OverloadDetector detector = plugin.getOverloadDetector();
+        if (detector != null) {
+            detector.recordLatency(System.nanoTime() - received);
+        }
+    }
+
+    private void handleVote(HttpServletRequest req, HttpServletResponse resp) throws IOException {
         resp.setContentType("application/json");
 
+        String clientAddress = resolveClientAddress(plugin, req);
+
+        // Drop requests from outside the allowlist before reading or decrypting anything
+        SourceAllowlist allowlist = plugin.getSourceAllowlist();
+        if (allowlist != null && !allowlist.allowsConnection(clientAddress)) {
+            sendError(resp, HttpServletResponse.SC_FORBIDDEN, "Source address not allowed");
+            if (plugin.getConfig().debug()) {
+                plugin.getLogger().at(Level.INFO).log("Rejected vote request from %s: not in allowlist", clientAddress);
+            }
+            return;
+        }
+
         // Read request body
         String payload;
         try {
@@ -67,13 +101,27 @@ public class VoteServlet extends HttpServlet {
         // Handle result
         switch (result) {
             case VoteResult.Success success -> {
-                VoteProcessor.dispatchVote(plugin, success.vote());
+                if (allowlist != null && !allowlist.allowsVote(success.vote().serviceName(), clientAddress)) {
+                    sendError(resp, HttpServletResponse.SC_FORBIDDEN, "Source address not allowed for this service");
+                    plugin.getLogger().at(Level.WARNING).log("Rejected %s vote for service %s from %s: not in allowlist",
+                            success.protocol(), success.vote().serviceName(), clientAddress);
+                    return;
+                }
+                try {
+                    if (!VoteProcessor.dispatchVote(plugin, success)) {
+                        sendError(resp, 429, "Rate limit exceeded");
+                        return;
+                    }
+                } catch (V2ChallengeException e) {
+                    sendError(resp, HttpServletResponse.SC_UNAUTHORIZED, "Replay protection check failed");
+                    plugin.getLogger().at(Level.WARNING).log("Rejected V2 vote: %s", e.getMessage());
+                    return;
+                }
                 if (plugin.getConfig().debug()) {
                     plugin.getLogger().at(Level.INFO).log("Received %s vote from %s: service=%s, username=%s",
-                            success.protocol(), req.getRemoteAddr(), success.vote().serviceName(), success.vote().username());
+                            success.protocol(), clientAddress, success.vote().serviceName(), success.vote().username());
                 }
-                resp.setStatus(HttpServletResponse.SC_OK);
-                resp.getWriter().println(VoteProcessor.successJson("Vote processed for " + success.vote().username()));
+                ResponseBodies.send(resp, HttpServletResponse.SC_OK, ResponseBodies.voteProcessed(success.vote().username()));
             }
             case VoteResult.EmptyPayload() -> {
                 sendError(resp, HttpServletResponse.SC_BAD_REQUEST, "Empty payload");
@@ -91,6 +139,10 @@ public class VoteServlet extends HttpServlet {
                 sendError(resp, HttpServletResponse.SC_UNAUTHORIZED, "Signature verification failed");
                 plugin.getLogger().at(Level.WARNING).log("Rejected V2 vote: %s", signatureError.message());
             }
+            case VoteResult.ReplayError replayError -> {
+                sendError(resp, HttpServletResponse.SC_UNAUTHORIZED, "Replay protection check failed");
+                plugin.getLogger().at(Level.WARNING).log("Rejected V2 vote: %s", replayError.message());
+            }
             case VoteResult.DecryptionError decryptionError -> {
                 sendError(resp, HttpServletResponse.SC_BAD_REQUEST, "Invalid vote payload");
                 plugin.getLogger().at(Level.WARNING).log("Rejected V1 vote: decryption failed - %s", decryptionError.message());
@@ -102,6 +154,35 @@ public class VoteServlet extends HttpServlet {
         }
     }
 
+    /**
+     * Answers 503 with a Retry-After header if the plugin is overloaded, before anything is read.
+     *
+     * @return true if the request was shed
+     */
+    static boolean shedIfOverloaded(HytaleVotifierPlugin plugin, HttpServletResponse resp) throws IOException {
+        OverloadDetector detector = plugin.getOverloadDetector();
+        int retryAfter = detector != null ? detector.retryAfterSeconds() : 0;
+        if (retryAfter == 0) {
+            return false;
+        }
+        resp.setHeader("Retry-After", Integer.toString(retryAfter));
+        ResponseBodies.send(resp, HttpServletResponse.SC_SERVICE_UNAVAILABLE, ResponseBodies.error("Server overloaded"));
+        return true;
+    }
+
+    /**
+     * Returns the client address, taken from X-Forwarded-For if the peer is a trusted proxy.
+     */
+    static String resolveClientAddress(HytaleVotifierPlugin plugin, HttpServletRequest req) {
+        TrustedProxies proxies = plugin.getTrustedProxies();
+        if (proxies == null) {
+            return req.getRemoteAddr();
+        }
+        Enumeration<String> headers = req.getHeaders("X-Forwarded-For");
+        String forwardedFor = headers != null ? String.join(",", Collections.list(headers)) : null;
+        return proxies.resolveForwardedFor(req.getRemoteAddr(), forwardedFor);
+    }
+
     /**
      * Reads the request body as a trimmed string.
      *
@@ -118,7 +199,6 @@ public class VoteServlet extends HttpServlet {
     }
 
     private void sendError(HttpServletResponse resp, int statusCode, String message) throws IOException {
-        resp.setStatus(statusCode);
-        resp.getWriter().println(VoteProcessor.errorJson(message));
+        ResponseBodies.send(resp, statusCode, ResponseBodies.error(message));
     }
 }
@@ -0,0 +1,229 @@
+package org.hyvote.plugins.votifier.inbox;
+
+import com.hypixel.hytale.server.core.NameMatching;
+import com.hypixel.hytale.server.core.entity.entities.Player;
+import com.hypixel.hytale.server.core.universe.Universe;
+import org.hyvote.plugins.votifier.HytaleVotifierPlugin;
+import org.hyvote.plugins.votifier.VoteInboxConfig;
+import org.hyvote.plugins.votifier.journal.VoteJournal;
+import org.hyvote.plugins.votifier.reward.CompiledReward;
+import org.hyvote.plugins.votifier.reward.RewardScheduler;
+import org.hyvote.plugins.votifier.storage.PendingItem;
+import org.hyvote.plugins.votifier.storage.VoteStorage;
+import org.hyvote.plugins.votifier.util.RewardActionUtil;
+import org.hyvote.plugins.votifier.util.RewardCommandUtil;
+import org.hyvote.plugins.votifier.util.VoteNotificationUtil;
+import org.hyvote.plugins.votifier.vote.Vote;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+/**
+ * Holds votes for offline players and delivers them in one batch when the player joins.
+ *
+ * <p>Held votes are stored per player in the {@link VoteStorage}, keyed by case-folded username.
+ * On join the whole inbox is read and cleared in a single indexed storage operation; held rewards
+ * are then granted and one combined toast is shown for all votes.</p>
+ *
+ * <p>Item rewards granted while their player is offline, for example when rewards are not held
+ * with the vote, are held in the same storage and given on join.</p>
+ *
+ * <p>Holding a vote and draining an inbox on join take the same per-player lock stripe, so a vote
+ * that arrives while its voter is joining is either seen as online or held before the drain.</p>
+ *
+ * <p>When rewards are held and the storage does not survive a restart, the journal sequence
+ * numbers of held votes are kept alongside them and checkpointed only once the votes are
+ * delivered, so a crash replays them from the vote journal instead of losing them.</p>
+ */
+public final class VoteInbox {
+
+    private static final int LOCK_STRIPES = 32;
+
+    private final HytaleVotifierPlugin plugin;
+    private final VoteStorage storage;
+    private final VoteInboxConfig config;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final boolean persistent;
+
+    // Journal sequence numbers of held votes, by case-folded username; guarded by the lock stripes
+    private final Map<String, List<Long>> heldSequences = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new VoteInbox and removes held votes and item rewards that have expired.
+     *
+     * @param plugin  the plugin instance
+     * @param storage the storage holding the inboxes
+     * @param config  the vote inbox configuration
+     */
+    public VoteInbox(HytaleVotifierPlugin plugin, VoteStorage storage, VoteInboxConfig config) {
+        this.plugin = plugin;
+        this.storage = storage;
+        this.config = config;
+        this.persistent = !"memory".equals(storage.getType());
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+
+        int removed = storage.cleanupPendingVotes(expiryCutoff());
+        int removedItems = storage.cleanupPendingItems(expiryCutoff());
+        if (removed > 0 || removedItems > 0 || plugin.getConfig().debug()) {
+            plugin.getLogger().at(Level.INFO).log(
+                    "Vote inbox cleanup: removed %d held vote(s) and %d held item reward(s) older than %d days",
+                    removed, removedItems, config.expiryDays());
+        }
+    }
+
+    /**
+     * Holds a vote in the voter's inbox if they are not online.
+     *
+     * <p>If {@link #checkpointsOnDelivery()} is true, the inbox checkpoints the journaled vote
+     * once it has been delivered and the caller must not checkpoint it.</p>
+     *
+     * @param vote     the received vote
+     * @param sequence the vote's journal sequence number, or {@link VoteJournal#NOT_JOURNALED}
+     * @return true if the voter is offline and the vote was held
+     */
+    public boolean holdIfOffline(Vote vote, long sequence) {
+        synchronized (lockFor(vote.username())) {
+            if (Universe.get().getPlayerByUsername(vote.username(), NameMatching.EXACT_IGNORE_CASE) != null) {
+                return false;
+            }
+            storage.addPendingVote(vote);
+            if (checkpointsOnDelivery() && sequence != VoteJournal.NOT_JOURNALED) {
+                heldSequences.computeIfAbsent(vote.username().toLowerCase(Locale.ROOT), k -> new ArrayList<>()).add(sequence);
+            }
+        }
+
+        if (plugin.getConfig().debug()) {
+            plugin.getLogger().at(Level.INFO).log(
+                    "Player %s not online, held vote from %s in inbox", vote.username(), vote.serviceName());
+        }
+        return true;
+    }
+
+    /**
+     * Holds an item reward in the player's inbox if they are not online.
+     *
+     * @param username the player to give the item to
+     * @param reward   the item reward
+     * @return true if the player is offline and the item was held
+     */
+    public boolean holdItemIfOffline(String username, CompiledReward.GiveItem reward) {
+        synchronized (lockFor(username)) {
+            if (Universe.get().getPlayerByUsername(username, NameMatching.EXACT_IGNORE_CASE) != null) {
+                return false;
+            }
+            storage.addPendingItem(new PendingItem(username, reward.itemId(), reward.quantity(), System.currentTimeMillis()));
+        }
+
+        if (plugin.getConfig().debug()) {
+            plugin.getLogger().at(Level.INFO).log(
+                    "Player %s not online, held item reward %s x%d in inbox", username, reward.itemId(), reward.quantity());
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether rewards for held votes are granted on join instead of when the vote arrives.
+     *
+     * @return true if rewards are held with the vote
+     */
+    public boolean holdsRewards() {
+        return Boolean.TRUE.equals(config.holdRewards());
+    }
+
+    /**
+     * Returns whether journaled votes held in the inbox are checkpointed when they are delivered
+     * instead of when they are held: rewards are held and the storage is lost on restart.
+     *
+     * @return true if the inbox checkpoints held votes
+     */
+    public boolean checkpointsOnDelivery() {
+        return holdsRewards() && !persistent;
+    }
+
+    /**
+     * Handles a player joining the server by delivering every vote and item reward held in their inbox.
+     *
+     * @param player the player who joined
+     */
+    public void onPlayerJoin(Player player) {
+        String username = player.getDisplayName();
+        List<Vote> votes;
+        List<Long> sequences;
+        List<PendingItem> items;
+        synchronized (lockFor(username)) {
+            votes = storage.takePendingVotes(username);
+            sequences = heldSequences.remove(username.toLowerCase(Locale.ROOT));
+            items = storage.takePendingItems(username);
+        }
+        deliverItems(username, items);
+        if (votes.isEmpty()) {
+            checkpoint(username, sequences);
+            return;
+        }
+
+        long cutoff = expiryCutoff();
+        List<Vote> delivered = votes.stream().filter(vote -> vote.timestamp() >= cutoff).toList();
+        if (delivered.isEmpty()) {
+            checkpoint(username, sequences);
+            return;
+        }
+
+        if (holdsRewards()) {
+            for (Vote vote : delivered) {
+                RewardCommandUtil.executeRewardCommands(plugin, vote);
+            }
+        }
+        checkpoint(username, sequences);
+        VoteNotificationUtil.displayInboxToast(plugin, username, delivered);
+
+        plugin.getLogger().at(Level.INFO).log("Delivered %d held vote(s) to %s", delivered.size(), username);
+    }
+
+    /**
+     * Gives the held item rewards that have not expired.
+     */
+    private void deliverItems(String username, List<PendingItem> items) {
+        long cutoff = expiryCutoff();
+        int delivered = 0;
+        for (PendingItem item : items) {
+            if (item.timestamp() >= cutoff) {
+                RewardActionUtil.giveItem(plugin, username, new CompiledReward.GiveItem(item.itemId(), item.quantity(), 1.0));
+                delivered++;
+            }
+        }
+        if (delivered > 0) {
+            plugin.getLogger().at(Level.INFO).log("Delivered %d held item reward(s) to %s", delivered, username);
+        }
+    }
+
+    /**
+     * Checkpoints delivered held votes, queued behind their rewards when the reward scheduler is enabled.
+     */
+    private void checkpoint(String username, List<Long> sequences) {
+        VoteJournal journal = plugin.getVoteJournal();
+        if (sequences == null || journal == null) {
+            return;
+        }
+        Runnable task = () -> sequences.forEach(journal::checkpoint);
+        RewardScheduler scheduler = plugin.getRewardScheduler();
+        if (scheduler != null) {
+            scheduler.submit(username, "journal checkpoint of " + sequences.size() + " held vote(s)", task);
+        } else {
+            task.run();
+        }
+    }
+
+    private Object lockFor(String username) {
+        return locks[Math.floorMod(username.toLowerCase(Locale.ROOT).hashCode(), LOCK_STRIPES)];
+    }
+
+    private long expiryCutoff() {
+        return System.currentTimeMillis() - config.expiryDays() * 24L * 60L * 60L * 1000L;
+    }
+}
@@ -0,0 +1,29 @@
+package org.hyvote.plugins.votifier.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Spans the RSA decryption of a V1 vote payload.
+ */
+@Name("org.hyvote.votifier.Decrypt")
+@Label("Vote Decrypt")
+@Description("RSA decryption of a V1 vote payload")
+@Category({"Hytale Votifier", "Vote Path"})
+@StackTrace(false)
+public final class DecryptEvent extends Event {
+
+    @DataAmount
+    @Label("Encrypted Bytes")
+    @Description("Size of the encrypted payload")
+    public int bytes;
+
+    @Label("Success")
+    @Description("False if the payload could not be decrypted")
+    public boolean success;
+}
@@ -0,0 +1,27 @@
+package org.hyvote.plugins.votifier.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Spans the HMAC-SHA256 signature check of a V2 vote.
+ */
+@Name("org.hyvote.votifier.HmacVerify")
+@Label("Vote HMAC Verify")
+@Description("HMAC-SHA256 signature verification of a V2 vote")
+@Category({"Hytale Votifier", "Vote Path"})
+@StackTrace(false)
+public final class HmacVerifyEvent extends Event {
+
+    @Label("Service")
+    @Description("Voting site the vote claims to come from")
+    public String service;
+
+    @Label("Valid")
+    @Description("Whether the signature matched")
+    public boolean valid;
+}
@@ -0,0 +1,32 @@
+package org.hyvote.plugins.votifier.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Spans parsing a vote payload: the decrypted V1 vote lines, or the V2 JSON including its
+ * signature and challenge checks.
+ */
+@Name("org.hyvote.votifier.Parse")
+@Label("Vote Parse")
+@Description("Parsing and validation of a vote payload")
+@Category({"Hytale Votifier", "Vote Path"})
+@StackTrace(false)
+public final class ParseEvent extends Event {
+
+    @Label("Protocol")
+    @Description("V1_RSA or V2_JSON")
+    public String protocol;
+
+    @Label("Service")
+    @Description("Voting site of the vote, if it could be read")
+    public String service;
+
+    @Label("Outcome")
+    @Description("success, parse_error, signature_error or replay_error")
+    public String outcome;
+}
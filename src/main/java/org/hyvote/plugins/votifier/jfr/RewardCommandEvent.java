@@ -0,0 +1,27 @@
+package org.hyvote.plugins.votifier.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Spans handing a reward command to the server console.
+ */
+@Name("org.hyvote.votifier.RewardCommand")
+@Label("Reward Command")
+@Description("Execution of a reward command on the server console")
+@Category({"Hytale Votifier", "Vote Path"})
+@StackTrace(false)
+public final class RewardCommandEvent extends Event {
+
+    @Label("Command")
+    @Description("The command, with placeholders filled in")
+    public String command;
+
+    @Label("Success")
+    @Description("False if the command threw an exception")
+    public boolean success;
+}
@@ -0,0 +1,28 @@
+package org.hyvote.plugins.votifier.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Emitted for every connection accepted by the vote socket server, spanning the allowlist check up
+ * to handing it to a handler thread.
+ */
+@Name("org.hyvote.votifier.SocketAccept")
+@Label("Socket Accept")
+@Description("A socket connection accepted by the vote socket server")
+@Category({"Hytale Votifier", "Socket"})
+@StackTrace(false)
+public final class SocketAcceptEvent extends Event {
+
+    @Label("Remote Address")
+    @Description("Address of the connecting peer")
+    public String remoteAddress;
+
+    @Label("Accepted")
+    @Description("False if the connection was dropped by the source allowlist")
+    public boolean accepted;
+}
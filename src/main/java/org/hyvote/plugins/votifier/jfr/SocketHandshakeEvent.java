@@ -0,0 +1,33 @@
+package org.hyvote.plugins.votifier.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Spans a socket connection from the handler picking it up until its protocol has been detected:
+ * the PROXY protocol header, the greeting with the challenge, and the first bytes sent by the
+ * client.
+ */
+@Name("org.hyvote.votifier.SocketHandshake")
+@Label("Socket Handshake")
+@Description("PROXY header, greeting and protocol detection of a vote socket connection")
+@Category({"Hytale Votifier", "Socket"})
+@StackTrace(false)
+public final class SocketHandshakeEvent extends Event {
+
+    @Label("Remote Address")
+    @Description("Address of the client, after the PROXY protocol header")
+    public String remoteAddress;
+
+    @Label("Protocol")
+    @Description("Detected protocol: V1_RSA, V2_JSON, V2_PIPELINED or TLS")
+    public String protocol;
+
+    @Label("Outcome")
+    @Description("success, rejected, timeout or error")
+    public String outcome;
+}
@@ -0,0 +1,27 @@
+package org.hyvote.plugins.votifier.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Spans a vote storage operation.
+ */
+@Name("org.hyvote.votifier.Storage")
+@Label("Vote Storage")
+@Description("A vote storage operation")
+@Category({"Hytale Votifier", "Vote Path"})
+@StackTrace(false)
+public final class StorageEvent extends Event {
+
+    @Label("Operation")
+    @Description("The storage operation, e.g. RECORD_VOTE or GET_STREAK")
+    public String operation;
+
+    @Label("Storage Type")
+    @Description("The storage backend, e.g. sqlite or memory")
+    public String storageType;
+}
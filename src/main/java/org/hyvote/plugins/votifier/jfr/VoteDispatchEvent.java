@@ -0,0 +1,28 @@
+package org.hyvote.plugins.votifier.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Spans dispatching a VoteEvent on the server event bus, which runs every listener registered by
+ * other plugins.
+ */
+@Name("org.hyvote.votifier.VoteDispatch")
+@Label("Vote Event Dispatch")
+@Description("Dispatch of a VoteEvent to the listeners on the event bus")
+@Category({"Hytale Votifier", "Vote Path"})
+@StackTrace(false)
+public final class VoteDispatchEvent extends Event {
+
+    @Label("Service")
+    @Description("Voting site of the vote")
+    public String service;
+
+    @Label("Username")
+    @Description("Player who voted")
+    public String username;
+}
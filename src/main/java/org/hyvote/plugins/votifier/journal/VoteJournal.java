@@ -0,0 +1,598 @@
+package org.hyvote.plugins.votifier.journal;
+
+import org.hyvote.plugins.votifier.HytaleVotifierPlugin;
+import org.hyvote.plugins.votifier.VoteJournalConfig;
+import org.hyvote.plugins.votifier.vote.Vote;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only, segment-rotated write-ahead journal of accepted votes.
+ *
+ * <p>Every accepted vote is appended as a record before it is acknowledged to the voting site.
+ * Once the vote's rewards have run, a checkpoint record naming the vote is appended. On startup
+ * all segments are read and votes without a checkpoint are returned by {@link #recover()} for
+ * replay.</p>
+ *
+ * <p>Records are written with a single {@link FileChannel#write} into the page cache under a short
+ * lock, so appending costs a few microseconds. Durability is provided by a dedicated sync thread:
+ * in group commit mode, callers wait for the next {@link FileChannel#force} and all votes written
+ * while a sync is in progress share the following one. In interval mode the sync thread forces the
+ * journal on a fixed interval and callers do not wait.</p>
+ *
+ * <p>An interrupt during a channel operation closes the channel for every thread. Writers hold
+ * back their interrupt while writing, and a segment found closed anyway is reopened with the
+ * partial record truncated, so one interrupted request thread does not stop the journal.</p>
+ *
+ * <p>Record layout: {@code length (int) | crc32c (int) | type (byte) | sequence (long) | body},
+ * where length and CRC cover everything after the header. A torn record at the end of a segment
+ * (from a crash mid-write) fails the length or CRC check, ends recovery of that segment and is
+ * truncated, since the segment may be reopened for appending.</p>
+ *
+ * <p>Segments are named after the sequence number of their first record and are deleted, oldest
+ * first, once every vote in them has been checkpointed.</p>
+ */
+public final class VoteJournal {
+
+    /** Sequence number returned when a vote could not be journaled. */
+    public static final long NOT_JOURNALED = -1;
+
+    private static final String SEGMENT_PREFIX = "votes-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private static final byte TYPE_VOTE = 1;
+    private static final byte TYPE_CHECKPOINT = 2;
+
+    /** Record header: body length (int) and CRC32C of the body (int). */
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_RECORD_BYTES = 64 * 1024;
+
+    private final HytaleVotifierPlugin plugin;
+    private final Path directory;
+    private final long segmentBytes;
+    private final boolean groupCommit;
+    private final long syncIntervalMillis;
+
+    // Guarded by writeLock
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ByteBuffer record = ByteBuffer.allocateDirect(MAX_RECORD_BYTES);
+    private final CRC32C crc = new CRC32C();
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private final List<JournaledVote> recovered = new ArrayList<>();
+    private Segment active;
+    private long nextSequence = 1;
+    private long writtenSequence;
+
+    // Guarded by syncMonitor
+    private final Object syncMonitor = new Object();
+    private long durableSequence;
+    private long failedSequence;
+    private boolean syncRequested;
+    private boolean closing;
+
+    private final Thread syncThread;
+    private final LongAdder appended = new LongAdder();
+    private final LongAdder appendNanos = new LongAdder();
+    private final LongAdder syncs = new LongAdder();
+
+    /**
+     * A vote read back from the journal that has no checkpoint.
+     *
+     * @param sequence the journal sequence number of the vote, passed to {@link #checkpoint(long)}
+     * @param vote     the vote
+     */
+    public record JournaledVote(long sequence, Vote vote) {
+    }
+
+    /**
+     * A journal segment file and the number of its votes still waiting for a checkpoint.
+     */
+    private static final class Segment {
+        private final Path path;
+        private FileChannel channel;
+        private long size;
+        private int pending;
+
+        private Segment(Path path) {
+            this.path = path;
+        }
+    }
+
+    private VoteJournal(HytaleVotifierPlugin plugin, Path directory, VoteJournalConfig config) {
+        this.plugin = plugin;
+        this.directory = directory;
+        this.segmentBytes = Math.max(1, config.segmentSizeMb()) * 1024L * 1024L;
+        this.groupCommit = !"interval".equalsIgnoreCase(config.syncMode());
+        this.syncIntervalMillis = Math.max(1, config.syncIntervalMillis());
+        this.syncThread = new Thread(this::runSyncLoop, "VoteJournalSync");
+        this.syncThread.setDaemon(true);
+    }
+
+    /**
+     * Opens the journal in the given directory, reading existing segments for recovery.
+     *
+     * @param plugin    the plugin instance for config and logging
+     * @param directory the journal directory, created if missing
+     * @param config    the journal configuration
+     * @return the opened journal
+     * @throws IOException if the directory or a segment cannot be read or created
+     */
+    public static VoteJournal open(HytaleVotifierPlugin plugin, Path directory, VoteJournalConfig config) throws IOException {
+        Files.createDirectories(directory);
+        VoteJournal journal = new VoteJournal(plugin, directory, config);
+        journal.readSegments();
+        journal.startSegment();
+        journal.syncThread.start();
+        return journal;
+    }
+
+    /**
+     * Returns the votes found without a checkpoint when the journal was opened.
+     *
+     * <p>Each vote must be checkpointed with {@link #checkpoint(long)} once it has been replayed.</p>
+     *
+     * @return the undelivered votes in the order they were journaled
+     */
+    public List<JournaledVote> recover() {
+        return List.copyOf(recovered);
+    }
+
+    /**
+     * Appends a vote to the journal and, in group commit mode, waits until it is on disk.
+     *
+     * @param vote the accepted vote
+     * @return the vote's sequence number, or {@link #NOT_JOURNALED} if it could not be written
+     */
+    public long append(Vote vote) {
+        long start = System.nanoTime();
+        long sequence;
+        writeLock.lock();
+        try {
+            sequence = nextSequence;
+            record.clear().position(HEADER_BYTES);
+            record.put(TYPE_VOTE).putLong(sequence);
+            putString(vote.serviceName());
+            putString(vote.username());
+            putString(vote.address());
+            record.putLong(vote.timestamp());
+            writeRecord();
+            nextSequence++;
+            active.pending++;
+        } catch (IOException | RuntimeException e) {
+            plugin.getLogger().at(Level.SEVERE).log("Failed to journal vote for %s: %s", vote.username(), e.getMessage());
+            return NOT_JOURNALED;
+        } finally {
+            writeLock.unlock();
+        }
+        appended.increment();
+        appendNanos.add(System.nanoTime() - start);
+
+        if (groupCommit && !awaitDurable(sequence)) {
+            plugin.getLogger().at(Level.SEVERE).log("Failed to sync journaled vote for %s", vote.username());
+        }
+        return sequence;
+    }
+
+    /**
+     * Records that a journaled vote has been fully delivered so it is not replayed.
+     *
+     * <p>Checkpoints are not waited on; they become durable with the next sync. A vote whose
+     * checkpoint is lost in a power failure is replayed once more on startup, so replay delivers
+     * each vote at least once.</p>
+     *
+     * @param sequence the sequence number returned by {@link #append(Vote)}
+     */
+    public void checkpoint(long sequence) {
+        if (sequence == NOT_JOURNALED) {
+            return;
+        }
+
+        writeLock.lock();
+        try {
+            if (active == null) {
+                return;
+            }
+            record.clear().position(HEADER_BYTES);
+            record.put(TYPE_CHECKPOINT).putLong(nextSequence).putLong(sequence);
+            writeRecord();
+            nextSequence++;
+
+            Map.Entry<Long, Segment> entry = segments.floorEntry(sequence);
+            if (entry != null) {
+                entry.getValue().pending--;
+            }
+            deleteCompletedSegments();
+        } catch (IOException e) {
+            plugin.getLogger().at(Level.WARNING).log("Failed to checkpoint journaled vote %d: %s", sequence, e.getMessage());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of journaled votes still waiting for a checkpoint.
+     *
+     * @return the votes appended (or recovered) whose rewards have not completed yet
+     */
+    public int getPendingCount() {
+        writeLock.lock();
+        try {
+            int pending = 0;
+            for (Segment segment : segments.values()) {
+                pending += segment.pending;
+            }
+            return pending;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Syncs and closes the journal. Segments whose votes have all been checkpointed are deleted.
+     */
+    public void close() {
+        synchronized (syncMonitor) {
+            closing = true;
+            syncMonitor.notifyAll();
+        }
+        try {
+            syncThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sync();
+
+        writeLock.lock();
+        try {
+            if (active == null) {
+                return;
+            }
+            deleteCompletedSegments();
+            for (Segment segment : segments.values()) {
+                closeChannel(segment);
+            }
+            if (segments.size() == 1 && active.pending == 0) {
+                Files.deleteIfExists(active.path);
+            }
+            active = null;
+        } catch (IOException e) {
+            plugin.getLogger().at(Level.WARNING).log("Failed to clean up vote journal: %s", e.getMessage());
+        } finally {
+            writeLock.unlock();
+        }
+
+        long count = appended.sum();
+        plugin.getLogger().at(Level.INFO).log("Vote journal closed - votes=%d, avgAppendMicros=%.1f, syncs=%d",
+                count, count > 0 ? appendNanos.sum() / 1000.0 / count : 0.0, syncs.sum());
+    }
+
+    /**
+     * Encodes the record header and writes the record at the end of the active segment,
+     * starting a new segment first if the active one is full.
+     */
+    private void writeRecord() throws IOException {
+        int length = record.position() - HEADER_BYTES;
+        record.flip();
+        crc.reset();
+        crc.update(record.duplicate().position(HEADER_BYTES));
+        record.putInt(0, length).putInt(4, (int) crc.getValue());
+
+        // Hold back this thread's interrupt: it would close the channel for every writer
+        boolean interrupted = Thread.interrupted();
+        try {
+            if (active.size > 0 && active.size + record.limit() > segmentBytes) {
+                rotate();
+            }
+            long recordStart = active.size;
+            try {
+                writeFully();
+            } catch (ClosedChannelException e) {
+                // Another writer was interrupted mid-write and closed the channel
+                reopenActive(recordStart);
+                record.rewind();
+                writeFully();
+            }
+            writtenSequence = nextSequence;
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void writeFully() throws IOException {
+        while (record.hasRemaining()) {
+            active.size += active.channel.write(record);
+        }
+    }
+
+    /**
+     * Reopens the active segment after its channel was closed by an interrupt, truncating
+     * whatever part of an interrupted record reached the file.
+     */
+    private void reopenActive(long size) throws IOException {
+        plugin.getLogger().at(Level.WARNING).log("Vote journal segment %s was closed by an interrupted write, reopening",
+                active.path.getFileName());
+        closeChannel(active);
+        active.channel = FileChannel.open(active.path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        active.channel.truncate(size);
+        active.size = size;
+    }
+
+    private void putString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF || bytes.length + 2 + 8 > record.remaining()) {
+            throw new IOException("Vote field too large to journal");
+        }
+        record.putShort((short) bytes.length).put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Syncs the full segment and starts a new one. The old segment stays until it is fully checkpointed.
+     */
+    private void rotate() throws IOException {
+        try {
+            active.channel.force(false);
+        } catch (ClosedChannelException e) {
+            reopenActive(active.size);
+            active.channel.force(false);
+        }
+        closeChannel(active);
+        startSegment();
+    }
+
+    private void startSegment() throws IOException {
+        Path path = directory.resolve(SEGMENT_PREFIX + String.format("%020d", nextSequence) + SEGMENT_SUFFIX);
+        Segment segment = segments.computeIfAbsent(nextSequence, s -> new Segment(path));
+        segment.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segment.size = segment.channel.size();
+        active = segment;
+    }
+
+    /**
+     * Deletes the oldest segments while all of their votes have been checkpointed.
+     *
+     * <p>Only a prefix is deleted: checkpoints for votes in a segment may be stored in later
+     * segments, which must survive as long as the earlier segment does.</p>
+     */
+    private void deleteCompletedSegments() throws IOException {
+        while (!segments.isEmpty()) {
+            Segment oldest = segments.firstEntry().getValue();
+            if (oldest == active || oldest.pending > 0) {
+                return;
+            }
+            closeChannel(oldest);
+            Files.deleteIfExists(oldest.path);
+            segments.pollFirstEntry();
+        }
+    }
+
+    private static void closeChannel(Segment segment) throws IOException {
+        if (segment.channel != null) {
+            segment.channel.close();
+            segment.channel = null;
+        }
+    }
+
+    private boolean awaitDurable(long sequence) {
+        synchronized (syncMonitor) {
+            syncRequested = true;
+            syncMonitor.notifyAll();
+            while (durableSequence < sequence) {
+                if (failedSequence >= sequence || closing) {
+                    return false;
+                }
+                try {
+                    syncMonitor.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private void runSyncLoop() {
+        while (true) {
+            synchronized (syncMonitor) {
+                try {
+                    if (groupCommit) {
+                        while (!syncRequested && !closing) {
+                            syncMonitor.wait();
+                        }
+                    } else if (!closing) {
+                        syncMonitor.wait(syncIntervalMillis);
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (closing) {
+                    return;
+                }
+                syncRequested = false;
+            }
+            sync();
+        }
+    }
+
+    /**
+     * Forces everything written so far to disk and wakes the callers waiting for it.
+     */
+    private void sync() {
+        FileChannel channel;
+        long target;
+        writeLock.lock();
+        try {
+            channel = active != null ? active.channel : null;
+            target = writtenSequence;
+        } finally {
+            writeLock.unlock();
+        }
+        synchronized (syncMonitor) {
+            if (channel == null || target <= durableSequence) {
+                return;
+            }
+        }
+
+        try {
+            try {
+                channel.force(false);
+            } catch (ClosedChannelException e) {
+                // The segment was rotated after the snapshot, and rotation forced it, or it was
+                // reopened after an interrupted write and the reopened channel must be forced
+                FileChannel current = currentChannel();
+                if (current != null && current != channel) {
+                    current.force(false);
+                }
+            }
+        } catch (IOException e) {
+            plugin.getLogger().at(Level.SEVERE).log("Failed to sync vote journal: %s", e.getMessage());
+            synchronized (syncMonitor) {
+                failedSequence = Math.max(failedSequence, target);
+                syncMonitor.notifyAll();
+            }
+            return;
+        }
+        syncs.increment();
+
+        synchronized (syncMonitor) {
+            durableSequence = Math.max(durableSequence, target);
+            syncMonitor.notifyAll();
+        }
+    }
+
+    private FileChannel currentChannel() {
+        writeLock.lock();
+        try {
+            return active != null ? active.channel : null;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Reads every existing segment, collecting votes without a checkpoint.
+     */
+    private void readSegments() throws IOException {
+        List<Path> paths;
+        try (Stream<Path> files = Files.list(directory)) {
+            paths = files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().toList();
+        }
+
+        Map<Long, Vote> pending = new LinkedHashMap<>();
+        long lastSequence = 0;
+        for (Path path : paths) {
+            String name = path.getFileName().toString();
+            long firstSequence;
+            try {
+                firstSequence = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+            } catch (NumberFormatException e) {
+                plugin.getLogger().at(Level.WARNING).log("Ignoring unrecognized journal file %s", name);
+                continue;
+            }
+            Segment segment = new Segment(path);
+            segments.put(firstSequence, segment);
+            lastSequence = Math.max(lastSequence, readSegment(segment, pending));
+        }
+
+        for (Map.Entry<Long, Vote> entry : pending.entrySet()) {
+            recovered.add(new JournaledVote(entry.getKey(), entry.getValue()));
+        }
+        nextSequence = lastSequence + 1;
+        writtenSequence = lastSequence;
+        durableSequence = lastSequence;
+        deleteCompletedSegments();
+
+        if (!recovered.isEmpty()) {
+            plugin.getLogger().at(Level.INFO).log("Vote journal contains %d undelivered vote(s) in %d segment(s)",
+                    recovered.size(), segments.size());
+        }
+    }
+
+    /**
+     * Reads the records of one segment, truncating it to the end of its last valid record.
+     *
+     * @return the highest sequence number in the segment
+     */
+    private long readSegment(Segment segment, Map<Long, Vote> pending) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment.path));
+        CRC32C check = new CRC32C();
+        long lastSequence = 0;
+        while (buffer.remaining() >= HEADER_BYTES) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            int expectedCrc = buffer.getInt();
+            if (length < 9 || length > MAX_RECORD_BYTES || length > buffer.remaining()) {
+                buffer.position(start);
+                break;
+            }
+            check.reset();
+            check.update(buffer.slice(buffer.position(), length));
+            if ((int) check.getValue() != expectedCrc) {
+                buffer.position(start);
+                break;
+            }
+
+            ByteBuffer body = buffer.slice(buffer.position(), length);
+            buffer.position(buffer.position() + length);
+            byte type = body.get();
+            long sequence = body.getLong();
+            lastSequence = Math.max(lastSequence, sequence);
+            try {
+                if (type == TYPE_VOTE) {
+                    pending.put(sequence, new Vote(getString(body), getString(body), getString(body), body.getLong()));
+                    segment.pending++;
+                } else if (type == TYPE_CHECKPOINT) {
+                    long voteSequence = body.getLong();
+                    if (pending.remove(voteSequence) != null) {
+                        Map.Entry<Long, Segment> owner = segments.floorEntry(voteSequence);
+                        if (owner != null) {
+                            owner.getValue().pending--;
+                        }
+                    }
+                }
+            } catch (RuntimeException e) {
+                plugin.getLogger().at(Level.WARNING).log("Skipping unreadable journal record %d in %s: %s",
+                        sequence, segment.path.getFileName(), e.getMessage());
+            }
+        }
+
+        if (buffer.hasRemaining()) {
+            // Cut the torn tail off so records appended to this segment later stay readable
+            try (FileChannel channel = FileChannel.open(segment.path, StandardOpenOption.WRITE)) {
+                channel.truncate(buffer.position());
+            }
+            plugin.getLogger().at(Level.WARNING).log("Truncated %d byte(s) of incomplete records at the end of %s",
+                    buffer.remaining(), segment.path.getFileName());
+        }
+        return lastSequence;
+    }
+}
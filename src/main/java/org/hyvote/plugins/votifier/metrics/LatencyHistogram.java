@@ -0,0 +1,84 @@
+package org.hyvote.plugins.votifier.metrics;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free latency histogram with power-of-two buckets from 1µs to about 33s.
+ *
+ * <p>Recording a value is a leading-zero count and two {@link LongAdder} increments, so threads
+ * recording concurrently do not contend on a shared counter or lock. Bucket {@code i} counts values
+ * below 2<sup>i</sup> microseconds, which keeps the relative error under 2x across the whole range
+ * with a fixed, small number of buckets, in the spirit of HdrHistogram's logarithmic buckets.
+ * Values of 2<sup>25</sup>µs and above are only counted in {@code +Inf}.</p>
+ */
+public final class LatencyHistogram {
+
+    /** Number of bounded buckets; bucket {@code i} has the upper bound 2<sup>i</sup>µs. */
+    static final int BUCKETS = 26;
+
+    private static final String[] UPPER_BOUNDS = new String[BUCKETS];
+
+    static {
+        for (int i = 0; i < BUCKETS; i++) {
+            // Seconds, written out in full: 0.000001, 0.000002, ... 33.554432
+            UPPER_BOUNDS[i] = BigDecimal.valueOf(1L << i).movePointLeft(6).toPlainString();
+        }
+    }
+
+    private final LongAdder[] counts = new LongAdder[BUCKETS + 1];
+    private final LongAdder sumNanos = new LongAdder();
+
+    /**
+     * Creates an empty histogram.
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos the duration in nanoseconds
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        int bucket = 64 - Long.numberOfLeadingZeros(nanos / 1000);
+        counts[Math.min(bucket, BUCKETS)].increment();
+        sumNanos.add(nanos);
+    }
+
+    /**
+     * Records the time elapsed since {@code startNanos}.
+     *
+     * @param startNanos a {@link System#nanoTime()} value taken when the operation started
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Writes the histogram's bucket, sum and count samples in Prometheus text format.
+     *
+     * @param out    the output
+     * @param name   the metric name, without suffixes
+     * @param labels label pairs to prepend to {@code le}, e.g. {@code stage="event",}, or empty
+     */
+    void writeSamples(StringBuilder out, String name, String labels) {
+        long cumulative = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulative += counts[i].sum();
+            out.append(name).append("_bucket{").append(labels).append("le=\"").append(UPPER_BOUNDS[i])
+                    .append("\"} ").append(cumulative).append('\n');
+        }
+        cumulative += counts[BUCKETS].sum();
+        out.append(name).append("_bucket{").append(labels).append("le=\"+Inf\"} ").append(cumulative).append('\n');
+        String sumLabels = labels.isEmpty() ? "" : "{" + labels.substring(0, labels.length() - 1) + "}";
+        out.append(name).append("_sum").append(sumLabels).append(' ').append(sumNanos.sum() / 1e9).append('\n');
+        out.append(name).append("_count").append(sumLabels).append(' ').append(cumulative).append('\n');
+    }
+}
@@ -0,0 +1,315 @@
+package org.hyvote.plugins.votifier.metrics;
+
+import org.hyvote.plugins.votifier.HytaleVotifierPlugin;
+import org.hyvote.plugins.votifier.journal.VoteJournal;
+import org.hyvote.plugins.votifier.reward.RewardScheduler;
+import org.hyvote.plugins.votifier.vote.OverloadDetector;
+import org.hyvote.plugins.votifier.vote.ProtocolDetector.Protocol;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Vote counters and latency histograms, rendered in the Prometheus text format. The plugin owns
+ * one instance, see {@link HytaleVotifierPlugin#getMetrics()}.
+ *
+ * <p>Every counter is a {@link LongAdder} held in an array indexed by enum ordinal, and every
+ * histogram is a {@link LatencyHistogram}, so recording never takes a lock, allocates or looks up
+ * a map entry, except for the first vote of a new voting site. The cost of a scrape is paid by the
+ * scraper: sums are read and the text is built only when {@link #scrape} is called.</p>
+ *
+ * <p>Votes are also counted per voting site. V1 service names are not authenticated, so the
+ * number of distinct sites is capped; votes from sites beyond the cap are counted as
+ * {@code service="other"}. A site takes one label however many protocols it votes over.</p>
+ */
+public final class VotifierMetrics {
+
+    /**
+     * Content type of {@link #scrape}.
+     */
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    /**
+     * Service label used for voting sites beyond the label cap.
+     */
+    static final String OTHER_SERVICE = "other";
+
+    /**
+     * Outcome of processing a vote payload, matching the kinds of {@code VoteProcessor.VoteResult}.
+     */
+    public enum Outcome {
+        SUCCESS, EMPTY_PAYLOAD, UNKNOWN_PROTOCOL, PARSE_ERROR, SIGNATURE_ERROR, REPLAY_ERROR, DECRYPTION_ERROR, INTERNAL_ERROR
+    }
+
+    /**
+     * Stages of accepting and dispatching a vote.
+     */
+    public enum Stage {
+        RATE_LIMIT, DEDUPLICATION, JOURNAL, EVENT, STORAGE, INBOX, NOTIFICATIONS, REWARDS
+    }
+
+    /**
+     * Vote storage operations.
+     */
+    public enum StorageOperation {
+        RECORD_VOTE, GET_LAST_VOTE, GET_STREAK, HAS_VOTED_RECENTLY, CLEANUP, ADD_PENDING, TAKE_PENDING, CLEANUP_PENDING,
+        ADD_PENDING_ITEM, TAKE_PENDING_ITEMS, CLEANUP_PENDING_ITEMS
+    }
+
+    private static final Protocol[] PROTOCOLS = Protocol.values();
+    private static final Outcome[] OUTCOMES = Outcome.values();
+    private static final Stage[] STAGES = Stage.values();
+    private static final StorageOperation[] STORAGE_OPERATIONS = StorageOperation.values();
+
+    private final LatencyHistogram decrypt = new LatencyHistogram();
+    private final LatencyHistogram hmacVerify = new LatencyHistogram();
+    private final LatencyHistogram[] parse = histograms(PROTOCOLS.length);
+    private final LatencyHistogram[] stageLatency = histograms(STAGES.length);
+    private final LatencyHistogram[] storageLatency = histograms(STORAGE_OPERATIONS.length);
+    private final LongAdder[] results = adders(OUTCOMES.length);
+    private final LongAdder remindersSent = new LongAdder();
+    private final LongAdder remindersFailed = new LongAdder();
+
+    /**
+     * Votes received per voting site, one counter per protocol. A site's entry is created, and its
+     * label taken, inside {@code computeIfAbsent}, so concurrent first votes take a single label.
+     */
+    private final Map<String, LongAdder[]> received = new ConcurrentHashMap<>();
+    private final LongAdder[] receivedOther = adders(PROTOCOLS.length);
+    private final AtomicInteger serviceLabels = new AtomicInteger();
+    private final int maxServiceLabels;
+
+    /**
+     * Creates an empty set of metrics.
+     *
+     * @param maxServiceLabels how many distinct voting sites are counted separately
+     */
+    public VotifierMetrics(int maxServiceLabels) {
+        this.maxServiceLabels = maxServiceLabels;
+    }
+
+    /**
+     * Counts a successfully parsed vote.
+     *
+     * @param protocol    the protocol it was received over
+     * @param serviceName the voting site it came from
+     */
+    public void recordReceived(Protocol protocol, String serviceName) {
+        LongAdder[] counters = received.get(serviceName);
+        if (counters == null && serviceLabels.get() < maxServiceLabels && !OTHER_SERVICE.equals(serviceName)) {
+            // A null mapping leaves the site unmapped, so nothing is stored once the labels run out
+            counters = received.computeIfAbsent(serviceName, s -> takeServiceLabel() ? adders(PROTOCOLS.length) : null);
+        }
+        (counters != null ? counters : receivedOther)[protocol.ordinal()].increment();
+    }
+
+    /**
+     * Takes one of the service labels, unless all of them have been taken.
+     */
+    private boolean takeServiceLabel() {
+        return serviceLabels.getAndUpdate(n -> n < maxServiceLabels ? n + 1 : n) < maxServiceLabels;
+    }
+
+    /**
+     * Returns the histogram of RSA decryption times.
+     *
+     * @return the histogram
+     */
+    public LatencyHistogram decrypt() {
+        return decrypt;
+    }
+
+    /**
+     * Returns the histogram of HMAC signature verification times.
+     *
+     * @return the histogram
+     */
+    public LatencyHistogram hmacVerify() {
+        return hmacVerify;
+    }
+
+    /**
+     * Counts the outcome of processing a vote payload.
+     *
+     * @param outcome the outcome
+     */
+    public void recordOutcome(Outcome outcome) {
+        results[outcome.ordinal()].increment();
+    }
+
+    /**
+     * Returns the parse time histogram for a protocol.
+     *
+     * @param protocol the protocol
+     * @return the histogram
+     */
+    public LatencyHistogram parse(Protocol protocol) {
+        return parse[protocol.ordinal()];
+    }
+
+    /**
+     * Returns the time histogram for a dispatch stage.
+     *
+     * @param stage the stage
+     * @return the histogram
+     */
+    public LatencyHistogram stage(Stage stage) {
+        return stageLatency[stage.ordinal()];
+    }
+
+    /**
+     * Returns the time histogram for a storage operation.
+     *
+     * @param operation the operation
+     * @return the histogram
+     */
+    public LatencyHistogram storage(StorageOperation operation) {
+        return storageLatency[operation.ordinal()];
+    }
+
+    /**
+     * Counts a reminder sent to a player.
+     *
+     * @param sent true if it was sent, false if sending failed
+     */
+    public void recordReminder(boolean sent) {
+        (sent ? remindersSent : remindersFailed).increment();
+    }
+
+    /**
+     * Renders all metrics, plus gauges read from the plugin, in the Prometheus text format.
+     *
+     * @param plugin the plugin instance, for queue and load shedding gauges
+     * @return the exposition text
+     */
+    public String scrape(HytaleVotifierPlugin plugin) {
+        StringBuilder out = new StringBuilder(32 * 1024);
+
+        header(out, "votifier_votes_received_total", "counter", "Votes parsed successfully, by protocol and voting site.");
+        for (Map.Entry<String, LongAdder[]> entry : received.entrySet()) {
+            writeReceived(out, escape(entry.getKey()), entry.getValue());
+        }
+        writeReceived(out, OTHER_SERVICE, receivedOther);
+
+        header(out, "votifier_vote_results_total", "counter", "Vote payloads processed, by outcome.");
+        for (Outcome outcome : OUTCOMES) {
+            out.append("votifier_vote_results_total{outcome=\"").append(label(outcome)).append("\"} ")
+                    .append(results[outcome.ordinal()].sum()).append('\n');
+        }
+
+        header(out, "votifier_decrypt_seconds", "histogram", "Time spent decrypting V1 RSA payloads.");
+        decrypt.writeSamples(out, "votifier_decrypt_seconds", "");
+
+        header(out, "votifier_hmac_verify_seconds", "histogram", "Time spent verifying V2 HMAC signatures.");
+        hmacVerify.writeSamples(out, "votifier_hmac_verify_seconds", "");
+
+        header(out, "votifier_parse_seconds", "histogram", "Time spent parsing vote payloads, by protocol.");
+        for (Protocol protocol : PROTOCOLS) {
+            if (protocol != Protocol.UNKNOWN) {
+                parse[protocol.ordinal()].writeSamples(out, "votifier_parse_seconds", "protocol=\"" + label(protocol) + "\",");
+            }
+        }
+
+        header(out, "votifier_dispatch_stage_seconds", "histogram", "Time spent in each stage of accepting and dispatching a vote.");
+        for (Stage stage : STAGES) {
+            stageLatency[stage.ordinal()].writeSamples(out, "votifier_dispatch_stage_seconds", "stage=\"" + label(stage) + "\",");
+        }
+
+        header(out, "votifier_storage_operation_seconds", "histogram", "Time spent in vote storage operations.");
+        for (StorageOperation operation : STORAGE_OPERATIONS) {
+            storageLatency[operation.ordinal()].writeSamples(out, "votifier_storage_operation_seconds",
+                    "operation=\"" + label(operation) + "\",");
+        }
+
+        header(out, "votifier_reminders_total", "counter", "Vote reminders sent to players, by result.");
+        out.append("votifier_reminders_total{result=\"sent\"} ").append(remindersSent.sum()).append('\n');
+        out.append("votifier_reminders_total{result=\"failed\"} ").append(remindersFailed.sum()).append('\n');
+
+        RewardScheduler scheduler = plugin.getRewardScheduler();
+        if (scheduler != null) {
+            header(out, "votifier_reward_queue_depth", "gauge", "Rewards waiting to be executed.");
+            out.append("votifier_reward_queue_depth ").append(scheduler.getQueueDepth()).append('\n');
+        }
+        VoteJournal journal = plugin.getVoteJournal();
+        if (journal != null) {
+            header(out, "votifier_journal_pending_votes", "gauge", "Journaled votes whose rewards have not run yet.");
+            out.append("votifier_journal_pending_votes ").append(journal.getPendingCount()).append('\n');
+        }
+        OverloadDetector detector = plugin.getOverloadDetector();
+        if (detector != null) {
+            header(out, "votifier_shed_requests_total", "counter", "Vote requests turned away while overloaded.");
+            out.append("votifier_shed_requests_total ").append(detector.getShedRequestCount()).append('\n');
+            header(out, "votifier_shedding", "gauge", "Whether vote requests are currently being shed.");
+            out.append("votifier_shedding ").append(detector.isShedding() ? 1 : 0).append('\n');
+        }
+        return out.toString();
+    }
+
+    /**
+     * Writes the received counters of one voting site, skipping protocols it has not used.
+     */
+    private static void writeReceived(StringBuilder out, String service, LongAdder[] counters) {
+        for (Protocol protocol : PROTOCOLS) {
+            long count = counters[protocol.ordinal()].sum();
+            if (count > 0) {
+                out.append("votifier_votes_received_total{protocol=\"").append(label(protocol))
+                        .append("\",service=\"").append(service).append("\"} ").append(count).append('\n');
+            }
+        }
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static String label(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Escapes a label value: backslash, double quote and line feed.
+     */
+    static String escape(String value) {
+        StringBuilder escaped = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement = switch (c) {
+                case '\\' -> "\\\\";
+                case '"' -> "\\\"";
+                case '\n' -> "\\n";
+                default -> null;
+            };
+            if (replacement != null && escaped == null) {
+                escaped = new StringBuilder(value.length() + 8).append(value, 0, i);
+            }
+            if (escaped != null) {
+                if (replacement != null) {
+                    escaped.append(replacement);
+                } else {
+                    escaped.append(c);
+                }
+            }
+        }
+        return escaped != null ? escaped.toString() : value;
+    }
+
+    private static LatencyHistogram[] histograms(int count) {
+        LatencyHistogram[] histograms = new LatencyHistogram[count];
+        for (int i = 0; i < count; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+        return histograms;
+    }
+
+    private static LongAdder[] adders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+}
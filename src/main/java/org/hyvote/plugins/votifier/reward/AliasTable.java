@@ -0,0 +1,128 @@
+package org.hyvote.plugins.votifier.reward;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Walker alias table for constant-time sampling from a discrete weighted distribution.
+ *
+ * <p>Built once in O(n) with Vose's method: the weights are scaled so their mean is 1 and
+ * split into {@code n} columns of height 1, each holding at most two outcomes (the column's
+ * own index and an alias). Sampling picks a column uniformly and then one of its two
+ * outcomes, so every draw costs two random numbers regardless of the number of entries.</p>
+ */
+public final class AliasTable {
+
+    private final double[] probability;
+    private final int[] alias;
+    private final double[] weights;
+    private final double totalWeight;
+
+    private AliasTable(double[] probability, int[] alias, double[] weights, double totalWeight) {
+        this.probability = probability;
+        this.alias = alias;
+        this.weights = weights;
+        this.totalWeight = totalWeight;
+    }
+
+    /**
+     * Builds an alias table from relative weights.
+     *
+     * @param weights the relative weight of each outcome; zero-weight outcomes are never sampled
+     * @return the alias table
+     * @throws IllegalArgumentException if there are no weights, any weight is negative or not
+     *                                  finite, or all weights are zero
+     */
+    public static AliasTable of(double[] weights) {
+        int n = weights.length;
+        if (n == 0) {
+            throw new IllegalArgumentException("at least one weight is required");
+        }
+
+        double total = 0;
+        for (double weight : weights) {
+            if (!(weight >= 0) || Double.isInfinite(weight)) {
+                throw new IllegalArgumentException("weights must be finite and not negative");
+            }
+            total += weight;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("at least one weight must be greater than 0");
+        }
+
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+
+        double[] probability = new double[n];
+        int[] alias = new int[n];
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+
+            probability[less] = scaled[less];
+            alias[less] = more;
+
+            // The large outcome donates the rest of the small outcome's column
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+
+        // Whatever is left is 1 up to rounding error
+        while (largeCount > 0) {
+            int index = large[--largeCount];
+            probability[index] = 1.0;
+            alias[index] = index;
+        }
+        while (smallCount > 0) {
+            int index = small[--smallCount];
+            probability[index] = 1.0;
+            alias[index] = index;
+        }
+
+        return new AliasTable(probability, alias, weights.clone(), total);
+    }
+
+    /**
+     * Draws one outcome.
+     *
+     * @param random the random source, e.g. {@link java.util.concurrent.ThreadLocalRandom#current()}
+     * @return the index of the drawn outcome
+     */
+    public int sample(RandomGenerator random) {
+        int column = random.nextInt(probability.length);
+        return random.nextDouble() < probability[column] ? column : alias[column];
+    }
+
+    /**
+     * Returns the number of outcomes.
+     *
+     * @return the outcome count
+     */
+    public int size() {
+        return probability.length;
+    }
+
+    /**
+     * Returns the exact probability of drawing an outcome, for comparison with simulations.
+     *
+     * @param index the outcome index
+     * @return the outcome's weight divided by the total weight
+     */
+    public double expectedProbability(int index) {
+        return weights[index] / totalWeight;
+    }
+}
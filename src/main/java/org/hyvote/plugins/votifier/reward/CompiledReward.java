@@ -0,0 +1,135 @@
+package org.hyvote.plugins.votifier.reward;
+
+import com.hypixel.hytale.server.core.asset.type.item.config.Item;
+import org.hyvote.plugins.votifier.HytaleVotifierPlugin;
+import org.hyvote.plugins.votifier.RewardAction;
+import org.hyvote.plugins.votifier.util.PlaceholderTemplate;
+import org.hyvote.plugins.votifier.util.PlaceholderUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Level;
+
+/**
+ * A reward action validated and resolved when the configuration is loaded.
+ *
+ * <p>Item IDs are checked against the item asset map and command templates are compiled
+ * once, so executing a reward does no string parsing or lookups beyond finding the voter.</p>
+ */
+public sealed interface CompiledReward {
+
+    /**
+     * Returns the probability of executing this reward.
+     *
+     * @return the chance, from 0.0 to 1.0
+     */
+    double chance();
+
+    /**
+     * Gives an item stack directly to the voter's inventory.
+     *
+     * @param itemId   the resolved item ID
+     * @param quantity the number of items to give
+     * @param chance   the probability of executing this reward
+     */
+    record GiveItem(String itemId, int quantity, double chance) implements CompiledReward {}
+
+    /**
+     * Grants currency by firing a {@code VoteRewardEvent} for economy plugins.
+     *
+     * @param currency the currency name
+     * @param amount   the amount to grant
+     * @param chance   the probability of executing this reward
+     */
+    record Currency(String currency, double amount, double chance) implements CompiledReward {}
+
+    /**
+     * Fires a named {@code VoteRewardEvent} for other plugins.
+     *
+     * @param name   the configured event name
+     * @param chance the probability of executing this reward
+     */
+    record Event(String name, double chance) implements CompiledReward {}
+
+    /**
+     * Runs a console command built from a compiled template.
+     *
+     * @param command the compiled command template ({@code {username}}, {@code {from}})
+     * @param chance  the probability of executing this reward
+     */
+    record Command(PlaceholderTemplate command, double chance) implements CompiledReward {}
+
+    /**
+     * Validates and compiles the configured reward actions.
+     *
+     * <p>Disabled actions are dropped. Invalid actions (unknown type, unknown item ID, missing
+     * fields or an out-of-range chance) are dropped with a warning.</p>
+     *
+     * @param plugin  the plugin instance for logging
+     * @param actions the configured reward actions, may be null
+     * @param source  where the actions are configured, for warnings (e.g. "rewards")
+     * @return the compiled rewards, in configuration order
+     */
+    static List<CompiledReward> compileAll(HytaleVotifierPlugin plugin, List<RewardAction> actions, String source) {
+        if (actions == null || actions.isEmpty()) {
+            return List.of();
+        }
+
+        List<CompiledReward> compiled = new ArrayList<>(actions.size());
+        for (int i = 0; i < actions.size(); i++) {
+            RewardAction action = actions.get(i);
+            if (action == null || !action.enabled()) {
+                continue;
+            }
+
+            try {
+                compiled.add(compile(action));
+            } catch (IllegalArgumentException e) {
+                plugin.getLogger().at(Level.WARNING).log("Skipping reward action #%d in %s: %s", i + 1, source, e.getMessage());
+            }
+        }
+        return Collections.unmodifiableList(compiled);
+    }
+
+    private static CompiledReward compile(RewardAction action) {
+        double chance = action.chance() != null ? action.chance() : 1.0;
+        if (chance < 0.0 || chance > 1.0) {
+            throw new IllegalArgumentException("chance must be between 0.0 and 1.0");
+        }
+
+        String type = action.type() != null ? action.type().toLowerCase(Locale.ROOT) : "";
+        return switch (type) {
+            case "give_item" -> {
+                String itemId = requireField(action.item(), "item");
+                if (Item.getAssetMap().getAsset(itemId) == null) {
+                    throw new IllegalArgumentException("unknown item '" + itemId + "'");
+                }
+                int quantity = action.quantity() != null ? action.quantity() : 1;
+                if (quantity < 1) {
+                    throw new IllegalArgumentException("quantity must be at least 1");
+                }
+                yield new GiveItem(itemId, quantity, chance);
+            }
+            case "currency" -> {
+                String currency = requireField(action.currency(), "currency");
+                if (action.amount() == null || action.amount() <= 0) {
+                    throw new IllegalArgumentException("amount must be greater than 0");
+                }
+                yield new Currency(currency, action.amount(), chance);
+            }
+            case "event" -> new Event(requireField(action.event(), "event"), chance);
+            case "command" -> new Command(
+                    PlaceholderUtil.compileVoteTemplate(requireField(action.command(), "command")), chance);
+            default -> throw new IllegalArgumentException("unknown type '" + action.type() + "'");
+        };
+    }
+
+    private static String requireField(String value, String name) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(name + " is required");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,151 @@
+package org.hyvote.plugins.votifier.reward;
+
+import org.hyvote.plugins.votifier.HytaleVotifierPlugin;
+import org.hyvote.plugins.votifier.RewardTableConfig;
+import org.hyvote.plugins.votifier.RewardTableEntry;
+import org.hyvote.plugins.votifier.RewardTierConfig;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.random.RandomGenerator;
+
+/**
+ * A reward table compiled into alias tables when the configuration is loaded.
+ *
+ * @param name       the table name
+ * @param guaranteed the rewards granted on every vote
+ * @param tiers      the weighted tiers, rolled in configuration order
+ */
+public record CompiledRewardTable(String name, List<CompiledReward> guaranteed, List<Tier> tiers) {
+
+    /**
+     * A compiled weighted tier.
+     *
+     * @param name       the tier name
+     * @param chance     the probability that the tier is rolled at all
+     * @param draws      the number of picks made when the tier is rolled
+     * @param table      the alias table over the tier's entries
+     * @param entryNames the entry names, index-aligned with the alias table
+     * @param entries    the rewards of each entry, index-aligned with the alias table
+     */
+    public record Tier(
+            String name,
+            double chance,
+            int draws,
+            AliasTable table,
+            List<String> entryNames,
+            List<List<CompiledReward>> entries
+    ) {
+
+        /**
+         * Decides whether this tier is rolled for a vote.
+         *
+         * @param random the random source
+         * @return true if the tier should make its draws
+         */
+        public boolean activates(RandomGenerator random) {
+            return chance >= 1.0 || random.nextDouble() < chance;
+        }
+    }
+
+    /**
+     * Rolls the table once, passing every granted reward to {@code grant}.
+     *
+     * @param random the random source
+     * @param grant  receives the guaranteed rewards followed by the rewards of each picked entry
+     */
+    public void roll(RandomGenerator random, Consumer<CompiledReward> grant) {
+        for (CompiledReward reward : guaranteed) {
+            grant.accept(reward);
+        }
+        for (Tier tier : tiers) {
+            if (!tier.activates(random)) {
+                continue;
+            }
+            for (int draw = 0; draw < tier.draws(); draw++) {
+                for (CompiledReward reward : tier.entries().get(tier.table().sample(random))) {
+                    grant.accept(reward);
+                }
+            }
+        }
+    }
+
+    /**
+     * Validates and compiles the configured reward tables.
+     *
+     * <p>Disabled tables are dropped. Invalid tiers (no entries, negative weights or all zero,
+     * out-of-range chance or draws) are dropped with a warning; invalid reward actions are
+     * dropped as described in {@link CompiledReward#compileAll}.</p>
+     *
+     * @param plugin the plugin instance for logging
+     * @param tables the configured reward tables, may be null
+     * @return the compiled tables, in configuration order
+     */
+    public static List<CompiledRewardTable> compileAll(HytaleVotifierPlugin plugin, List<RewardTableConfig> tables) {
+        if (tables == null || tables.isEmpty()) {
+            return List.of();
+        }
+
+        List<CompiledRewardTable> compiled = new ArrayList<>(tables.size());
+        for (int t = 0; t < tables.size(); t++) {
+            RewardTableConfig table = tables.get(t);
+            if (table == null || !table.enabled()) {
+                continue;
+            }
+
+            String tableName = table.name() != null && !table.name().isBlank() ? table.name() : "table" + (t + 1);
+            List<CompiledReward> guaranteed = CompiledReward.compileAll(
+                    plugin, table.guaranteed(), "reward table " + tableName + " (guaranteed)");
+
+            List<Tier> tiers = new ArrayList<>();
+            if (table.tiers() != null) {
+                for (int i = 0; i < table.tiers().size(); i++) {
+                    RewardTierConfig tier = table.tiers().get(i);
+                    String tierName = tier.name() != null && !tier.name().isBlank() ? tier.name() : "tier" + (i + 1);
+                    try {
+                        tiers.add(compileTier(plugin, tableName, tierName, tier));
+                    } catch (IllegalArgumentException e) {
+                        plugin.getLogger().at(Level.WARNING).log(
+                                "Skipping tier %s of reward table %s: %s", tierName, tableName, e.getMessage());
+                    }
+                }
+            }
+
+            compiled.add(new CompiledRewardTable(tableName, guaranteed, Collections.unmodifiableList(tiers)));
+        }
+        return Collections.unmodifiableList(compiled);
+    }
+
+    private static Tier compileTier(HytaleVotifierPlugin plugin, String tableName, String tierName, RewardTierConfig tier) {
+        double chance = tier.chance() != null ? tier.chance() : 1.0;
+        if (chance < 0.0 || chance > 1.0) {
+            throw new IllegalArgumentException("chance must be between 0.0 and 1.0");
+        }
+        int draws = tier.draws() != null ? tier.draws() : 1;
+        if (draws < 1) {
+            throw new IllegalArgumentException("draws must be at least 1");
+        }
+        if (tier.entries() == null || tier.entries().isEmpty()) {
+            throw new IllegalArgumentException("at least one entry is required");
+        }
+
+        int size = tier.entries().size();
+        double[] weights = new double[size];
+        List<String> names = new ArrayList<>(size);
+        List<List<CompiledReward>> entries = new ArrayList<>(size);
+        for (int e = 0; e < size; e++) {
+            RewardTableEntry entry = tier.entries().get(e);
+            String entryName = entry.name() != null && !entry.name().isBlank() ? entry.name() : "entry" + (e + 1);
+            weights[e] = entry.weight() != null ? entry.weight() : 1.0;
+            names.add(entryName);
+            entries.add(CompiledReward.compileAll(
+                    plugin, entry.rewards(), "reward table " + tableName + " (" + tierName + "/" + entryName + ")"));
+        }
+
+        return new Tier(tierName, chance, draws, AliasTable.of(weights),
+                Collections.unmodifiableList(names), Collections.unmodifiableList(entries));
+    }
+}
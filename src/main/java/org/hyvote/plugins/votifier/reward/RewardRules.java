@@ -0,0 +1,214 @@
+package org.hyvote.plugins.votifier.reward;
+
+import org.hyvote.plugins.votifier.HytaleVotifierPlugin;
+import org.hyvote.plugins.votifier.RewardRuleConfig;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+
+/**
+ * Reward rules compiled into a per-voting-site dispatch table.
+ *
+ * <p>Each rule's configured conditions are compiled into a short chain of predicates;
+ * unset conditions are left out entirely. Rules are then grouped by voting site: a site's
+ * entry holds the rules naming that site plus the rules for all sites, in configuration
+ * order. Finding the candidate rules for a vote is a single map lookup, and each candidate
+ * costs only the checks it actually configures.</p>
+ */
+public final class RewardRules {
+
+    private static final Rule[] NO_RULES = new Rule[0];
+
+    /** Rules that apply to every voting site. */
+    private final Rule[] anyService;
+    /** Rules per lowercased voting site name, including the rules in {@link #anyService}. */
+    private final Map<String, Rule[]> byService;
+    private final boolean usesStreak;
+
+    private RewardRules(Rule[] anyService, Map<String, Rule[]> byService, boolean usesStreak) {
+        this.anyService = anyService;
+        this.byService = byService;
+        this.usesStreak = usesStreak;
+    }
+
+    /**
+     * A single condition of a compiled rule.
+     */
+    @FunctionalInterface
+    public interface Condition {
+
+        /**
+         * Tests the condition against a vote.
+         *
+         * @param context the vote context
+         * @return true if the condition passes
+         */
+        boolean test(RuleContext context);
+    }
+
+    /**
+     * A compiled rule.
+     *
+     * @param name       the rule name
+     * @param conditions the predicate chain; the rule matches when all conditions pass
+     * @param stop       whether to skip the remaining rules when this rule matches
+     * @param rewards    the rewards granted when the rule matches
+     */
+    public record Rule(String name, Condition[] conditions, boolean stop, List<CompiledReward> rewards) {
+
+        /**
+         * Evaluates the rule's predicate chain, stopping at the first failing condition.
+         *
+         * @param context the vote context
+         * @return true if every condition passes
+         */
+        public boolean matches(RuleContext context) {
+            for (Condition condition : conditions) {
+                if (!condition.test(context)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Returns the rules that may apply to a vote from the given voting site, in configuration order.
+     *
+     * @param serviceName the voting site name
+     * @return the candidate rules; never null
+     */
+    public Rule[] rulesFor(String serviceName) {
+        if (byService.isEmpty()) {
+            return anyService;
+        }
+        Rule[] rules = byService.get(serviceName.toLowerCase(Locale.ROOT));
+        return rules != null ? rules : anyService;
+    }
+
+    /**
+     * Returns whether no rules are configured, so rule evaluation can be skipped.
+     *
+     * @return true if no rules are configured
+     */
+    public boolean isEmpty() {
+        return anyService.length == 0 && byService.isEmpty();
+    }
+
+    /**
+     * Returns whether any rule checks the voter's streak, which requires vote storage.
+     *
+     * @return true if a streak condition is configured
+     */
+    public boolean usesStreak() {
+        return usesStreak;
+    }
+
+    /**
+     * Compiles the configured reward rules.
+     *
+     * <p>Disabled rules are dropped. Rules with an invalid streak range are dropped with a
+     * warning; invalid reward actions are dropped as described in {@link CompiledReward#compileAll}.</p>
+     *
+     * @param plugin  the plugin instance for logging
+     * @param configs the configured rules, may be null
+     * @return the compiled rules
+     */
+    public static RewardRules compile(HytaleVotifierPlugin plugin, List<RewardRuleConfig> configs) {
+        if (configs == null || configs.isEmpty()) {
+            return new RewardRules(NO_RULES, Map.of(), false);
+        }
+
+        // Rules in configuration order, each with its lowercased services (empty for all sites)
+        List<Rule> rules = new ArrayList<>();
+        List<Set<String>> ruleServices = new ArrayList<>();
+        Set<String> services = new LinkedHashSet<>();
+        boolean usesStreak = false;
+
+        for (int i = 0; i < configs.size(); i++) {
+            RewardRuleConfig config = configs.get(i);
+            if (config == null || !config.enabled()) {
+                continue;
+            }
+
+            String name = config.name() != null && !config.name().isBlank() ? config.name() : "rule" + (i + 1);
+            if (config.minStreak() != null && config.maxStreak() != null && config.minStreak() > config.maxStreak()) {
+                plugin.getLogger().at(Level.WARNING).log("Skipping reward rule %s: minStreak is greater than maxStreak", name);
+                continue;
+            }
+
+            List<Condition> conditions = new ArrayList<>();
+            // Cheapest checks first: online status, then groups, then the storage lookup for streaks
+            if (config.online() != null) {
+                boolean online = config.online();
+                conditions.add(context -> context.isOnline() == online);
+            }
+            if (config.groups() != null && !config.groups().isEmpty()) {
+                Set<String> groups = lowercase(config.groups());
+                conditions.add(context -> {
+                    for (String group : context.groups()) {
+                        if (groups.contains(group)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                });
+            }
+            if (config.minStreak() != null) {
+                int minStreak = config.minStreak();
+                conditions.add(context -> context.streak() >= minStreak);
+                usesStreak = true;
+            }
+            if (config.maxStreak() != null) {
+                int maxStreak = config.maxStreak();
+                conditions.add(context -> context.streak() <= maxStreak);
+                usesStreak = true;
+            }
+
+            List<CompiledReward> rewards = CompiledReward.compileAll(plugin, config.rewards(), "reward rule " + name);
+            rules.add(new Rule(name, conditions.toArray(Condition[]::new), Boolean.TRUE.equals(config.stop()), rewards));
+
+            Set<String> serviceSet = config.services() != null ? lowercase(config.services()) : Set.of();
+            ruleServices.add(serviceSet);
+            services.addAll(serviceSet);
+        }
+
+        Rule[] anyService = collect(rules, ruleServices, null);
+        Map<String, Rule[]> byService = new HashMap<>();
+        for (String service : services) {
+            byService.put(service, collect(rules, ruleServices, service));
+        }
+        return new RewardRules(anyService, Map.copyOf(byService), usesStreak);
+    }
+
+    /**
+     * Collects, in configuration order, the rules for all sites plus those naming {@code service}.
+     */
+    private static Rule[] collect(List<Rule> rules, List<Set<String>> ruleServices, String service) {
+        List<Rule> collected = new ArrayList<>();
+        for (int i = 0; i < rules.size(); i++) {
+            Set<String> serviceSet = ruleServices.get(i);
+            if (serviceSet.isEmpty() || (service != null && serviceSet.contains(service))) {
+                collected.add(rules.get(i));
+            }
+        }
+        return collected.isEmpty() ? NO_RULES : collected.toArray(Rule[]::new);
+    }
+
+    private static Set<String> lowercase(List<String> values) {
+        Set<String> lowercased = new HashSet<>();
+        for (String value : values) {
+            if (value != null) {
+                lowercased.add(value.toLowerCase(Locale.ROOT));
+            }
+        }
+        return Set.copyOf(lowercased);
+    }
+}
@@ -0,0 +1,368 @@
+package org.hyvote.plugins.votifier.reward;
+
+import com.hypixel.hytale.server.core.NameMatching;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.Universe;
+import com.hypixel.hytale.server.core.universe.world.World;
+import org.hyvote.plugins.votifier.HytaleVotifierPlugin;
+import org.hyvote.plugins.votifier.RewardSchedulerConfig;
+import org.hyvote.plugins.votifier.util.RewardCommandUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * Queues reward commands and actions and executes them on world threads under a per-tick time budget.
+ *
+ * <p>Commands are queued for the world the voter is in, or the default world if they are
+ * offline. Every tick the scheduler submits one drain per non-empty queue to that world's
+ * executor. A drain runs rewards until the tick budget is used up (always at least one, so
+ * the queue keeps moving) and leaves the rest for the next tick. This keeps vote floods from
+ * running hundreds of console commands back to back on network threads.</p>
+ *
+ * <p>Queue depth, per-command latency, budget overruns and carried-over ticks are tracked and
+ * logged every {@code reportIntervalSeconds} when the budget was exceeded (or always in debug mode).</p>
+ */
+public class RewardScheduler {
+
+    /**
+     * How long a submitted drain may go without starting before the world is assumed to have
+     * dropped it and another one is submitted.
+     */
+    private static final long STALE_DRAIN_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    /**
+     * How long shutdown waits for the world threads to run the rewards handed to them, so the
+     * vote journal is not closed before their checkpoints are written.
+     */
+    private static final long SHUTDOWN_DRAIN_TIMEOUT_SECONDS = 10;
+
+    private final HytaleVotifierPlugin plugin;
+    private final long budgetNanos;
+    private final ScheduledExecutorService pump;
+    private final Map<String, WorldQueue> queues = new ConcurrentHashMap<>();
+
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final LongAccumulator peakQueueDepth = new LongAccumulator(Math::max, 0);
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final LongAccumulator maxLatencyNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder overruns = new LongAdder();
+    private final LongAdder carriedOver = new LongAdder();
+    private volatile boolean abandoned;
+
+    /**
+     * Creates a new RewardScheduler and starts draining queued commands every tick.
+     *
+     * @param plugin the plugin instance for config and logging
+     * @param config the scheduler configuration
+     */
+    public RewardScheduler(HytaleVotifierPlugin plugin, RewardSchedulerConfig config) {
+        this.plugin = plugin;
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, config.tickBudgetMillis()));
+        this.pump = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "VoteRewardScheduler");
+            t.setDaemon(true);
+            return t;
+        });
+
+        long interval = Math.max(1, config.tickIntervalMillis());
+        pump.scheduleAtFixedRate(this::pumpQueues, interval, interval, TimeUnit.MILLISECONDS);
+
+        int reportInterval = config.reportIntervalSeconds();
+        if (reportInterval > 0) {
+            pump.scheduleAtFixedRate(this::report, reportInterval, reportInterval, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Queues a reward command for execution on the voter's world thread.
+     *
+     * @param username the voter, used to pick the world to run the command on
+     * @param command  the command to execute (without leading slash)
+     */
+    public void submit(String username, String command) {
+        submit(username, command, () -> RewardCommandUtil.executeCommand(plugin, command));
+    }
+
+    /**
+     * Queues a reward task for execution on the voter's world thread.
+     *
+     * @param username    the voter, used to pick the world to run the task on
+     * @param description a short description of the reward for debug logging
+     * @param task        the reward to execute
+     */
+    public void submit(String username, String description, Runnable task) {
+        String worldName = resolveWorldName(username);
+        queues.computeIfAbsent(worldName, WorldQueue::new).tasks.add(task);
+        peakQueueDepth.accumulate(queueDepth.incrementAndGet());
+
+        if (plugin.getConfig().debug()) {
+            plugin.getLogger().at(Level.INFO).log("Queued reward for world %s: %s", worldName, description);
+        }
+    }
+
+    /**
+     * Returns the number of rewards waiting to be executed.
+     *
+     * @return the current queue depth across all worlds
+     */
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    /**
+     * Stops the scheduler, hands any rewards still queued to their world threads and waits for
+     * them to run, so their journal checkpoints are written before the journal is closed.
+     *
+     * <p>Rewards for a world that is no longer available are dropped with a warning rather
+     * than run off the world thread. If the worlds do not run the handed-off rewards within
+     * {@value #SHUTDOWN_DRAIN_TIMEOUT_SECONDS} seconds and the vote journal is enabled, the rest
+     * are skipped: their votes have no checkpoint and are replayed once on the next start,
+     * instead of being granted now and again on replay.</p>
+     */
+    public void shutdown() {
+        pump.shutdownNow();
+        try {
+            pump.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<CompletableFuture<Void>> handedOff = new ArrayList<>();
+        for (WorldQueue queue : queues.values()) {
+            int remaining = queue.tasks.size();
+            if (remaining == 0) {
+                continue;
+            }
+            try {
+                World world = Universe.get().getWorlds().get(queue.worldName);
+                if (world == null) {
+                    world = Universe.get().getDefaultWorld();
+                }
+                if (world != null && world.isInThread()) {
+                    drainAll(queue);
+                    continue;
+                }
+                if (world != null) {
+                    CompletableFuture<Void> drained = new CompletableFuture<>();
+                    world.execute(() -> {
+                        try {
+                            drainAll(queue);
+                        } finally {
+                            drained.complete(null);
+                        }
+                    });
+                    handedOff.add(drained);
+                    plugin.getLogger().at(Level.INFO).log(
+                            "Handed %d queued reward(s) to world %s before shutdown", remaining, world.getName());
+                    continue;
+                }
+            } catch (Exception e) {
+                plugin.getLogger().at(Level.WARNING).log(
+                        "Failed to hand queued rewards to world %s: %s", queue.worldName, e.getMessage());
+            }
+            plugin.getLogger().at(Level.WARNING).log(
+                    "Dropped %d queued reward(s) for world %s at shutdown", remaining, queue.worldName);
+        }
+        awaitHandedOff(handedOff);
+    }
+
+    /**
+     * Waits for the drains handed to world threads at shutdown.
+     */
+    private void awaitHandedOff(List<CompletableFuture<Void>> handedOff) {
+        if (handedOff.isEmpty()) {
+            return;
+        }
+        try {
+            CompletableFuture.allOf(handedOff.toArray(CompletableFuture[]::new))
+                    .get(SHUTDOWN_DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // drainAll does not throw; a timeout is handled below
+        }
+
+        // Without a journal a late reward is still better than none
+        abandoned = plugin.getVoteJournal() != null;
+        plugin.getLogger().at(Level.WARNING).log(
+                "%d queued reward(s) did not run within %ds of shutdown%s", queueDepth.get(), SHUTDOWN_DRAIN_TIMEOUT_SECONDS,
+                abandoned ? "; their votes are replayed from the journal on the next start" : "");
+    }
+
+    private String resolveWorldName(String username) {
+        PlayerRef playerRef = Universe.get().getPlayerByUsername(username, NameMatching.EXACT_IGNORE_CASE);
+        if (playerRef != null && playerRef.getWorldUuid() != null) {
+            World world = Universe.get().getWorld(playerRef.getWorldUuid());
+            if (world != null) {
+                return world.getName();
+            }
+        }
+        World defaultWorld = Universe.get().getDefaultWorld();
+        return defaultWorld != null ? defaultWorld.getName() : "";
+    }
+
+    /**
+     * Submits a drain to every world with queued rewards that is not already draining.
+     */
+    private void pumpQueues() {
+        for (WorldQueue queue : queues.values()) {
+            if (queue.tasks.isEmpty()) {
+                continue;
+            }
+            if (!queue.draining.compareAndSet(false, true)) {
+                if (System.nanoTime() - queue.drainSubmittedAt < STALE_DRAIN_NANOS) {
+                    continue;
+                }
+                // The world accepted the last drain but never ran it, e.g. because it is stopping
+                plugin.getLogger().at(Level.WARNING).log(
+                        "Reward drain for world %s did not run within %ds, resubmitting",
+                        queue.worldName, TimeUnit.NANOSECONDS.toSeconds(STALE_DRAIN_NANOS));
+            }
+            queue.drainSubmittedAt = System.nanoTime();
+
+            try {
+                World world = Universe.get().getWorlds().get(queue.worldName);
+                if (world == null) {
+                    // The world was unloaded since the reward was queued
+                    world = Universe.get().getDefaultWorld();
+                }
+                if (world != null) {
+                    queue.waitingForWorld = false;
+                    world.execute(() -> drain(queue));
+                } else {
+                    // Never run rewards on the pump thread; keep them queued until a world is back
+                    queue.draining.set(false);
+                    if (!queue.waitingForWorld) {
+                        queue.waitingForWorld = true;
+                        plugin.getLogger().at(Level.WARNING).log(
+                                "No world available for %d queued reward(s) of world %s, holding them until one is",
+                                queue.tasks.size(), queue.worldName);
+                    }
+                }
+            } catch (Exception e) {
+                queue.draining.set(false);
+                plugin.getLogger().at(Level.WARNING).log(
+                        "Failed to schedule rewards for world %s: %s", queue.worldName, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Runs queued rewards until the tick budget is used up. Runs on the world thread.
+     */
+    private void drain(WorldQueue queue) {
+        try {
+            long start = System.nanoTime();
+            long deadline = start + budgetNanos;
+            Runnable task;
+            while ((task = queue.tasks.poll()) != null) {
+                queueDepth.decrementAndGet();
+
+                long taskStart = System.nanoTime();
+                runTask(task);
+                long taskEnd = System.nanoTime();
+
+                long latency = taskEnd - taskStart;
+                executed.increment();
+                totalLatencyNanos.add(latency);
+                maxLatencyNanos.accumulate(latency);
+
+                if (taskEnd - deadline >= 0) {
+                    break;
+                }
+            }
+
+            if (System.nanoTime() - start > budgetNanos) {
+                overruns.increment();
+            }
+            if (!queue.tasks.isEmpty()) {
+                carriedOver.increment();
+            }
+        } finally {
+            queue.draining.set(false);
+        }
+    }
+
+    /**
+     * Runs every reward left in a queue. Runs on the world thread during shutdown, and stops
+     * once shutdown has given up waiting for it.
+     */
+    private void drainAll(WorldQueue queue) {
+        Runnable task;
+        while (!abandoned && (task = queue.tasks.poll()) != null) {
+            queueDepth.decrementAndGet();
+            runTask(task);
+        }
+    }
+
+    private void runTask(Runnable task) {
+        try {
+            task.run();
+        } catch (Exception e) {
+            plugin.getLogger().at(Level.WARNING).log("Failed to execute reward: %s", e.getMessage());
+        }
+    }
+
+    /**
+     * Logs scheduler statistics for the last interval and resets them.
+     */
+    private void report() {
+        long count = executed.sumThenReset();
+        long latencyNanos = totalLatencyNanos.sumThenReset();
+        long maxLatency = maxLatencyNanos.getThenReset();
+        long peak = peakQueueDepth.getThenReset();
+        long overrunCount = overruns.sumThenReset();
+        long carried = carriedOver.sumThenReset();
+        int depth = queueDepth.get();
+
+        if (count == 0 && depth == 0) {
+            return;
+        }
+
+        // Only report outside debug mode when the budget was actually under pressure
+        if (overrunCount == 0 && carried == 0 && !plugin.getConfig().debug()) {
+            return;
+        }
+        plugin.getLogger().at(Level.INFO).log(
+                "Reward scheduler: %d reward(s) executed, queue depth %d (peak %d), latency avg %.2fms max %.2fms, %d budget overrun(s), %d tick(s) carried over",
+                count, depth, peak,
+                count > 0 ? latencyNanos / (double) count / 1_000_000.0 : 0.0,
+                maxLatency / 1_000_000.0,
+                overrunCount, carried);
+    }
+
+    /**
+     * Rewards queued for one world, with a flag so at most one drain per world is in flight and
+     * the time it was submitted so a dropped drain does not stall the queue. {@code waitingForWorld}
+     * is only touched by the pump thread and keeps a missing world from being logged every tick.
+     */
+    private static final class WorldQueue {
+        private final String worldName;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile long drainSubmittedAt;
+        private boolean waitingForWorld;
+
+        private WorldQueue(String worldName) {
+            this.worldName = worldName;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.hyvote.plugins.votifier.reward;
+
+import com.hypixel.hytale.server.core.NameMatching;
+import com.hypixel.hytale.server.core.permissions.PermissionsModule;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.Universe;
+import org.hyvote.plugins.votifier.HytaleVotifierPlugin;
+import org.hyvote.plugins.votifier.storage.VoteStorage;
+import org.hyvote.plugins.votifier.vote.Vote;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Player state for evaluating reward rules against one vote.
+ *
+ * <p>Each piece of state (online player, permission groups, streak) is looked up the first
+ * time a condition needs it and reused for the remaining rules, so a vote only pays for the
+ * lookups its candidate rules actually use.</p>
+ */
+public final class RuleContext {
+
+    private final HytaleVotifierPlugin plugin;
+    private final Vote vote;
+
+    private boolean playerResolved;
+    private PlayerRef playerRef;
+    private Set<String> groups;
+    private int streak = -1;
+
+    /**
+     * Creates a context for evaluating rules against a vote.
+     *
+     * @param plugin the plugin instance for storage access
+     * @param vote   the vote being rewarded
+     */
+    public RuleContext(HytaleVotifierPlugin plugin, Vote vote) {
+        this.plugin = plugin;
+        this.vote = vote;
+    }
+
+    /**
+     * Returns the vote being rewarded.
+     *
+     * @return the vote
+     */
+    public Vote vote() {
+        return vote;
+    }
+
+    /**
+     * Returns whether the voter is currently online.
+     *
+     * @return true if the voter is online
+     */
+    public boolean isOnline() {
+        return player() != null;
+    }
+
+    /**
+     * Returns the voter's permission groups, lowercased.
+     *
+     * @return the groups, or an empty set if the voter is offline
+     */
+    public Set<String> groups() {
+        if (groups == null) {
+            PlayerRef player = player();
+            Set<String> resolved = new HashSet<>();
+            if (player != null) {
+                Set<String> userGroups = PermissionsModule.get().getGroupsForUser(player.getUuid());
+                if (userGroups != null) {
+                    for (String group : userGroups) {
+                        resolved.add(group.toLowerCase(Locale.ROOT));
+                    }
+                }
+            }
+            groups = resolved;
+        }
+        return groups;
+    }
+
+    /**
+     * Returns the number of consecutive days the voter has voted, including today.
+     *
+     * @return the streak, or 0 if vote storage is not available
+     */
+    public int streak() {
+        if (streak < 0) {
+            VoteStorage storage = plugin.getVoteStorage();
+            streak = storage != null ? storage.getStreak(vote.username()) : 0;
+        }
+        return streak;
+    }
+
+    private PlayerRef player() {
+        if (!playerResolved) {
+            playerRef = Universe.get().getPlayerByUsername(vote.username(), NameMatching.EXACT_IGNORE_CASE);
+            playerResolved = true;
+        }
+        return playerRef;
+    }
+}
@@ -0,0 +1,176 @@
+package org.hyvote.plugins.votifier.security;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.util.Arrays;
+
+/**
+ * A set of IPv4 and IPv6 CIDR ranges stored as a prefix trie with one level per address byte.
+ *
+ * <p>Nodes are stored in a single int array, 256 slots per node holding the child for each value
+ * of the next address byte. A child of {@code 0} means no range continues that way and {@code -1}
+ * means a range covers everything below it; prefix lengths that are not a multiple of 8 cover
+ * several neighbouring slots. IPv4 and IPv6 ranges have separate roots, so a lookup reads at most
+ * 4 or 16 slots and stops at the first covered or missing child, without allocating for IPv4
+ * addresses.</p>
+ *
+ * <p>Ranges are added once at startup; lookups are safe from any thread once the trie has been
+ * published.</p>
+ */
+public final class CidrTrie {
+
+    private static final int IPV4_ROOT = 0;
+    private static final int IPV6_ROOT = 1;
+    private static final int NONE = 0;
+    private static final int COVERED = -1;
+    private static final int FANOUT = 256;
+
+    private int[] children = new int[4 * FANOUT];
+    private int size = 2;
+    private int ranges;
+
+    /**
+     * Adds a range in CIDR notation, e.g. {@code "203.0.113.0/24"} or {@code "2001:db8::/32"}.
+     * An address without a prefix length is a single-address range.
+     *
+     * @param cidr the range to add
+     * @throws IllegalArgumentException if the range is not a valid IPv4 or IPv6 CIDR range
+     */
+    public void add(String cidr) {
+        String text = cidr == null ? "" : cidr.trim();
+        int slash = text.indexOf('/');
+        String addressText = slash < 0 ? text : text.substring(0, slash);
+        byte[] address = InetAddresses.parseLiteral(addressText);
+        if (address == null) {
+            throw new IllegalArgumentException("invalid address '" + addressText + "'");
+        }
+
+        int bits = address.length * 8;
+        int prefix = bits;
+        if (slash >= 0) {
+            try {
+                prefix = Integer.parseInt(text.substring(slash + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("invalid prefix length in '" + text + "'");
+            }
+            // "::ffff:a.b.c.d/n" is parsed as an IPv4 address, so its prefix counts the mapped bits
+            if (address.length == 4 && addressText.indexOf(':') >= 0) {
+                prefix -= 96;
+            }
+            if (prefix < 0 || prefix > bits) {
+                throw new IllegalArgumentException("prefix length out of range in '" + text + "'");
+            }
+        }
+        insert(address.length == 4 ? IPV4_ROOT : IPV6_ROOT, address, prefix);
+        ranges++;
+    }
+
+    /**
+     * Returns the number of ranges added.
+     *
+     * @return the number of ranges
+     */
+    public int size() {
+        return ranges;
+    }
+
+    /**
+     * Returns whether an address is inside any of the ranges.
+     *
+     * @param address the address to look up
+     * @return true if a range contains the address
+     */
+    public boolean contains(InetAddress address) {
+        if (address instanceof Inet4Address) {
+            // Inet4Address.hashCode() is the address itself, which avoids copying it into an array
+            return containsIpv4(address.hashCode());
+        }
+        return address != null && contains(address.getAddress());
+    }
+
+    /**
+     * Returns whether an IPv4 address is inside any of the ranges.
+     *
+     * @param address the IPv4 address as a big-endian int
+     * @return true if a range contains the address
+     */
+    public boolean containsIpv4(int address) {
+        int[] children = this.children;
+        int node = IPV4_ROOT;
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            node = children[(node << 8) | ((address >>> shift) & 0xFF)];
+            if (node <= 0) {
+                return node == COVERED;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether an address, given as its raw bytes, is inside any of the ranges.
+     *
+     * @param address the 4-byte IPv4 or 16-byte IPv6 address
+     * @return true if a range contains the address
+     */
+    public boolean contains(byte[] address) {
+        int[] children = this.children;
+        int node = address.length == 4 ? IPV4_ROOT : IPV6_ROOT;
+        for (byte b : address) {
+            node = children[(node << 8) | (b & 0xFF)];
+            if (node <= 0) {
+                return node == COVERED;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether a textual IP address, as reported by a servlet container, is inside any of
+     * the ranges. Dotted IPv4 addresses are parsed without allocating.
+     *
+     * @param address the IPv4 or IPv6 address literal
+     * @return true if a range contains the address, false if it does not or is not an address literal
+     */
+    public boolean contains(String address) {
+        long ipv4 = InetAddresses.parseIpv4(address);
+        if (ipv4 >= 0) {
+            return containsIpv4((int) ipv4);
+        }
+        byte[] bytes = InetAddresses.parseLiteral(address);
+        return bytes != null && contains(bytes);
+    }
+
+    private void insert(int root, byte[] address, int prefix) {
+        // The last byte the prefix reaches into, and how many of its bits are fixed
+        int last = prefix == 0 ? 0 : (prefix - 1) / 8;
+        int fixedBits = prefix - last * 8;
+
+        int node = root;
+        for (int i = 0; i < last; i++) {
+            int slot = (node << 8) | (address[i] & 0xFF);
+            int child = children[slot];
+            if (child == COVERED) {
+                // Already covered by a shorter range
+                return;
+            }
+            if (child == NONE) {
+                child = newNode();
+                children[slot] = child;
+            }
+            node = child;
+        }
+
+        // Cover every value of the last byte that matches its fixed bits; any longer ranges
+        // below these slots become unreachable
+        int span = 1 << (8 - fixedBits);
+        int first = (address[last] & 0xFF) & ~(span - 1);
+        Arrays.fill(children, (node << 8) | first, (node << 8) | (first + span), COVERED);
+    }
+
+    private int newNode() {
+        if ((size + 1) * FANOUT > children.length) {
+            children = Arrays.copyOf(children, children.length * 2);
+        }
+        return size++;
+    }
+}
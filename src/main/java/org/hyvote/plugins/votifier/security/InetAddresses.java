@@ -0,0 +1,113 @@
+package org.hyvote.plugins.votifier.security;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Utility class for parsing IP address literals without DNS lookups.
+ *
+ * <p>Addresses from configuration, proxy headers and servlet containers are untrusted text, so
+ * they are never passed to {@link InetAddress#getByName} unless they can only be a literal.</p>
+ */
+public final class InetAddresses {
+
+    private InetAddresses() {
+        // Utility class
+    }
+
+    /**
+     * Parses an IPv4 or IPv6 address literal.
+     *
+     * @param text the address literal, optionally in brackets
+     * @return the address, or null if the text is not an address literal
+     */
+    public static InetAddress parse(String text) {
+        byte[] bytes = parseLiteral(text);
+        if (bytes == null) {
+            return null;
+        }
+        try {
+            return InetAddress.getByAddress(bytes);
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parses a dotted-quad IPv4 address without allocating.
+     *
+     * @param text the address text
+     * @return the address as an unsigned int, or -1 if the text is not a dotted-quad address
+     */
+    public static long parseIpv4(String text) {
+        if (text == null) {
+            return -1;
+        }
+        long address = 0;
+        int octet = -1;
+        int dots = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                octet = (octet < 0 ? 0 : octet * 10) + (c - '0');
+                if (octet > 255) {
+                    return -1;
+                }
+            } else if (c == '.' && octet >= 0 && dots < 3) {
+                address = (address << 8) | octet;
+                octet = -1;
+                dots++;
+            } else {
+                return -1;
+            }
+        }
+        if (octet < 0 || dots != 3) {
+            return -1;
+        }
+        return (address << 8) | octet;
+    }
+
+    /**
+     * Parses an IPv4 or IPv6 address literal, never resolving host names.
+     *
+     * @param text the address literal, optionally in brackets or with a zone suffix
+     * @return the raw address bytes, or null if the text is not an address literal
+     */
+    public static byte[] parseLiteral(String text) {
+        if (text == null) {
+            return null;
+        }
+        String literal = text;
+        if (literal.startsWith("[") && literal.endsWith("]")) {
+            literal = literal.substring(1, literal.length() - 1);
+        }
+        int zone = literal.indexOf('%');
+        if (zone >= 0) {
+            literal = literal.substring(0, zone);
+        }
+        if (literal.isEmpty()) {
+            return null;
+        }
+        for (int i = 0; i < literal.length(); i++) {
+            char c = literal.charAt(i);
+            boolean hex = (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+            if (!hex && c != ':' && c != '.') {
+                return null;
+            }
+        }
+        // Only digits, hex letters, dots and colons remain, so this is a literal: without a colon
+        // it must be a dotted quad, otherwise InetAddress parses it without a DNS lookup
+        if (literal.indexOf(':') < 0) {
+            long ipv4 = parseIpv4(literal);
+            if (ipv4 < 0) {
+                return null;
+            }
+            return new byte[]{(byte) (ipv4 >>> 24), (byte) (ipv4 >>> 16), (byte) (ipv4 >>> 8), (byte) ipv4};
+        }
+        try {
+            return InetAddress.getByName(literal).getAddress();
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package org.hyvote.plugins.votifier.security;
+
+import org.hyvote.plugins.votifier.AllowlistConfig;
+import org.hyvote.plugins.votifier.HytaleVotifierPlugin;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Level;
+
+/**
+ * Source address allowlist for the vote endpoints, compiled from {@link AllowlistConfig}.
+ *
+ * <p>The voting site is not known until a vote has been decrypted and parsed, so checks happen
+ * in two steps: {@link #allowsConnection} is checked when a connection is accepted or a request
+ * arrives, against the union of the global ranges and every site's ranges, so unknown sources are
+ * dropped before any crypto work; {@link #allowsVote} is checked once the vote is parsed, against
+ * the global ranges and the ranges of that vote's site.</p>
+ */
+public final class SourceAllowlist {
+
+    private final CidrTrie connectionRanges;
+    private final CidrTrie globalRanges;
+    private final Map<String, CidrTrie> siteRanges;
+
+    private SourceAllowlist(CidrTrie connectionRanges, CidrTrie globalRanges, Map<String, CidrTrie> siteRanges) {
+        this.connectionRanges = connectionRanges;
+        this.globalRanges = globalRanges;
+        this.siteRanges = siteRanges;
+    }
+
+    /**
+     * Compiles the configured ranges. Invalid ranges are skipped with a warning.
+     *
+     * @param plugin the plugin instance, used for logging
+     * @param config the allowlist configuration
+     * @return the compiled allowlist
+     */
+    public static SourceAllowlist compile(HytaleVotifierPlugin plugin, AllowlistConfig config) {
+        CidrTrie connectionRanges = new CidrTrie();
+        CidrTrie globalRanges = new CidrTrie();
+        List<String> global = addAll(plugin, "global", config.ranges(), globalRanges, connectionRanges);
+
+        Map<String, CidrTrie> siteRanges = new HashMap<>();
+        if (config.sites() != null) {
+            config.sites().forEach((service, ranges) -> {
+                CidrTrie site = siteRanges.computeIfAbsent(service.toLowerCase(Locale.ROOT), k -> new CidrTrie());
+                global.forEach(site::add);
+                addAll(plugin, service, ranges, site, connectionRanges);
+            });
+        }
+
+        if (connectionRanges.size() == 0) {
+            plugin.getLogger().at(Level.WARNING).log("Source allowlist is enabled but has no valid ranges - all votes will be rejected");
+        }
+        return new SourceAllowlist(connectionRanges, globalRanges, Map.copyOf(siteRanges));
+    }
+
+    /**
+     * Returns whether a connection or request from an address may send votes for any site.
+     *
+     * @param address the remote address
+     * @return true if the address is in the global ranges or the ranges of any site
+     */
+    public boolean allowsConnection(InetAddress address) {
+        return connectionRanges.contains(address);
+    }
+
+    /**
+     * Returns whether a connection or request from a textual address may send votes for any site.
+     *
+     * @param address the remote address literal, as reported by the servlet container
+     * @return true if the address is in the global ranges or the ranges of any site
+     */
+    public boolean allowsConnection(String address) {
+        return connectionRanges.contains(address);
+    }
+
+    /**
+     * Returns whether a parsed vote may come from an address.
+     *
+     * @param serviceName the voting site the vote claims to be from
+     * @param address     the remote address
+     * @return true if the address is in the global ranges or the ranges of that site
+     */
+    public boolean allowsVote(String serviceName, InetAddress address) {
+        return rangesFor(serviceName).contains(address);
+    }
+
+    /**
+     * Returns whether a parsed vote may come from a textual address.
+     *
+     * @param serviceName the voting site the vote claims to be from
+     * @param address     the remote address literal, as reported by the servlet container
+     * @return true if the address is in the global ranges or the ranges of that site
+     */
+    public boolean allowsVote(String serviceName, String address) {
+        return rangesFor(serviceName).contains(address);
+    }
+
+    private CidrTrie rangesFor(String serviceName) {
+        CidrTrie site = serviceName == null ? null : siteRanges.get(serviceName.toLowerCase(Locale.ROOT));
+        return site != null ? site : globalRanges;
+    }
+
+    /**
+     * Adds ranges to each of the given tries, skipping invalid ones.
+     *
+     * @return the ranges that were valid
+     */
+    private static List<String> addAll(HytaleVotifierPlugin plugin, String owner, List<String> ranges, CidrTrie... tries) {
+        List<String> valid = new ArrayList<>();
+        if (ranges == null) {
+            return valid;
+        }
+        for (String range : ranges) {
+            try {
+                for (CidrTrie trie : tries) {
+                    trie.add(range);
+                }
+                valid.add(range);
+            } catch (IllegalArgumentException e) {
+                plugin.getLogger().at(Level.WARNING).log("Skipping %s allowlist range '%s': %s", owner, range, e.getMessage());
+            }
+        }
+        return valid;
+    }
+}
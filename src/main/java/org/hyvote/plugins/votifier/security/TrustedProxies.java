@@ -0,0 +1,93 @@
+package org.hyvote.plugins.votifier.security;
+
+import org.hyvote.plugins.votifier.HytaleVotifierPlugin;
+import org.hyvote.plugins.votifier.ProxyConfig;
+
+import java.net.InetAddress;
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ * Resolves the real client address of connections that arrive through a trusted proxy,
+ * compiled from {@link ProxyConfig}.
+ *
+ * <p>Headers carrying a client address are only honoured when the direct peer is one of the
+ * trusted proxies; anyone else could simply send a forged header.</p>
+ */
+public final class TrustedProxies {
+
+    private final CidrTrie proxies;
+    private final boolean proxyProtocol;
+    private final boolean forwardedFor;
+
+    private TrustedProxies(CidrTrie proxies, boolean proxyProtocol, boolean forwardedFor) {
+        this.proxies = proxies;
+        this.proxyProtocol = proxyProtocol;
+        this.forwardedFor = forwardedFor;
+    }
+
+    /**
+     * Compiles the trusted proxy ranges. Invalid ranges are skipped with a warning.
+     *
+     * @param plugin the plugin instance, used for logging
+     * @param config the proxy configuration
+     * @return the compiled trusted proxies
+     */
+    public static TrustedProxies compile(HytaleVotifierPlugin plugin, ProxyConfig config) {
+        CidrTrie proxies = new CidrTrie();
+        List<String> ranges = config.trustedProxies() != null ? config.trustedProxies() : List.of();
+        for (String range : ranges) {
+            try {
+                proxies.add(range);
+            } catch (IllegalArgumentException e) {
+                plugin.getLogger().at(Level.WARNING).log("Skipping trusted proxy range '%s': %s", range, e.getMessage());
+            }
+        }
+        if (proxies.size() == 0) {
+            plugin.getLogger().at(Level.WARNING).log("Proxy support is enabled but no valid trustedProxies are configured - client addresses will not be resolved");
+        }
+        return new TrustedProxies(proxies, Boolean.TRUE.equals(config.proxyProtocol()), Boolean.TRUE.equals(config.forwardedFor()));
+    }
+
+    /**
+     * Returns whether a socket connection from a peer must start with a PROXY protocol header.
+     *
+     * @param peer the directly connected address
+     * @return true if the peer is a trusted proxy and PROXY protocol is enabled
+     */
+    public boolean expectsProxyHeader(InetAddress peer) {
+        return proxyProtocol && proxies.contains(peer);
+    }
+
+    /**
+     * Resolves the client address of an HTTP request from its {@code X-Forwarded-For} header.
+     *
+     * <p>The header is read from right to left, skipping trusted proxies; the first address that
+     * is not a trusted proxy is the client. A malformed entry stops the walk at the last trusted
+     * hop, so a client cannot hide behind garbage it prepended itself.</p>
+     *
+     * @param peer         the directly connected address
+     * @param forwardedFor the X-Forwarded-For header value (multiple headers joined with commas), or null
+     * @return the client address literal, or {@code peer} if the header is not trusted or absent
+     */
+    public String resolveForwardedFor(String peer, String forwardedFor) {
+        if (!this.forwardedFor || forwardedFor == null || forwardedFor.isBlank() || !proxies.contains(peer)) {
+            return peer;
+        }
+        String client = peer;
+        int end = forwardedFor.length();
+        while (end > 0) {
+            int comma = forwardedFor.lastIndexOf(',', end - 1);
+            String hop = forwardedFor.substring(comma + 1, end).trim();
+            if (InetAddresses.parseLiteral(hop) == null) {
+                return client;
+            }
+            client = hop;
+            if (!proxies.contains(hop)) {
+                return client;
+            }
+            end = Math.max(comma, 0);
+        }
+        return client;
+    }
+}
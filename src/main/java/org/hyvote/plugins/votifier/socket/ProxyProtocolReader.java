@@ -0,0 +1,141 @@
+package org.hyvote.plugins.votifier.socket;
+
+import org.hyvote.plugins.votifier.security.InetAddresses;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads the PROXY protocol header a load balancer sends at the start of a connection.
+ *
+ * <p>Supports version 1 (a text line such as {@code "PROXY TCP4 192.0.2.1 198.51.100.1 56324 8192\r\n"})
+ * and version 2 (a binary header starting with a 12-byte signature). The header is read byte by
+ * byte up to its exact length, so the rest of the stream is left for the Votifier protocol.</p>
+ *
+ * @see <a href="https://www.haproxy.org/download/2.9/doc/proxy-protocol.txt">PROXY protocol specification</a>
+ */
+public final class ProxyProtocolReader {
+
+    private static final byte[] V2_SIGNATURE = {
+            0x0D, 0x0A, 0x0D, 0x0A, 0x00, 0x0D, 0x0A, 0x51, 0x55, 0x49, 0x54, 0x0A
+    };
+
+    /** Maximum length of a version 1 header line, including the trailing CRLF. */
+    private static final int V1_MAX_LENGTH = 107;
+
+    private static final int V2_COMMAND_LOCAL = 0x0;
+    private static final int V2_COMMAND_PROXY = 0x1;
+    private static final int V2_FAMILY_INET = 0x1;
+    private static final int V2_FAMILY_INET6 = 0x2;
+
+    private ProxyProtocolReader() {
+        // Utility class
+    }
+
+    /**
+     * Reads a PROXY protocol header and returns the client address it carries.
+     *
+     * @param in   the connection input stream, positioned at the start of the connection
+     * @param peer the directly connected proxy, returned for LOCAL and UNKNOWN headers (health checks)
+     * @return the original client address and port
+     * @throws IOException if the header is missing, malformed or truncated
+     */
+    public static InetSocketAddress read(InputStream in, InetSocketAddress peer) throws IOException {
+        int first = in.read();
+        if (first == V2_SIGNATURE[0]) {
+            return readV2(new DataInputStream(in), peer);
+        }
+        if (first == 'P') {
+            return readV1(in, peer);
+        }
+        throw new IOException("Expected PROXY protocol header from trusted proxy " + peer);
+    }
+
+    private static InetSocketAddress readV1(InputStream in, InetSocketAddress peer) throws IOException {
+        byte[] line = new byte[V1_MAX_LENGTH];
+        line[0] = 'P';
+        int length = 1;
+        while (true) {
+            int b = in.read();
+            if (b < 0) {
+                throw new IOException("Truncated PROXY v1 header");
+            }
+            if (b == '\n') {
+                break;
+            }
+            if (length == V1_MAX_LENGTH) {
+                throw new IOException("PROXY v1 header too long");
+            }
+            line[length++] = (byte) b;
+        }
+        if (length > 0 && line[length - 1] == '\r') {
+            length--;
+        }
+
+        // PROXY <TCP4|TCP6|UNKNOWN> <source> <destination> <source port> <destination port>
+        String[] parts = new String(line, 0, length, StandardCharsets.US_ASCII).split(" ");
+        if (parts.length < 2 || !parts[0].equals("PROXY")) {
+            throw new IOException("Malformed PROXY v1 header");
+        }
+        if (parts[1].equals("UNKNOWN")) {
+            return peer;
+        }
+        if (parts.length != 6 || !(parts[1].equals("TCP4") || parts[1].equals("TCP6"))) {
+            throw new IOException("Malformed PROXY v1 header");
+        }
+        InetAddress source = InetAddresses.parse(parts[2]);
+        if (source == null) {
+            throw new IOException("Invalid source address in PROXY v1 header");
+        }
+        try {
+            return new InetSocketAddress(source, Integer.parseInt(parts[4]));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid source port in PROXY v1 header");
+        }
+    }
+
+    private static InetSocketAddress readV2(DataInputStream in, InetSocketAddress peer) throws IOException {
+        byte[] signature = new byte[V2_SIGNATURE.length];
+        signature[0] = V2_SIGNATURE[0];
+        in.readFully(signature, 1, signature.length - 1);
+        if (!Arrays.equals(signature, V2_SIGNATURE)) {
+            throw new IOException("Malformed PROXY v2 signature");
+        }
+
+        int versionCommand = in.readUnsignedByte();
+        int familyProtocol = in.readUnsignedByte();
+        int length = in.readUnsignedShort();
+        if ((versionCommand >>> 4) != 2) {
+            throw new IOException("Unsupported PROXY protocol version " + (versionCommand >>> 4));
+        }
+        byte[] body = new byte[length];
+        in.readFully(body);
+
+        int command = versionCommand & 0x0F;
+        if (command == V2_COMMAND_LOCAL) {
+            return peer;
+        }
+        if (command != V2_COMMAND_PROXY) {
+            throw new IOException("Unsupported PROXY v2 command " + command);
+        }
+
+        // Address block: source address, destination address, source port, destination port
+        int family = familyProtocol >>> 4;
+        int addressLength = family == V2_FAMILY_INET ? 4 : family == V2_FAMILY_INET6 ? 16 : 0;
+        if (addressLength == 0) {
+            // AF_UNSPEC or AF_UNIX: no usable client address
+            return peer;
+        }
+        if (length < addressLength * 2 + 4) {
+            throw new IOException("Truncated PROXY v2 address block");
+        }
+        InetAddress source = InetAddress.getByAddress(Arrays.copyOf(body, addressLength));
+        int sourcePort = ((body[addressLength * 2] & 0xFF) << 8) | (body[addressLength * 2 + 1] & 0xFF);
+        return new InetSocketAddress(source, sourcePort);
+    }
+}
@@ -1,15 +1,20 @@
 package org.hyvote.plugins.votifier.socket;
 
-import com.google.gson.Gson;
-import com.hypixel.hytale.server.core.HytaleServer;
 import org.hyvote.plugins.votifier.HytaleVotifierPlugin;
 import org.hyvote.plugins.votifier.ProtocolConfig;
+import org.hyvote.plugins.votifier.SocketConfig;
 import org.hyvote.plugins.votifier.crypto.CryptoUtil;
 import org.hyvote.plugins.votifier.crypto.VoteDecryptionException;
-import org.hyvote.plugins.votifier.event.VoteEvent;
-import org.hyvote.plugins.votifier.util.BroadcastUtil;
-import org.hyvote.plugins.votifier.util.RewardCommandUtil;
-import org.hyvote.plugins.votifier.util.VoteNotificationUtil;
+import org.hyvote.plugins.votifier.http.ResponseBodies;
+import org.hyvote.plugins.votifier.http.VoteProcessor;
+import org.hyvote.plugins.votifier.jfr.SocketHandshakeEvent;
+import org.hyvote.plugins.votifier.metrics.VotifierMetrics;
+import org.hyvote.plugins.votifier.metrics.VotifierMetrics.Outcome;
+import org.hyvote.plugins.votifier.security.SourceAllowlist;
+import org.hyvote.plugins.votifier.security.TrustedProxies;
+import org.hyvote.plugins.votifier.util.ByteSlabPool;
+import org.hyvote.plugins.votifier.vote.OverloadDetector;
+import org.hyvote.plugins.votifier.vote.ProtocolDetector.Protocol;
 import org.hyvote.plugins.votifier.vote.V2ChallengeException;
 import org.hyvote.plugins.votifier.vote.V2SignatureException;
 import org.hyvote.plugins.votifier.vote.V2VoteParser;
@@ -17,15 +22,19 @@ import org.hyvote.plugins.votifier.vote.Vote;
 import org.hyvote.plugins.votifier.vote.VoteParseException;
 import org.hyvote.plugins.votifier.vote.VoteParser;
 
-import java.io.DataInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketTimeoutException;
 import java.nio.charset.StandardCharsets;
 import java.security.SecureRandom;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
 /**
@@ -45,6 +54,19 @@ import java.util.logging.Level;
  *   <li>Send JSON response</li>
  * </ol>
  *
+ * <p>Pipelined V2 flow (opt-in via {@link SocketConfig#pipelining()}):</p>
+ * <ol>
+ *   <li>Send greeting with challenge: "VOTIFIER 2 &lt;challenge&gt;\n"</li>
+ *   <li>Read the request line "PIPELINE &lt;challenge&gt;\n", echoing this connection's challenge</li>
+ *   <li>Send the acknowledgement "PIPELINE OK\n"</li>
+ *   <li>Read V2 binary packets until the client closes the connection; packet <i>n</i> (from 0)
+ *       must carry the challenge "&lt;challenge&gt;:&lt;n&gt;"</li>
+ *   <li>Send one newline-terminated JSON response per packet</li>
+ * </ol>
+ *
+ * <p>The request line is only recognised if it carries this connection's challenge in full, so
+ * a V1 payload that happens to start with the same bytes is still read as V1.</p>
+ *
  * <p>V1 Protocol flow:</p>
  * <ol>
  *   <li>Send greeting with challenge: "VOTIFIER 2 &lt;challenge&gt;\n"</li>
@@ -60,11 +82,27 @@ public class VotifierSocketHandler implements Runnable {
      */
     private static final int V2_MAGIC = 0x733A;
 
+    /**
+     * Start of the pipelined session request line, "PIPELINE &lt;challenge&gt;\n".
+     */
+    private static final byte[] PIPELINE_PREFIX = "PIPELINE ".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Acknowledgement sent once a pipelined session has been accepted.
+     */
+    private static final byte[] PIPELINE_ACK = "PIPELINE OK\n".getBytes(StandardCharsets.US_ASCII);
+
     /**
      * Maximum message length (64KB).
      */
     private static final int MAX_MESSAGE_LENGTH = 65536;
 
+    /**
+     * Size of the pooled connection buffers: large enough for the greeting, a V1 payload and its
+     * decrypted form, and typical V2 frames. Larger V2 frames get a buffer sized to their length.
+     */
+    public static final int SLAB_SIZE = 1024;
+
     /**
      * Socket timeout in milliseconds (30 seconds).
      */
@@ -75,209 +113,485 @@ public class VotifierSocketHandler implements Runnable {
      */
     private static final int CHALLENGE_BYTES = 24;
 
+    /**
+     * Greeting prefix sent before the challenge.
+     */
+    private static final byte[] GREETING_PREFIX = "VOTIFIER 2 ".getBytes(StandardCharsets.US_ASCII);
+
     /**
      * V1 RSA-encrypted payload size (256 bytes for 2048-bit RSA key).
      */
     private static final int V1_RSA_PAYLOAD_SIZE = 256;
 
-    private static final Gson GSON = new Gson();
     private static final SecureRandom SECURE_RANDOM = new SecureRandom();
 
     private final HytaleVotifierPlugin plugin;
     private final Socket socket;
+    private final ByteSlabPool slabPool;
+
+    /**
+     * Buffer borrowed from the pool for the lifetime of the connection. V1 payloads are read into
+     * the first 256 bytes and decrypted into the bytes after them; V2 frames that fit are read
+     * from offset 0.
+     */
+    private byte[] slab;
+    private InputStream in;
+
+    /**
+     * The client address: the socket peer, or the address from the PROXY protocol header
+     * when the peer is a trusted proxy.
+     */
+    private InetSocketAddress clientAddress;
+
+    /**
+     * Whether this connection is a pipelined V2 session, whose responses are newline-terminated
+     * and flushed only once the client has no more packets in flight.
+     */
+    private boolean pipelined;
+
+    /**
+     * Flight recorder event for the handshake, committed once the protocol has been detected or
+     * the connection ended before that.
+     */
+    private SocketHandshakeEvent handshake;
 
     /**
      * Creates a new socket handler.
      *
-     * @param plugin the plugin instance
-     * @param socket the client socket
+     * @param plugin   the plugin instance
+     * @param socket   the client socket
+     * @param slabPool the pool of connection buffers, with slabs of at least {@link #SLAB_SIZE} bytes
      */
-    public VotifierSocketHandler(HytaleVotifierPlugin plugin, Socket socket) {
+    public VotifierSocketHandler(HytaleVotifierPlugin plugin, Socket socket, ByteSlabPool slabPool) {
         this.plugin = plugin;
         this.socket = socket;
+        this.slabPool = slabPool;
     }
 
     @Override
     public void run() {
+        handshake = new SocketHandshakeEvent();
+        handshake.begin();
         try {
             socket.setSoTimeout(SOCKET_TIMEOUT_MS);
+            slab = slabPool.acquire();
+            in = socket.getInputStream();
+            clientAddress = resolveClientAddress();
+            if (clientAddress == null) {
+                endHandshake(null, "rejected");
+                return;
+            }
             handleConnection();
         } catch (SocketTimeoutException e) {
+            endHandshake(null, "timeout");
             if (plugin.getConfig().debug()) {
                 plugin.getLogger().at(Level.WARNING).log("Socket connection timed out from %s",
                         socket.getRemoteSocketAddress());
             }
         } catch (Exception e) {
+            endHandshake(null, "error");
             plugin.getLogger().at(Level.WARNING).log("Error handling socket connection: %s", e.getMessage());
         } finally {
             closeSocket();
+            slabPool.release(slab);
+            slab = null;
         }
     }
 
-    private void handleConnection() throws IOException {
-        // Generate challenge
-        String challenge = generateChallenge();
+    /**
+     * Reads the PROXY protocol header if the peer is a trusted proxy, and checks the resulting
+     * client address against the allowlist (connections through a proxy are not checked on accept).
+     *
+     * @return the client address, or null if the connection was rejected
+     */
+    private InetSocketAddress resolveClientAddress() throws IOException {
+        InetSocketAddress peer = (InetSocketAddress) socket.getRemoteSocketAddress();
+        TrustedProxies proxies = plugin.getTrustedProxies();
+        if (proxies == null || !proxies.expectsProxyHeader(peer.getAddress())) {
+            return peer;
+        }
+
+        InetSocketAddress client = ProxyProtocolReader.read(in, peer);
+        SourceAllowlist allowlist = plugin.getSourceAllowlist();
+        if (allowlist != null && !allowlist.allowsConnection(client.getAddress())) {
+            if (plugin.getConfig().debug()) {
+                plugin.getLogger().at(Level.INFO).log("V2 socket connection from %s (via %s) rejected: not in allowlist",
+                        client, peer);
+            }
+            return null;
+        }
+        if (plugin.getConfig().debug()) {
+            plugin.getLogger().at(Level.INFO).log("V2 socket connection from %s via proxy %s", client, peer);
+        }
+        return client;
+    }
 
-        // Send greeting
-        Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
-        writer.write("VOTIFIER 2 " + challenge + "\n");
-        writer.flush();
+    private void handleConnection() throws IOException {
+        // Generate challenge and send greeting
+        OutputStream out = socket.getOutputStream();
+        String challenge = sendGreeting(out);
 
         // Read first 2 bytes to detect protocol
-        DataInputStream dis = new DataInputStream(socket.getInputStream());
-        byte[] firstTwoBytes = new byte[2];
-        dis.readFully(firstTwoBytes);
-        int magic = ((firstTwoBytes[0] & 0xFF) << 8) | (firstTwoBytes[1] & 0xFF);
+        readFully(0, 2);
+        int magic = readUnsignedShort(0);
 
         if (magic == V2_MAGIC) {
             // V2 protocol detected
-            handleV2Connection(dis, writer, challenge);
-        } else if (firstTwoBytes[0] == 0x16 && firstTwoBytes[1] == 0x03) {
+            endHandshake("V2_JSON", "success");
+            handleV2Packet(out, challenge);
+        } else if (slab[0] == PIPELINE_PREFIX[0] && slab[1] == PIPELINE_PREFIX[1] && isPipeliningEnabled()) {
+            int buffered = readPipelineRequest(challenge);
+            if (buffered < 0) {
+                endHandshake("V2_PIPELINED", "success");
+                handlePipelinedSession(out, challenge);
+            } else {
+                // Not a session request after all: the bytes read so far start a V1 payload
+                endHandshake("V1_RSA", "success");
+                handleV1Connection(out, buffered);
+            }
+        } else if (slab[0] == 0x16 && slab[1] == 0x03) {
             // TLS ClientHello detected (0x16 = handshake, 0x03 = TLS version prefix)
             // Note: ~0.0015% chance of false positive with random RSA-encrypted data
-            sendError(writer, "TLS/SSL not supported - use plain TCP connection");
+            endHandshake("TLS", "rejected");
+            sendError(out, "TLS/SSL not supported - use plain TCP connection");
             plugin.getLogger().at(Level.WARNING).log("TLS handshake rejected from %s: socket server does not support TLS",
-                    socket.getRemoteSocketAddress());
+                    clientAddress);
         } else {
             // Not V2 magic bytes - treat as V1 RSA-encrypted payload
-            handleV1Connection(dis, writer, firstTwoBytes);
+            endHandshake("V1_RSA", "success");
+            handleV1Connection(out, 2);
         }
     }
 
-    private void handleV1Connection(DataInputStream dis, Writer writer, byte[] firstTwoBytes) throws IOException {
+    /**
+     * Reads the rest of a pipelined session request line, whose first two bytes are already in the
+     * slab. The line is shorter than a V1 payload, so reading it never consumes bytes past a V1
+     * payload that happens to start the same way.
+     *
+     * @return -1 if the line matched this connection's challenge, otherwise the number of bytes
+     *         now buffered at the start of the slab
+     */
+    private int readPipelineRequest(String challenge) throws IOException {
+        byte[] expected = new byte[PIPELINE_PREFIX.length + challenge.length() + 1];
+        System.arraycopy(PIPELINE_PREFIX, 0, expected, 0, PIPELINE_PREFIX.length);
+        byte[] encoded = challenge.getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(encoded, 0, expected, PIPELINE_PREFIX.length, encoded.length);
+        expected[expected.length - 1] = '\n';
+
+        readFully(2, expected.length - 2);
+        return Arrays.equals(slab, 0, expected.length, expected, 0, expected.length) ? -1 : expected.length;
+    }
+
+    /**
+     * Reads, decrypts and dispatches a V1 vote.
+     *
+     * @param buffered how many bytes of the payload have already been read into the slab
+     */
+    private void handleV1Connection(OutputStream out, int buffered) throws IOException {
         // Check if V1 protocol is enabled
         ProtocolConfig protocols = plugin.getConfig().protocols();
         if (protocols == null || !Boolean.TRUE.equals(protocols.v1Enabled())) {
-            sendError(writer, "V1 protocol is disabled");
+            sendError(out, "V1 protocol is disabled");
             plugin.getLogger().at(Level.WARNING).log("V1 vote rejected from %s: V1 protocol is disabled",
-                    socket.getRemoteSocketAddress());
+                    clientAddress);
             return;
         }
 
-        // Read remaining bytes (256 - 2 = 254 bytes for standard RSA payload)
-        byte[] remainingBytes = new byte[V1_RSA_PAYLOAD_SIZE - 2];
-        dis.readFully(remainingBytes);
-
-        // Combine first two bytes with remaining bytes
-        byte[] encryptedPayload = new byte[V1_RSA_PAYLOAD_SIZE];
-        encryptedPayload[0] = firstTwoBytes[0];
-        encryptedPayload[1] = firstTwoBytes[1];
-        System.arraycopy(remainingBytes, 0, encryptedPayload, 2, remainingBytes.length);
+        // Read the rest of the 256-byte RSA payload
+        readFully(buffered, V1_RSA_PAYLOAD_SIZE - buffered);
+        if (shedIfOverloaded(out)) {
+            return;
+        }
+        long received = System.nanoTime();
 
-        // Decrypt and parse V1 vote
+        // Decrypt into the slab right after the payload and parse V1 vote
+        VotifierMetrics metrics = plugin.getMetrics();
         Vote vote;
         try {
-            byte[] decryptedData = CryptoUtil.decrypt(encryptedPayload, plugin.getKeyManager().getPrivateKey());
-            vote = VoteParser.parse(decryptedData);
+            long start = System.nanoTime();
+            int decryptedLength;
+            try {
+                decryptedLength = CryptoUtil.decrypt(slab, 0, V1_RSA_PAYLOAD_SIZE, slab, V1_RSA_PAYLOAD_SIZE,
+                        plugin.getKeyManager().getPrivateKey());
+            } finally {
+                metrics.decrypt().recordSince(start);
+            }
+            start = System.nanoTime();
+            try {
+                vote = VoteParser.parse(slab, V1_RSA_PAYLOAD_SIZE, decryptedLength);
+            } finally {
+                metrics.parse(Protocol.V1_RSA).recordSince(start);
+            }
         } catch (VoteDecryptionException e) {
-            sendError(writer, "Decryption failed");
+            metrics.recordOutcome(Outcome.DECRYPTION_ERROR);
+            sendError(out, "Decryption failed");
             plugin.getLogger().at(Level.WARNING).log("V1 decryption error from %s: %s",
-                    socket.getRemoteSocketAddress(), e.getMessage());
+                    clientAddress, e.getMessage());
             if (plugin.getConfig().debug()) {
                 plugin.getLogger().at(Level.INFO).log("V1 raw payload (first 64 bytes hex): %s",
-                        bytesToHex(encryptedPayload, 64));
+                        bytesToHex(slab, V1_RSA_PAYLOAD_SIZE, 64));
                 plugin.getLogger().at(Level.INFO).log("V1 raw payload (as string): %s",
-                        new String(encryptedPayload, StandardCharsets.ISO_8859_1).substring(0, Math.min(64, encryptedPayload.length)));
+                        new String(slab, 0, 64, StandardCharsets.ISO_8859_1));
             }
             return;
         } catch (VoteParseException e) {
-            sendError(writer, "Invalid vote format: " + e.getMessage());
+            metrics.recordOutcome(Outcome.PARSE_ERROR);
+            sendResponse(out, ResponseBodies.socketError("Invalid vote format", e.getMessage()));
             plugin.getLogger().at(Level.WARNING).log("V1 parse error from %s: %s",
-                    socket.getRemoteSocketAddress(), e.getMessage());
+                    clientAddress, e.getMessage());
+            return;
+        }
+        metrics.recordOutcome(Outcome.SUCCESS);
+        metrics.recordReceived(Protocol.V1_RSA, vote.serviceName());
+
+        if (!isAllowedSource(vote)) {
+            sendError(out, "Source address not allowed for this service");
+            plugin.getLogger().at(Level.WARNING).log("V1 vote for service %s rejected from %s: not in allowlist",
+                    vote.serviceName(), clientAddress);
             return;
         }
 
         // Process the vote
-        processVote(vote);
+        if (!VoteProcessor.dispatchVote(plugin, vote)) {
+            sendError(out, "Rate limit exceeded");
+            return;
+        }
 
         // Send success response
-        sendSuccess(writer);
+        sendSuccess(out);
+        recordLatency(received);
 
         if (plugin.getConfig().debug()) {
             plugin.getLogger().at(Level.INFO).log("Received V1 socket vote from %s: service=%s, username=%s",
-                    socket.getRemoteSocketAddress(), vote.serviceName(), vote.username());
+                    clientAddress, vote.serviceName(), vote.username());
         }
     }
 
-    private void handleV2Connection(DataInputStream dis, Writer writer, String challenge) throws IOException {
+    private void handlePipelinedSession(OutputStream socketOut, String challenge) throws IOException {
+        socketOut.write(PIPELINE_ACK);
+        socketOut.flush();
+        pipelined = true;
+        OutputStream out = new BufferedOutputStream(socketOut);
+        SocketConfig socketConfig = plugin.getConfig().socketServer();
+        int maxVotes = socketConfig.maxPipelinedVotes();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(socketConfig.maxPipelinedSessionSeconds());
+        int packets = 0;
+        while (packets < maxVotes) {
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMillis <= 0) {
+                plugin.getLogger().at(Level.INFO).log("Pipelined V2 session from %s reached its time limit after %d packets",
+                        clientAddress, packets);
+                break;
+            }
+            // Never wait past the session deadline for the next packet
+            socket.setSoTimeout((int) Math.min(SOCKET_TIMEOUT_MS, remainingMillis));
+
+            // A clean close between packets ends the session
+            int first;
+            try {
+                first = in.read();
+            } catch (SocketTimeoutException e) {
+                if (System.nanoTime() - deadline < 0) {
+                    throw e;
+                }
+                continue;
+            }
+            if (first < 0) {
+                break;
+            }
+            slab[0] = (byte) first;
+            readFully(1, 1);
+            if (readUnsignedShort(0) != V2_MAGIC) {
+                sendError(out, "Invalid packet magic");
+                plugin.getLogger().at(Level.WARNING).log("Invalid pipelined V2 packet magic from %s after %d packets",
+                        clientAddress, packets);
+                break;
+            }
+            boolean intact = handleV2Packet(out, challenge + ":" + packets);
+            packets++;
+            if (!intact) {
+                break;
+            }
+        }
+        out.flush();
+
+        if (plugin.getConfig().debug()) {
+            plugin.getLogger().at(Level.INFO).log("Pipelined V2 session from %s ended after %d packets",
+                    clientAddress, packets);
+        }
+    }
+
+    /**
+     * Reads one V2 packet (after its magic bytes), verifies it against {@code challenge} and
+     * dispatches the vote, sending one response.
+     *
+     * @return false if the packet framing was invalid and the stream can no longer be read
+     */
+    private boolean handleV2Packet(OutputStream out, String challenge) throws IOException {
         // Read message length
-        int length = dis.readShort() & 0xFFFF;
+        readFully(0, 2);
+        int length = readUnsignedShort(0);
         if (length <= 0 || length > MAX_MESSAGE_LENGTH) {
-            sendError(writer, "Invalid message length");
+            sendError(out, "Invalid message length");
             plugin.getLogger().at(Level.WARNING).log("Invalid V2 message length from %s: %d",
-                    socket.getRemoteSocketAddress(), length);
-            return;
+                    clientAddress, length);
+            return false;
         }
 
-        // Read JSON payload
-        byte[] payload = new byte[length];
-        dis.readFully(payload);
-        String jsonPayload = new String(payload, StandardCharsets.UTF_8);
+        // Read JSON payload into the slab, or a buffer of its own if it does not fit; the
+        // allocation is bounded by the length just read rather than made up front per connection
+        byte[] frame = length <= slab.length ? slab : new byte[length];
+        readFully(frame, 0, length);
+        if (shedIfOverloaded(out)) {
+            return true;
+        }
+        long received = System.nanoTime();
+        String jsonPayload = new String(frame, 0, length, StandardCharsets.UTF_8);
 
         // Parse and validate vote
+        VotifierMetrics metrics = plugin.getMetrics();
         Vote vote;
         try {
-            vote = V2VoteParser.parse(jsonPayload, plugin.getConfig().voteSites(), challenge);
+            vote = V2VoteParser.parse(jsonPayload, plugin.getConfig().voteSites(), challenge, metrics);
         } catch (VoteParseException e) {
-            sendError(writer, "Invalid vote format: " + e.getMessage());
+            metrics.recordOutcome(Outcome.PARSE_ERROR);
+            sendResponse(out, ResponseBodies.socketError("Invalid vote format", e.getMessage()));
             plugin.getLogger().at(Level.WARNING).log("V2 parse error from %s: %s",
-                    socket.getRemoteSocketAddress(), e.getMessage());
-            return;
+                    clientAddress, e.getMessage());
+            return true;
         } catch (V2SignatureException e) {
-            sendError(writer, "Signature verification failed");
+            metrics.recordOutcome(Outcome.SIGNATURE_ERROR);
+            sendError(out, "Signature verification failed");
             plugin.getLogger().at(Level.WARNING).log("V2 signature error from %s: %s",
-                    socket.getRemoteSocketAddress(), e.getMessage());
-            return;
+                    clientAddress, e.getMessage());
+            return true;
         } catch (V2ChallengeException e) {
-            sendError(writer, "Challenge verification failed");
+            metrics.recordOutcome(Outcome.REPLAY_ERROR);
+            sendError(out, "Challenge verification failed");
             plugin.getLogger().at(Level.WARNING).log("V2 challenge error from %s: %s",
-                    socket.getRemoteSocketAddress(), e.getMessage());
-            return;
+                    clientAddress, e.getMessage());
+            return true;
+        }
+        metrics.recordOutcome(Outcome.SUCCESS);
+        metrics.recordReceived(Protocol.V2_JSON, vote.serviceName());
+
+        if (!isAllowedSource(vote)) {
+            sendError(out, "Source address not allowed for this service");
+            plugin.getLogger().at(Level.WARNING).log("V2 vote for service %s rejected from %s: not in allowlist",
+                    vote.serviceName(), clientAddress);
+            return true;
         }
 
         // Process the vote
-        processVote(vote);
+        if (!VoteProcessor.dispatchVote(plugin, vote)) {
+            sendError(out, "Rate limit exceeded");
+            return true;
+        }
 
         // Send success response
-        sendSuccess(writer);
+        sendSuccess(out);
+        recordLatency(received);
 
         if (plugin.getConfig().debug()) {
             plugin.getLogger().at(Level.INFO).log("Received V2 socket vote from %s: service=%s, username=%s",
-                    socket.getRemoteSocketAddress(), vote.serviceName(), vote.username());
+                    clientAddress, vote.serviceName(), vote.username());
         }
+        return true;
     }
 
-    private String generateChallenge() {
-        byte[] bytes = new byte[CHALLENGE_BYTES];
-        SECURE_RANDOM.nextBytes(bytes);
-        return Base64.getEncoder().encodeToString(bytes);
+    /**
+     * Answers a packet that has been read but not yet verified with an overload error frame if
+     * the plugin is shedding load, skipping decryption and signature checks.
+     *
+     * @return true if the vote was shed
+     */
+    private boolean shedIfOverloaded(OutputStream out) throws IOException {
+        OverloadDetector detector = plugin.getOverloadDetector();
+        int retryAfter = detector != null ? detector.retryAfterSeconds() : 0;
+        if (retryAfter == 0) {
+            return false;
+        }
+        sendResponse(out, ResponseBodies.socketOverloaded(retryAfter));
+        if (plugin.getConfig().debug()) {
+            plugin.getLogger().at(Level.INFO).log("Shed socket vote from %s: overloaded, retry after %ds", clientAddress, retryAfter);
+        }
+        return true;
+    }
+
+    /**
+     * Commits the handshake event, unless it has already been committed.
+     */
+    private void endHandshake(String protocol, String outcome) {
+        if (handshake == null) {
+            return;
+        }
+        if (handshake.shouldCommit()) {
+            handshake.remoteAddress = String.valueOf(clientAddress != null ? clientAddress : socket.getRemoteSocketAddress());
+            handshake.protocol = protocol;
+            handshake.outcome = outcome;
+            handshake.commit();
+        }
+        handshake = null;
     }
 
-    private void processVote(Vote vote) {
-        // Fire vote event for other plugins
-        VoteEvent voteEvent = new VoteEvent(plugin, vote);
-        HytaleServer.get().getEventBus().dispatchFor(VoteEvent.class, plugin.getClass()).dispatch(voteEvent);
+    private void recordLatency(long received) {
+        OverloadDetector detector = plugin.getOverloadDetector();
+        if (detector != null) {
+            detector.recordLatency(System.nanoTime() - received);
+        }
+    }
 
-        // Display toast notification
-        VoteNotificationUtil.displayVoteToast(plugin, vote);
+    private boolean isPipeliningEnabled() {
+        SocketConfig socketConfig = plugin.getConfig().socketServer();
+        return socketConfig != null && Boolean.TRUE.equals(socketConfig.pipelining());
+    }
 
-        // Broadcast announcement
-        BroadcastUtil.broadcastVote(plugin, vote);
+    private boolean isAllowedSource(Vote vote) {
+        SourceAllowlist allowlist = plugin.getSourceAllowlist();
+        return allowlist == null || allowlist.allowsVote(vote.serviceName(), clientAddress.getAddress());
+    }
 
-        // Execute reward commands
-        RewardCommandUtil.executeRewardCommands(plugin, vote);
+    /**
+     * Generates a challenge and writes the greeting "VOTIFIER 2 &lt;challenge&gt;\n", assembled in
+     * the slab so it leaves in a single write.
+     *
+     * @return the challenge
+     */
+    private String sendGreeting(OutputStream out) throws IOException {
+        byte[] bytes = new byte[CHALLENGE_BYTES];
+        SECURE_RANDOM.nextBytes(bytes);
+        byte[] encoded = Base64.getEncoder().encode(bytes);
+
+        int length = GREETING_PREFIX.length;
+        System.arraycopy(GREETING_PREFIX, 0, slab, 0, length);
+        System.arraycopy(encoded, 0, slab, length, encoded.length);
+        length += encoded.length;
+        slab[length++] = '\n';
+        out.write(slab, 0, length);
+        out.flush();
+        return new String(encoded, StandardCharsets.ISO_8859_1);
     }
 
-    private void sendSuccess(Writer writer) throws IOException {
-        V2Response response = new V2Response("ok", null, null);
-        writer.write(GSON.toJson(response));
-        writer.flush();
+    private void sendSuccess(OutputStream out) throws IOException {
+        sendResponse(out, ResponseBodies.SOCKET_OK);
     }
 
-    private void sendError(Writer writer, String message) throws IOException {
-        V2Response response = new V2Response("error", message, message);
-        writer.write(GSON.toJson(response));
-        writer.flush();
+    private void sendError(OutputStream out, String message) throws IOException {
+        sendResponse(out, ResponseBodies.socketError(message));
+    }
+
+    private void sendResponse(OutputStream out, byte[] body) throws IOException {
+        out.write(body);
+        if (!pipelined) {
+            out.flush();
+            return;
+        }
+        // Pipelined responses are line-delimited; hold them back while the client has more packets
+        // buffered so a burst of votes is answered with as few writes as possible
+        out.write('\n');
+        if (in.available() == 0) {
+            out.flush();
+        }
     }
 
     private void closeSocket() {
@@ -290,20 +604,34 @@ public class VotifierSocketHandler implements Runnable {
         }
     }
 
-    private static String bytesToHex(byte[] bytes, int maxBytes) {
+    /**
+     * Reads exactly {@code length} bytes from the connection into the slab at {@code offset}.
+     *
+     * @throws EOFException if the connection is closed before the frame is complete
+     */
+    private void readFully(int offset, int length) throws IOException {
+        readFully(slab, offset, length);
+    }
+
+    private void readFully(byte[] buffer, int offset, int length) throws IOException {
+        if (in.readNBytes(buffer, offset, length) < length) {
+            throw new EOFException("Connection closed before the frame was complete");
+        }
+    }
+
+    private int readUnsignedShort(int offset) {
+        return ((slab[offset] & 0xFF) << 8) | (slab[offset + 1] & 0xFF);
+    }
+
+    private static String bytesToHex(byte[] bytes, int length, int maxBytes) {
         StringBuilder sb = new StringBuilder();
-        int limit = Math.min(bytes.length, maxBytes);
+        int limit = Math.min(length, maxBytes);
         for (int i = 0; i < limit; i++) {
             sb.append(String.format("%02X ", bytes[i]));
         }
-        if (bytes.length > maxBytes) {
+        if (length > maxBytes) {
             sb.append("...");
         }
         return sb.toString().trim();
     }
-
-    /**
-     * V2 protocol response format.
-     */
-    private record V2Response(String status, String cause, String errorMessage) {}
 }
@@ -1,6 +1,10 @@
 package org.hyvote.plugins.votifier.socket;
 
 import org.hyvote.plugins.votifier.HytaleVotifierPlugin;
+import org.hyvote.plugins.votifier.jfr.SocketAcceptEvent;
+import org.hyvote.plugins.votifier.security.SourceAllowlist;
+import org.hyvote.plugins.votifier.security.TrustedProxies;
+import org.hyvote.plugins.votifier.util.ByteSlabPool;
 
 import java.io.IOException;
 import java.net.ServerSocket;
@@ -27,10 +31,20 @@ import java.util.logging.Level;
  */
 public class VotifierSocketServer {
 
+    /**
+     * Maximum number of idle connection buffers kept for reuse (64KB with 1KB buffers).
+     */
+    private static final int MAX_POOLED_SLABS = 64;
+
     private final HytaleVotifierPlugin plugin;
     private final int port;
     private final ExecutorService executorService;
 
+    /**
+     * Connection buffers shared by all connections; idle buffers beyond this many are dropped.
+     */
+    private final ByteSlabPool slabPool = new ByteSlabPool(VotifierSocketHandler.SLAB_SIZE, MAX_POOLED_SLABS);
+
     private ServerSocket serverSocket;
     private Thread acceptThread;
     private volatile boolean running = false;
@@ -131,6 +145,23 @@ public class VotifierSocketServer {
         while (running) {
             try {
                 Socket clientSocket = serverSocket.accept();
+                SocketAcceptEvent acceptEvent = new SocketAcceptEvent();
+                acceptEvent.begin();
+
+                // Drop connections from outside the allowlist before sending a greeting. Connections
+                // through a trusted proxy are checked once the handler has read the PROXY header.
+                SourceAllowlist allowlist = plugin.getSourceAllowlist();
+                TrustedProxies proxies = plugin.getTrustedProxies();
+                boolean proxied = proxies != null && proxies.expectsProxyHeader(clientSocket.getInetAddress());
+                if (allowlist != null && !proxied && !allowlist.allowsConnection(clientSocket.getInetAddress())) {
+                    if (plugin.getConfig().debug()) {
+                        plugin.getLogger().at(Level.INFO).log("V2 socket connection from %s rejected: not in allowlist",
+                                clientSocket.getRemoteSocketAddress());
+                    }
+                    closeQuietly(clientSocket);
+                    commitAccept(acceptEvent, clientSocket, false);
+                    continue;
+                }
 
                 if (plugin.getConfig().debug()) {
                     plugin.getLogger().at(Level.INFO).log("V2 socket connection from %s",
@@ -138,7 +169,8 @@ public class VotifierSocketServer {
                 }
 
                 // Handle the connection in a separate thread
-                executorService.submit(new VotifierSocketHandler(plugin, clientSocket));
+                executorService.submit(new VotifierSocketHandler(plugin, clientSocket, slabPool));
+                commitAccept(acceptEvent, clientSocket, true);
 
             } catch (SocketException e) {
                 // Expected when server socket is closed during shutdown
@@ -152,4 +184,20 @@ public class VotifierSocketServer {
             }
         }
     }
+
+    private static void commitAccept(SocketAcceptEvent event, Socket socket, boolean accepted) {
+        if (event.shouldCommit()) {
+            event.remoteAddress = String.valueOf(socket.getRemoteSocketAddress());
+            event.accepted = accepted;
+            event.commit();
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Ignore close errors
+        }
+    }
 }
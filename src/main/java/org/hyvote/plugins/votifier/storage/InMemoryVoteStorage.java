@@ -1,5 +1,10 @@
 package org.hyvote.plugins.votifier.storage;
 
+import org.hyvote.plugins.votifier.vote.Vote;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
@@ -14,10 +19,25 @@ import java.util.concurrent.ConcurrentHashMap;
 public class InMemoryVoteStorage implements VoteStorage {
 
     private final Map<String, Long> lastVoteTimestamps = new ConcurrentHashMap<>();
+    private final Map<String, Streak> streaks = new ConcurrentHashMap<>();
+    private final Map<String, List<Vote>> inboxes = new ConcurrentHashMap<>();
+    private final Map<String, List<PendingItem>> itemInboxes = new ConcurrentHashMap<>();
+
+    /**
+     * A player's streak length and the day of the last counted vote.
+     */
+    private record Streak(int days, long day) {
+    }
 
     @Override
     public void recordVote(String username, long timestamp) {
-        lastVoteTimestamps.put(username.toLowerCase(), timestamp);
+        String key = username.toLowerCase();
+        lastVoteTimestamps.put(key, timestamp);
+
+        long voteDay = VoteStorage.streakDay(timestamp);
+        streaks.compute(key, (k, current) -> current == null
+                ? new Streak(1, voteDay)
+                : new Streak(VoteStorage.nextStreak(current.days(), current.day(), voteDay), Math.max(current.day(), voteDay)));
     }
 
     @Override
@@ -25,9 +45,18 @@ public class InMemoryVoteStorage implements VoteStorage {
         return Optional.ofNullable(lastVoteTimestamps.get(username.toLowerCase()));
     }
 
+    @Override
+    public int getStreak(String username) {
+        Streak streak = streaks.get(username.toLowerCase());
+        if (streak == null || streak.day() < VoteStorage.streakDay(System.currentTimeMillis()) - 1) {
+            return 0;
+        }
+        return streak.days();
+    }
+
     @Override
     public int cleanupExpiredVotes(int voteExpiryInterval) {
-        long expiryMillis = voteExpiryInterval * 60L * 60L * 1000L;
+        long expiryMillis = Math.max(voteExpiryInterval, STREAK_RETENTION_HOURS) * 60L * 60L * 1000L;
         long now = System.currentTimeMillis();
         int removed = 0;
 
@@ -35,6 +64,7 @@ public class InMemoryVoteStorage implements VoteStorage {
         while (iterator.hasNext()) {
             var entry = iterator.next();
             if ((now - entry.getValue()) >= expiryMillis) {
+                streaks.remove(entry.getKey());
                 iterator.remove();
                 removed++;
             }
@@ -43,6 +73,68 @@ public class InMemoryVoteStorage implements VoteStorage {
         return removed;
     }
 
+    @Override
+    public void addPendingVote(Vote vote) {
+        inboxes.compute(vote.username().toLowerCase(), (k, inbox) -> {
+            List<Vote> updated = inbox != null ? inbox : new ArrayList<>();
+            updated.add(vote);
+            return updated;
+        });
+    }
+
+    @Override
+    public List<Vote> takePendingVotes(String username) {
+        List<Vote> inbox = inboxes.remove(username.toLowerCase());
+        if (inbox == null) {
+            return List.of();
+        }
+        inbox.sort(Comparator.comparingLong(Vote::timestamp));
+        return inbox;
+    }
+
+    @Override
+    public int cleanupPendingVotes(long cutoffTimestamp) {
+        int[] removed = new int[1];
+        for (String key : inboxes.keySet()) {
+            inboxes.computeIfPresent(key, (k, inbox) -> {
+                int before = inbox.size();
+                inbox.removeIf(vote -> vote.timestamp() < cutoffTimestamp);
+                removed[0] += before - inbox.size();
+                return inbox.isEmpty() ? null : inbox;
+            });
+        }
+        return removed[0];
+    }
+
+    @Override
+    public void addPendingItem(PendingItem item) {
+        itemInboxes.compute(item.username().toLowerCase(), (k, inbox) -> {
+            List<PendingItem> updated = inbox != null ? inbox : new ArrayList<>();
+            updated.add(item);
+            return updated;
+        });
+    }
+
+    @Override
+    public List<PendingItem> takePendingItems(String username) {
+        List<PendingItem> inbox = itemInboxes.remove(username.toLowerCase());
+        return inbox != null ? inbox : List.of();
+    }
+
+    @Override
+    public int cleanupPendingItems(long cutoffTimestamp) {
+        int[] removed = new int[1];
+        for (String key : itemInboxes.keySet()) {
+            itemInboxes.computeIfPresent(key, (k, inbox) -> {
+                int before = inbox.size();
+                inbox.removeIf(item -> item.timestamp() < cutoffTimestamp);
+                removed[0] += before - inbox.size();
+                return inbox.isEmpty() ? null : inbox;
+            });
+        }
+        return removed[0];
+    }
+
     @Override
     public void initialize() {
         // No initialization needed for in-memory storage
@@ -51,6 +143,9 @@ public class InMemoryVoteStorage implements VoteStorage {
     @Override
     public void shutdown() {
         lastVoteTimestamps.clear();
+        streaks.clear();
+        inboxes.clear();
+        itemInboxes.clear();
     }
 
     @Override
@@ -0,0 +1,130 @@
+package org.hyvote.plugins.votifier.storage;
+
+import org.hyvote.plugins.votifier.jfr.StorageEvent;
+import org.hyvote.plugins.votifier.metrics.VotifierMetrics;
+import org.hyvote.plugins.votifier.metrics.VotifierMetrics.StorageOperation;
+import org.hyvote.plugins.votifier.vote.Vote;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * A {@link VoteStorage} that times every operation of the storage it wraps in
+ * {@link VotifierMetrics} and emits a {@link StorageEvent} for Java Flight Recorder.
+ */
+public final class MeteredVoteStorage implements VoteStorage {
+
+    private final VoteStorage delegate;
+    private final VotifierMetrics metrics;
+
+    /**
+     * Creates a new MeteredVoteStorage.
+     *
+     * @param delegate the storage backend to time
+     * @param metrics  the metrics to record operation times in
+     */
+    public MeteredVoteStorage(VoteStorage delegate, VotifierMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void recordVote(String username) {
+        timed(StorageOperation.RECORD_VOTE, () -> delegate.recordVote(username));
+    }
+
+    @Override
+    public void recordVote(String username, long timestamp) {
+        timed(StorageOperation.RECORD_VOTE, () -> delegate.recordVote(username, timestamp));
+    }
+
+    @Override
+    public Optional<Long> getLastVoteTimestamp(String username) {
+        return timed(StorageOperation.GET_LAST_VOTE, () -> delegate.getLastVoteTimestamp(username));
+    }
+
+    @Override
+    public int getStreak(String username) {
+        return timed(StorageOperation.GET_STREAK, () -> delegate.getStreak(username));
+    }
+
+    @Override
+    public boolean hasVotedRecently(String username, int voteExpiryInterval) {
+        return timed(StorageOperation.HAS_VOTED_RECENTLY, () -> delegate.hasVotedRecently(username, voteExpiryInterval));
+    }
+
+    @Override
+    public int cleanupExpiredVotes(int voteExpiryInterval) {
+        return timed(StorageOperation.CLEANUP, () -> delegate.cleanupExpiredVotes(voteExpiryInterval));
+    }
+
+    @Override
+    public void addPendingVote(Vote vote) {
+        timed(StorageOperation.ADD_PENDING, () -> delegate.addPendingVote(vote));
+    }
+
+    @Override
+    public List<Vote> takePendingVotes(String username) {
+        return timed(StorageOperation.TAKE_PENDING, () -> delegate.takePendingVotes(username));
+    }
+
+    @Override
+    public int cleanupPendingVotes(long cutoffTimestamp) {
+        return timed(StorageOperation.CLEANUP_PENDING, () -> delegate.cleanupPendingVotes(cutoffTimestamp));
+    }
+
+    @Override
+    public void addPendingItem(PendingItem item) {
+        timed(StorageOperation.ADD_PENDING_ITEM, () -> delegate.addPendingItem(item));
+    }
+
+    @Override
+    public List<PendingItem> takePendingItems(String username) {
+        return timed(StorageOperation.TAKE_PENDING_ITEMS, () -> delegate.takePendingItems(username));
+    }
+
+    @Override
+    public int cleanupPendingItems(long cutoffTimestamp) {
+        return timed(StorageOperation.CLEANUP_PENDING_ITEMS, () -> delegate.cleanupPendingItems(cutoffTimestamp));
+    }
+
+    @Override
+    public void initialize() throws StorageException {
+        delegate.initialize();
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public String getType() {
+        return delegate.getType();
+    }
+
+    /**
+     * Runs a storage operation, recording its time in the metrics and as a {@link StorageEvent}.
+     */
+    private <T> T timed(StorageOperation operation, Supplier<T> call) {
+        long start = System.nanoTime();
+        StorageEvent event = new StorageEvent();
+        event.begin();
+        try {
+            return call.get();
+        } finally {
+            metrics.storage(operation).recordSince(start);
+            event.operation = operation.name();
+            event.storageType = delegate.getType();
+            event.commit();
+        }
+    }
+
+    private void timed(StorageOperation operation, Runnable call) {
+        timed(operation, () -> {
+            call.run();
+            return null;
+        });
+    }
+}
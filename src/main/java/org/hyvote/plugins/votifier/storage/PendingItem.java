@@ -0,0 +1,12 @@
+package org.hyvote.plugins.votifier.storage;
+
+/**
+ * An item reward held for a player who was offline when it was granted.
+ *
+ * @param username  the player's username as it appeared in the vote
+ * @param itemId    the item to give
+ * @param quantity  the number of items
+ * @param timestamp when the reward was held, in epoch milliseconds
+ */
+public record PendingItem(String username, String itemId, int quantity, long timestamp) {
+}
@@ -1,6 +1,7 @@
 package org.hyvote.plugins.votifier.storage;
 
 import com.hypixel.hytale.logger.HytaleLogger;
+import org.hyvote.plugins.votifier.vote.Vote;
 
 import java.nio.file.Path;
 import java.sql.Connection;
@@ -9,6 +10,9 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
 import java.util.logging.Level;
 
@@ -27,16 +31,68 @@ public class SQLiteVoteStorage implements VoteStorage {
     private static final String CREATE_TABLE_SQL = """
             CREATE TABLE IF NOT EXISTS %s (
                 username TEXT PRIMARY KEY NOT NULL,
-                last_vote_timestamp INTEGER NOT NULL
+                last_vote_timestamp INTEGER NOT NULL,
+                streak INTEGER NOT NULL DEFAULT 0,
+                streak_day INTEGER NOT NULL DEFAULT 0
             )
             """.formatted(TABLE_NAME);
+    // Streak: unchanged for another vote on the same (or an earlier) day, +1 for the next day, else restart at 1
     private static final String UPSERT_SQL = """
-            INSERT INTO %s (username, last_vote_timestamp) VALUES (?, ?)
-            ON CONFLICT(username) DO UPDATE SET last_vote_timestamp = excluded.last_vote_timestamp
+            INSERT INTO %s (username, last_vote_timestamp, streak, streak_day) VALUES (?, ?, 1, ?)
+            ON CONFLICT(username) DO UPDATE SET
+                last_vote_timestamp = excluded.last_vote_timestamp,
+                streak = CASE
+                    WHEN excluded.streak_day <= streak_day THEN MAX(streak, 1)
+                    WHEN excluded.streak_day = streak_day + 1 THEN streak + 1
+                    ELSE 1
+                END,
+                streak_day = MAX(streak_day, excluded.streak_day)
             """.formatted(TABLE_NAME);
     private static final String SELECT_SQL = "SELECT last_vote_timestamp FROM %s WHERE username = ?".formatted(TABLE_NAME);
+    private static final String SELECT_STREAK_SQL = "SELECT streak, streak_day FROM %s WHERE username = ?".formatted(TABLE_NAME);
     private static final String DELETE_EXPIRED_SQL = "DELETE FROM %s WHERE last_vote_timestamp < ?".formatted(TABLE_NAME);
 
+    private static final String INBOX_TABLE_NAME = "vote_inbox";
+    private static final String CREATE_INBOX_TABLE_SQL = """
+            CREATE TABLE IF NOT EXISTS %s (
+                id INTEGER PRIMARY KEY,
+                username TEXT NOT NULL,
+                player_name TEXT NOT NULL,
+                service_name TEXT NOT NULL,
+                address TEXT NOT NULL,
+                vote_timestamp INTEGER NOT NULL
+            )
+            """.formatted(INBOX_TABLE_NAME);
+    private static final String INSERT_INBOX_SQL = """
+            INSERT INTO %s (username, player_name, service_name, address, vote_timestamp) VALUES (?, ?, ?, ?, ?)
+            """.formatted(INBOX_TABLE_NAME);
+    // Reads and clears an inbox in one statement using the username index
+    private static final String TAKE_INBOX_SQL = """
+            DELETE FROM %s WHERE username = ?
+            RETURNING player_name, service_name, address, vote_timestamp
+            """.formatted(INBOX_TABLE_NAME);
+    private static final String DELETE_EXPIRED_INBOX_SQL = "DELETE FROM %s WHERE vote_timestamp < ?".formatted(INBOX_TABLE_NAME);
+
+    private static final String ITEM_INBOX_TABLE_NAME = "item_inbox";
+    private static final String CREATE_ITEM_INBOX_TABLE_SQL = """
+            CREATE TABLE IF NOT EXISTS %s (
+                id INTEGER PRIMARY KEY,
+                username TEXT NOT NULL,
+                player_name TEXT NOT NULL,
+                item_id TEXT NOT NULL,
+                quantity INTEGER NOT NULL,
+                held_timestamp INTEGER NOT NULL
+            )
+            """.formatted(ITEM_INBOX_TABLE_NAME);
+    private static final String INSERT_ITEM_INBOX_SQL = """
+            INSERT INTO %s (username, player_name, item_id, quantity, held_timestamp) VALUES (?, ?, ?, ?, ?)
+            """.formatted(ITEM_INBOX_TABLE_NAME);
+    private static final String TAKE_ITEM_INBOX_SQL = """
+            DELETE FROM %s WHERE username = ?
+            RETURNING player_name, item_id, quantity, held_timestamp
+            """.formatted(ITEM_INBOX_TABLE_NAME);
+    private static final String DELETE_EXPIRED_ITEM_INBOX_SQL = "DELETE FROM %s WHERE held_timestamp < ?".formatted(ITEM_INBOX_TABLE_NAME);
+
     private final Path databasePath;
     private final HytaleLogger logger;
     private Connection connection;
@@ -78,11 +134,22 @@ public class SQLiteVoteStorage implements VoteStorage {
                 stmt.execute(CREATE_TABLE_SQL);
             }
 
+            // Add streak columns to databases created before streaks were tracked
+            migrateStreakColumns();
+
             // Create index on timestamp for efficient cleanup queries
             try (Statement stmt = connection.createStatement()) {
                 stmt.execute("CREATE INDEX IF NOT EXISTS idx_last_vote ON %s (last_vote_timestamp)".formatted(TABLE_NAME));
             }
 
+            // Create the offline vote inbox, indexed by case-folded username for lookups on join
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute(CREATE_INBOX_TABLE_SQL);
+                stmt.execute("CREATE INDEX IF NOT EXISTS idx_inbox_username ON %s (username)".formatted(INBOX_TABLE_NAME));
+                stmt.execute(CREATE_ITEM_INBOX_TABLE_SQL);
+                stmt.execute("CREATE INDEX IF NOT EXISTS idx_item_inbox_username ON %s (username)".formatted(ITEM_INBOX_TABLE_NAME));
+            }
+
             logger.at(Level.INFO).log("SQLite vote storage initialized at %s", databasePath);
         } catch (SQLException e) {
             throw new StorageException("Failed to initialize SQLite database", e);
@@ -103,6 +170,7 @@ public class SQLiteVoteStorage implements VoteStorage {
         try (PreparedStatement stmt = connection.prepareStatement(UPSERT_SQL)) {
             stmt.setString(1, username.toLowerCase());
             stmt.setLong(2, timestamp);
+            stmt.setLong(3, VoteStorage.streakDay(timestamp));
             stmt.executeUpdate();
         } catch (SQLException e) {
             logger.at(Level.WARNING).log("Failed to record vote for %s: %s", username, e.getMessage());
@@ -129,13 +197,34 @@ public class SQLiteVoteStorage implements VoteStorage {
         return Optional.empty();
     }
 
+    @Override
+    public int getStreak(String username) {
+        if (connection == null) {
+            return 0;
+        }
+
+        try (PreparedStatement stmt = connection.prepareStatement(SELECT_STREAK_SQL)) {
+            stmt.setString(1, username.toLowerCase());
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    long today = VoteStorage.streakDay(System.currentTimeMillis());
+                    return rs.getLong("streak_day") >= today - 1 ? rs.getInt("streak") : 0;
+                }
+            }
+        } catch (SQLException e) {
+            logger.at(Level.WARNING).log("Failed to get vote streak for %s: %s", username, e.getMessage());
+        }
+
+        return 0;
+    }
+
     @Override
     public int cleanupExpiredVotes(int voteExpiryInterval) {
         if (connection == null) {
             return 0;
         }
 
-        long expiryMillis = voteExpiryInterval * 60L * 60L * 1000L;
+        long expiryMillis = Math.max(voteExpiryInterval, STREAK_RETENTION_HOURS) * 60L * 60L * 1000L;
         long cutoffTimestamp = System.currentTimeMillis() - expiryMillis;
 
         try (PreparedStatement stmt = connection.prepareStatement(DELETE_EXPIRED_SQL)) {
@@ -147,6 +236,153 @@ public class SQLiteVoteStorage implements VoteStorage {
         }
     }
 
+    @Override
+    public void addPendingVote(Vote vote) {
+        if (connection == null) {
+            logger.at(Level.WARNING).log("Cannot hold vote: SQLite storage not initialized");
+            return;
+        }
+
+        try (PreparedStatement stmt = connection.prepareStatement(INSERT_INBOX_SQL)) {
+            stmt.setString(1, vote.username().toLowerCase());
+            stmt.setString(2, vote.username());
+            stmt.setString(3, vote.serviceName());
+            stmt.setString(4, vote.address());
+            stmt.setLong(5, vote.timestamp());
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            logger.at(Level.WARNING).log("Failed to hold vote for %s: %s", vote.username(), e.getMessage());
+        }
+    }
+
+    @Override
+    public List<Vote> takePendingVotes(String username) {
+        if (connection == null) {
+            return List.of();
+        }
+
+        List<Vote> votes = new ArrayList<>();
+        try (PreparedStatement stmt = connection.prepareStatement(TAKE_INBOX_SQL)) {
+            stmt.setString(1, username.toLowerCase());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    votes.add(new Vote(
+                            rs.getString("service_name"),
+                            rs.getString("player_name"),
+                            rs.getString("address"),
+                            rs.getLong("vote_timestamp")
+                    ));
+                }
+            }
+        } catch (SQLException e) {
+            logger.at(Level.WARNING).log("Failed to read vote inbox for %s: %s", username, e.getMessage());
+        }
+
+        votes.sort(Comparator.comparingLong(Vote::timestamp));
+        return votes;
+    }
+
+    @Override
+    public int cleanupPendingVotes(long cutoffTimestamp) {
+        if (connection == null) {
+            return 0;
+        }
+
+        try (PreparedStatement stmt = connection.prepareStatement(DELETE_EXPIRED_INBOX_SQL)) {
+            stmt.setLong(1, cutoffTimestamp);
+            return stmt.executeUpdate();
+        } catch (SQLException e) {
+            logger.at(Level.WARNING).log("Failed to cleanup vote inbox: %s", e.getMessage());
+            return 0;
+        }
+    }
+
+    @Override
+    public void addPendingItem(PendingItem item) {
+        if (connection == null) {
+            logger.at(Level.WARNING).log("Cannot hold item reward: SQLite storage not initialized");
+            return;
+        }
+
+        try (PreparedStatement stmt = connection.prepareStatement(INSERT_ITEM_INBOX_SQL)) {
+            stmt.setString(1, item.username().toLowerCase());
+            stmt.setString(2, item.username());
+            stmt.setString(3, item.itemId());
+            stmt.setInt(4, item.quantity());
+            stmt.setLong(5, item.timestamp());
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            logger.at(Level.WARNING).log("Failed to hold item reward %s x%d for %s: %s",
+                    item.itemId(), item.quantity(), item.username(), e.getMessage());
+        }
+    }
+
+    @Override
+    public List<PendingItem> takePendingItems(String username) {
+        if (connection == null) {
+            return List.of();
+        }
+
+        List<PendingItem> items = new ArrayList<>();
+        try (PreparedStatement stmt = connection.prepareStatement(TAKE_ITEM_INBOX_SQL)) {
+            stmt.setString(1, username.toLowerCase());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    items.add(new PendingItem(
+                            rs.getString("player_name"),
+                            rs.getString("item_id"),
+                            rs.getInt("quantity"),
+                            rs.getLong("held_timestamp")
+                    ));
+                }
+            }
+        } catch (SQLException e) {
+            logger.at(Level.WARNING).log("Failed to read item inbox for %s: %s", username, e.getMessage());
+        }
+
+        items.sort(Comparator.comparingLong(PendingItem::timestamp));
+        return items;
+    }
+
+    @Override
+    public int cleanupPendingItems(long cutoffTimestamp) {
+        if (connection == null) {
+            return 0;
+        }
+
+        try (PreparedStatement stmt = connection.prepareStatement(DELETE_EXPIRED_ITEM_INBOX_SQL)) {
+            stmt.setLong(1, cutoffTimestamp);
+            return stmt.executeUpdate();
+        } catch (SQLException e) {
+            logger.at(Level.WARNING).log("Failed to cleanup item inbox: %s", e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Adds the streak columns if the table was created by an older version.
+     */
+    private void migrateStreakColumns() throws SQLException {
+        boolean hasStreak = false;
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA table_info(%s)".formatted(TABLE_NAME))) {
+            while (rs.next()) {
+                if ("streak".equalsIgnoreCase(rs.getString("name"))) {
+                    hasStreak = true;
+                }
+            }
+        }
+        if (hasStreak) {
+            return;
+        }
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("ALTER TABLE %s ADD COLUMN streak INTEGER NOT NULL DEFAULT 0".formatted(TABLE_NAME));
+            stmt.execute("ALTER TABLE %s ADD COLUMN streak_day INTEGER NOT NULL DEFAULT 0".formatted(TABLE_NAME));
+        }
+        logger.at(Level.INFO).log("Added vote streak columns to %s", TABLE_NAME);
+    }
+
     @Override
     public void shutdown() {
         if (connection != null) {
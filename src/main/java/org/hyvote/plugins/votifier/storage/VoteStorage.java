@@ -1,5 +1,11 @@
 package org.hyvote.plugins.votifier.storage;
 
+import org.hyvote.plugins.votifier.vote.Vote;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -13,6 +19,12 @@ import java.util.Optional;
  */
 public interface VoteStorage {
 
+    /**
+     * Minimum number of hours vote records are kept by cleanup, so that a streak survives
+     * until the end of the day after the last vote.
+     */
+    int STREAK_RETENTION_HOURS = 48;
+
     /**
      * Records a vote for a player with the current timestamp.
      *
@@ -38,6 +50,45 @@ public interface VoteStorage {
      */
     Optional<Long> getLastVoteTimestamp(String username);
 
+    /**
+     * Gets the number of consecutive days (in the server's time zone) on which a player has voted.
+     *
+     * <p>The streak counts up to the day of the player's last vote and is still current if that
+     * vote was today or yesterday; otherwise the streak has been broken and 0 is returned.
+     * Backends that do not track streaks return 0.</p>
+     *
+     * @param username the player's username (case-insensitive)
+     * @return the current vote streak in days, or 0 if the player has no current streak
+     */
+    default int getStreak(String username) {
+        return 0;
+    }
+
+    /**
+     * Returns the day number used for vote streaks for a timestamp.
+     *
+     * @param timestamp the timestamp in epoch milliseconds
+     * @return the epoch day in the server's time zone
+     */
+    static long streakDay(long timestamp) {
+        return LocalDate.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault()).toEpochDay();
+    }
+
+    /**
+     * Computes a player's streak after a vote on {@code voteDay}.
+     *
+     * @param streak    the streak before the vote
+     * @param streakDay the day of the last counted vote
+     * @param voteDay   the day of the new vote
+     * @return the updated streak
+     */
+    static int nextStreak(int streak, long streakDay, long voteDay) {
+        if (voteDay <= streakDay) {
+            return Math.max(streak, 1);
+        }
+        return voteDay == streakDay + 1 ? streak + 1 : 1;
+    }
+
     /**
      * Checks if a player has voted within the specified expiry period.
      *
@@ -59,11 +110,76 @@ public interface VoteStorage {
     /**
      * Removes expired vote records to prevent storage bloat.
      *
+     * <p>Records are kept for at least {@link #STREAK_RETENTION_HOURS} so vote streaks are not lost.</p>
+     *
      * @param voteExpiryInterval how many hours before a vote is considered "expired"
      * @return the number of expired records removed
      */
     int cleanupExpiredVotes(int voteExpiryInterval);
 
+    /**
+     * Adds a vote to the inbox of a player who was offline when it arrived.
+     *
+     * <p>Backends that do not support an inbox ignore the vote.</p>
+     *
+     * @param vote the vote to hold until the player joins
+     */
+    default void addPendingVote(Vote vote) {
+    }
+
+    /**
+     * Removes and returns every vote held in a player's inbox.
+     *
+     * <p>Implementations read and delete the inbox in a single indexed operation so that it can
+     * be called while a player joins.</p>
+     *
+     * @param username the player's username (case-insensitive)
+     * @return the held votes ordered by vote timestamp, or an empty list if the inbox is empty
+     */
+    default List<Vote> takePendingVotes(String username) {
+        return List.of();
+    }
+
+    /**
+     * Removes inbox votes that were never delivered.
+     *
+     * @param cutoffTimestamp votes with a timestamp before this (epoch milliseconds) are removed
+     * @return the number of held votes removed
+     */
+    default int cleanupPendingVotes(long cutoffTimestamp) {
+        return 0;
+    }
+
+    /**
+     * Holds an item reward for a player who was offline when it was granted.
+     *
+     * <p>Backends that do not support an inbox ignore the item.</p>
+     *
+     * @param item the item reward to hold until the player joins
+     */
+    default void addPendingItem(PendingItem item) {
+    }
+
+    /**
+     * Removes and returns every item reward held for a player.
+     *
+     * @param username the player's username (case-insensitive)
+     * @return the held items ordered by the time they were held, or an empty list if there are none
+     */
+    default List<PendingItem> takePendingItems(String username) {
+        return List.of();
+    }
+
+    /**
+     * Removes held item rewards that were never delivered.
+     *
+     * @param cutoffTimestamp items held before this (epoch milliseconds) are removed
+     * @return the number of held items removed
+     */
+    default int cleanupPendingItems(long cutoffTimestamp) {
+        return 0;
+    }
+
     /**
      * Initializes the storage backend.
      *
@@ -0,0 +1,169 @@
+package org.hyvote.plugins.votifier.util;
+
+import com.hypixel.hytale.server.core.Message;
+import org.hyvote.plugins.votifier.BroadcastAggregationConfig;
+import org.hyvote.plugins.votifier.HytaleVotifierPlugin;
+import org.hyvote.plugins.votifier.vote.Vote;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Collapses bursts of vote broadcasts into one announcement per voting site.
+ *
+ * <p>The first vote from a site opens a window of {@code windowMillis}; every vote from that
+ * site received during the window is buffered, and when the window closes a single message
+ * naming all voters is delivered to the broadcast audience. A window that only received one vote falls
+ * back to the regular broadcast message, so quiet periods look the same as without aggregation.</p>
+ *
+ * <p>A voter who votes more than once on the same site within a window is only named once.</p>
+ */
+public final class BroadcastAggregator {
+
+    private final HytaleVotifierPlugin plugin;
+    private final BroadcastAggregationConfig config;
+    private final ScheduledExecutorService scheduler;
+    private final Map<String, Set<String>> pending = new HashMap<>();
+    private boolean closed;
+
+    /**
+     * Creates a new BroadcastAggregator.
+     *
+     * @param plugin the plugin instance for config, templates and logging
+     * @param config the aggregation configuration
+     */
+    public BroadcastAggregator(HytaleVotifierPlugin plugin, BroadcastAggregationConfig config) {
+        this.plugin = plugin;
+        this.config = config;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "VoteBroadcastAggregator");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Buffers a vote for the next combined announcement of its voting site.
+     *
+     * @param vote the vote to announce
+     */
+    public void add(Vote vote) {
+        String serviceName = vote.serviceName();
+        synchronized (pending) {
+            if (!closed) {
+                Set<String> usernames = pending.get(serviceName);
+                if (usernames == null) {
+                    usernames = new LinkedHashSet<>();
+                    pending.put(serviceName, usernames);
+                    try {
+                        scheduler.schedule(() -> flush(serviceName), windowMillis(), TimeUnit.MILLISECONDS);
+                    } catch (RejectedExecutionException e) {
+                        pending.remove(serviceName);
+                        usernames = null;
+                    }
+                }
+                if (usernames != null) {
+                    usernames.add(vote.username());
+                    return;
+                }
+            }
+        }
+
+        // Shutting down; announce immediately rather than dropping the vote
+        announce(serviceName, Set.of(vote.username()));
+    }
+
+    /**
+     * Stops the aggregation window scheduler and announces any votes still buffered.
+     */
+    public void shutdown() {
+        Map<String, Set<String>> remaining;
+        synchronized (pending) {
+            closed = true;
+            remaining = new HashMap<>(pending);
+            pending.clear();
+        }
+        scheduler.shutdownNow();
+
+        for (Map.Entry<String, Set<String>> entry : remaining.entrySet()) {
+            announce(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void flush(String serviceName) {
+        Set<String> usernames;
+        synchronized (pending) {
+            usernames = pending.remove(serviceName);
+        }
+        if (usernames == null || usernames.isEmpty()) {
+            return;
+        }
+
+        try {
+            announce(serviceName, usernames);
+        } catch (Exception e) {
+            plugin.getLogger().at(Level.WARNING).log(
+                    "Failed to send aggregated vote broadcast for %s: %s", serviceName, e.getMessage());
+        }
+    }
+
+    private void announce(String serviceName, Set<String> usernames) {
+        CompiledTemplates templates = plugin.getTemplates();
+        Message message;
+        if (usernames.size() == 1) {
+            message = templates.broadcast().render(usernames.iterator().next(), serviceName);
+        } else {
+            int maxNames = Math.max(1, config.maxNames() != null ? config.maxNames() : 5);
+            int count = usernames.size();
+            if (count <= maxNames) {
+                message = templates.aggregatedBroadcast().render(
+                        joinNames(usernames, count, true), "0", String.valueOf(count), serviceName);
+            } else {
+                message = templates.overflowBroadcast().render(
+                        joinNames(usernames, maxNames, false), String.valueOf(count - maxNames),
+                        String.valueOf(count), serviceName);
+            }
+        }
+
+        int worlds = BroadcastUtil.deliver(plugin, message);
+        if (plugin.getConfig().debug()) {
+            plugin.getLogger().at(Level.INFO).log(
+                    "Dispatched %d aggregated vote(s) from %s to %d world(s)", usernames.size(), serviceName, worlds);
+        }
+    }
+
+    /**
+     * Joins the first {@code limit} names, using the last separator before the final name
+     * only when every name is listed.
+     */
+    private String joinNames(Set<String> usernames, int limit, boolean complete) {
+        List<String> names = new ArrayList<>(limit);
+        Iterator<String> iterator = usernames.iterator();
+        while (names.size() < limit && iterator.hasNext()) {
+            names.add(iterator.next());
+        }
+
+        StringBuilder joined = new StringBuilder();
+        for (int i = 0; i < names.size(); i++) {
+            if (i > 0) {
+                joined.append(complete && i == names.size() - 1 ? config.lastSeparator() : config.separator());
+            }
+            joined.append(names.get(i));
+        }
+        return joined.toString();
+    }
+
+    private long windowMillis() {
+        return Math.max(0, config.windowMillis() != null ? config.windowMillis() : 5000);
+    }
+}
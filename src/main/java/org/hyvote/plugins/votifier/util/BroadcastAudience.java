@@ -0,0 +1,155 @@
+package org.hyvote.plugins.votifier.util;
+
+import com.hypixel.hytale.server.core.Message;
+import com.hypixel.hytale.server.core.permissions.PermissionsModule;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.Universe;
+import com.hypixel.hytale.server.core.universe.world.World;
+import org.hyvote.plugins.votifier.BroadcastConfig;
+import org.hyvote.plugins.votifier.HytaleVotifierPlugin;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+/**
+ * Delivers vote broadcasts per world, on each world's own thread, to a filtered audience.
+ *
+ * <p>A broadcast is split by world and submitted to every included world's executor, so
+ * delivery on large multi-world servers runs in parallel and player state is only touched
+ * from the thread that owns it. Each world's players are read on that world's thread when the
+ * broadcast is sent, so players who changed worlds are always reached on the right thread.
+ * Whether a player passes the permission and opt-out filters is cached per player until a
+ * player joins or leaves, a player toggles their opt-out, or {@code audienceCacheSeconds}
+ * elapse (which picks up permission changes).</p>
+ *
+ * <p>Opt-outs are kept in memory and reset when the server restarts.</p>
+ */
+public final class BroadcastAudience {
+
+    private final HytaleVotifierPlugin plugin;
+    private final String permission;
+    private final Set<String> worlds;
+    private final long cacheMillis;
+    private final Set<UUID> optedOut = ConcurrentHashMap.newKeySet();
+    private volatile Decisions decisions = new Decisions(new ConcurrentHashMap<>(), System.currentTimeMillis());
+
+    /**
+     * Creates a new BroadcastAudience.
+     *
+     * @param plugin the plugin instance for logging
+     * @param config the broadcast configuration with the audience filters
+     */
+    public BroadcastAudience(HytaleVotifierPlugin plugin, BroadcastConfig config) {
+        this.plugin = plugin;
+        this.permission = config.permission() != null && !config.permission().isBlank()
+                ? config.permission()
+                : null;
+
+        Set<String> worldNames = new HashSet<>();
+        if (config.worlds() != null) {
+            for (String world : config.worlds()) {
+                worldNames.add(world.toLowerCase(Locale.ROOT));
+            }
+        }
+        this.worlds = Set.copyOf(worldNames);
+
+        int cacheSeconds = config.audienceCacheSeconds() != null ? config.audienceCacheSeconds() : 30;
+        this.cacheMillis = Math.max(0, cacheSeconds) * 1000L;
+    }
+
+    /**
+     * Submits a message to every included world, to be sent on that world's thread.
+     *
+     * @param message the message to send
+     * @return the number of worlds the message was submitted to
+     */
+    public int deliver(Message message) {
+        int dispatched = 0;
+        for (Map.Entry<String, World> entry : Universe.get().getWorlds().entrySet()) {
+            String worldName = entry.getKey();
+            if (!includesWorld(worldName)) {
+                continue;
+            }
+
+            World world = entry.getValue();
+            world.execute(() -> deliverInWorld(worldName, world, message));
+            dispatched++;
+        }
+        return dispatched;
+    }
+
+    /**
+     * Toggles whether a player receives vote broadcasts.
+     *
+     * @param uuid the player's UUID
+     * @return true if the player is now opted out, false if they will receive broadcasts again
+     */
+    public boolean toggleOptOut(UUID uuid) {
+        boolean nowOptedOut = optedOut.add(uuid);
+        if (!nowOptedOut) {
+            optedOut.remove(uuid);
+        }
+        invalidate();
+        return nowOptedOut;
+    }
+
+    /**
+     * Discards all cached filter decisions; they are rebuilt on the next broadcast.
+     *
+     * <p>Called when players join or leave.</p>
+     */
+    public void invalidate() {
+        decisions = new Decisions(new ConcurrentHashMap<>(), System.currentTimeMillis());
+    }
+
+    private boolean includesWorld(String worldName) {
+        return worlds.isEmpty() || worlds.contains(worldName.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Sends a message to the world's current players that pass the filters. Must be called on the
+     * world's thread.
+     */
+    private void deliverInWorld(String worldName, World world, Message message) {
+        Map<UUID, Boolean> accepted = currentDecisions();
+        int delivered = 0;
+        for (PlayerRef player : world.getPlayerRefs()) {
+            if (accepted.computeIfAbsent(player.getUuid(), this::accepts)) {
+                player.sendMessage(message);
+                delivered++;
+            }
+        }
+
+        if (plugin.getConfig().debug()) {
+            plugin.getLogger().at(Level.INFO).log(
+                    "Delivered vote broadcast in world %s to %d player(s)", worldName, delivered);
+        }
+    }
+
+    private Map<UUID, Boolean> currentDecisions() {
+        Decisions current = decisions;
+        if (System.currentTimeMillis() - current.builtAt() >= cacheMillis) {
+            invalidate();
+            current = decisions;
+        }
+        return current.accepted();
+    }
+
+    private boolean accepts(UUID uuid) {
+        if (optedOut.contains(uuid)) {
+            return false;
+        }
+        return permission == null || PermissionsModule.get().hasPermission(uuid, permission);
+    }
+
+    /**
+     * Cached filter decisions by player UUID, and when the cache was started.
+     */
+    private record Decisions(Map<UUID, Boolean> accepted, long builtAt) {
+    }
+}
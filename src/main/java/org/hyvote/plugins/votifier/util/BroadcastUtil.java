@@ -1,18 +1,16 @@
 package org.hyvote.plugins.votifier.util;
 
 import com.hypixel.hytale.server.core.Message;
-import com.hypixel.hytale.server.core.universe.PlayerRef;
-import com.hypixel.hytale.server.core.universe.Universe;
-import io.github.insideranh.talemessage.TaleMessage;
 import org.hyvote.plugins.votifier.BroadcastConfig;
 import org.hyvote.plugins.votifier.HytaleVotifierPlugin;
 import org.hyvote.plugins.votifier.vote.Vote;
 
-import java.util.List;
 import java.util.logging.Level;
 
 /**
- * Utility class for broadcasting vote announcements to all online players.
+ * Utility class for broadcasting vote announcements to online players.
+ *
+ * <p>Delivery is grouped by world and runs on each world's thread; see {@link BroadcastAudience}.</p>
  */
 public final class BroadcastUtil {
 
@@ -21,7 +19,7 @@ public final class BroadcastUtil {
     }
 
     /**
-     * Broadcasts a vote announcement to all online players, if enabled in config.
+     * Broadcasts a vote announcement to online players, if enabled in config.
      *
      * @param plugin the plugin instance for config and logging
      * @param vote   the vote to broadcast
@@ -32,28 +30,39 @@ public final class BroadcastUtil {
             return;
         }
 
-        // Get all online players
-        List<PlayerRef> onlinePlayers = Universe.get().getPlayers();
-        if (onlinePlayers.isEmpty()) {
-            if (plugin.getConfig().debug()) {
-                plugin.getLogger().at(Level.INFO).log("No players online, skipping vote broadcast");
-            }
+        // Collapse bursts into one announcement per voting site if aggregation is enabled
+        BroadcastAggregator aggregator = plugin.getBroadcastAggregator();
+        if (aggregator != null) {
+            aggregator.add(vote);
             return;
         }
 
-        // Replace placeholders in message (single-pass to avoid issues if values contain placeholder syntax)
-        String messageText = PlaceholderUtil.replaceVotePlaceholders(broadcastConfig.message(), vote);
+        // Inject vote values into the pre-parsed broadcast message
+        Message message = plugin.getTemplates().broadcast().render(vote.username(), vote.serviceName());
 
-        // Parse message with TaleMessage formatting
-        Message message = TaleMessage.parse(messageText);
+        int worlds = deliver(plugin, message);
+        if (worlds > 0 && plugin.getConfig().debug()) {
+            plugin.getLogger().at(Level.INFO).log("Dispatched vote announcement to %d world(s)", worlds);
+        }
+    }
 
-        // Broadcast to all online players
-        for (PlayerRef player : onlinePlayers) {
-            player.sendMessage(message);
+    /**
+     * Sends a message to the broadcast audience of every included world, on each world's thread.
+     *
+     * @param plugin  the plugin instance for config and logging
+     * @param message the message to send
+     * @return the number of worlds the message was submitted to
+     */
+    static int deliver(HytaleVotifierPlugin plugin, Message message) {
+        BroadcastAudience audience = plugin.getBroadcastAudience();
+        if (audience == null) {
+            return 0;
         }
 
-        if (plugin.getConfig().debug()) {
-            plugin.getLogger().at(Level.INFO).log("Broadcasted vote announcement to %d players", onlinePlayers.size());
+        int worlds = audience.deliver(message);
+        if (worlds == 0 && plugin.getConfig().debug()) {
+            plugin.getLogger().at(Level.INFO).log("No worlds to broadcast to, skipping vote broadcast");
         }
+        return worlds;
     }
 }
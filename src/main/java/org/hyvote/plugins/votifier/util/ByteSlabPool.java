@@ -0,0 +1,58 @@
+package org.hyvote.plugins.votifier.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * A bounded pool of equally sized byte arrays.
+ *
+ * <p>Connections borrow a slab for their lifetime and return it when they close, so steady-state
+ * traffic reuses the same few arrays instead of allocating per frame. If the pool is empty a new
+ * slab is allocated; if it is full a returned slab is left to the garbage collector, so at most
+ * {@code maxPooled} idle slabs are retained.</p>
+ */
+public final class ByteSlabPool {
+
+    private final int slabSize;
+    private final ArrayBlockingQueue<byte[]> free;
+
+    /**
+     * Creates a new pool.
+     *
+     * @param slabSize  the size of each slab in bytes
+     * @param maxPooled the maximum number of idle slabs kept for reuse
+     */
+    public ByteSlabPool(int slabSize, int maxPooled) {
+        this.slabSize = slabSize;
+        this.free = new ArrayBlockingQueue<>(Math.max(1, maxPooled));
+    }
+
+    /**
+     * Borrows a slab from the pool, allocating one if none is idle.
+     *
+     * @return a slab of {@link #getSlabSize()} bytes; its contents are unspecified
+     */
+    public byte[] acquire() {
+        byte[] slab = free.poll();
+        return slab != null ? slab : new byte[slabSize];
+    }
+
+    /**
+     * Returns a slab to the pool.
+     *
+     * @param slab a slab obtained from {@link #acquire()}
+     */
+    public void release(byte[] slab) {
+        if (slab != null && slab.length == slabSize) {
+            free.offer(slab);
+        }
+    }
+
+    /**
+     * Returns the size of the slabs in this pool.
+     *
+     * @return the slab size in bytes
+     */
+    public int getSlabSize() {
+        return slabSize;
+    }
+}
@@ -0,0 +1,130 @@
+package org.hyvote.plugins.votifier.util;
+
+import com.hypixel.hytale.server.core.Message;
+import io.github.insideranh.talemessage.TaleMessage;
+import org.hyvote.plugins.votifier.BroadcastAggregationConfig;
+import org.hyvote.plugins.votifier.BroadcastConfig;
+import org.hyvote.plugins.votifier.RewardCommand;
+import org.hyvote.plugins.votifier.VoteCommandConfig;
+import org.hyvote.plugins.votifier.VoteInboxConfig;
+import org.hyvote.plugins.votifier.VoteMessageConfig;
+import org.hyvote.plugins.votifier.VoteReminderConfig;
+import org.hyvote.plugins.votifier.VoteSite;
+import org.hyvote.plugins.votifier.VotifierConfig;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Message and command templates compiled once when the configuration is loaded.
+ *
+ * <p>Shared by the broadcast, toast notification, reward command, reminder, vote inbox and /vote command
+ * paths so no template is re-scanned or re-parsed while handling a vote. Messages that do not
+ * depend on a vote (the /vote header, site lines and footer, and the reminder texts) are fully
+ * memoized; vote messages are parsed once and receive {@code {username}}/{@code {from}} values
+ * through {@link MessageTemplate}.</p>
+ *
+ * @param broadcast              the broadcast message ({@code {username}}, {@code {from}})
+ * @param aggregatedBroadcast    the combined broadcast naming every voter ({@code {players}}, {@code {others}}, {@code {count}}, {@code {from}})
+ * @param overflowBroadcast      the combined broadcast when more voters than listed names ({@code {players}}, {@code {others}}, {@code {count}}, {@code {from}})
+ * @param toastTitle             the vote toast title ({@code {username}}, {@code {from}})
+ * @param toastDescription       the vote toast description ({@code {username}}, {@code {from}})
+ * @param rewardCommands         the reward command templates, index-aligned with {@link VotifierConfig#rewardCommands()}
+ * @param voteHeader             the /vote header message, or null if unset
+ * @param voteSites              the /vote site lines, one per configured site
+ * @param voteFooter             the /vote footer message, or null if unset
+ * @param reminderText           the reminder chat message, or null if unset
+ * @param reminderToastTitle     the reminder toast title, or null if notifications are not configured
+ * @param reminderToastDescription the reminder toast description, or null if notifications are not configured
+ * @param inboxToastTitle        the combined toast title for held votes ({@code {username}}, {@code {count}}, {@code {from}})
+ * @param inboxToastDescription  the combined toast description for held votes ({@code {username}}, {@code {count}}, {@code {from}})
+ */
+public record CompiledTemplates(
+        MessageTemplate broadcast,
+        MessageTemplate aggregatedBroadcast,
+        MessageTemplate overflowBroadcast,
+        MessageTemplate toastTitle,
+        MessageTemplate toastDescription,
+        List<PlaceholderTemplate> rewardCommands,
+        Message voteHeader,
+        List<Message> voteSites,
+        Message voteFooter,
+        Message reminderText,
+        Message reminderToastTitle,
+        Message reminderToastDescription,
+        MessageTemplate inboxToastTitle,
+        MessageTemplate inboxToastDescription
+) {
+
+    /** Slot names for vote templates, in render argument order. */
+    private static final String[] VOTE_SLOTS = {"username", "from"};
+
+    /** Slot names for aggregated broadcast templates, in render argument order. */
+    private static final String[] AGGREGATE_SLOTS = {"players", "others", "count", "from"};
+
+    /** Slot names for vote inbox templates, in render argument order. */
+    private static final String[] INBOX_SLOTS = {"username", "count", "from"};
+
+    /** Slot names for /vote site templates, in render argument order. */
+    private static final String[] SITE_SLOTS = {"name", "link"};
+
+    /**
+     * Compiles all message and command templates in the given configuration.
+     *
+     * @param config the loaded plugin configuration
+     * @return the compiled templates
+     */
+    public static CompiledTemplates compile(VotifierConfig config) {
+        BroadcastConfig broadcast = config.broadcast();
+        BroadcastAggregationConfig aggregation = broadcast != null ? broadcast.aggregation() : null;
+        VoteMessageConfig voteMessage = config.voteMessage();
+        VoteCommandConfig voteCommand = config.voteCommand();
+        VoteReminderConfig reminder = config.voteReminder();
+        VoteInboxConfig inbox = config.voteInbox();
+
+        List<PlaceholderTemplate> rewardTemplates = new ArrayList<>();
+        if (config.rewardCommands() != null) {
+            for (RewardCommand rewardCommand : config.rewardCommands()) {
+                rewardTemplates.add(PlaceholderUtil.compileVoteTemplate(rewardCommand.command()));
+            }
+        }
+
+        List<Message> siteLines = new ArrayList<>();
+        if (voteCommand != null && voteCommand.sites() != null && !isEmpty(voteCommand.siteTemplate())) {
+            PlaceholderTemplate siteTemplate = PlaceholderTemplate.compile(voteCommand.siteTemplate(), SITE_SLOTS);
+            for (VoteSite site : voteCommand.sites()) {
+                siteLines.add(TaleMessage.parse(siteTemplate.render(site.name(), site.url())));
+            }
+        }
+
+        return new CompiledTemplates(
+                MessageTemplate.compile(broadcast != null ? broadcast.message() : null, VOTE_SLOTS),
+                MessageTemplate.compile(aggregation != null ? aggregation.message() : null, AGGREGATE_SLOTS),
+                MessageTemplate.compile(aggregation != null ? aggregation.overflowMessage() : null, AGGREGATE_SLOTS),
+                MessageTemplate.compile(voteMessage != null ? voteMessage.titleMessage() : null, VOTE_SLOTS),
+                MessageTemplate.compile(voteMessage != null ? voteMessage.descriptionMessage() : null, VOTE_SLOTS),
+                Collections.unmodifiableList(rewardTemplates),
+                voteCommand != null ? parseOrNull(voteCommand.header()) : null,
+                Collections.unmodifiableList(siteLines),
+                voteCommand != null ? parseOrNull(voteCommand.footer()) : null,
+                reminder != null && reminder.message() != null ? parseOrNull(reminder.message().text()) : null,
+                reminder != null && reminder.notification() != null ? parse(reminder.notification().titleMessage()) : null,
+                reminder != null && reminder.notification() != null ? parse(reminder.notification().descriptionMessage()) : null,
+                MessageTemplate.compile(inbox != null ? inbox.titleMessage() : null, INBOX_SLOTS),
+                MessageTemplate.compile(inbox != null ? inbox.descriptionMessage() : null, INBOX_SLOTS)
+        );
+    }
+
+    private static Message parse(String text) {
+        return TaleMessage.parse(text != null ? text : "");
+    }
+
+    private static Message parseOrNull(String text) {
+        return isEmpty(text) ? null : TaleMessage.parse(text);
+    }
+
+    private static boolean isEmpty(String text) {
+        return text == null || text.isEmpty();
+    }
+}
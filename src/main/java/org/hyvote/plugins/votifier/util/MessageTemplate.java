@@ -0,0 +1,236 @@
+package org.hyvote.plugins.votifier.util;
+
+import com.hypixel.hytale.protocol.FormattedMessage;
+import com.hypixel.hytale.server.core.Message;
+import io.github.insideranh.talemessage.TaleMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A TaleMessage template parsed once, with placeholder values injected into prebuilt text nodes.
+ *
+ * <p>At compile time each placeholder is replaced by a private-use marker character and the
+ * markup is parsed with {@link TaleMessage#parse(String)}. The resulting message tree is kept as a
+ * prototype, and every text or link field containing a marker is compiled into a
+ * {@link PlaceholderTemplate}. Rendering copies only the nodes on the paths to those fields and
+ * fills in the values, so the markup parser never runs on the vote path.</p>
+ *
+ * <p>Templates without placeholders are parsed once and the same {@link Message} is returned on
+ * every render. If the parser does not carry every marker through to a text or link field (for
+ * example a placeholder used inside a tag name), the template falls back to substituting the
+ * values into the markup and parsing on each render; on that path the values' tag delimiters are
+ * replaced first, see {@link #escapeMarkup(String)}.</p>
+ *
+ * <p>Values are always inserted as plain text; they are not interpreted as markup.</p>
+ */
+public final class MessageTemplate {
+
+    /** Marker character for slot 0; slot {@code i} uses {@code FIRST_MARKER + i}. */
+    private static final char FIRST_MARKER = '\uE000';
+
+    /** Upper bound of the marker range, used to reject templates that already contain markers. */
+    private static final char LAST_MARKER = '\uE0FF';
+
+    private final PlaceholderTemplate source;
+    private final Message staticMessage;
+    private final FormattedMessage prototype;
+    private final NodeInjection root;
+
+    private MessageTemplate(PlaceholderTemplate source, Message staticMessage,
+                            FormattedMessage prototype, NodeInjection root) {
+        this.source = source;
+        this.staticMessage = staticMessage;
+        this.prototype = prototype;
+        this.root = root;
+    }
+
+    /**
+     * Parses a TaleMessage template once, recording where placeholder values are injected.
+     *
+     * @param template  the template string with TaleMessage formatting and {placeholder} syntax
+     * @param slotNames the placeholder names recognized as slots, in render argument order
+     * @return the compiled message template
+     */
+    public static MessageTemplate compile(String template, String... slotNames) {
+        PlaceholderTemplate source = PlaceholderTemplate.compile(template, slotNames);
+        if (!source.hasSlots()) {
+            return new MessageTemplate(source, TaleMessage.parse(source.source()), null, null);
+        }
+
+        if (containsMarker(source.source()) || slotNames.length > LAST_MARKER - FIRST_MARKER) {
+            return new MessageTemplate(source, null, null, null);
+        }
+
+        String[] markers = new String[slotNames.length];
+        for (int i = 0; i < markers.length; i++) {
+            markers[i] = String.valueOf((char) (FIRST_MARKER + i));
+        }
+
+        FormattedMessage parsed = TaleMessage.parse(source.render(markers)).getFormattedMessage();
+        int[] found = new int[1];
+        NodeInjection injection = parsed != null ? scan(parsed, slotNames.length, found) : null;
+
+        if (injection == null || found[0] != source.slotCount()) {
+            // The parser dropped or moved a marker; substitute into the markup instead
+            return new MessageTemplate(source, null, null, null);
+        }
+        return new MessageTemplate(source, null, parsed, injection);
+    }
+
+    /**
+     * Renders the template for a two-slot template (e.g. {@code {username}}, {@code {from}}).
+     *
+     * @param first  the value for slot 0
+     * @param second the value for slot 1
+     * @return the rendered message
+     */
+    public Message render(String first, String second) {
+        if (staticMessage != null) {
+            return staticMessage;
+        }
+        if (prototype == null) {
+            return TaleMessage.parse(source.render(escapeMarkup(first), escapeMarkup(second)));
+        }
+        return new Message(root.apply(prototype, first, second, null));
+    }
+
+    /**
+     * Renders the template with the given slot values.
+     *
+     * @param values the slot values, indexed in the order the slot names were given at compile time
+     * @return the rendered message
+     */
+    public Message render(String... values) {
+        if (staticMessage != null) {
+            return staticMessage;
+        }
+        if (prototype == null) {
+            String[] escaped = new String[values.length];
+            for (int i = 0; i < values.length; i++) {
+                escaped[i] = escapeMarkup(values[i]);
+            }
+            return TaleMessage.parse(source.render(escaped));
+        }
+        return new Message(root.apply(prototype, null, null, values));
+    }
+
+    /**
+     * Returns whether rendering depends on slot values.
+     *
+     * @return false if the same message is returned on every render
+     */
+    public boolean hasSlots() {
+        return staticMessage == null;
+    }
+
+    /**
+     * Returns the original template string this template was compiled from.
+     *
+     * @return the source template
+     */
+    public String source() {
+        return source.source();
+    }
+
+    /**
+     * Makes a value safe to substitute into markup for the fallback path by replacing the tag
+     * delimiters with look-alike guillemets, so a username or service name cannot open or close
+     * a tag.
+     */
+    private static String escapeMarkup(String value) {
+        if (value == null || (value.indexOf('<') < 0 && value.indexOf('>') < 0)) {
+            return value;
+        }
+        return value.replace('<', '\u2039').replace('>', '\u203A');
+    }
+
+    private static boolean containsMarker(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= FIRST_MARKER && c <= LAST_MARKER) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Walks a parsed message tree and records every field that contains a marker.
+     *
+     * @param node      the node to scan
+     * @param slotCount the number of slots
+     * @param found     accumulator for the number of markers found
+     * @return the injection for this node, or null if neither it nor its children contain markers
+     */
+    private static NodeInjection scan(FormattedMessage node, int slotCount, int[] found) {
+        PlaceholderTemplate rawText = markedField(node.rawText, slotCount, found);
+        PlaceholderTemplate link = markedField(node.link, slotCount, found);
+
+        List<Integer> childIndexes = new ArrayList<>();
+        List<NodeInjection> childInjections = new ArrayList<>();
+        if (node.children != null) {
+            for (int i = 0; i < node.children.length; i++) {
+                if (node.children[i] == null) {
+                    continue;
+                }
+                NodeInjection child = scan(node.children[i], slotCount, found);
+                if (child != null) {
+                    childIndexes.add(i);
+                    childInjections.add(child);
+                }
+            }
+        }
+
+        if (rawText == null && link == null && childInjections.isEmpty()) {
+            return null;
+        }
+
+        int[] indexes = new int[childIndexes.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = childIndexes.get(i);
+        }
+        return new NodeInjection(rawText, link, indexes, childInjections.toArray(NodeInjection[]::new));
+    }
+
+    private static PlaceholderTemplate markedField(String value, int slotCount, int[] found) {
+        if (value == null || !containsMarker(value)) {
+            return null;
+        }
+        PlaceholderTemplate template = PlaceholderTemplate.compileMarked(value, FIRST_MARKER, slotCount);
+        found[0] += template.slotCount();
+        return template;
+    }
+
+    /**
+     * Fields of one prototype node that receive values, plus the child nodes below it that do.
+     *
+     * <p>Applying an injection copies the node and its children array, so the shared
+     * prototype is never mutated and untouched subtrees are reused as-is.</p>
+     */
+    private record NodeInjection(
+            PlaceholderTemplate rawText,
+            PlaceholderTemplate link,
+            int[] childIndexes,
+            NodeInjection[] children
+    ) {
+
+        FormattedMessage apply(FormattedMessage original, String first, String second, String[] values) {
+            FormattedMessage copy = original.clone();
+            if (rawText != null) {
+                copy.rawText = values == null ? rawText.render(first, second) : rawText.render(values);
+            }
+            if (link != null) {
+                copy.link = values == null ? link.render(first, second) : link.render(values);
+            }
+            if (childIndexes.length > 0) {
+                copy.children = original.children.clone();
+                for (int i = 0; i < childIndexes.length; i++) {
+                    int index = childIndexes[i];
+                    copy.children[index] = children[i].apply(original.children[index], first, second, values);
+                }
+            }
+            return copy;
+        }
+    }
+}
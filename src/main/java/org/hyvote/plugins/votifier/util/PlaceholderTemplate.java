@@ -0,0 +1,238 @@
+package org.hyvote.plugins.votifier.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A message or command template pre-compiled into literal and slot segments.
+ *
+ * <p>Templates are compiled once when the configuration is loaded. Rendering then
+ * concatenates the literal segments with the slot values into a pre-sized builder,
+ * without regex matching or map lookups.</p>
+ *
+ * <p>Only placeholders whose names were given at compile time are treated as slots;
+ * any other {@code {...}} sequence is kept as literal text. Slot values are inserted
+ * verbatim and never re-scanned, so a value containing placeholder syntax (e.g. a
+ * username containing "{from}") is not substituted again.</p>
+ */
+public final class PlaceholderTemplate {
+
+    private static final String[] NO_TAILS = new String[0];
+
+    private final String source;
+    private final String head;
+    private final int[] slots;
+    private final String[] tails;
+    private final int literalLength;
+
+    private PlaceholderTemplate(String source, String head, int[] slots, String[] tails, int literalLength) {
+        this.source = source;
+        this.head = head;
+        this.slots = slots;
+        this.tails = tails;
+        this.literalLength = literalLength;
+    }
+
+    /**
+     * Compiles a template string into literal and slot segments.
+     *
+     * @param template  the template string with {placeholder} syntax
+     * @param slotNames the placeholder names recognized as slots; the position of each
+     *                  name is the index of its value when rendering
+     * @return the compiled template
+     */
+    public static PlaceholderTemplate compile(String template, String... slotNames) {
+        if (template == null) {
+            template = "";
+        }
+
+        SegmentBuilder builder = new SegmentBuilder();
+        int i = 0;
+        int length = template.length();
+        while (i < length) {
+            char c = template.charAt(i);
+            if (c == '{') {
+                int close = template.indexOf('}', i + 1);
+                if (close > i) {
+                    int slot = slotIndex(template, i + 1, close, slotNames);
+                    if (slot >= 0) {
+                        builder.slot(slot);
+                        i = close + 1;
+                        continue;
+                    }
+                }
+            }
+            builder.literal(c);
+            i++;
+        }
+        return builder.build(template);
+    }
+
+    /**
+     * Compiles text in which each slot is marked by a single marker character.
+     *
+     * <p>Characters in the range {@code [firstMarker, firstMarker + slotCount)} become slots,
+     * with slot index {@code c - firstMarker}. Used by {@link MessageTemplate} to turn
+     * marked text nodes of a parsed message back into templates.</p>
+     *
+     * @param text        the marked text
+     * @param firstMarker the marker character for slot 0
+     * @param slotCount   the number of slots
+     * @return the compiled template
+     */
+    static PlaceholderTemplate compileMarked(String text, char firstMarker, int slotCount) {
+        SegmentBuilder builder = new SegmentBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int slot = c - firstMarker;
+            if (slot >= 0 && slot < slotCount) {
+                builder.slot(slot);
+            } else {
+                builder.literal(c);
+            }
+        }
+        return builder.build(text);
+    }
+
+    /**
+     * Finds which slot name matches the placeholder between {@code start} and {@code end}.
+     *
+     * @return the slot index, or -1 if the name is not a known slot
+     */
+    private static int slotIndex(String template, int start, int end, String[] slotNames) {
+        int nameLength = end - start;
+        for (int s = 0; s < slotNames.length; s++) {
+            String name = slotNames[s];
+            if (name.length() == nameLength && template.regionMatches(start, name, 0, nameLength)) {
+                return s;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Renders the template with values for a two-slot template.
+     *
+     * <p>Avoids the varargs array allocation for the common vote ({@code {username}},
+     * {@code {from}}) and site ({@code {name}}, {@code {link}}) templates.</p>
+     *
+     * @param first  the value for slot 0
+     * @param second the value for slot 1
+     * @return the rendered string
+     */
+    public String render(String first, String second) {
+        if (slots.length == 0) {
+            return head;
+        }
+
+        int capacity = literalLength;
+        for (int slot : slots) {
+            capacity += valueLength(slot == 0 ? first : second);
+        }
+
+        StringBuilder result = new StringBuilder(capacity);
+        result.append(head);
+        for (int s = 0; s < slots.length; s++) {
+            result.append(slots[s] == 0 ? first : second);
+            result.append(tails[s]);
+        }
+        return result.toString();
+    }
+
+    /**
+     * Renders the template with the given slot values.
+     *
+     * @param values the slot values, indexed in the order the slot names were given at compile time
+     * @return the rendered string
+     */
+    public String render(String... values) {
+        if (slots.length == 0) {
+            return head;
+        }
+
+        int capacity = literalLength;
+        for (int slot : slots) {
+            capacity += valueLength(slot < values.length ? values[slot] : null);
+        }
+
+        StringBuilder result = new StringBuilder(capacity);
+        result.append(head);
+        for (int s = 0; s < slots.length; s++) {
+            int slot = slots[s];
+            result.append(slot < values.length ? values[slot] : null);
+            result.append(tails[s]);
+        }
+        return result.toString();
+    }
+
+    private static int valueLength(String value) {
+        return value != null ? value.length() : 4; // "null"
+    }
+
+    /**
+     * Returns whether this template contains any slots.
+     *
+     * @return true if rendering depends on slot values
+     */
+    public boolean hasSlots() {
+        return slots.length > 0;
+    }
+
+    /**
+     * Returns the original template string this template was compiled from.
+     *
+     * @return the source template
+     */
+    public String source() {
+        return source;
+    }
+
+    /**
+     * Returns the number of slot occurrences in this template.
+     *
+     * @return the slot occurrence count
+     */
+    int slotCount() {
+        return slots.length;
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    /**
+     * Accumulates literal and slot segments while a template is being compiled.
+     */
+    private static final class SegmentBuilder {
+        private final List<Integer> slots = new ArrayList<>();
+        private final List<String> literals = new ArrayList<>();
+        private final StringBuilder literal = new StringBuilder();
+        private int literalLength;
+
+        void literal(char c) {
+            literal.append(c);
+        }
+
+        void slot(int slot) {
+            literals.add(literal.toString());
+            literalLength += literal.length();
+            literal.setLength(0);
+            slots.add(slot);
+        }
+
+        PlaceholderTemplate build(String source) {
+            literals.add(literal.toString());
+            literalLength += literal.length();
+
+            int[] slotArray = new int[slots.size()];
+            for (int s = 0; s < slotArray.length; s++) {
+                slotArray[s] = slots.get(s);
+            }
+            String[] tails = slotArray.length == 0
+                    ? NO_TAILS
+                    : literals.subList(1, literals.size()).toArray(String[]::new);
+            return new PlaceholderTemplate(source, literals.get(0), slotArray, tails, literalLength);
+        }
+    }
+}
@@ -17,28 +17,55 @@ import java.util.regex.Pattern;
  *
  * <p>Uses single-pass replacement to avoid issues where replacement values
  * might contain placeholder syntax (e.g., a username containing "{from}").</p>
+ *
+ * <p>Templates used on every vote should be compiled once with {@link #compileVoteTemplate(String)}
+ * and rendered with {@link #render(PlaceholderTemplate, Vote)}; see {@link CompiledTemplates}.</p>
  */
 public final class PlaceholderUtil {
 
     /** Pattern to match placeholders like {username} and {from} */
     private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("\\{(username|from)}");
 
+    /** Slot names for vote templates, in render argument order. */
+    private static final String[] VOTE_SLOTS = {"username", "from"};
+
     private PlaceholderUtil() {
         // Utility class
     }
 
+    /**
+     * Compiles a template that uses the vote placeholders {@code {username}} and {@code {from}}.
+     *
+     * @param template the template string with {placeholder} syntax
+     * @return the compiled template
+     */
+    public static PlaceholderTemplate compileVoteTemplate(String template) {
+        return PlaceholderTemplate.compile(template, VOTE_SLOTS);
+    }
+
+    /**
+     * Renders a compiled vote template.
+     *
+     * @param template the template compiled with {@link #compileVoteTemplate(String)}
+     * @param vote     the vote to extract replacement values from
+     * @return the template with all placeholders replaced
+     */
+    public static String render(PlaceholderTemplate template, Vote vote) {
+        return template.render(vote.username(), vote.serviceName());
+    }
+
     /**
      * Replaces vote placeholders in a template string.
      *
+     * <p>Compiles the template on every call; prefer a pre-compiled template for
+     * anything rendered on the vote path.</p>
+     *
      * @param template the template string with {placeholder} syntax
      * @param vote     the vote to extract replacement values from
      * @return the template with all placeholders replaced
      */
     public static String replaceVotePlaceholders(String template, Vote vote) {
-        return replacePlaceholders(template, Map.of(
-                "username", vote.username(),
-                "from", vote.serviceName()
-        ));
+        return render(compileVoteTemplate(template), vote);
     }
 
     /**
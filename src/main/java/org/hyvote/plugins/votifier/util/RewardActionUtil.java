@@ -0,0 +1,227 @@
+package org.hyvote.plugins.votifier.util;
+
+import com.hypixel.hytale.component.Ref;
+import com.hypixel.hytale.server.core.HytaleServer;
+import com.hypixel.hytale.server.core.NameMatching;
+import com.hypixel.hytale.server.core.entity.ItemUtils;
+import com.hypixel.hytale.server.core.entity.entities.Player;
+import com.hypixel.hytale.server.core.inventory.ItemStack;
+import com.hypixel.hytale.server.core.inventory.transaction.ItemStackTransaction;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.Universe;
+import com.hypixel.hytale.server.core.universe.world.World;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+import org.hyvote.plugins.votifier.HytaleVotifierPlugin;
+import org.hyvote.plugins.votifier.event.VoteRewardEvent;
+import org.hyvote.plugins.votifier.inbox.VoteInbox;
+import org.hyvote.plugins.votifier.reward.CompiledReward;
+import org.hyvote.plugins.votifier.reward.CompiledRewardTable;
+import org.hyvote.plugins.votifier.reward.RewardRules;
+import org.hyvote.plugins.votifier.reward.RuleContext;
+import org.hyvote.plugins.votifier.reward.RewardScheduler;
+import org.hyvote.plugins.votifier.vote.Vote;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+
+/**
+ * Utility class for executing typed reward actions, reward tables and reward rules when votes are received.
+ *
+ * <p>Item rewards are added to the voter's inventory on their world thread, and currency and
+ * event rewards are handed to other plugins through {@link VoteRewardEvent}, without going
+ * through console command parsing.</p>
+ */
+public final class RewardActionUtil {
+
+    private RewardActionUtil() {
+        // Utility class
+    }
+
+    /**
+     * Executes the compiled reward actions, rolls the reward tables and applies the reward rules
+     * for a received vote.
+     *
+     * <p>Each action is executed with its configured probability (chance). The caller is
+     * responsible for validating the username.</p>
+     *
+     * @param plugin the plugin instance for config and logging
+     * @param vote   the vote that triggered the rewards
+     */
+    public static void executeRewardActions(HytaleVotifierPlugin plugin, Vote vote) {
+        for (CompiledReward reward : plugin.getRewardActions()) {
+            executeReward(plugin, vote, reward);
+        }
+
+        List<CompiledRewardTable> tables = plugin.getRewardTables();
+        if (!tables.isEmpty()) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (CompiledRewardTable table : tables) {
+                table.roll(random, reward -> executeReward(plugin, vote, reward));
+            }
+        }
+
+        executeRewardRules(plugin, vote);
+    }
+
+    /**
+     * Grants the rewards of every reward rule matching the vote.
+     *
+     * <p>Candidate rules come from the per-site dispatch table; player state is only looked
+     * up if a candidate rule checks it.</p>
+     */
+    private static void executeRewardRules(HytaleVotifierPlugin plugin, Vote vote) {
+        RewardRules.Rule[] rules = plugin.getRewardRules().rulesFor(vote.serviceName());
+        if (rules.length == 0) {
+            return;
+        }
+
+        RuleContext context = new RuleContext(plugin, vote);
+        for (RewardRules.Rule rule : rules) {
+            if (!rule.matches(context)) {
+                continue;
+            }
+
+            if (plugin.getConfig().debug()) {
+                plugin.getLogger().at(Level.INFO).log("Reward rule %s matched vote from %s for %s",
+                        rule.name(), vote.serviceName(), vote.username());
+            }
+            for (CompiledReward reward : rule.rewards()) {
+                executeReward(plugin, vote, reward);
+            }
+            if (rule.stop()) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Executes a single compiled reward, after rolling its chance.
+     *
+     * @param plugin the plugin instance for config and logging
+     * @param vote   the vote that triggered the reward
+     * @param reward the reward to execute
+     */
+    public static void executeReward(HytaleVotifierPlugin plugin, Vote vote, CompiledReward reward) {
+        if (reward.chance() < 1.0) {
+            double roll = ThreadLocalRandom.current().nextDouble();
+            if (roll > reward.chance()) {
+                if (plugin.getConfig().debug()) {
+                    plugin.getLogger().at(Level.INFO).log(
+                            "Skipping reward action (roll %.3f > chance %.3f): %s", roll, reward.chance(), reward);
+                }
+                return;
+            }
+        }
+
+        switch (reward) {
+            case CompiledReward.GiveItem giveItem -> giveItem(plugin, vote.username(), giveItem);
+            case CompiledReward.Currency currency -> fireRewardEvent(plugin, vote,
+                    VoteRewardEvent.Type.CURRENCY, currency.currency(), currency.amount());
+            case CompiledReward.Event event -> fireRewardEvent(plugin, vote,
+                    VoteRewardEvent.Type.EVENT, event.name(), 0);
+            case CompiledReward.Command command -> {
+                String commandText = PlaceholderUtil.render(command.command(), vote);
+                RewardScheduler scheduler = plugin.getRewardScheduler();
+                if (scheduler != null) {
+                    scheduler.submit(vote.username(), commandText);
+                } else {
+                    RewardCommandUtil.executeCommand(plugin, commandText);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gives an item reward to a player, or holds it in the vote inbox if they are offline.
+     *
+     * <p>Without a vote inbox an item for an offline player cannot be delivered and is dropped
+     * with a warning.</p>
+     *
+     * @param plugin   the plugin instance for config and logging
+     * @param username the player to give the item to
+     * @param reward   the item reward
+     */
+    public static void giveItem(HytaleVotifierPlugin plugin, String username, CompiledReward.GiveItem reward) {
+        PlayerRef playerRef = Universe.get().getPlayerByUsername(username, NameMatching.EXACT_IGNORE_CASE);
+        if (playerRef == null) {
+            VoteInbox inbox = plugin.getVoteInbox();
+            if (inbox != null && inbox.holdItemIfOffline(username, reward)) {
+                return;
+            }
+            // Without an inbox, or if the player joined since the lookup above
+            playerRef = inbox != null ? Universe.get().getPlayerByUsername(username, NameMatching.EXACT_IGNORE_CASE) : null;
+            if (playerRef == null) {
+                plugin.getLogger().at(Level.WARNING).log(
+                        "Could not give %s x%d to %s: player is not online and the vote inbox is disabled",
+                        reward.itemId(), reward.quantity(), username);
+                return;
+            }
+        }
+
+        PlayerRef target = playerRef;
+        Runnable task = () -> addItem(plugin, target, reward);
+        RewardScheduler scheduler = plugin.getRewardScheduler();
+        if (scheduler != null) {
+            scheduler.submit(username, "give " + username + " " + reward.itemId() + " x" + reward.quantity(), task);
+        } else {
+            task.run();
+        }
+    }
+
+    /**
+     * Adds the item stack to the player's inventory, hopping to the player's world thread if needed.
+     * Whatever does not fit is dropped at the player's feet instead of being lost.
+     */
+    private static void addItem(HytaleVotifierPlugin plugin, PlayerRef playerRef, CompiledReward.GiveItem reward) {
+        World world = playerRef.getWorldUuid() != null ? Universe.get().getWorld(playerRef.getWorldUuid()) : null;
+        if (world == null) {
+            plugin.getLogger().at(Level.WARNING).log(
+                    "Could not give %s x%d to %s: player is not in a world",
+                    reward.itemId(), reward.quantity(), playerRef.getUsername());
+            return;
+        }
+        if (!world.isInThread()) {
+            // Entity components may only be touched from the thread of the world that owns them
+            world.execute(() -> addItem(plugin, playerRef, reward));
+            return;
+        }
+
+        Ref<EntityStore> ref = playerRef.getReference();
+        if (ref == null || !ref.isValid()) {
+            plugin.getLogger().at(Level.WARNING).log(
+                    "Could not give %s x%d to %s: player is no longer online",
+                    reward.itemId(), reward.quantity(), playerRef.getUsername());
+            return;
+        }
+
+        Player player = ref.getStore().getComponent(ref, Player.getComponentType());
+        if (player == null) {
+            return;
+        }
+
+        ItemStackTransaction transaction = player.getInventory().getCombinedHotbarFirst()
+                .addItemStack(new ItemStack(reward.itemId(), reward.quantity()));
+        ItemStack remainder = transaction.getRemainder();
+        if (!ItemStack.isEmpty(remainder)) {
+            ItemUtils.dropItem(ref, remainder, ref.getStore());
+            plugin.getLogger().at(Level.INFO).log(
+                    "Inventory of %s is full, dropped %s x%d at their position",
+                    playerRef.getUsername(), reward.itemId(), remainder.getQuantity());
+        }
+        if (plugin.getConfig().debug()) {
+            plugin.getLogger().at(Level.INFO).log(
+                    "Gave item reward %s x%d to %s", reward.itemId(), reward.quantity(), playerRef.getUsername());
+        }
+    }
+
+    private static void fireRewardEvent(HytaleVotifierPlugin plugin, Vote vote, VoteRewardEvent.Type type,
+                                        String name, double amount) {
+        VoteRewardEvent event = new VoteRewardEvent(plugin, vote, type, name, amount);
+        HytaleServer.get().getEventBus().dispatchFor(VoteRewardEvent.class, plugin.getClass()).dispatch(event);
+
+        if (plugin.getConfig().debug()) {
+            plugin.getLogger().at(Level.INFO).log("Fired %s", event);
+        }
+    }
+}
@@ -4,6 +4,8 @@ import com.hypixel.hytale.server.core.command.system.CommandManager;
 import com.hypixel.hytale.server.core.console.ConsoleSender;
 import org.hyvote.plugins.votifier.HytaleVotifierPlugin;
 import org.hyvote.plugins.votifier.RewardCommand;
+import org.hyvote.plugins.votifier.jfr.RewardCommandEvent;
+import org.hyvote.plugins.votifier.reward.RewardScheduler;
 import org.hyvote.plugins.votifier.vote.Vote;
 
 import java.util.List;
@@ -37,9 +39,10 @@ public final class RewardCommandUtil {
     }
 
     /**
-     * Executes configured reward commands for a received vote.
+     * Executes configured reward commands and reward actions for a received vote.
      *
-     * <p>Each command is executed with its configured probability (chance).
+     * <p>Each command is executed with its configured probability (chance). Commands are
+     * queued on the {@link RewardScheduler} when it is enabled.
      * Command strings support placeholder substitution:</p>
      * <ul>
      *   <li>{@code {username}} - The username of the player who voted</li>
@@ -55,7 +58,9 @@ public final class RewardCommandUtil {
      */
     public static void executeRewardCommands(HytaleVotifierPlugin plugin, Vote vote) {
         List<RewardCommand> commands = plugin.getConfig().rewardCommands();
-        if (commands == null || commands.isEmpty()) {
+        boolean hasCommands = commands != null && !commands.isEmpty();
+        if (!hasCommands && plugin.getRewardActions().isEmpty() && plugin.getRewardTables().isEmpty()
+                && plugin.getRewardRules().isEmpty()) {
             return;
         }
 
@@ -67,7 +72,16 @@ public final class RewardCommandUtil {
             return;
         }
 
-        for (RewardCommand rewardCommand : commands) {
+        // Typed reward actions, reward tables and reward rules run directly against the server API
+        RewardActionUtil.executeRewardActions(plugin, vote);
+        if (!hasCommands) {
+            return;
+        }
+
+        List<PlaceholderTemplate> templates = plugin.getTemplates().rewardCommands();
+        for (int i = 0; i < commands.size(); i++) {
+            RewardCommand rewardCommand = commands.get(i);
+
             // Skip disabled commands
             if (!rewardCommand.enabled()) {
                 continue;
@@ -87,18 +101,39 @@ public final class RewardCommandUtil {
             }
 
             // Apply placeholder substitutions (single-pass to avoid issues if values contain placeholder syntax)
-            String command = PlaceholderUtil.replaceVotePlaceholders(rewardCommand.command(), vote);
+            String command = PlaceholderUtil.render(templates.get(i), vote);
 
-            // Execute command via server console
-            try {
-                CommandManager.get().handleCommand(ConsoleSender.INSTANCE, command);
-                if (plugin.getConfig().debug()) {
-                    plugin.getLogger().at(Level.INFO).log("Executed reward command: %s", command);
-                }
-            } catch (Exception e) {
-                plugin.getLogger().at(Level.WARNING).log(
-                        "Failed to execute reward command '%s': %s", command, e.getMessage());
+            // Queue for the voter's world thread, or execute immediately if the scheduler is disabled
+            RewardScheduler scheduler = plugin.getRewardScheduler();
+            if (scheduler != null) {
+                scheduler.submit(vote.username(), command);
+            } else {
+                executeCommand(plugin, command);
             }
         }
     }
+
+    /**
+     * Executes a reward command via the server console.
+     *
+     * @param plugin  the plugin instance for config and logging
+     * @param command the command to execute (without leading slash)
+     */
+    public static void executeCommand(HytaleVotifierPlugin plugin, String command) {
+        RewardCommandEvent event = new RewardCommandEvent();
+        event.begin();
+        event.command = command;
+        try {
+            CommandManager.get().handleCommand(ConsoleSender.INSTANCE, command);
+            event.success = true;
+            if (plugin.getConfig().debug()) {
+                plugin.getLogger().at(Level.INFO).log("Executed reward command: %s", command);
+            }
+        } catch (Exception e) {
+            plugin.getLogger().at(Level.WARNING).log(
+                    "Failed to execute reward command '%s': %s", command, e.getMessage());
+        } finally {
+            event.commit();
+        }
+    }
 }
@@ -0,0 +1,129 @@
+package org.hyvote.plugins.votifier.util;
+
+/**
+ * A fixed-size table of token buckets keyed by 64-bit hashes.
+ *
+ * <p>Each bucket is stored as the time at which it will be full again (the GCRA form of a token
+ * bucket), so a bucket is a single long and taking a token needs no refill arithmetic: a bucket
+ * whose full time has passed is full. The table is split into lock stripes, and each stripe
+ * into small sets of {@link #WAYS} slots; a key lives in one set of one stripe. When a new key
+ * arrives at a full set it replaces the slot that became full earliest, which is an idle bucket
+ * whenever one exists, so memory stays fixed without a separate eviction pass.</p>
+ *
+ * <p>Evicting a bucket that is not yet full forgets its debt, so under extreme key churn a key
+ * may get a fresh burst early; size the table for the expected number of active keys.</p>
+ */
+public final class StripedTokenBuckets {
+
+    private static final int STRIPES = 16;
+    private static final int WAYS = 8;
+
+    /** Marks an empty slot; a key of 0 is stored as {@link #ZERO_KEY} instead. */
+    private static final long EMPTY = 0L;
+    private static final long ZERO_KEY = 0x9E3779B97F4A7C15L;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final int setMask;
+
+    private static final class Stripe {
+        final long[] keys;
+        final long[] fullAt;
+
+        Stripe(int slots) {
+            this.keys = new long[slots];
+            this.fullAt = new long[slots];
+        }
+    }
+
+    /**
+     * Creates a table that tracks up to about {@code maxKeys} buckets.
+     *
+     * @param maxKeys the number of keys that can be tracked at once
+     */
+    public StripedTokenBuckets(int maxKeys) {
+        int setsPerStripe = Math.max(1, (Math.max(1, maxKeys) + STRIPES * WAYS - 1) / (STRIPES * WAYS));
+        setsPerStripe = Integer.highestOneBit(setsPerStripe * 2 - 1);
+        this.setMask = setsPerStripe - 1;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(setsPerStripe * WAYS);
+        }
+    }
+
+    /**
+     * Takes a token from a key's bucket if one is available.
+     *
+     * @param key            the bucket key
+     * @param intervalNanos  the time (in nanoseconds) it takes to refill one token
+     * @param burst          the bucket capacity in tokens
+     * @param nowNanos       the current {@link System#nanoTime()}
+     * @return true if a token was taken, false if the bucket is empty
+     */
+    public boolean tryAcquire(long key, long intervalNanos, int burst, long nowNanos) {
+        if (key == EMPTY) {
+            key = ZERO_KEY;
+        }
+        long h = key * 0x9E3779B97F4A7C15L;
+        Stripe stripe = stripes[(int) (h >>> 60)];
+        int base = ((int) (h >>> 28) & setMask) * WAYS;
+        long capacityNanos = intervalNanos * Math.max(1, burst);
+
+        synchronized (stripe) {
+            long[] keys = stripe.keys;
+            long[] fullAt = stripe.fullAt;
+            int slot = -1;
+            int victim = -1;
+            for (int i = base; i < base + WAYS; i++) {
+                if (keys[i] == key) {
+                    slot = i;
+                    break;
+                }
+                // Prefer an empty slot, then the bucket that became full earliest
+                boolean victimEmpty = victim >= 0 && keys[victim] == EMPTY;
+                if (victim < 0 || (!victimEmpty && (keys[i] == EMPTY || fullAt[i] - fullAt[victim] < 0))) {
+                    victim = i;
+                }
+            }
+            if (slot < 0) {
+                // New or evicted key: start with a full bucket
+                slot = victim;
+                keys[slot] = key;
+                fullAt[slot] = nowNanos;
+            }
+
+            long start = fullAt[slot] - nowNanos > 0 ? fullAt[slot] : nowNanos;
+            long next = start + intervalNanos;
+            if (next - nowNanos > capacityNanos) {
+                return false;
+            }
+            fullAt[slot] = next;
+            return true;
+        }
+    }
+
+    /**
+     * Returns a token taken by {@link #tryAcquire} to a key's bucket.
+     *
+     * <p>Used when a second limit rejects a request after this one was charged. Does nothing if
+     * the key has since been evicted.</p>
+     *
+     * @param key           the bucket key
+     * @param intervalNanos the refill interval the token was taken with
+     */
+    public void refund(long key, long intervalNanos) {
+        if (key == EMPTY) {
+            key = ZERO_KEY;
+        }
+        long h = key * 0x9E3779B97F4A7C15L;
+        Stripe stripe = stripes[(int) (h >>> 60)];
+        int base = ((int) (h >>> 28) & setMask) * WAYS;
+
+        synchronized (stripe) {
+            for (int i = base; i < base + WAYS; i++) {
+                if (stripe.keys[i] == key) {
+                    stripe.fullAt[i] -= intervalNanos;
+                    return;
+                }
+            }
+        }
+    }
+}
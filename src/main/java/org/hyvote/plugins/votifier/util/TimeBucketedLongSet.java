@@ -0,0 +1,127 @@
+package org.hyvote.plugins.votifier.util;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size set of 64-bit keys that forgets keys after a time window.
+ *
+ * <p>The window is split into a ring of buckets, each an open-addressing hash set of longs
+ * covering one slice of the window. Keys are added to the bucket for the current slice; when
+ * the ring wraps around, the oldest bucket is cleared and reused. A key is therefore remembered
+ * for at least {@code window - window / buckets} and at most {@code window}.</p>
+ *
+ * <p>All memory is allocated up front. If the current bucket is full, new keys are not
+ * remembered (and {@link #add} reports them as new) until the next slice starts.</p>
+ *
+ * <p>Thread-safe; operations are short and synchronized on the set.</p>
+ */
+public final class TimeBucketedLongSet {
+
+    /** Marks an empty slot; a key of 0 is stored as {@link #ZERO_KEY} instead. */
+    private static final long EMPTY = 0L;
+    private static final long ZERO_KEY = 0x9E3779B97F4A7C15L;
+
+    private final long sliceMillis;
+    private final long[][] tables;
+    private final long[] sliceOf;
+    private final int[] sizes;
+    private final int mask;
+    private final int maxSize;
+
+    /**
+     * Creates a set that remembers up to {@code maxEntries} keys within {@code windowMillis}.
+     *
+     * @param windowMillis how long keys are remembered, in milliseconds
+     * @param buckets      the number of slices the window is split into (at least 2)
+     * @param maxEntries   the number of keys that can be remembered within one window
+     */
+    public TimeBucketedLongSet(long windowMillis, int buckets, int maxEntries) {
+        int bucketCount = Math.max(2, buckets);
+        this.sliceMillis = Math.max(1, windowMillis / bucketCount);
+        this.maxSize = Math.max(1, (maxEntries + bucketCount - 1) / bucketCount);
+
+        // Keep each table at most half full so probe sequences stay short
+        int capacity = Integer.highestOneBit(Math.max(2, maxSize * 2 - 1)) << 1;
+        this.mask = capacity - 1;
+        this.tables = new long[bucketCount][capacity];
+        this.sliceOf = new long[bucketCount];
+        this.sizes = new int[bucketCount];
+        Arrays.fill(sliceOf, Long.MIN_VALUE);
+    }
+
+    /**
+     * Adds a key if it has not been seen within the window.
+     *
+     * @param key        the key
+     * @param nowMillis  the current time in milliseconds
+     * @return true if the key is new, false if it was already seen within the window
+     */
+    public synchronized boolean add(long key, long nowMillis) {
+        if (key == EMPTY) {
+            key = ZERO_KEY;
+        }
+        long slice = Math.floorDiv(nowMillis, sliceMillis);
+        int current = (int) Math.floorMod(slice, (long) tables.length);
+        if (sliceOf[current] != slice) {
+            Arrays.fill(tables[current], EMPTY);
+            sizes[current] = 0;
+            sliceOf[current] = slice;
+        }
+
+        int start = mix(key) & mask;
+        if (containsInWindow(key, start, slice)) {
+            return false;
+        }
+
+        if (sizes[current] < maxSize) {
+            long[] table = tables[current];
+            int slot = start;
+            while (table[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = key;
+            sizes[current]++;
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether a key was seen within the window, without adding it.
+     *
+     * @param key       the key
+     * @param nowMillis the current time in milliseconds
+     * @return true if the key was already seen within the window
+     */
+    public synchronized boolean contains(long key, long nowMillis) {
+        if (key == EMPTY) {
+            key = ZERO_KEY;
+        }
+        return containsInWindow(key, mix(key) & mask, Math.floorDiv(nowMillis, sliceMillis));
+    }
+
+    private boolean containsInWindow(long key, int start, long slice) {
+        for (int b = 0; b < tables.length; b++) {
+            if (sliceOf[b] > slice - tables.length && sliceOf[b] <= slice && contains(tables[b], key, start)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean contains(long[] table, long key, int start) {
+        int slot = start;
+        long value;
+        while ((value = table[slot]) != EMPTY) {
+            if (value == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -7,11 +7,13 @@ import com.hypixel.hytale.server.core.io.PacketHandler;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.Universe;
 import com.hypixel.hytale.server.core.util.NotificationUtil;
-import io.github.insideranh.talemessage.TaleMessage;
 import org.hyvote.plugins.votifier.HytaleVotifierPlugin;
 import org.hyvote.plugins.votifier.VoteMessageConfig;
 import org.hyvote.plugins.votifier.vote.Vote;
 
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.logging.Level;
 
 /**
@@ -46,31 +48,67 @@ public final class VoteNotificationUtil {
             return;
         }
 
-        // Replace placeholders in messages (single-pass to avoid issues if values contain placeholder syntax)
-        String titleText = PlaceholderUtil.replaceVotePlaceholders(messageConfig.titleMessage(), vote);
-        String descriptionText = PlaceholderUtil.replaceVotePlaceholders(messageConfig.descriptionMessage(), vote);
+        // Inject vote values into the pre-parsed toast messages
+        CompiledTemplates templates = plugin.getTemplates();
+        Message title = templates.toastTitle().render(vote.username(), vote.serviceName());
+        Message description = templates.toastDescription().render(vote.username(), vote.serviceName());
 
-        // Parse messages with TaleMessage formatting
-        Message title = TaleMessage.parse(titleText);
-        Message description = TaleMessage.parse(descriptionText);
+        // Get packet handler and send notification
+        PacketHandler packetHandler = playerRef.getPacketHandler();
+        NotificationUtil.sendNotification(packetHandler, title, description, createIcon(plugin, messageConfig).toPacket());
 
-        // Create the icon item with fallback for invalid item IDs
-        ItemStack iconStack;
-        try {
-            iconStack = new ItemStack(messageConfig.iconItem(), 1);
-        } catch (IllegalArgumentException e) {
-            plugin.getLogger().at(Level.WARNING).log(
-                    "Invalid icon item '%s', using default '%s'",
-                    messageConfig.iconItem(), DEFAULT_ICON_ITEM);
-            iconStack = new ItemStack(DEFAULT_ICON_ITEM, 1);
+        if (plugin.getConfig().debug()) {
+            plugin.getLogger().at(Level.INFO).log("Displayed vote toast to player %s", vote.username());
         }
+    }
+
+    /**
+     * Displays one combined toast for votes that were held while the player was offline.
+     *
+     * <p>Uses the icon of the vote toast; shown even if vote toasts are disabled.</p>
+     *
+     * @param plugin   the plugin instance for config and logging
+     * @param username the username of the player who joined
+     * @param votes    the held votes being delivered, never empty
+     */
+    public static void displayInboxToast(HytaleVotifierPlugin plugin, String username, List<Vote> votes) {
+        PlayerRef playerRef = Universe.get().getPlayerByUsername(username, NameMatching.EXACT_IGNORE_CASE);
+        if (playerRef == null) {
+            return;
+        }
+
+        // Distinct voting sites in the order they were voted on
+        Set<String> sites = new LinkedHashSet<>();
+        for (Vote vote : votes) {
+            sites.add(vote.serviceName());
+        }
+        String count = String.valueOf(votes.size());
+        String from = String.join(", ", sites);
+
+        CompiledTemplates templates = plugin.getTemplates();
+        Message title = templates.inboxToastTitle().render(username, count, from);
+        Message description = templates.inboxToastDescription().render(username, count, from);
 
-        // Get packet handler and send notification
         PacketHandler packetHandler = playerRef.getPacketHandler();
-        NotificationUtil.sendNotification(packetHandler, title, description, iconStack.toPacket());
+        NotificationUtil.sendNotification(packetHandler, title, description,
+                createIcon(plugin, plugin.getConfig().voteMessage()).toPacket());
 
         if (plugin.getConfig().debug()) {
-            plugin.getLogger().at(Level.INFO).log("Displayed vote toast to player %s", vote.username());
+            plugin.getLogger().at(Level.INFO).log("Displayed inbox toast for %d vote(s) to player %s", votes.size(), username);
+        }
+    }
+
+    /**
+     * Creates the toast icon item with fallback for invalid item IDs.
+     */
+    private static ItemStack createIcon(HytaleVotifierPlugin plugin, VoteMessageConfig messageConfig) {
+        try {
+            return new ItemStack(messageConfig.iconItem(), 1);
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().at(Level.WARNING).log(
+                    "Invalid icon item '%s', using default '%s'",
+                    messageConfig.iconItem(), DEFAULT_ICON_ITEM);
+            return new ItemStack(DEFAULT_ICON_ITEM, 1);
         }
     }
 }
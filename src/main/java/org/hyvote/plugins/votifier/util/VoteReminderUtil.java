@@ -9,7 +9,6 @@ import com.hypixel.hytale.server.core.util.NotificationUtil;
 import com.hypixel.hytale.server.core.universe.world.SoundUtil;
 import com.hypixel.hytale.server.core.asset.type.soundevent.config.SoundEvent;
 import com.hypixel.hytale.protocol.SoundCategory;
-import io.github.insideranh.talemessage.TaleMessage;
 import org.hyvote.plugins.votifier.HytaleVotifierPlugin;
 import org.hyvote.plugins.votifier.VoteReminderConfig;
 import org.hyvote.plugins.votifier.VoteReminderMessageConfig;
@@ -60,11 +59,13 @@ public final class VoteReminderUtil {
             sendTitle(plugin, playerRef, username, reminderConfig.title());
             sendNotification(plugin, playerRef, username, reminderConfig.notification());
             sendSound(plugin, playerRef, username, reminderConfig.sound());
+            plugin.getMetrics().recordReminder(true);
 
             if (plugin.getConfig().debug()) {
                 plugin.getLogger().at(Level.INFO).log("Sent vote reminders to player %s", username);
             }
         } catch (Exception e) {
+            plugin.getMetrics().recordReminder(false);
             plugin.getLogger().at(Level.WARNING).log(
                     "Error in sendReminders for %s: %s", username, e.getMessage());
             if (plugin.getConfig().debug()) {
@@ -86,7 +87,10 @@ public final class VoteReminderUtil {
             return;
         }
 
-        Message message = TaleMessage.parse(config.text());
+        Message message = plugin.getTemplates().reminderText();
+        if (message == null) {
+            return;
+        }
         playerRef.sendMessage(message);
 
         if (plugin.getConfig().debug()) {
@@ -146,8 +150,9 @@ public final class VoteReminderUtil {
             return;
         }
 
-        Message title = TaleMessage.parse(config.titleMessage());
-        Message description = TaleMessage.parse(config.descriptionMessage());
+        // Title and description are parsed once when the config is loaded
+        Message title = plugin.getTemplates().reminderToastTitle();
+        Message description = plugin.getTemplates().reminderToastDescription();
 
         // Create the icon item with fallback for invalid item IDs
         ItemStack iconStack;
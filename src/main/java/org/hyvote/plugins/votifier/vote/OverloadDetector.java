@@ -0,0 +1,165 @@
+package org.hyvote.plugins.votifier.vote;
+
+import org.hyvote.plugins.votifier.HytaleVotifierPlugin;
+import org.hyvote.plugins.votifier.LoadSheddingConfig;
+import org.hyvote.plugins.votifier.reward.RewardScheduler;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * Decides when the vote endpoints are overloaded, so new requests can be turned away early with a
+ * retry hint instead of queueing until the voting site times out and sends the vote again.
+ *
+ * <p>Two signals are compared against their configured thresholds: how many rewards are waiting
+ * to be executed, and the 95th percentile of recent vote processing times, which also covers slow
+ * decryption, storage and event handlers. Processing times are kept in a fixed ring of samples;
+ * the percentile is recomputed at most every 250ms and only over samples from the last
+ * {@code latencyWindowSeconds}, so it recovers on its own once shedding has let the backlog
+ * drain.</p>
+ *
+ * <p>The retry delay is the recent 95th percentile processing time (at least one second), scaled by
+ * how far the worst signal is over its threshold, plus up to 25% jitter so that shed voting sites
+ * do not all retry at the same moment.</p>
+ */
+public final class OverloadDetector {
+
+    /** Number of processing time samples kept; a power of two. */
+    private static final int SAMPLES = 512;
+
+    /** Fewer recent samples than this are too few for a meaningful percentile. */
+    private static final int MIN_SAMPLES = 20;
+
+    private static final long PERCENTILE_REFRESH_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+
+    private final HytaleVotifierPlugin plugin;
+    private final int maxRewardQueueDepth;
+    private final long maxLatencyNanos;
+    private final long latencyWindowNanos;
+    private final int maxRetryAfterSeconds;
+
+    private final AtomicLongArray latencies = new AtomicLongArray(SAMPLES);
+    private final AtomicLongArray recordedAt = new AtomicLongArray(SAMPLES);
+    private final AtomicLong nextSample = new AtomicLong();
+    private final AtomicBoolean shedding = new AtomicBoolean();
+    private final LongAdder shedRequests = new LongAdder();
+    private volatile long shedRequestsAtOnset;
+    private volatile Percentile percentile = new Percentile(System.nanoTime() - PERCENTILE_REFRESH_NANOS, 0, 0);
+
+    private record Percentile(long computedAt, long p95Nanos, int samples) {}
+
+    /**
+     * Creates a new OverloadDetector.
+     *
+     * @param plugin the plugin instance, for the reward scheduler
+     * @param config the load shedding configuration
+     */
+    public OverloadDetector(HytaleVotifierPlugin plugin, LoadSheddingConfig config) {
+        this.plugin = plugin;
+        this.maxRewardQueueDepth = config.maxRewardQueueDepth();
+        this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(config.maxLatencyMillis());
+        this.latencyWindowNanos = TimeUnit.SECONDS.toNanos(config.latencyWindowSeconds());
+        this.maxRetryAfterSeconds = config.maxRetryAfterSeconds();
+    }
+
+    /**
+     * Records how long a vote request took, from arrival to response.
+     *
+     * @param nanos the processing time in nanoseconds
+     */
+    public void recordLatency(long nanos) {
+        int index = (int) (nextSample.getAndIncrement() & (SAMPLES - 1));
+        latencies.set(index, nanos);
+        recordedAt.set(index, System.nanoTime());
+    }
+
+    /**
+     * Checks whether a new vote request should be shed.
+     *
+     * @return 0 if the request should be processed, otherwise the number of seconds the client
+     *         should wait before retrying
+     */
+    public int retryAfterSeconds() {
+        double rewardLoad = rewardQueueLoad();
+        Percentile current = currentPercentile();
+        double latencyLoad = current.samples() >= MIN_SAMPLES ? (double) current.p95Nanos() / maxLatencyNanos : 0;
+        double load = Math.max(rewardLoad, latencyLoad);
+
+        if (load < 1) {
+            if (shedding.compareAndSet(true, false)) {
+                plugin.getLogger().at(Level.INFO).log("Vote endpoints recovered from overload - %d request(s) were shed",
+                        shedRequests.sum() - shedRequestsAtOnset);
+            }
+            return 0;
+        }
+
+        if (shedding.compareAndSet(false, true)) {
+            shedRequestsAtOnset = shedRequests.sum();
+            plugin.getLogger().at(Level.WARNING).log(
+                    "Vote endpoints overloaded (reward queue %.0f%%, p95 latency %dms) - answering new votes with 503 and Retry-After",
+                    rewardLoad * 100, TimeUnit.NANOSECONDS.toMillis(current.p95Nanos()));
+        }
+        shedRequests.increment();
+
+        double baseSeconds = Math.max(1.0, current.p95Nanos() / 1e9);
+        double jitter = 1 + ThreadLocalRandom.current().nextDouble(0.25);
+        return (int) Math.min(maxRetryAfterSeconds, Math.max(1, Math.ceil(baseSeconds * load * jitter)));
+    }
+
+    /**
+     * Returns the total number of requests shed since startup.
+     *
+     * @return the shed request count
+     */
+    public long getShedRequestCount() {
+        return shedRequests.sum();
+    }
+
+    /**
+     * Returns whether requests are currently being shed.
+     *
+     * @return true while overloaded
+     */
+    public boolean isShedding() {
+        return shedding.get();
+    }
+
+    private double rewardQueueLoad() {
+        RewardScheduler scheduler = plugin.getRewardScheduler();
+        return scheduler != null ? (double) scheduler.getQueueDepth() / maxRewardQueueDepth : 0;
+    }
+
+    /**
+     * Returns the 95th percentile over recent samples, recomputing it if the cached value is stale.
+     */
+    private Percentile currentPercentile() {
+        long now = System.nanoTime();
+        Percentile cached = percentile;
+        if (now - cached.computedAt() < PERCENTILE_REFRESH_NANOS) {
+            return cached;
+        }
+
+        long[] recent = new long[SAMPLES];
+        int count = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            long at = recordedAt.get(i);
+            if (at != 0 && now - at <= latencyWindowNanos) {
+                recent[count++] = latencies.get(i);
+            }
+        }
+        long p95 = 0;
+        if (count > 0) {
+            Arrays.sort(recent, 0, count);
+            p95 = recent[(int) Math.ceil(count * 0.95) - 1];
+        }
+        Percentile updated = new Percentile(now, p95, count);
+        percentile = updated;
+        return updated;
+    }
+}
@@ -0,0 +1,233 @@
+package org.hyvote.plugins.votifier.vote;
+
+import org.hyvote.plugins.votifier.ReplayProtectionConfig;
+import org.hyvote.plugins.votifier.util.TimeBucketedLongSet;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Replay protection for V2 votes received over HTTP.
+ *
+ * <p>Challenges are stateless: each one encodes its expiry time and a random value, authenticated
+ * with an HMAC under a secret generated at startup, so issuing a challenge stores nothing.
+ * Verifying a challenge checks the HMAC and expiry; once the vote is accepted, the challenge is
+ * recorded in a fixed-size {@link TimeBucketedLongSet} so it is accepted only once.</p>
+ *
+ * <p>Votes without a challenge must carry a timestamp within the configured window. Signatures of accepted votes are recorded in a second set covering twice the window,
+ * so a captured payload cannot be replayed while its timestamp is still accepted. All checks are
+ * constant time and memory is allocated once at startup.</p>
+ *
+ * <p>Checking and recording are separate steps: {@link #verify} runs when the payload is parsed
+ * and returns a {@link Ticket}, which is only {@linkplain #accept accepted} once the vote has passed
+ * rate limits and the allowlist. A vote rejected after parsing can therefore be retried, and the
+ * retry of an accepted vote is recognized by {@link #wasAccepted} and acknowledged as a duplicate
+ * instead of being refused.</p>
+ */
+public final class V2ReplayGuard {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    /** Challenge layout: expiry millis (8) | random (8) | truncated HMAC (16). */
+    private static final int CHALLENGE_BYTES = 32;
+    private static final int MAC_BYTES = 16;
+    private static final int BUCKETS = 8;
+
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
+    private final boolean requireChallenge;
+    private final long challengeTtlMillis;
+    private final long timestampWindowMillis;
+    private final byte[] secret = new byte[32];
+    private final ThreadLocal<Mac> macs;
+    private final TimeBucketedLongSet usedChallenges;
+    private final TimeBucketedLongSet usedSignatures;
+
+    /**
+     * A payload that passed {@link #verify}, to be recorded once its vote is accepted.
+     *
+     * @param signatureKey the key of the payload's signature
+     * @param challengeKey the key of the payload's challenge, or null if it had none
+     */
+    public record Ticket(long signatureKey, Long challengeKey) {
+    }
+
+    /**
+     * Creates a new V2ReplayGuard with a fresh challenge secret.
+     *
+     * @param config the replay protection configuration
+     */
+    public V2ReplayGuard(ReplayProtectionConfig config) {
+        this.requireChallenge = Boolean.TRUE.equals(config.requireChallenge());
+        this.challengeTtlMillis = Math.max(1, config.challengeTtlSeconds()) * 1000L;
+        this.timestampWindowMillis = Math.max(1, config.timestampWindowSeconds()) * 1000L;
+        SECURE_RANDOM.nextBytes(secret);
+        this.macs = ThreadLocal.withInitial(this::createMac);
+
+        // A challenge is valid for the TTL; a signature is accepted while its timestamp is within ±window
+        this.usedChallenges = new TimeBucketedLongSet(challengeTtlMillis + challengeTtlMillis / BUCKETS + 1,
+                BUCKETS, config.maxEntries());
+        this.usedSignatures = new TimeBucketedLongSet(2 * timestampWindowMillis + timestampWindowMillis / BUCKETS + 1,
+                BUCKETS, config.maxEntries());
+    }
+
+    /**
+     * Issues a new challenge for a voting site to include in its next signed payload.
+     *
+     * @return the URL-safe Base64 challenge
+     */
+    public String issueChallenge() {
+        ByteBuffer challenge = ByteBuffer.allocate(CHALLENGE_BYTES);
+        challenge.putLong(System.currentTimeMillis() + challengeTtlMillis);
+        challenge.putLong(SECURE_RANDOM.nextLong());
+        challenge.put(sign(challenge.array()), 0, MAC_BYTES);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(challenge.array());
+    }
+
+    /**
+     * Returns how long issued challenges are valid.
+     *
+     * @return the challenge lifetime in seconds
+     */
+    public long getChallengeTtlSeconds() {
+        return challengeTtlMillis / 1000;
+    }
+
+    /**
+     * Checks that a vote with a verified signature is not a replay.
+     *
+     * <p>Must only be called after the signature has been verified. Nothing is recorded until the
+     * returned ticket is passed to {@link #accept}. A payload whose signature was already accepted
+     * passes without further checks, so the caller can acknowledge it as a duplicate.</p>
+     *
+     * @param challenge the challenge from the payload, or null if none was sent
+     * @param signature the verified Base64 signature of the payload
+     * @param timestamp the vote timestamp in epoch milliseconds, or 0 if none was sent
+     * @return the ticket to accept once the vote has been accepted
+     * @throws V2ChallengeException if the challenge is invalid, expired or used, or a vote without a
+     *                              challenge has no timestamp or a stale one
+     */
+    public Ticket verify(String challenge, String signature, long timestamp) throws V2ChallengeException {
+        long now = System.currentTimeMillis();
+        long signatureKey = signatureKey(signature);
+        if (usedSignatures.contains(signatureKey, now)) {
+            return new Ticket(signatureKey, null);
+        }
+
+        Long challengeKey = null;
+        if (challenge != null && !challenge.isBlank()) {
+            challengeKey = verifyChallenge(challenge, now);
+        } else if (requireChallenge) {
+            throw new V2ChallengeException("V2 payload missing challenge");
+        } else if (timestamp <= 0) {
+            // The signature record expires, so without a timestamp the payload could be replayed later
+            throw new V2ChallengeException("V2 payload missing challenge or timestamp");
+        } else if (Math.abs(now - timestamp) > timestampWindowMillis) {
+            throw new V2ChallengeException("Vote timestamp outside the accepted window");
+        }
+        return new Ticket(signatureKey, challengeKey);
+    }
+
+    /**
+     * Returns whether the payload a ticket was issued for has already been accepted.
+     *
+     * @param ticket the ticket returned by {@link #verify}
+     * @return true if the payload's signature was already accepted
+     */
+    public boolean wasAccepted(Ticket ticket) {
+        return usedSignatures.contains(ticket.signatureKey(), System.currentTimeMillis());
+    }
+
+    /**
+     * Records the challenge and signature of an accepted vote so they are not accepted again.
+     *
+     * <p>The challenge is recorded first, and nothing else is recorded if it was already used, so
+     * a challenge is accepted only once even when two payloads carrying it are accepted
+     * concurrently. When this returns false, {@link #wasAccepted} tells a copy of an accepted
+     * payload (a duplicate) apart from another payload that reused its challenge (a replay).</p>
+     *
+     * @param ticket the ticket returned by {@link #verify}
+     * @return true if this is the first acceptance, false if the challenge or signature was already used
+     */
+    public boolean accept(Ticket ticket) {
+        long now = System.currentTimeMillis();
+        if (ticket.challengeKey() != null && !usedChallenges.add(ticket.challengeKey(), now)) {
+            return false;
+        }
+        return usedSignatures.add(ticket.signatureKey(), now);
+    }
+
+    /**
+     * Checks a challenge's HMAC, expiry and use.
+     *
+     * @return the key the challenge is recorded under once accepted
+     */
+    private long verifyChallenge(String challenge, long now) throws V2ChallengeException {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(challenge);
+        } catch (IllegalArgumentException e) {
+            throw new V2ChallengeException("Malformed challenge");
+        }
+        if (bytes.length != CHALLENGE_BYTES) {
+            throw new V2ChallengeException("Malformed challenge");
+        }
+
+        byte[] expected = Arrays.copyOf(sign(bytes), MAC_BYTES);
+        byte[] actual = Arrays.copyOfRange(bytes, CHALLENGE_BYTES - MAC_BYTES, CHALLENGE_BYTES);
+        if (!MessageDigest.isEqual(expected, actual)) {
+            throw new V2ChallengeException("Challenge was not issued by this server");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.getLong(0) < now) {
+            throw new V2ChallengeException("Challenge expired");
+        }
+        // The HMAC is unique per challenge, so its first bytes identify it
+        long key = buffer.getLong(CHALLENGE_BYTES - MAC_BYTES);
+        if (usedChallenges.contains(key, now)) {
+            throw new V2ChallengeException("Challenge already used");
+        }
+        return key;
+    }
+
+    /**
+     * Computes the HMAC over the expiry and random value of a challenge.
+     */
+    private byte[] sign(byte[] challenge) {
+        Mac mac = macs.get();
+        mac.update(challenge, 0, CHALLENGE_BYTES - MAC_BYTES);
+        return mac.doFinal();
+    }
+
+    private static long signatureKey(String signature) {
+        try {
+            byte[] bytes = Base64.getDecoder().decode(signature);
+            if (bytes.length >= Long.BYTES) {
+                return ByteBuffer.wrap(bytes).getLong();
+            }
+        } catch (IllegalArgumentException e) {
+            // Fall through to hashing the text; the signature was already verified
+        }
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < signature.length(); i++) {
+            h = (h ^ signature.charAt(i)) * 0x100000001B3L;
+        }
+        return h;
+    }
+
+    private Mac createMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(secret, HMAC_ALGORITHM));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+}
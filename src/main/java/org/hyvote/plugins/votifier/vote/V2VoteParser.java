@@ -4,6 +4,10 @@ import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
 import org.hyvote.plugins.votifier.VoteSiteTokenConfig;
 import org.hyvote.plugins.votifier.crypto.HmacUtil;
+import org.hyvote.plugins.votifier.jfr.HmacVerifyEvent;
+import org.hyvote.plugins.votifier.jfr.ParseEvent;
+import org.hyvote.plugins.votifier.metrics.VotifierMetrics;
+import org.hyvote.plugins.votifier.vote.ProtocolDetector.Protocol;
 
 /**
  * Parser for Votifier V2 protocol JSON payloads.
@@ -23,6 +27,15 @@ public final class V2VoteParser {
 
     private static final Gson GSON = new Gson();
 
+    /**
+     * A vote parsed with replay protection, and the ticket to accept once the vote is accepted.
+     *
+     * @param vote         the parsed vote
+     * @param replayTicket the replay guard ticket, or null if no replay guard was used
+     */
+    public record GuardedVote(Vote vote, V2ReplayGuard.Ticket replayTicket) {
+    }
+
     private V2VoteParser() {
         // Utility class - prevent instantiation
     }
@@ -39,26 +52,83 @@ public final class V2VoteParser {
     public static Vote parse(String jsonPayload, VoteSiteTokenConfig voteSiteTokenConfig)
             throws VoteParseException, V2SignatureException {
         try {
-            return parse(jsonPayload, voteSiteTokenConfig, null);
+            return parse(jsonPayload, voteSiteTokenConfig, null, null, null).vote();
         } catch (V2ChallengeException e) {
             // Should never happen when expectedChallenge is null
             throw new VoteParseException("Unexpected challenge error", e);
         }
     }
 
+    /**
+     * Parses and verifies a V2 protocol vote payload received over HTTP with replay protection.
+     *
+     * <p>After the signature is verified, the payload's challenge (if any), timestamp and
+     * signature are checked by the replay guard. They are recorded only when the returned
+     * ticket is accepted with {@link V2ReplayGuard#accept}.</p>
+     *
+     * @param jsonPayload the JSON string containing wrapper with payload and signature
+     * @param voteSiteTokenConfig the vote site token configuration for signature verification
+     * @param replayGuard the replay guard, or null to skip replay protection
+     * @param metrics the metrics to record parse and signature verification times in
+     * @return the parsed Vote and its replay ticket
+     * @throws VoteParseException if parsing fails due to invalid format
+     * @throws V2SignatureException if signature verification fails or no token is configured
+     * @throws V2ChallengeException if the vote fails replay protection
+     */
+    public static GuardedVote parse(String jsonPayload, VoteSiteTokenConfig voteSiteTokenConfig, V2ReplayGuard replayGuard,
+                                    VotifierMetrics metrics)
+            throws VoteParseException, V2SignatureException, V2ChallengeException {
+        return parse(jsonPayload, voteSiteTokenConfig, null, replayGuard, metrics);
+    }
+
     /**
      * Parses and verifies a V2 protocol vote payload with optional challenge verification.
      *
      * @param jsonPayload the JSON string containing wrapper with payload and signature
      * @param voteSiteTokenConfig the vote site token configuration for signature verification
      * @param expectedChallenge the expected challenge string (null to skip challenge verification)
+     * @param metrics the metrics to record parse and signature verification times in
      * @return the parsed Vote
      * @throws VoteParseException if parsing fails due to invalid format
      * @throws V2SignatureException if signature verification fails or no token is configured
      * @throws V2ChallengeException if challenge verification fails
      */
-    public static Vote parse(String jsonPayload, VoteSiteTokenConfig voteSiteTokenConfig, String expectedChallenge)
+    public static Vote parse(String jsonPayload, VoteSiteTokenConfig voteSiteTokenConfig, String expectedChallenge,
+                             VotifierMetrics metrics)
             throws VoteParseException, V2SignatureException, V2ChallengeException {
+        return parse(jsonPayload, voteSiteTokenConfig, expectedChallenge, null, metrics).vote();
+    }
+
+    private static GuardedVote parse(String jsonPayload, VoteSiteTokenConfig voteSiteTokenConfig, String expectedChallenge,
+                              V2ReplayGuard replayGuard, VotifierMetrics metrics)
+            throws VoteParseException, V2SignatureException, V2ChallengeException {
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        event.protocol = Protocol.V2_JSON.name();
+        try {
+            GuardedVote guarded = parseAndVerify(jsonPayload, voteSiteTokenConfig, expectedChallenge, replayGuard, metrics);
+            event.service = guarded.vote().serviceName();
+            event.outcome = "success";
+            return guarded;
+        } catch (VoteParseException e) {
+            event.outcome = "parse_error";
+            throw e;
+        } catch (V2SignatureException e) {
+            event.outcome = "signature_error";
+            throw e;
+        } catch (V2ChallengeException e) {
+            event.outcome = "replay_error";
+            throw e;
+        } finally {
+            event.commit();
+        }
+    }
+
+    private static GuardedVote parseAndVerify(String jsonPayload, VoteSiteTokenConfig voteSiteTokenConfig, String expectedChallenge,
+                                       V2ReplayGuard replayGuard, VotifierMetrics metrics)
+            throws VoteParseException, V2SignatureException, V2ChallengeException {
+
+        long start = System.nanoTime();
 
         // Parse outer wrapper
         V2Wrapper wrapper;
@@ -99,6 +169,9 @@ public final class V2VoteParser {
         if (innerPayload.username() == null || innerPayload.username().isBlank()) {
             throw new VoteParseException("V2 payload missing username");
         }
+        if (metrics != null) {
+            metrics.parse(Protocol.V2_JSON).recordSince(start);
+        }
 
         // Verify challenge if expected (socket mode)
         if (expectedChallenge != null) {
@@ -117,7 +190,17 @@ public final class V2VoteParser {
         }
 
         // Verify HMAC signature
-        if (!HmacUtil.verifySignature(wrapper.payload(), wrapper.signature(), token)) {
+        HmacVerifyEvent hmacEvent = new HmacVerifyEvent();
+        hmacEvent.begin();
+        long hmacStart = System.nanoTime();
+        boolean valid = HmacUtil.verifySignature(wrapper.payload(), wrapper.signature(), token);
+        if (metrics != null) {
+            metrics.hmacVerify().recordSince(hmacStart);
+        }
+        hmacEvent.service = innerPayload.serviceName();
+        hmacEvent.valid = valid;
+        hmacEvent.commit();
+        if (!valid) {
             throw new V2SignatureException("Invalid signature for service: " + innerPayload.serviceName());
         }
 
@@ -126,17 +209,28 @@ public final class V2VoteParser {
         if (timestamp > 0 && timestamp < 1_000_000_000_000L) {
             // Likely seconds, convert to milliseconds
             timestamp *= 1000;
-        } else if (timestamp <= 0) {
+        }
+
+        // Reject replayed payloads (HTTP mode); only reached once the signature is verified
+        V2ReplayGuard.Ticket replayTicket = null;
+        if (replayGuard != null) {
+            replayTicket = replayGuard.verify(innerPayload.challenge(), wrapper.signature(), timestamp);
+        }
+
+        boolean timestampProvided = timestamp > 0;
+        if (!timestampProvided) {
             // Fallback to current time if timestamp is invalid
             timestamp = System.currentTimeMillis();
         }
 
-        return new Vote(
+        Vote vote = new Vote(
                 innerPayload.serviceName(),
                 innerPayload.username(),
                 innerPayload.address() != null ? innerPayload.address() : "",
-                timestamp
+                timestamp,
+                timestampProvided
         );
+        return new GuardedVote(vote, replayTicket);
     }
 
     /**
@@ -152,6 +246,6 @@ public final class V2VoteParser {
             String username,
             String address,
             long timestamp,
-            String challenge  // Included for completeness but not verified in HTTP mode
+            String challenge  // Verified against the socket greeting, or by the replay guard in HTTP mode
     ) {}
 }
@@ -20,12 +20,15 @@ package org.hyvote.plugins.votifier.vote;
  * @param username the in-game username of the player who voted
  * @param address the IP address of the voter as reported by the voting site
  * @param timestamp the epoch milliseconds when the vote was cast (or received if unavailable)
+ * @param timestampProvided whether the voting site sent a valid timestamp; false if {@code timestamp}
+ *                          is the time the vote was received
  */
 public record Vote(
         String serviceName,
         String username,
         String address,
-        long timestamp
+        long timestamp,
+        boolean timestampProvided
 ) {
 
     /**
@@ -35,6 +38,7 @@ public record Vote(
      * @param username the player username
      * @param address the voter's IP address
      * @param timestamp the vote timestamp in epoch milliseconds
+     * @param timestampProvided whether the timestamp was sent by the voting site
      * @throws IllegalArgumentException if serviceName or username is null or empty
      */
     public Vote {
@@ -48,4 +52,17 @@ public record Vote(
             address = "";
         }
     }
+
+    /**
+     * Creates a Vote record with a timestamp provided by the voting site.
+     *
+     * @param serviceName the voting site identifier
+     * @param username the player username
+     * @param address the voter's IP address
+     * @param timestamp the vote timestamp in epoch milliseconds
+     * @throws IllegalArgumentException if serviceName or username is null or empty
+     */
+    public Vote(String serviceName, String username, String address, long timestamp) {
+        this(serviceName, username, address, timestamp, true);
+    }
 }
@@ -0,0 +1,92 @@
+package org.hyvote.plugins.votifier.vote;
+
+import org.hyvote.plugins.votifier.VoteDeduplicationConfig;
+import org.hyvote.plugins.votifier.util.TimeBucketedLongSet;
+
+/**
+ * Drops votes that were already received within a time window.
+ *
+ * <p>Each vote is reduced to a 64-bit hash of its service name, username (case-insensitive) and
+ * timestamp, which is remembered in a fixed-size {@link TimeBucketedLongSet}. Shared by all vote
+ * ingress paths (Nitrado and fallback HTTP, socket) so a vote retried over a different transport
+ * is also detected. Lookups never touch storage.</p>
+ *
+ * <p>A vote sent without a valid timestamp carries the time it was received, which differs
+ * between retries, so it is keyed on service name and username alone: a player's second
+ * timestamp-less vote from the same site within the window is treated as a duplicate.</p>
+ */
+public final class VoteDeduplicator {
+
+    /** Number of slices the window is split into; keys are remembered for 7/8 to 8/8 of the window. */
+    private static final int BUCKETS = 8;
+
+    private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private final TimeBucketedLongSet seen;
+
+    /**
+     * Creates a new VoteDeduplicator.
+     *
+     * @param config the deduplication configuration
+     */
+    public VoteDeduplicator(VoteDeduplicationConfig config) {
+        this.seen = new TimeBucketedLongSet(config.windowSeconds() * 1000L, BUCKETS, config.maxEntries());
+    }
+
+    /**
+     * Records a vote and returns whether it is the first copy seen within the window.
+     *
+     * @param vote the received vote
+     * @return true if the vote is new, false if it is a duplicate
+     */
+    public boolean firstSeen(Vote vote) {
+        return seen.add(hash(vote), System.currentTimeMillis());
+    }
+
+    /**
+     * Returns whether a copy of the vote was already received within the window, without recording it.
+     *
+     * @param vote the received vote
+     * @return true if the vote is a duplicate
+     */
+    public boolean seenRecently(Vote vote) {
+        return seen.contains(hash(vote), System.currentTimeMillis());
+    }
+
+    /**
+     * Computes the deduplication key of a vote.
+     *
+     * @param vote the vote
+     * @return a 64-bit FNV-1a hash of the service name, lowercased username and, if the voting
+     *         site sent one, timestamp
+     */
+    static long hash(Vote vote) {
+        long h = FNV_OFFSET;
+        h = hashString(h, vote.serviceName(), false);
+        h = (h ^ 0xFF) * FNV_PRIME; // field separator
+        h = hashString(h, vote.username(), true);
+        if (!vote.timestampProvided()) {
+            return h;
+        }
+        h = (h ^ 0xFF) * FNV_PRIME;
+        long timestamp = vote.timestamp();
+        for (int i = 0; i < 8; i++) {
+            h = (h ^ (timestamp & 0xFF)) * FNV_PRIME;
+            timestamp >>>= 8;
+        }
+        return h;
+    }
+
+    static long hashString(long h, String value, boolean ignoreCase) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (ignoreCase) {
+                c = Character.toLowerCase(c);
+            }
+            h = (h ^ (c & 0xFF)) * FNV_PRIME;
+            h = (h ^ (c >>> 8)) * FNV_PRIME;
+        }
+        return h;
+    }
+}
@@ -1,5 +1,8 @@
 package org.hyvote.plugins.votifier.vote;
 
+import org.hyvote.plugins.votifier.jfr.ParseEvent;
+import org.hyvote.plugins.votifier.vote.ProtocolDetector.Protocol;
+
 import java.nio.charset.StandardCharsets;
 
 /**
@@ -46,11 +49,42 @@ public final class VoteParser {
      * @throws VoteParseException if the data format is invalid
      */
     public static Vote parse(byte[] decryptedData) throws VoteParseException {
-        if (decryptedData == null || decryptedData.length == 0) {
+        if (decryptedData == null) {
+            throw new VoteParseException("Vote data is null or empty");
+        }
+        return parse(decryptedData, 0, decryptedData.length);
+    }
+
+    /**
+     * Parses a slice of decrypted vote data into a Vote record.
+     *
+     * @param buffer the buffer holding the decrypted bytes
+     * @param offset the offset of the vote data in {@code buffer}
+     * @param length the number of bytes of vote data
+     * @return a Vote record containing the parsed vote data
+     * @throws VoteParseException if the data format is invalid
+     */
+    public static Vote parse(byte[] buffer, int offset, int length) throws VoteParseException {
+        if (buffer == null || length == 0) {
             throw new VoteParseException("Vote data is null or empty");
         }
 
-        String data = new String(decryptedData, StandardCharsets.UTF_8);
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        event.protocol = Protocol.V1_RSA.name();
+        event.outcome = "parse_error";
+        try {
+            Vote vote = parseLines(buffer, offset, length);
+            event.service = vote.serviceName();
+            event.outcome = "success";
+            return vote;
+        } finally {
+            event.commit();
+        }
+    }
+
+    private static Vote parseLines(byte[] buffer, int offset, int length) throws VoteParseException {
+        String data = new String(buffer, offset, length, StandardCharsets.UTF_8);
         String[] lines = data.split("\n");
 
         // Validate minimum line count
@@ -75,15 +109,17 @@ public final class VoteParser {
 
         // Parse timestamp with fallback
         long timestamp;
+        boolean timestampProvided = true;
         try {
             timestamp = Long.parseLong(timestampStr);
         } catch (NumberFormatException e) {
             // Fallback to current time if timestamp is invalid
             timestamp = System.currentTimeMillis();
+            timestampProvided = false;
         }
 
         try {
-            return new Vote(serviceName, username, address, timestamp);
+            return new Vote(serviceName, username, address, timestamp, timestampProvided);
         } catch (IllegalArgumentException e) {
             throw new VoteParseException("Invalid vote data: " + e.getMessage(), e);
         }
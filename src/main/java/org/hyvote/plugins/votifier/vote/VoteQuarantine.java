@@ -0,0 +1,130 @@
+package org.hyvote.plugins.votifier.vote;
+
+import com.google.gson.Gson;
+import org.hyvote.plugins.votifier.HytaleVotifierPlugin;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * Keeps votes that exceeded a rate limit for manual review instead of dispatching them.
+ *
+ * <p>Each quarantined vote is appended as one JSON object per line to a file in the plugin data
+ * directory. Quarantined votes are acknowledged to the voting site, so it does not retry them,
+ * but they do not fire {@code VoteEvent} or grant rewards.</p>
+ *
+ * <p>The file is capped at a configured size so a flood of over-limit votes cannot fill the disk.
+ * Once it is full, further votes are counted and dropped; the cap and write failures are logged
+ * once each rather than per vote.</p>
+ */
+public final class VoteQuarantine {
+
+    /** File name of the quarantine log in the plugin data directory. */
+    public static final String FILE_NAME = "quarantine.jsonl";
+
+    private static final Gson GSON = new Gson();
+
+    private final HytaleVotifierPlugin plugin;
+    private final Path file;
+    private final long maxBytes;
+    private final LongAdder quarantinedVotes = new LongAdder();
+    private final LongAdder droppedVotes = new LongAdder();
+
+    // Guarded by this
+    private long size;
+    private boolean full;
+    private boolean failing;
+
+    /**
+     * A quarantined vote as written to the quarantine log.
+     */
+    private record Entry(String serviceName, String username, String address, long timestamp,
+                         long quarantinedAt, String limit) {}
+
+    /**
+     * Creates a new VoteQuarantine writing to {@code file}.
+     *
+     * @param plugin   the plugin instance, used for logging
+     * @param file     the quarantine log file
+     * @param maxBytes the maximum size of the quarantine log
+     */
+    public VoteQuarantine(HytaleVotifierPlugin plugin, Path file, long maxBytes) {
+        this.plugin = plugin;
+        this.file = file;
+        this.maxBytes = maxBytes;
+        this.size = currentSize();
+    }
+
+    /**
+     * Appends a vote to the quarantine log, or drops it if the log is full.
+     *
+     * @param vote  the over-limit vote
+     * @param limit the limit it exceeded
+     */
+    public void add(Vote vote, VoteRateLimiter.Limit limit) {
+        quarantinedVotes.increment();
+        Entry entry = new Entry(vote.serviceName(), vote.username(), vote.address(), vote.timestamp(),
+                System.currentTimeMillis(), limit.name().toLowerCase(Locale.ROOT));
+        byte[] line = (GSON.toJson(entry) + "\n").getBytes(StandardCharsets.UTF_8);
+        synchronized (this) {
+            if (size + line.length > maxBytes && full) {
+                // The file may have been cleared or moved away for review since it filled up
+                size = currentSize();
+            }
+            if (size + line.length > maxBytes) {
+                droppedVotes.increment();
+                if (!full) {
+                    full = true;
+                    plugin.getLogger().at(Level.WARNING).log(
+                            "%s has reached its size limit of %d KiB; further over-limit votes are dropped", file, maxBytes / 1024);
+                }
+                return;
+            }
+            try {
+                Files.write(file, line, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                size += line.length;
+                full = false;
+                failing = false;
+            } catch (IOException e) {
+                droppedVotes.increment();
+                if (!failing) {
+                    failing = true;
+                    plugin.getLogger().at(Level.WARNING).log("Failed to write quarantined votes to %s: %s", file, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private long currentSize() {
+        try {
+            return Files.exists(file) ? Files.size(file) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Returns how many votes were quarantined since startup.
+     *
+     * @return the number of quarantined votes
+     */
+    public long getQuarantinedCount() {
+        return quarantinedVotes.sum();
+    }
+
+    /**
+     * Returns how many quarantined votes could not be written since startup, because the log was
+     * full or writing failed.
+     *
+     * @return the number of dropped votes
+     */
+    public long getDroppedCount() {
+        return droppedVotes.sum();
+    }
+}
@@ -0,0 +1,131 @@
+package org.hyvote.plugins.votifier.vote;
+
+import org.hyvote.plugins.votifier.VoteRateLimitConfig;
+import org.hyvote.plugins.votifier.util.StripedTokenBuckets;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-service and per-player vote rate limits, checked before a vote is dispatched.
+ *
+ * <p>Voting sites and players share one {@link StripedTokenBuckets} table, keyed by a 64-bit
+ * hash of the lowercased service name or username, so a check is two hashes and two short
+ * locked array scans with no allocation. A leaked token for one voting site can therefore only
+ * trigger rewards at that site's configured rate.</p>
+ */
+public final class VoteRateLimiter {
+
+    private static final long SERVICE_SEED = 0x5EB1CE5EB1CE5EB1L;
+    private static final long PLAYER_SEED = 0x91A7E291A7E291A7L;
+
+    /** Over-limit votes are logged at most once per interval, so a flood cannot flood the log. */
+    private static final long LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    /**
+     * The limit a vote exceeded.
+     */
+    public enum Limit {
+        /** The voting site sent votes faster than its rate. */
+        SERVICE,
+        /** The player received votes faster than the per-player rate. */
+        PLAYER
+    }
+
+    private final StripedTokenBuckets buckets;
+    private final long serviceIntervalNanos;
+    private final int serviceBurst;
+    private final Map<String, Long> serviceIntervals;
+    private final long playerIntervalNanos;
+    private final int playerBurst;
+    private final LongAdder overLimitVotes = new LongAdder();
+    private final AtomicLong nextLogAt = new AtomicLong(System.nanoTime());
+    private final LongAdder unloggedVotes = new LongAdder();
+
+    /**
+     * Creates a new VoteRateLimiter.
+     *
+     * @param config the rate limit configuration
+     */
+    public VoteRateLimiter(VoteRateLimitConfig config) {
+        this.buckets = new StripedTokenBuckets(config.maxTrackedKeys());
+        this.serviceIntervalNanos = intervalNanos(config.serviceVotesPerMinute(), TimeUnit.MINUTES);
+        this.serviceBurst = config.serviceBurst();
+        this.playerIntervalNanos = intervalNanos(config.playerVotesPerHour(), TimeUnit.HOURS);
+        this.playerBurst = config.playerBurst();
+
+        Map<String, Long> intervals = new HashMap<>();
+        if (config.perService() != null) {
+            config.perService().forEach((service, perMinute) ->
+                    intervals.put(service.toLowerCase(Locale.ROOT), intervalNanos(perMinute, TimeUnit.MINUTES)));
+        }
+        this.serviceIntervals = Map.copyOf(intervals);
+    }
+
+    /**
+     * Takes a token for the vote's voting site and player.
+     *
+     * <p>Either both tokens are taken or neither is: if the player limit rejects the vote, the
+     * voting site's token is refunded, so a player over their limit does not use up the site's rate.</p>
+     *
+     * @param vote the vote about to be dispatched
+     * @return the limit the vote exceeded, or null if it is within both limits
+     */
+    public Limit check(Vote vote) {
+        long now = System.nanoTime();
+        String service = vote.serviceName().toLowerCase(Locale.ROOT);
+        long serviceInterval = serviceIntervals.getOrDefault(service, serviceIntervalNanos);
+        long serviceKey = VoteDeduplicator.hashString(SERVICE_SEED, service, false);
+        if (serviceInterval > 0 && !buckets.tryAcquire(serviceKey, serviceInterval, serviceBurst, now)) {
+            overLimitVotes.increment();
+            return Limit.SERVICE;
+        }
+        if (playerIntervalNanos > 0 && !buckets.tryAcquire(VoteDeduplicator.hashString(PLAYER_SEED, vote.username(), true),
+                playerIntervalNanos, playerBurst, now)) {
+            if (serviceInterval > 0) {
+                buckets.refund(serviceKey, serviceInterval);
+            }
+            overLimitVotes.increment();
+            return Limit.PLAYER;
+        }
+        return null;
+    }
+
+    /**
+     * Returns how many votes exceeded a limit since startup.
+     *
+     * @return the number of over-limit votes
+     */
+    public long getOverLimitCount() {
+        return overLimitVotes.sum();
+    }
+
+    /**
+     * Decides whether an over-limit vote is logged; at most one is logged per interval.
+     *
+     * @return the number of over-limit votes not logged since the last logged one, or -1 if this
+     *         vote should not be logged
+     */
+    public long claimLogLine() {
+        long now = System.nanoTime();
+        long next = nextLogAt.get();
+        if (now - next < 0 || !nextLogAt.compareAndSet(next, now + LOG_INTERVAL_NANOS)) {
+            unloggedVotes.increment();
+            return -1;
+        }
+        return unloggedVotes.sumThenReset();
+    }
+
+    /**
+     * Converts a rate into the time it takes to refill one token.
+     *
+     * @return the interval in nanoseconds, or 0 if the rate is unlimited (not positive)
+     */
+    private static long intervalNanos(Integer votes, TimeUnit per) {
+        return votes == null || votes <= 0 ? 0 : per.toNanos(1) / votes;
+    }
+}